@@ -0,0 +1,107 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the routing of received messages by topic publisher id.<p>
+ * <p>
+ * It compares the lookup in the {@link TopicPublisherIdTable} using the two longs read from the header with the lookup in a
+ * {@link ConcurrentHashMap} keyed by a new {@link UUID} created for each message, that was the previous way to route the messages.<p>
+ * <p>
+ * Run it with: mvn -P benchmarks verify
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicPublisherIdTableBenchmark {
+    /**
+     * Number of lookups performed per invocation, the ids are looked up in a different order than they have been added
+     */
+    private static final int LOOKUPS = 1024;
+
+    /**
+     * Number of known topic publishers
+     */
+    @Param({"1000", "100000"})
+    private int publishers;
+
+    /**
+     * Table of topic publishers by id
+     */
+    private TopicPublisherIdTable table;
+
+    /**
+     * Map of topic publishers by id
+     */
+    private Map<UUID, TopicPublisherInfo> map;
+
+    /**
+     * Most and least significant bits of the topic publisher ids to look up, as read from the received headers
+     */
+    private long[] lookupIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final UUID[] topicPubIds = new UUID[this.publishers];
+        this.map = new ConcurrentHashMap<>();
+
+        TopicPublisherIdTable newTable = TopicPublisherIdTable.EMPTY;
+        for (int i = 0; i < this.publishers; i++) {
+            topicPubIds[i] = new UUID(random.nextLong(), random.nextLong());
+            final TopicPublisherInfo info = new TopicPublisherInfo(null, topicPubIds[i], null);
+            newTable = newTable.put(info);
+            this.map.put(topicPubIds[i], info);
+        }
+        this.table = newTable;
+
+        this.lookupIds = new long[LOOKUPS * 2];
+        for (int i = 0; i < LOOKUPS; i++) {
+            final UUID topicPubId = topicPubIds[random.nextInt(this.publishers)];
+            this.lookupIds[i * 2] = topicPubId.getMostSignificantBits();
+            this.lookupIds[i * 2 + 1] = topicPubId.getLeastSignificantBits();
+        }
+    }
+
+    @Benchmark
+    public int tableLookup() {
+        int found = 0;
+        for (int i = 0; i < this.lookupIds.length; i += 2) {
+            if (this.table.get(this.lookupIds[i], this.lookupIds[i + 1]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int uuidMapLookup() {
+        int found = 0;
+        for (int i = 0; i < this.lookupIds.length; i += 2) {
+            if (this.map.get(new UUID(this.lookupIds[i], this.lookupIds[i + 1])) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
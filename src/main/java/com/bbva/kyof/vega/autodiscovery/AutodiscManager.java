@@ -8,9 +8,12 @@ import com.bbva.kyof.vega.autodiscovery.publisher.*;
 import com.bbva.kyof.vega.autodiscovery.subscriber.*;
 import com.bbva.kyof.vega.config.general.AutoDiscoType;
 import com.bbva.kyof.vega.config.general.AutoDiscoveryConfig;
+import com.bbva.kyof.vega.util.threads.ISharedTaskRunner;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import io.aeron.Aeron;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.concurrent.SleepingMillisIdleStrategy;
 
@@ -46,6 +49,22 @@ public class AutodiscManager extends RecurrentTask implements IAutodiscManager,
     @Getter
     private final UUID instanceId;
 
+    /**
+     * Parameters of the auto-discovery thread
+     */
+    private final ThreadParams threadParams;
+
+    /**
+     * Shared runner of the manager, null if it runs on its own thread
+     */
+    private final ISharedTaskRunner sharedRunner;
+
+    /**
+     * Listener for the handles of the topic publishers with compact data header, null if none
+     */
+    @Setter
+    private volatile IAutodiscPubHandleListener pubHandleListener = null;
+
     /**
      * Create a new instance of the auto-discovery manager
      *
@@ -54,10 +73,24 @@ public class AutodiscManager extends RecurrentTask implements IAutodiscManager,
      * @param instanceId unique id of the library instance the manager belongs to
      */
     public AutodiscManager(final Aeron aeron, final AutoDiscoveryConfig config, final UUID instanceId) {
+        this(aeron, config, instanceId, null);
+    }
+
+    /**
+     * Create a new instance of the auto-discovery manager
+     *
+     * @param aeron        the Aeron instance
+     * @param config       the auto-discovery configuration
+     * @param instanceId   unique id of the library instance the manager belongs to
+     * @param sharedRunner shared runner of the manager, null to run it on its own thread
+     */
+    public AutodiscManager(final Aeron aeron, final AutoDiscoveryConfig config, final UUID instanceId, final ISharedTaskRunner sharedRunner) {
         // 1 millisecond Idle strategy to prevent auto-discovery from consuming too much CPU
         super(new SleepingMillisIdleStrategy(1));
 
         this.instanceId = instanceId;
+        this.threadParams = config.getThreadParams();
+        this.sharedRunner = sharedRunner;
 
         // Instantiate the right type of senders and receivers
         if (config.getAutoDiscoType() == AutoDiscoType.MULTICAST) {
@@ -74,7 +107,7 @@ public class AutodiscManager extends RecurrentTask implements IAutodiscManager,
 
     @Override
     public void start() {
-        super.start("AutodiscoveryManager_" + this.instanceId);
+        super.start("AutodiscoveryManager_" + this.instanceId, this.threadParams, this.sharedRunner);
     }
 
     @Override
@@ -187,6 +220,12 @@ public class AutodiscManager extends RecurrentTask implements IAutodiscManager,
 
     @Override
     public void onNewTopicInfo(final AutoDiscTopicInfo info) {
+        // Notify the handle of the topic publisher to detect the collisions with the local handles
+        final IAutodiscPubHandleListener handleListener = this.pubHandleListener;
+        if (handleListener != null && info.getPublisherHandle() != AutoDiscTopicInfo.NO_PUBLISHER_HANDLE) {
+            handleListener.onNewPublisherHandle(info);
+        }
+
         // If the info comes from a topic publisher or subscriber that is not end-point
         // we need to send all the information we have about the topic immediately to speed up the auto-discovery time
         switch (info.getTransportType()) {
@@ -16,12 +16,17 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
      */
     public static final int NO_SECURED_CONSTANT = 0;
 
+    /**
+     * Constant for the publisher handle when the topic publisher doesn't use compact data headers or the topic is a subscriber
+     */
+    public static final int NO_PUBLISHER_HANDLE = 0;
+
     /**
      * Serialized size for the members that have a fixed size
      */
     private static final int FIX_MEMBERS_SERIALIZED_SIZE = UnsafeBufferSerializer.BYTE_SIZE +
             (UnsafeBufferSerializer.UUID_SIZE * 2) +
-            UnsafeBufferSerializer.INT_SIZE;
+            UnsafeBufferSerializer.INT_SIZE * 2;
 
     /**
      * Instance id the topic belongs to
@@ -53,6 +58,11 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
     @Getter
     private int securityId;
 
+    /**
+     * Handle of the topic publisher used in the compact data headers, {@link #NO_PUBLISHER_HANDLE} if not used
+     */
+    @Getter
+    private int publisherHandle;
 
     /**
      * Create a new auto discovery topic info message with no security
@@ -76,11 +86,26 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
      * @param securityId    the security if of the topic, 0 if not secured
      */
     public AutoDiscTopicInfo(final UUID instanceId, final AutoDiscTransportType transportType, final UUID uniqueId, final String topicName, final int securityId) {
+        this(instanceId, transportType, uniqueId, topicName, securityId, NO_PUBLISHER_HANDLE);
+    }
+
+    /**
+     * Create a new auto discovery topic info message
+     *
+     * @param instanceId      Instance id the topic belongs to
+     * @param transportType   the transport type of the topic
+     * @param uniqueId        the topic unique id
+     * @param topicName       the name of the topic
+     * @param securityId      the security if of the topic, 0 if not secured
+     * @param publisherHandle the handle of the topic publisher for compact data headers, 0 if not used
+     */
+    public AutoDiscTopicInfo(final UUID instanceId, final AutoDiscTransportType transportType, final UUID uniqueId, final String topicName, final int securityId, final int publisherHandle) {
         this.instanceId = instanceId;
         this.transportType = transportType;
         this.uniqueId = uniqueId;
         this.topicName = topicName;
         this.securityId = securityId;
+        this.publisherHandle = publisherHandle;
     }
 
     /**
@@ -119,6 +144,13 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
         this.uniqueId = buffer.readUUID();
         this.topicName = buffer.readString();
         this.securityId = buffer.readInt();
+
+        // The handle is optional to keep the compatibility with the instances that don't send it
+        if (buffer.getMsgLength() - buffer.getOffset() >= UnsafeBufferSerializer.INT_SIZE) {
+            this.publisherHandle = buffer.readInt();
+        } else {
+            this.publisherHandle = NO_PUBLISHER_HANDLE;
+        }
     }
 
     @Override
@@ -128,6 +160,7 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
         buffer.writeUUID(this.uniqueId);
         buffer.writeString(this.topicName);
         buffer.writeInt(this.securityId);
+        buffer.writeInt(this.publisherHandle);
     }
 
     @Override
@@ -143,6 +176,7 @@ public class AutoDiscTopicInfo implements IAutoDiscTopicInfo {
                 ", uniqueId=" + uniqueId +
                 ", topicName='" + topicName + '\'' +
                 ", securityId=" + securityId +
+                ", publisherHandle=" + publisherHandle +
                 '}';
     }
 }
@@ -0,0 +1,15 @@
+package com.bbva.kyof.vega.autodiscovery.subscriber;
+
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
+
+/**
+ * Listener to receive the handles of the topic publishers that send the data messages with the compact header
+ */
+public interface IAutodiscPubHandleListener {
+    /**
+     * Called when a new autodiscovery topic info with a publisher handle is added, the topic publisher can be local or remote
+     *
+     * @param info the added info
+     */
+    void onNewPublisherHandle(AutoDiscTopicInfo info);
+}
@@ -0,0 +1,41 @@
+package com.bbva.kyof.vega.config.general;
+
+import jakarta.xml.bind.annotation.XmlEnum;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * Represents the policy of an asynchronous topic publisher when there is no room for a message in the ring buffer of the sender
+ */
+@XmlType(name = "AsyncOverflowPolicy")
+@XmlEnum
+public enum AsyncOverflowPolicy {
+    /**
+     * Return the back pressure result to the user immediately
+     */
+    FAIL_FAST,
+    /**
+     * Wait until there is room in the ring buffer
+     */
+    BLOCK,
+    /**
+     * Discard the new message and return OK to the user
+     */
+    DROP_NEWEST;
+
+    /**
+     * @return the value of the async overflow policy
+     */
+    public String value() {
+        return name();
+    }
+
+    /**
+     * Get an async overflow policy from a given value
+     *
+     * @param value of the async overflow policy
+     * @return the async overflow policy
+     */
+    public static AsyncOverflowPolicy fromValue(final String value) {
+        return valueOf(value);
+    }
+}
@@ -3,6 +3,7 @@ package com.bbva.kyof.vega.config.general;
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -152,6 +153,12 @@ public class AutoDiscoveryConfig implements IConfiguration {
     @Getter
     private Boolean isResolveHostname;
 
+    /**
+     * (Optional) Parameters of the auto-discovery thread
+     */
+    @XmlElement(name = "thread")
+    private ThreadConfig thread;
+
     @Override
     public void completeAndValidateConfig() throws VegaException {
         this.checkAutoDiscoveryType();
@@ -167,6 +174,23 @@ public class AutoDiscoveryConfig implements IConfiguration {
         }
 
         this.checkHostname();
+        this.checkThread();
+    }
+
+    /**
+     * Check the parameters of the auto-discovery thread
+     */
+    private void checkThread() throws VegaException {
+        if (this.thread != null) {
+            this.thread.completeAndValidateConfig();
+        }
+    }
+
+    /**
+     * @return the parameters of the auto-discovery thread, the defaults if not configured
+     */
+    public ThreadParams getThreadParams() {
+        return this.thread == null ? ThreadParams.DEFAULT : this.thread.getThreadParams();
     }
 
 
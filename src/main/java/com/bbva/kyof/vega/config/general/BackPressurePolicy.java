@@ -0,0 +1,49 @@
+package com.bbva.kyof.vega.config.general;
+
+import jakarta.xml.bind.annotation.XmlEnum;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * Represents the policy of a topic publisher when a message cannot be sent due to back pressure
+ */
+@XmlType(name = "BackPressurePolicy")
+@XmlEnum
+public enum BackPressurePolicy {
+    /**
+     * Return the back pressure result to the user immediately
+     */
+    FAIL_FAST,
+    /**
+     * Retry the send using the idle strategy until it succeeds or the retry timeout expires
+     */
+    RETRY,
+    /**
+     * Keep the message in a bounded buffer to send it later, dropping the oldest pending message if the buffer is full
+     */
+    DROP_OLDEST,
+    /**
+     * Retry the send using the idle strategy until it succeeds, without timeout
+     */
+    BLOCK,
+    /**
+     * Keep the newest message of each conflation key in a bounded buffer to send it later, replacing the pending message with the same key
+     */
+    CONFLATE;
+
+    /**
+     * @return the value of the back pressure policy
+     */
+    public String value() {
+        return name();
+    }
+
+    /**
+     * Get a back pressure policy from a given value
+     *
+     * @param value of the back pressure policy
+     * @return the back pressure policy
+     */
+    public static BackPressurePolicy fromValue(final String value) {
+        return valueOf(value);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bbva.kyof.vega.config.general;
+
+import jakarta.xml.bind.annotation.XmlEnum;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * Represents the policy of a receiver poller with dispatch workers when there is no room for a message in the queue of a worker
+ */
+@XmlType(name = "DispatchOverflowPolicy")
+@XmlEnum
+public enum DispatchOverflowPolicy {
+    /**
+     * The poller waits until there is room in the queue, nothing is lost but the poller stops polling meanwhile
+     */
+    BLOCK,
+    /**
+     * Discard the new message, the poller keeps polling
+     */
+    DROP_NEWEST;
+
+    /**
+     * @return the value of the dispatch overflow policy
+     */
+    public String value() {
+        return name();
+    }
+
+    /**
+     * Get a dispatch overflow policy from a given value
+     *
+     * @param value of the dispatch overflow policy
+     * @return the dispatch overflow policy
+     */
+    public static DispatchOverflowPolicy fromValue(final String value) {
+        return valueOf(value);
+    }
+}
@@ -4,11 +4,13 @@ import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.PatternEquals;
 import com.bbva.kyof.vega.util.file.FilePathUtil;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.agrona.concurrent.IdleStrategy;
 
 import java.io.IOException;
 import java.util.*;
@@ -25,6 +27,11 @@ import java.util.*;
 @AllArgsConstructor
 @Builder
 public class GlobalConfiguration implements IConfiguration {
+    /**
+     * Default sleep time in nanoseconds of the idle strategy of the shared threads
+     */
+    static final long DEFAULT_SHARED_IDLE_STRATEGY_SLEEP_NANOS = 1_000_000L;
+
     /**
      * Stores the Aeron driver type to use
      */
@@ -47,6 +54,39 @@ public class GlobalConfiguration implements IConfiguration {
     @Getter
     private String externalDriverDir;
 
+    /**
+     * (Optional) How the recurrent tasks of the instance are assigned to threads. DEDICATED by default.
+     */
+    @XmlElement(name = "threading_mode")
+    @Getter
+    private ThreadingMode threadingMode;
+
+    /**
+     * (Optional) Idle strategy of the shared thread that runs the receiver pollers. SLEEP_NANOS by default.
+     */
+    @XmlElement(name = "shared_idle_strategy_type")
+    @Getter
+    private IdleStrategyType sharedIdleStrategyType;
+
+    /**
+     * (Optional) Idle strategy sleep time of the shared thread, only for sleep strategy
+     */
+    @XmlElement(name = "shared_idle_strategy_sleep_nanos")
+    @Getter
+    private Long sharedIdleStrategySleepTime;
+
+    /**
+     * (Optional) Parameters of the shared thread that runs the receiver pollers, it runs all the tasks in SHARED mode
+     */
+    @XmlElement(name = "shared_thread")
+    private ThreadConfig sharedThread;
+
+    /**
+     * (Optional) Parameters of the shared thread of the background tasks in SHARED_NETWORK mode
+     */
+    @XmlElement(name = "shared_background_thread")
+    private ThreadConfig sharedBackgroundThread;
+
     /**
      * Stores all receive poller configurations
      */
@@ -131,6 +171,7 @@ public class GlobalConfiguration implements IConfiguration {
     @Override
     public void completeAndValidateConfig() throws VegaException {
         this.checkMediaDriverConfig();
+        this.checkThreadingMode();
         this.checkRcvPollerConfig();
         this.checkAutodiscConfig();
         this.checkControlRcvConfig();
@@ -180,6 +221,56 @@ public class GlobalConfiguration implements IConfiguration {
         }
     }
 
+    /**
+     * Check the threading mode, the idle strategy and the parameters of the shared threads
+     *
+     * @throws VegaException exception thrown if there is a problem with the parameters of the shared threads
+     */
+    private void checkThreadingMode() throws VegaException {
+        if (this.threadingMode == null) {
+            this.threadingMode = ThreadingMode.DEDICATED;
+        }
+
+        if (this.sharedIdleStrategyType == null) {
+            this.sharedIdleStrategyType = IdleStrategyType.SLEEP_NANOS;
+        }
+
+        if (this.sharedIdleStrategyType == IdleStrategyType.SLEEP_NANOS && this.sharedIdleStrategySleepTime == null) {
+            this.sharedIdleStrategySleepTime = DEFAULT_SHARED_IDLE_STRATEGY_SLEEP_NANOS;
+        }
+
+        if (this.sharedThread != null) {
+            this.sharedThread.completeAndValidateConfig();
+        }
+
+        if (this.sharedBackgroundThread != null) {
+            this.sharedBackgroundThread.completeAndValidateConfig();
+        }
+    }
+
+    /**
+     * @return the parameters of the shared thread that runs the receiver pollers, the defaults if not configured
+     */
+    public ThreadParams getSharedThreadParams() {
+        return this.sharedThread == null ? ThreadParams.DEFAULT : this.sharedThread.getThreadParams();
+    }
+
+    /**
+     * @return the parameters of the shared thread of the background tasks in SHARED_NETWORK mode, the defaults if not configured
+     */
+    public ThreadParams getSharedBackgroundThreadParams() {
+        return this.sharedBackgroundThread == null ? ThreadParams.DEFAULT : this.sharedBackgroundThread.getThreadParams();
+    }
+
+    /**
+     * Create a new idle strategy for the shared thread that runs the receiver pollers
+     *
+     * @return the created idle strategy
+     */
+    public IdleStrategy createSharedIdleStrategy() {
+        return TopicTemplateConfig.createIdleStrategy(this.sharedIdleStrategyType, this.sharedIdleStrategySleepTime);
+    }
+
     /**
      * Check and validate the configuration of reception pollers
      *
@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,6 +28,21 @@ public class RcvPollerConfig implements IConfiguration {
      */
     static final int DEFAULT_MAX_FRAGMENTS_POLL = 1;
 
+    /**
+     * Default max number of fragments per poll of a subscription when the adaptive poll budget is enabled
+     */
+    static final int DEFAULT_ADAPTIVE_MAX_FRAGMENTS_POLL = 64;
+
+    /**
+     * Default min number of fragments per poll of a subscription when the adaptive poll budget is enabled
+     */
+    static final int DEFAULT_ADAPTIVE_MIN_FRAGMENTS_POLL = 1;
+
+    /**
+     * Default max number of messages waiting to be delivered by each dispatch worker
+     */
+    static final int DEFAULT_DISPATCH_QUEUE_SIZE = 1024;
+
     /**
      * Name of receive poller
      */
@@ -48,12 +64,73 @@ public class RcvPollerConfig implements IConfiguration {
     @Getter
     private Integer maxFragmentsPerPoll;
 
+    /**
+     * (Optional) If true the max fragments per poll of each subscription adapts to its traffic. It grows while the subscription
+     * fills the budget and shrinks while it is quiet, between min_fragments_per_poll and max_fragments_per_poll. False by default.
+     */
+    @XmlElement(name = "adaptive_poll_budget")
+    @Getter
+    private Boolean adaptivePollBudget;
+
+    /**
+     * (Optional) Min fragments per poll of a subscription, only used if the adaptive poll budget is enabled
+     */
+    @XmlElement(name = "min_fragments_per_poll")
+    @Getter
+    private Integer minFragmentsPerPoll;
+
     /**
      * (Optional) Idle strategy sleep time, only for sleep strategy
      */
     @XmlElement(name = "idleStrategy_sleep_nanos")
     private Long idleStrategySleepTime;
 
+    /**
+     * (Optional) If settled the received messages are not delivered to the listeners by the poller thread. They are copied into the
+     * queue of one of the given number of worker threads, all the messages of a topic are delivered by the same worker.
+     */
+    @XmlElement(name = "dispatch_worker_threads")
+    @Getter
+    private Integer dispatchWorkerThreads;
+
+    /**
+     * (Optional) Max number of messages waiting to be delivered by each dispatch worker, it has to be a power of 2
+     */
+    @XmlElement(name = "dispatch_queue_size")
+    @Getter
+    private Integer dispatchQueueSize;
+
+    /**
+     * (Optional) What the poller does when there is no room in the queue of a dispatch worker. BLOCK by default.
+     */
+    @XmlElement(name = "dispatch_overflow_policy")
+    @Getter
+    private DispatchOverflowPolicy dispatchOverflowPolicy;
+
+    /**
+     * (Optional) Idle strategy of the dispatch workers when there is nothing to deliver. BACK_OFF by default.
+     */
+    @XmlElement(name = "dispatch_idle_strategy_type")
+    private IdleStrategyType dispatchIdleStrategyType;
+
+    /**
+     * (Optional) Idle strategy sleep time of the dispatch workers, only for sleep strategy
+     */
+    @XmlElement(name = "dispatch_idle_strategy_sleep_nanos")
+    private Long dispatchIdleStrategySleepTime;
+
+    /**
+     * (Optional) Parameters of the poller thread
+     */
+    @XmlElement(name = "thread")
+    private ThreadConfig thread;
+
+    /**
+     * (Optional) Parameters of the dispatch worker threads, the name gets the index of the worker as suffix
+     */
+    @XmlElement(name = "dispatch_thread")
+    private ThreadConfig dispatchThread;
+
     /**
      * Created IdleStrategy for the poller
      */
@@ -89,8 +166,120 @@ public class RcvPollerConfig implements IConfiguration {
                 throw new VegaException("Invalid idle strategy value found");
         }
 
-        if (maxFragmentsPerPoll == null) {
-            maxFragmentsPerPoll = DEFAULT_MAX_FRAGMENTS_POLL;
+        this.checkPollBudget();
+        this.checkDispatch();
+        this.checkThreads();
+    }
+
+    /**
+     * Check the parameters of the poller and dispatch worker threads
+     */
+    private void checkThreads() throws VegaException {
+        if (this.thread != null) {
+            this.thread.completeAndValidateConfig();
+        }
+
+        if (this.dispatchThread != null) {
+            this.dispatchThread.completeAndValidateConfig();
         }
     }
+
+    /**
+     * @return the parameters of the poller thread, the defaults if not configured
+     */
+    public ThreadParams getThreadParams() {
+        return this.thread == null ? ThreadParams.DEFAULT : this.thread.getThreadParams();
+    }
+
+    /**
+     * @return the parameters of the dispatch worker threads, the defaults if not configured
+     */
+    public ThreadParams getDispatchThreadParams() {
+        return this.dispatchThread == null ? ThreadParams.DEFAULT : this.dispatchThread.getThreadParams();
+    }
+
+    /**
+     * Check the max fragments per poll and the adaptive poll budget parameters, the min fragments are only settled if the adaptive
+     * poll budget is enabled
+     */
+    private void checkPollBudget() throws VegaException {
+        if (this.adaptivePollBudget == null) {
+            this.adaptivePollBudget = Boolean.FALSE;
+        }
+
+        if (!this.isAdaptivePollBudget()) {
+            if (this.maxFragmentsPerPoll == null) {
+                this.maxFragmentsPerPoll = DEFAULT_MAX_FRAGMENTS_POLL;
+            }
+            return;
+        }
+
+        if (this.minFragmentsPerPoll == null) {
+            this.minFragmentsPerPoll = DEFAULT_ADAPTIVE_MIN_FRAGMENTS_POLL;
+        } else if (this.minFragmentsPerPoll <= 0) {
+            throw new VegaException("The min fragments per poll on RcvPollerConfig should be greater than 0");
+        }
+
+        if (this.maxFragmentsPerPoll == null) {
+            this.maxFragmentsPerPoll = Math.max(DEFAULT_ADAPTIVE_MAX_FRAGMENTS_POLL, this.minFragmentsPerPoll);
+        } else if (this.maxFragmentsPerPoll < this.minFragmentsPerPoll) {
+            throw new VegaException("The max fragments per poll on RcvPollerConfig should not be lower than the min fragments per poll");
+        }
+    }
+
+    /**
+     * @return true if the max fragments per poll of each subscription adapts to its traffic
+     */
+    public boolean isAdaptivePollBudget() {
+        return Boolean.TRUE.equals(this.adaptivePollBudget);
+    }
+
+    /**
+     * Check the dispatch parameters, they are only settled if the dispatch workers are enabled
+     */
+    private void checkDispatch() throws VegaException {
+        if (this.dispatchWorkerThreads == null) {
+            return;
+        }
+
+        if (this.dispatchWorkerThreads <= 0) {
+            throw new VegaException("The number of dispatch worker threads on RcvPollerConfig should be greater than 0");
+        }
+
+        if (this.dispatchQueueSize == null) {
+            this.dispatchQueueSize = DEFAULT_DISPATCH_QUEUE_SIZE;
+        } else if (this.dispatchQueueSize <= 0 || Integer.bitCount(this.dispatchQueueSize) != 1) {
+            throw new VegaException("The dispatch queue size on RcvPollerConfig should be a power of 2");
+        }
+
+        if (this.dispatchOverflowPolicy == null) {
+            this.dispatchOverflowPolicy = DispatchOverflowPolicy.BLOCK;
+        }
+
+        if (this.dispatchIdleStrategyType == null) {
+            this.dispatchIdleStrategyType = IdleStrategyType.BACK_OFF;
+        } else if (this.dispatchIdleStrategyType == IdleStrategyType.SLEEP_NANOS && this.dispatchIdleStrategySleepTime == null) {
+            throw new VegaException("Sleep time should be provided when sleep nanos dispatch idle strategy is used");
+        }
+    }
+
+    /**
+     * @return true if the received messages are delivered by dispatch workers instead of the poller thread
+     */
+    public boolean isDispatchEnabled() {
+        return this.dispatchWorkerThreads != null;
+    }
+
+    /**
+     * Create a new idle strategy for a dispatch worker, each worker needs its own instance
+     *
+     * @return the created idle strategy, null if the dispatch workers are not enabled
+     */
+    public IdleStrategy createDispatchIdleStrategy() {
+        if (this.dispatchIdleStrategyType == null) {
+            return null;
+        }
+
+        return TopicTemplateConfig.createIdleStrategy(this.dispatchIdleStrategyType, this.dispatchIdleStrategySleepTime);
+    }
 }
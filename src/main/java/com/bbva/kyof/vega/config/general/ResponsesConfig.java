@@ -3,6 +3,7 @@ package com.bbva.kyof.vega.config.general;
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -90,6 +91,19 @@ public class ResponsesConfig implements IConfiguration {
     @Getter
     private Boolean isResolveHostname;
 
+    /**
+     * (Optional) Max number of sent request objects kept for reuse once closed or expired, 0 to disable the reuse
+     */
+    @XmlElement(name = "sent_request_pool_size")
+    @Getter
+    private Integer sentRequestPoolSize;
+
+    /**
+     * (Optional) Parameters of the thread that expires the sent requests
+     */
+    @XmlElement(name = "request_manager_thread")
+    private ThreadConfig requestManagerThread;
+
     @Override
     public void completeAndValidateConfig() throws VegaException {
         this.checkPorts();
@@ -97,6 +111,37 @@ public class ResponsesConfig implements IConfiguration {
         this.checkSubnet();
         this.checkRcvPoller();
         this.checkHostname();
+        this.checkSentRequestPoolSize();
+        this.checkRequestManagerThread();
+    }
+
+    /**
+     * Check the parameters of the thread that expires the sent requests
+     */
+    private void checkRequestManagerThread() throws VegaException {
+        if (this.requestManagerThread != null) {
+            this.requestManagerThread.completeAndValidateConfig();
+        }
+    }
+
+    /**
+     * @return the parameters of the thread that expires the sent requests, the defaults if not configured
+     */
+    public ThreadParams getRequestManagerThreadParams() {
+        return this.requestManagerThread == null ? ThreadParams.DEFAULT : this.requestManagerThread.getThreadParams();
+    }
+
+    /**
+     * Check the size of the pool of sent requests
+     */
+    private void checkSentRequestPoolSize() throws VegaException {
+        if (this.sentRequestPoolSize == null) {
+            this.sentRequestPoolSize = 0;
+        }
+
+        if (this.sentRequestPoolSize < 0) {
+            throw new VegaException("The sent request pool size in responses configuration cannot be negative");
+        }
     }
 
     /**
@@ -0,0 +1,121 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.config.IConfiguration;
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlTransient;
+import jakarta.xml.bind.annotation.XmlType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.TreeSet;
+
+/**
+ * Configuration of a thread of the library: name, CPU affinity, priority and daemon flag. All the parameters are optional.
+ * <p>
+ * The CPU affinity is a list of CPUs and ranges of CPUs separated by commas, for example "0,2-3".
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "ThreadConfig")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreadConfig implements IConfiguration {
+    /**
+     * (Optional) Name of the thread, it replaces the default name
+     */
+    @XmlElement(name = "name")
+    @Getter
+    private String name;
+
+    /**
+     * (Optional) CPUs the thread is pinned to
+     */
+    @XmlElement(name = "cpu_affinity")
+    @Getter
+    private String cpuAffinity;
+
+    /**
+     * (Optional) Priority of the thread, from 1 to 10
+     */
+    @XmlElement(name = "priority")
+    @Getter
+    private Integer priority;
+
+    /**
+     * (Optional) True if the thread is a daemon thread
+     */
+    @XmlElement(name = "daemon")
+    @Getter
+    private Boolean daemon;
+
+    /**
+     * Thread parameters created from the configuration
+     */
+    @XmlTransient
+    @Getter
+    private ThreadParams threadParams;
+
+    @Override
+    public void completeAndValidateConfig() throws VegaException {
+        if (this.name != null && this.name.trim().isEmpty()) {
+            throw new VegaException("The name on ThreadConfig should not be empty");
+        }
+
+        if (this.priority != null && (this.priority < Thread.MIN_PRIORITY || this.priority > Thread.MAX_PRIORITY)) {
+            throw new VegaException("The priority on ThreadConfig should be between " + Thread.MIN_PRIORITY + " and " + Thread.MAX_PRIORITY);
+        }
+
+        this.threadParams = ThreadParams.builder().
+                name(this.name).
+                cpuAffinity(this.cpuAffinity == null ? null : parseCpuList(this.cpuAffinity)).
+                priority(this.priority).
+                daemon(this.daemon).
+                build();
+    }
+
+    /**
+     * Parse a list of CPUs and ranges of CPUs separated by commas
+     *
+     * @param cpuList the list to parse
+     * @return the sorted CPUs of the list without duplicates
+     * @throws VegaException if the list is not valid
+     */
+    static int[] parseCpuList(final String cpuList) throws VegaException {
+        final TreeSet<Integer> cpus = new TreeSet<>();
+
+        try {
+            for (final String element : cpuList.split(",")) {
+                final String trimmed = element.trim();
+                final int rangeSeparator = trimmed.indexOf('-');
+
+                final int first;
+                final int last;
+                if (rangeSeparator < 0) {
+                    first = Integer.parseInt(trimmed);
+                    last = first;
+                } else {
+                    first = Integer.parseInt(trimmed.substring(0, rangeSeparator).trim());
+                    last = Integer.parseInt(trimmed.substring(rangeSeparator + 1).trim());
+                }
+
+                if (first < 0 || last < first) {
+                    throw new VegaException("Invalid cpu range [" + trimmed + "] on ThreadConfig cpu affinity " + cpuList);
+                }
+
+                for (int cpu = first; cpu <= last; cpu++) {
+                    cpus.add(cpu);
+                }
+            }
+        } catch (final NumberFormatException e) {
+            throw new VegaException("Invalid cpu affinity on ThreadConfig " + cpuList, e);
+        }
+
+        return cpus.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
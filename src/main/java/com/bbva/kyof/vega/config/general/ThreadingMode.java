@@ -0,0 +1,45 @@
+package com.bbva.kyof.vega.config.general;
+
+import jakarta.xml.bind.annotation.XmlEnum;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * Represents how the recurrent tasks of a library instance are assigned to threads
+ */
+@XmlType(name = "ThreadingMode")
+@XmlEnum
+public enum ThreadingMode {
+    /**
+     * Each task runs on its own thread: auto-discovery, request manager, control messages poller and each receiver poller
+     */
+    DEDICATED,
+    /**
+     * The auto-discovery, request manager and control messages poller share a thread, all the receiver pollers share another one
+     */
+    SHARED_NETWORK,
+    /**
+     * All the tasks share a single thread
+     */
+    SHARED,
+    /**
+     * No threads are started, the application executes the tasks calling doWork on the instance
+     */
+    INVOKER;
+
+    /**
+     * @return the value of the threading mode
+     */
+    public String value() {
+        return name();
+    }
+
+    /**
+     * Get a threading mode from a given value
+     *
+     * @param value of the threading mode
+     * @return the threading mode
+     */
+    public static ThreadingMode fromValue(final String value) {
+        return valueOf(value);
+    }
+}
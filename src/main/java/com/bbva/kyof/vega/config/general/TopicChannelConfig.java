@@ -0,0 +1,52 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.config.IConfiguration;
+import com.bbva.kyof.vega.exception.VegaException;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the explicit channel of a topic in a topic template. The channel is an index in the combinations of multicast address,
+ * port and stream of the template, topics with different channels never share the same Aeron channel and stream.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "TopicChannelConfig")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopicChannelConfig implements IConfiguration {
+    /**
+     * Name of the topic
+     */
+    @XmlAttribute(name = "topic", required = true)
+    @Getter
+    private String topic;
+
+    /**
+     * Channel assigned to the topic
+     */
+    @XmlAttribute(name = "channel", required = true)
+    @Getter
+    private Integer channel;
+
+    @Override
+    public void completeAndValidateConfig() throws VegaException {
+        if (this.topic == null) {
+            throw new VegaException("Missing compulsory element topic in TopicChannelConfig");
+        }
+
+        if (this.channel == null) {
+            throw new VegaException("Missing compulsory element channel in TopicChannelConfig");
+        }
+
+        if (this.channel < 0) {
+            throw new VegaException("The channel of the topic " + this.topic + " should not be negative");
+        }
+    }
+}
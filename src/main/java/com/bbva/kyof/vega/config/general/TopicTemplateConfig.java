@@ -2,12 +2,23 @@ package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.config.IConfiguration;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
 import jakarta.xml.bind.annotation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.SleepingIdleStrategy;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Represent the configuration of a topic template
@@ -53,6 +64,66 @@ public class TopicTemplateConfig implements IConfiguration {
      */
     static final String DEFAULT_MULTICAST_HIGH = "225.0.0.20";
 
+    /**
+     * Minimum size in bytes of a batch of messages, it has to leave room for the headers and some messages
+     */
+    static final int MIN_BATCH_MAX_SIZE = 128;
+
+    /**
+     * Default time in milliseconds a message can wait in a batch before it is sent
+     */
+    static final int DEFAULT_BATCH_LINGER_TIME = 1;
+
+    /**
+     * Default max time in nanoseconds to retry a send with the retry back pressure policy
+     */
+    static final long DEFAULT_BACK_PRESSURE_RETRY_TIMEOUT = 1_000_000L;
+
+    /**
+     * Default max number of pending messages with the drop oldest back pressure policy
+     */
+    static final int DEFAULT_BACK_PRESSURE_BUFFER_SIZE = 1024;
+
+    /**
+     * Minimum size in bytes of the ring buffer of an asynchronous publisher
+     */
+    static final int MIN_ASYNC_PUBLISHER_BUFFER_SIZE = 4096;
+
+    /**
+     * Default priority of the subscriptions of the topics in the receiver poller
+     */
+    static final int DEFAULT_RCV_POLL_PRIORITY = 0;
+
+    /**
+     * Minimum number of messages of the retransmission window of a topic publisher
+     */
+    static final int MIN_RETRANSMISSION_WINDOW_SIZE = 2;
+
+    /**
+     * Default size in bytes of the buffer of the retransmission window of a topic publisher
+     */
+    static final int DEFAULT_RETRANSMISSION_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Minimum size in bytes of the buffer of the retransmission window of a topic publisher
+     */
+    static final int MIN_RETRANSMISSION_BUFFER_SIZE = 4096;
+
+    /**
+     * Default max time in milliseconds a subscriber waits for the retransmission of lost messages before reporting them as lost
+     */
+    static final int DEFAULT_GAP_FILL_TIMEOUT = 100;
+
+    /**
+     * Minimum number of out of order messages of the reordering window of a topic subscriber
+     */
+    static final int MIN_REORDER_WINDOW_SIZE = 2;
+
+    /**
+     * Default max time in milliseconds a topic subscriber holds out of order messages waiting for the missing ones
+     */
+    static final int DEFAULT_REORDER_TIMEOUT = 10;
+
     /**
      * Name of the topic template
      */
@@ -137,6 +208,166 @@ public class TopicTemplateConfig implements IConfiguration {
     @Getter
     private Boolean isResolveHostname;
 
+    /**
+     * (Optional) True if the topic publishers of the template are owned by a single thread. In that case the publisher
+     * uses an Aeron exclusive publication and takes no lock on the send path. False by default.
+     */
+    @XmlElement(name = "thread_confined_publisher")
+    @Getter
+    private Boolean threadConfinedPublisher;
+
+    /**
+     * (Optional) If settled the topic publishers will coalesce consecutive messages into batches of up to the given size in
+     * bytes, headers included. It should fit in the MTU of the transport. Batching is disabled if not settled.
+     */
+    @XmlElement(name = "batch_max_size")
+    @Getter
+    private Integer batchMaxSize;
+
+    /**
+     * (Optional) Max time in milliseconds a message can wait in a batch before it is sent, only used if batching is enabled
+     */
+    @XmlElement(name = "batch_linger_time")
+    @Getter
+    private Integer batchLingerTime;
+
+    /**
+     * (Optional) Only for unicast. If true the topic publishers send each message once through an Aeron multi-destination-cast
+     * publication that fans out to all the subscribers with the same stream, instead of once per subscriber. False by default.
+     */
+    @XmlElement(name = "unicast_mdc")
+    @Getter
+    private Boolean unicastMdc;
+
+    /**
+     * (Optional) What the topic publishers do when a message cannot be sent due to back pressure. FAIL_FAST by default.
+     */
+    @XmlElement(name = "back_pressure_policy")
+    @Getter
+    private BackPressurePolicy backPressurePolicy;
+
+    /**
+     * (Optional) Max time in nanoseconds to retry a send, only for the retry back pressure policy
+     */
+    @XmlElement(name = "back_pressure_retry_timeout_nanos")
+    @Getter
+    private Long backPressureRetryTimeout;
+
+    /**
+     * (Optional) Idle strategy between retries, only for the retry and block back pressure policies. BACK_OFF by default.
+     */
+    @XmlElement(name = "back_pressure_idle_strategy_type")
+    @Getter
+    private IdleStrategyType backPressureIdleStrategyType;
+
+    /**
+     * (Optional) Idle strategy sleep time between retries, only for sleep strategy
+     */
+    @XmlElement(name = "back_pressure_idle_strategy_sleep_nanos")
+    @Getter
+    private Long backPressureIdleStrategySleepTime;
+
+    /**
+     * (Optional) Max number of pending messages per topic publisher, only for the drop oldest and conflate back pressure policies
+     */
+    @XmlElement(name = "back_pressure_buffer_size")
+    @Getter
+    private Integer backPressureBufferSize;
+
+    /**
+     * (Optional) If settled the topic publishers are asynchronous, the messages are copied into a ring buffer of the given size in
+     * bytes and sent by a dedicated sender thread. It has to be a power of 2. The publishers are synchronous if not settled.
+     */
+    @XmlElement(name = "async_publisher_buffer_size")
+    @Getter
+    private Integer asyncPublisherBufferSize;
+
+    /**
+     * (Optional) What the asynchronous topic publishers do when there is no room in the ring buffer. FAIL_FAST by default.
+     */
+    @XmlElement(name = "async_overflow_policy")
+    @Getter
+    private AsyncOverflowPolicy asyncOverflowPolicy;
+
+    /**
+     * (Optional) Idle strategy of the sender thread of the asynchronous topic publishers. BACK_OFF by default.
+     */
+    @XmlElement(name = "async_sender_idle_strategy_type")
+    @Getter
+    private IdleStrategyType asyncSenderIdleStrategyType;
+
+    /**
+     * (Optional) Idle strategy sleep time of the sender thread, only for sleep strategy
+     */
+    @XmlElement(name = "async_sender_idle_strategy_sleep_nanos")
+    @Getter
+    private Long asyncSenderIdleStrategySleepTime;
+
+    /**
+     * (Optional) If true the topic publishers identify themselves in the data messages with a 32 bit handle advertised by
+     * auto-discovery instead of the instance and topic publisher ids. It is ignored on secure topics. False by default.
+     */
+    @XmlElement(name = "compact_data_header")
+    @Getter
+    private Boolean compactDataHeader;
+
+    /**
+     * (Optional) Priority of the subscriptions of the topics in the receiver poller, the subscriptions with higher priority are polled
+     * first on each poll cycle. 0 by default.
+     */
+    @XmlElement(name = "rcv_poll_priority")
+    private Integer rcvPollPriority;
+
+    /**
+     * (Optional) Explicit channels of topics of the template. The topics that are not in the list select the channel from the
+     * hash of the topic name and may share it with other topics.
+     */
+    @XmlElement(name = "topic_channel")
+    private List<TopicChannelConfig> topicChannels;
+
+    /**
+     * (Optional) If settled the topic publishers keep the given number of last sent messages to retransmit them when a subscriber
+     * reports a gap. It has to be a power of 2. Gap recovery is disabled if not settled.
+     */
+    @XmlElement(name = "retransmission_window_size")
+    @Getter
+    private Integer retransmissionWindowSize;
+
+    /**
+     * (Optional) Size in bytes of the off-heap buffer of the retransmission window, only used if gap recovery is enabled
+     */
+    @XmlElement(name = "retransmission_buffer_size")
+    @Getter
+    private Integer retransmissionBufferSize;
+
+    /**
+     * (Optional) Max time in milliseconds a subscriber waits for the retransmission of lost messages, only used if gap recovery is enabled
+     */
+    @XmlElement(name = "gap_fill_timeout")
+    @Getter
+    private Integer gapFillTimeout;
+
+    /**
+     * (Optional) If settled the topic subscribers hold up to the given number of out of order messages of each topic publisher and
+     * deliver them in order once the missing ones arrive. It has to be a power of 2. Reordering is disabled if not settled.
+     */
+    @XmlElement(name = "reorder_window_size")
+    @Getter
+    private Integer reorderWindowSize;
+
+    /**
+     * (Optional) Max time in milliseconds the out of order messages are held, only used if reordering is enabled
+     */
+    @XmlElement(name = "reorder_timeout")
+    @Getter
+    private Integer reorderTimeout;
+
+    /**
+     * Explicit channel of each topic by topic name
+     */
+    @XmlTransient
+    private final Map<String, Integer> channelsByTopic = new HashMap<>();
+
     @Override
     public void completeAndValidateConfig() throws VegaException {
         this.checkName();
@@ -150,6 +381,16 @@ public class TopicTemplateConfig implements IConfiguration {
         }
 
         this.checkNumStreams();
+        this.checkThreadConfinedPublisher();
+        this.checkBatching();
+        this.checkUnicastMdc();
+        this.checkAsyncPublisher();
+        this.checkBackPressure();
+        this.checkCompactDataHeader();
+        this.checkRcvPollPriority();
+        this.checkTopicChannels();
+        this.checkRetransmission();
+        this.checkReordering();
 
         if (transportType != TransportMediaType.IPC) {
             this.checkSubnet();
@@ -210,6 +451,390 @@ public class TopicTemplateConfig implements IConfiguration {
         }
     }
 
+    /**
+     * Check the thread confined publisher flag, false if not settled
+     */
+    private void checkThreadConfinedPublisher() {
+        if (this.threadConfinedPublisher == null) {
+            this.threadConfinedPublisher = Boolean.FALSE;
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template are owned by a single thread
+     */
+    public boolean isThreadConfinedPublisher() {
+        return Boolean.TRUE.equals(this.threadConfinedPublisher);
+    }
+
+    /**
+     * Check the batching parameters, the linger time is only settled if batching is enabled
+     */
+    private void checkBatching() throws VegaException {
+        if (this.batchMaxSize == null) {
+            return;
+        }
+
+        if (this.batchMaxSize < MIN_BATCH_MAX_SIZE) {
+            throw new VegaException("The batch max size in topic template configuration should be at least " + MIN_BATCH_MAX_SIZE);
+        }
+
+        if (this.batchLingerTime == null) {
+            this.batchLingerTime = DEFAULT_BATCH_LINGER_TIME;
+        } else if (this.batchLingerTime <= 0) {
+            throw new VegaException("The batch linger time in topic template configuration should be greater than 0");
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template should batch consecutive messages
+     */
+    public boolean isBatchingEnabled() {
+        return this.batchMaxSize != null;
+    }
+
+    /**
+     * Check the unicast multi-destination-cast flag, false if not settled. It is ignored if the transport is not unicast.
+     */
+    private void checkUnicastMdc() {
+        if (this.unicastMdc == null || this.transportType != TransportMediaType.UNICAST) {
+            this.unicastMdc = Boolean.FALSE;
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template should use multi-destination-cast to send to the unicast subscribers
+     */
+    public boolean isUnicastMdc() {
+        return Boolean.TRUE.equals(this.unicastMdc);
+    }
+
+    /**
+     * Check the asynchronous publisher parameters, they are only settled if the asynchronous mode is enabled
+     */
+    private void checkAsyncPublisher() throws VegaException {
+        if (this.asyncPublisherBufferSize == null) {
+            return;
+        }
+
+        if (this.asyncPublisherBufferSize < MIN_ASYNC_PUBLISHER_BUFFER_SIZE || Integer.bitCount(this.asyncPublisherBufferSize) != 1) {
+            throw new VegaException("The async publisher buffer size in topic template configuration should be a power of 2 of at least " + MIN_ASYNC_PUBLISHER_BUFFER_SIZE);
+        }
+
+        if (this.isThreadConfinedPublisher()) {
+            throw new VegaException("Async publishers cannot be thread confined in topic template configuration");
+        }
+
+        if (this.asyncOverflowPolicy == null) {
+            this.asyncOverflowPolicy = AsyncOverflowPolicy.FAIL_FAST;
+        }
+
+        if (this.asyncSenderIdleStrategyType == null) {
+            this.asyncSenderIdleStrategyType = IdleStrategyType.BACK_OFF;
+        } else if (this.asyncSenderIdleStrategyType == IdleStrategyType.SLEEP_NANOS && this.asyncSenderIdleStrategySleepTime == null) {
+            throw new VegaException("Sleep time should be provided when sleep nanos async sender idle strategy is used");
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template should send the messages from a dedicated sender thread
+     */
+    public boolean isAsyncPublisher() {
+        return this.asyncPublisherBufferSize != null;
+    }
+
+    /**
+     * Create a new idle strategy for the sender thread of an asynchronous topic publisher
+     *
+     * @return the created idle strategy, null if the publishers are not asynchronous
+     */
+    public IdleStrategy createAsyncSenderIdleStrategy() {
+        if (this.asyncSenderIdleStrategyType == null) {
+            return null;
+        }
+
+        return createIdleStrategy(this.asyncSenderIdleStrategyType, this.asyncSenderIdleStrategySleepTime);
+    }
+
+    /**
+     * Check the back pressure parameters, the parameters that are not used by the policy are ignored. Asynchronous publishers
+     * block by default since the back pressure is absorbed by the sender thread. Conflation is not compatible with batching or
+     * asynchronous publishers since the messages are no longer sent one by one from the user thread.
+     */
+    private void checkBackPressure() throws VegaException {
+        if (this.backPressurePolicy == null) {
+            this.backPressurePolicy = this.isAsyncPublisher() ? BackPressurePolicy.BLOCK : BackPressurePolicy.FAIL_FAST;
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicy.RETRY) {
+            if (this.backPressureRetryTimeout == null) {
+                this.backPressureRetryTimeout = DEFAULT_BACK_PRESSURE_RETRY_TIMEOUT;
+            } else if (this.backPressureRetryTimeout <= 0) {
+                throw new VegaException("The back pressure retry timeout in topic template configuration should be greater than 0");
+            }
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicy.RETRY || this.backPressurePolicy == BackPressurePolicy.BLOCK) {
+            if (this.backPressureIdleStrategyType == null) {
+                this.backPressureIdleStrategyType = IdleStrategyType.BACK_OFF;
+            } else if (this.backPressureIdleStrategyType == IdleStrategyType.SLEEP_NANOS && this.backPressureIdleStrategySleepTime == null) {
+                throw new VegaException("Sleep time should be provided when sleep nanos back pressure idle strategy is used");
+            }
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicy.CONFLATE && (this.isBatchingEnabled() || this.isAsyncPublisher())) {
+            throw new VegaException("The conflate back pressure policy cannot be used with batching or asynchronous publishers");
+        }
+
+        if (this.backPressurePolicy == BackPressurePolicy.DROP_OLDEST || this.backPressurePolicy == BackPressurePolicy.CONFLATE) {
+            if (this.backPressureBufferSize == null) {
+                this.backPressureBufferSize = DEFAULT_BACK_PRESSURE_BUFFER_SIZE;
+            } else if (this.backPressureBufferSize <= 0) {
+                throw new VegaException("The back pressure buffer size in topic template configuration should be greater than 0");
+            }
+        }
+    }
+
+    /**
+     * Create a new idle strategy to wait between retries. A new instance is created for each topic publisher since they are not thread safe.
+     *
+     * @return the created idle strategy, null if the back pressure policy doesn't retry
+     */
+    public IdleStrategy createBackPressureIdleStrategy() {
+        if (this.backPressureIdleStrategyType == null) {
+            return null;
+        }
+
+        return createIdleStrategy(this.backPressureIdleStrategyType, this.backPressureIdleStrategySleepTime);
+    }
+
+    /**
+     * Create a new idle strategy of the given type
+     *
+     * @param type      the type of the idle strategy
+     * @param sleepTime the sleep time in nanoseconds, only for sleep strategy
+     * @return the created idle strategy
+     */
+    static IdleStrategy createIdleStrategy(final IdleStrategyType type, final Long sleepTime) {
+        switch (type) {
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+            case SLEEP_NANOS:
+                return new SleepingIdleStrategy(sleepTime);
+            default:
+                return new BackoffIdleStrategy();
+        }
+    }
+
+    /**
+     * Check the compact data header flag, false if not settled
+     */
+    private void checkCompactDataHeader() {
+        if (this.compactDataHeader == null) {
+            this.compactDataHeader = Boolean.FALSE;
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template should send the data messages with the compact header
+     */
+    public boolean isCompactDataHeader() {
+        return Boolean.TRUE.equals(this.compactDataHeader);
+    }
+
+    /**
+     * Check the receive poll priority, 0 if not settled
+     */
+    private void checkRcvPollPriority() {
+        if (this.rcvPollPriority == null) {
+            this.rcvPollPriority = DEFAULT_RCV_POLL_PRIORITY;
+        }
+    }
+
+    /**
+     * @return the priority of the subscriptions of the topics in the receiver poller
+     */
+    public int getRcvPollPriority() {
+        return this.rcvPollPriority == null ? DEFAULT_RCV_POLL_PRIORITY : this.rcvPollPriority;
+    }
+
+    /**
+     * Check the gap recovery parameters, they are only settled if the retransmission window is enabled. The thread confined publishers
+     * cannot retransmit since the retransmissions are sent from the receiver poller of the instance.
+     */
+    private void checkRetransmission() throws VegaException {
+        if (this.retransmissionWindowSize == null) {
+            return;
+        }
+
+        if (this.retransmissionWindowSize < MIN_RETRANSMISSION_WINDOW_SIZE || Integer.bitCount(this.retransmissionWindowSize) != 1) {
+            throw new VegaException("The retransmission window size in topic template configuration should be a power of 2 of at least " + MIN_RETRANSMISSION_WINDOW_SIZE);
+        }
+
+        if (this.isThreadConfinedPublisher()) {
+            throw new VegaException("Thread confined publishers cannot retransmit messages in topic template configuration");
+        }
+
+        if (this.retransmissionBufferSize == null) {
+            this.retransmissionBufferSize = DEFAULT_RETRANSMISSION_BUFFER_SIZE;
+        } else if (this.retransmissionBufferSize < MIN_RETRANSMISSION_BUFFER_SIZE || Integer.bitCount(this.retransmissionBufferSize) != 1) {
+            throw new VegaException("The retransmission buffer size in topic template configuration should be a power of 2 of at least " + MIN_RETRANSMISSION_BUFFER_SIZE);
+        }
+
+        if (this.gapFillTimeout == null) {
+            this.gapFillTimeout = DEFAULT_GAP_FILL_TIMEOUT;
+        } else if (this.gapFillTimeout <= 0) {
+            throw new VegaException("The gap fill timeout in topic template configuration should be greater than 0");
+        }
+    }
+
+    /**
+     * @return true if the topic publishers of the template keep a retransmission window and the subscribers request the lost messages
+     */
+    public boolean isGapRecoveryEnabled() {
+        return this.retransmissionWindowSize != null;
+    }
+
+    /**
+     * Check the reordering parameters, they are only settled if the reordering window is enabled
+     */
+    private void checkReordering() throws VegaException {
+        if (this.reorderWindowSize == null) {
+            return;
+        }
+
+        if (this.reorderWindowSize < MIN_REORDER_WINDOW_SIZE || Integer.bitCount(this.reorderWindowSize) != 1) {
+            throw new VegaException("The reorder window size in topic template configuration should be a power of 2 of at least " + MIN_REORDER_WINDOW_SIZE);
+        }
+
+        if (this.reorderTimeout == null) {
+            this.reorderTimeout = DEFAULT_REORDER_TIMEOUT;
+        } else if (this.reorderTimeout <= 0) {
+            throw new VegaException("The reorder timeout in topic template configuration should be greater than 0");
+        }
+    }
+
+    /**
+     * @return true if the topic subscribers of the template hold the out of order messages to deliver them in order
+     */
+    public boolean isReorderingEnabled() {
+        return this.reorderWindowSize != null;
+    }
+
+    /**
+     * Check the explicit channels of the topics, each topic and channel can only appear once and the channel has to be in the ranges
+     * of the template
+     */
+    private void checkTopicChannels() throws VegaException {
+        if (this.topicChannels == null) {
+            return;
+        }
+
+        final int numChannels = this.getNumChannels();
+        final Set<Integer> usedChannels = new HashSet<>();
+
+        for (final TopicChannelConfig topicChannel : this.topicChannels) {
+            topicChannel.completeAndValidateConfig();
+
+            if (this.channelsByTopic.containsKey(topicChannel.getTopic())) {
+                throw new VegaException("Duplicated topic channel for topic " + topicChannel.getTopic() + " in topic template " + this.name);
+            }
+
+            if (!usedChannels.add(topicChannel.getChannel())) {
+                throw new VegaException("Duplicated channel " + topicChannel.getChannel() + " in topic template " + this.name);
+            }
+
+            if (topicChannel.getChannel() >= numChannels) {
+                throw new VegaException("The channel of the topic " + topicChannel.getTopic() + " should be lower than " + numChannels +
+                        ", the number of combinations of addresses, ports and streams of the topic template " + this.name);
+            }
+
+            this.channelsByTopic.put(topicChannel.getTopic(), topicChannel.getChannel());
+        }
+    }
+
+    /**
+     * Return the number of different channels of the template, it is the number of combinations of multicast address, port and stream
+     * that can be selected depending on the transport type
+     *
+     * @return the number of channels
+     */
+    public int getNumChannels() {
+        switch (this.transportType) {
+            case MULTICAST:
+                return this.numStreamsPerPort * this.getNumPorts() * AeronChannelHelper.getNumMcastIpsInRange(this.multicastAddressLow, this.multicastAddressHigh);
+            case UNICAST:
+                return this.numStreamsPerPort * this.getNumPorts();
+            default:
+                return this.numStreamsPerPort;
+        }
+    }
+
+    /**
+     * @return the number of ports in the range of the template
+     */
+    private int getNumPorts() {
+        return this.maxPort - this.minPort + 1;
+    }
+
+    /**
+     * Return the explicit channel of a topic
+     *
+     * @param topicName the name of the topic
+     * @return the channel of the topic, null if it is selected from the hash of the topic name
+     */
+    public Integer getTopicChannel(final String topicName) {
+        return this.channelsByTopic.get(topicName);
+    }
+
+    /**
+     * Select the stream id of a topic, from the explicit channel of the topic or from the hash of the name if there is none
+     *
+     * @param topicName the name of the topic
+     * @return the selected stream id
+     */
+    public int selectStreamId(final String topicName) {
+        final Integer channel = this.channelsByTopic.get(topicName);
+
+        if (channel == null) {
+            return AeronChannelHelper.selectStreamFromRange(topicName, this.numStreamsPerPort);
+        }
+
+        return AeronChannelHelper.selectStreamFromRange(channel, this.numStreamsPerPort);
+    }
+
+    /**
+     * Select the port of a topic, from the explicit channel of the topic or from the hash of the name if there is none
+     *
+     * @param topicName the name of the topic
+     * @return the selected port
+     */
+    public int selectPort(final String topicName) {
+        final Integer channel = this.channelsByTopic.get(topicName);
+
+        if (channel == null) {
+            return AeronChannelHelper.selectPortFromRange(topicName, this.minPort, this.maxPort);
+        }
+
+        return AeronChannelHelper.selectPortFromRange(channel / this.numStreamsPerPort, this.minPort, this.maxPort);
+    }
+
+    /**
+     * Select the multicast address of a topic, from the explicit channel of the topic or from the hash of the name if there is none
+     *
+     * @param topicName the name of the topic
+     * @return the selected multicast address
+     */
+    public String selectMcastIp(final String topicName) {
+        final Integer channel = this.channelsByTopic.get(topicName);
+
+        if (channel == null) {
+            return AeronChannelHelper.selectMcastIpFromRange(topicName, this.multicastAddressLow, this.multicastAddressHigh);
+        }
+
+        return AeronChannelHelper.selectMcastIpFromRange(channel / (this.numStreamsPerPort * this.getNumPorts()), this.multicastAddressLow, this.multicastAddressHigh);
+    }
+
     /**
      * Check the transport type, it has to be present
      */
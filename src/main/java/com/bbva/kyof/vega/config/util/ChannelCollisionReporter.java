@@ -0,0 +1,128 @@
+package com.bbva.kyof.vega.config.util;
+
+import com.bbva.kyof.vega.config.general.ConfigReader;
+import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.exception.VegaException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tool that reports the topics of a list that share the same Aeron channel and stream with the given configuration.
+ * <p>
+ * The subscribers of a shared channel receive and discard the messages of all the topics of the channel, even if they are not
+ * subscribed to them. The collisions can be removed with explicit topic channels in the topic templates.
+ */
+@Slf4j
+public final class ChannelCollisionReporter {
+    /**
+     * Private constructor to avoid instantiation
+     */
+    private ChannelCollisionReporter() {
+        // Nothing to do
+    }
+
+    /**
+     * Reporter main method to execute externally
+     *
+     * @param args arguments of the report, the first one is the configuration file and the second a file with a topic name per line
+     * @throws VegaException if there is any problem reading the files
+     */
+    public static void main(final String[] args) throws VegaException {
+        if (args.length != 2) {
+            log.error("Wrong number of arguments");
+            printUsage();
+            throw new VegaException("Wrong number of arguments");
+        }
+
+        final GlobalConfiguration config = ConfigReader.readConfiguration(args[0]);
+        final List<String> topics = readTopics(args[1]);
+
+        final Map<String, List<String>> collisions = findCollisions(config, topics);
+        collisions.forEach((channel, channelTopics) -> log.info("Channel [{}] shared by topics {}", channel, channelTopics));
+
+        final int numCollidingTopics = collisions.values().stream().mapToInt(List::size).sum();
+        log.info("[{}] of [{}] topics share the channel with other topics", numCollidingTopics, topics.size());
+    }
+
+    /**
+     * Print the usage of the reporter
+     */
+    private static void printUsage() {
+        log.info("2 Parameters required: path to the xml configuration file and path to a file with the topic names to check, one per line");
+    }
+
+    /**
+     * Read the topic names of a file, one per line. Empty lines are ignored.
+     *
+     * @param topicsFile the path to the file
+     * @return the topic names
+     * @throws VegaException if there is any problem reading the file
+     */
+    private static List<String> readTopics(final String topicsFile) throws VegaException {
+        try {
+            return Files.readAllLines(Paths.get(topicsFile)).stream().
+                    map(String::trim).
+                    filter(line -> !line.isEmpty()).
+                    collect(Collectors.toList());
+        } catch (final IOException e) {
+            log.error("Error reading the topics file [{}]", topicsFile, e);
+            throw new VegaException("Error reading the topics file " + topicsFile, e);
+        }
+    }
+
+    /**
+     * Find the channels shared by more than one of the given topics. The topics without configuration are ignored.
+     *
+     * @param config the validated configuration
+     * @param topics the names of the topics to check
+     * @return the topics of each shared channel by channel description, sorted by channel
+     */
+    public static Map<String, List<String>> findCollisions(final GlobalConfiguration config, final Collection<String> topics) {
+        final Map<String, List<String>> topicsByChannel = new TreeMap<>();
+
+        for (final String topic : topics) {
+            final TopicTemplateConfig templateConfig = config.getTopicTemplateForTopic(topic);
+
+            if (templateConfig == null) {
+                log.warn("No topic template configured for topic [{}], it is ignored", topic);
+                continue;
+            }
+
+            topicsByChannel.computeIfAbsent(describeChannel(templateConfig, topic), channel -> new ArrayList<>()).add(topic);
+        }
+
+        topicsByChannel.values().removeIf(channelTopics -> channelTopics.size() < 2);
+        return topicsByChannel;
+    }
+
+    /**
+     * Describe the Aeron channel and stream selected for a topic
+     *
+     * @param templateConfig the template of the topic
+     * @param topic          the name of the topic
+     * @return the description of the channel
+     */
+    static String describeChannel(final TopicTemplateConfig templateConfig, final String topic) {
+        final int streamId = templateConfig.selectStreamId(topic);
+
+        switch (templateConfig.getTransportType()) {
+            case MULTICAST:
+                return "MULTICAST " + templateConfig.selectMcastIp(topic) + ":" + templateConfig.selectPort(topic) + " stream " + streamId;
+            case UNICAST:
+                return "UNICAST " + templateConfig.getSubnetAddress().getIpAddres().getHostAddress() + ":" + templateConfig.selectPort(topic) +
+                        " stream " + streamId;
+            default:
+                return "IPC stream " + streamId;
+        }
+    }
+}
@@ -17,7 +17,12 @@ public class BaseHeader implements IUnsafeSerializable {
     /**
      * Binary size of the header once it has been serialized
      */
-    private static final int BINARY_SIZE = UnsafeBufferSerializer.BYTE_SIZE + UnsafeBufferSerializer.INT_SIZE;
+    public static final int BINARY_SIZE = UnsafeBufferSerializer.BYTE_SIZE + UnsafeBufferSerializer.INT_SIZE;
+
+    /**
+     * Offset of the message type from the start of the serialized header, the version goes first
+     */
+    public static final int MSG_TYPE_OFFSET = UnsafeBufferSerializer.INT_SIZE;
 
     /**
      * Internal library type of the message
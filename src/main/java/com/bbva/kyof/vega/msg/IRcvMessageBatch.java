@@ -0,0 +1,84 @@
+package com.bbva.kyof.vega.msg;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.UUID;
+
+/**
+ * Interface that represents the messages of a topic received in the same poll cycle.<p>
+ * <p>
+ * The contents of all the messages are stored one after the other in a single UnsafeBuffer, each message starts at an 8 bytes aligned
+ * offset. The fields of each message can be accessed by index or through a reusable message flyweight.<p>
+ * <p>
+ * The batch, the flyweight and the contents are reused by the library to avoid memory allocation, they are only valid during the
+ * listener callback. Promote the messages if they are going to be accessed after the callback returns!
+ */
+public interface IRcvMessageBatch {
+    /**
+     * @return the topic name of the received messages
+     */
+    String getTopicName();
+
+    /**
+     * @return the number of messages in the batch
+     */
+    int size();
+
+    /**
+     * Return the buffer with the contents of all the messages in the batch
+     * <p>
+     * The offset and length of each message can be retrieved using the respective methods, getContentOffset(index) and getContentLength(index)
+     *
+     * @return the UnsafeBuffer with the contents of the messages
+     */
+    UnsafeBuffer getContents();
+
+    /**
+     * Return the offset in the batch contents where the message starts
+     *
+     * @param index the index of the message in the batch
+     * @return the content offset of the message
+     */
+    int getContentOffset(int index);
+
+    /**
+     * Return the length of the message
+     *
+     * @param index the index of the message in the batch
+     * @return the length of the message
+     */
+    int getContentLength(int index);
+
+    /**
+     * Return the sequence number of the message for the topic publisher that sent it
+     *
+     * @param index the index of the message in the batch
+     * @return the sequence number of the message
+     */
+    long getSequenceNumber(int index);
+
+    /**
+     * Return the instance id of the sender of the message
+     *
+     * @param index the index of the message in the batch
+     * @return the instance id of the message sender
+     */
+    UUID getInstanceId(int index);
+
+    /**
+     * Return the id of the topic publisher that sent the message
+     *
+     * @param index the index of the message in the batch
+     * @return the topic publisher id of the message sender
+     */
+    UUID getTopicPublisherId(int index);
+
+    /**
+     * Return a message flyweight positioned in the message of the given index. The flyweight is reused, it is only valid until the next
+     * call to the method.
+     *
+     * @param index the index of the message in the batch
+     * @return the message flyweight
+     */
+    IRcvMessage getMessage(int index);
+}
@@ -0,0 +1,59 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.*;
+
+/**
+ * Represents the compact header of a data message that is sent or received.
+ * <p>
+ * Instead of the instance id and the topic publisher id, it contains the handle of the topic publisher that sent the message. The handle
+ * is advertised by auto-discovery together with the ids, the receivers resolve the ids from the handle.
+ * <p>
+ * This class is not thread safe!
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class MsgCompactDataHeader implements IUnsafeSerializable {
+    /**
+     * Binary size of the header once it has been serialized
+     */
+    public static final int BINARY_SIZE = UnsafeBufferSerializer.INT_SIZE + UnsafeBufferSerializer.LONG_SIZE;
+
+    /**
+     * Offset of the publisher handle from the start of the serialized header
+     */
+    public static final int PUBLISHER_HANDLE_OFFSET = 0;
+
+    /**
+     * Handle of the topic publisher that sent the message
+     */
+    @Getter
+    @Setter
+    private int publisherHandle;
+
+    /**
+     * Sequence Number of the topic publisher that sent the message
+     */
+    @Getter
+    @Setter
+    private long sequenceNumber;
+
+    @Override
+    public void toBinary(final UnsafeBufferSerializer buffer) {
+        buffer.writeInt(this.publisherHandle);
+        buffer.writeLong(this.sequenceNumber);
+    }
+
+    @Override
+    public void fromBinary(final UnsafeBufferSerializer buffer) {
+        this.publisherHandle = buffer.readInt();
+        this.sequenceNumber = buffer.readLong();
+    }
+
+    @Override
+    public int serializedSize() {
+        return BINARY_SIZE;
+    }
+}
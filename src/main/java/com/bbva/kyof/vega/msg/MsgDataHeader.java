@@ -21,7 +21,12 @@ public class MsgDataHeader implements IUnsafeSerializable {
     /**
      * Binary size of the header once it has been serialized
      */
-    static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 2 + UnsafeBufferSerializer.LONG_SIZE;
+    public static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 2 + UnsafeBufferSerializer.LONG_SIZE;
+
+    /**
+     * Offset of the topic publisher id from the start of the serialized header, the instance id goes first
+     */
+    public static final int TOPIC_PUB_ID_OFFSET = UnsafeBufferSerializer.UUID_SIZE;
 
     /**
      * Identifier of the application instance ID that created the message
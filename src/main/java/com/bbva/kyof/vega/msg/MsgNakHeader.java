@@ -0,0 +1,74 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Represents the header of a negative acknowledgement sent by a subscriber to a topic publisher.
+ * <p>
+ * Contains the id of the topic publisher and the inclusive range of sequence numbers that have been lost and should be retransmitted.
+ * The negative acknowledgement has no contents after the header.
+ * <p>
+ * This class is not thread safe!
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MsgNakHeader implements IUnsafeSerializable {
+    /**
+     * Binary size of the header once it has been serialized
+     */
+    private static final int BINARY_SIZE = UnsafeBufferSerializer.UUID_SIZE * 2 + UnsafeBufferSerializer.LONG_SIZE * 2;
+
+    /**
+     * Identifier of the application instance ID that sent the negative acknowledgement
+     */
+    @Getter
+    @Setter
+    private UUID instanceId;
+
+    /**
+     * Unique id of the topic publisher that should retransmit the messages
+     */
+    @Getter
+    @Setter
+    private UUID topicPublisherId;
+
+    /**
+     * Sequence number of the first lost message
+     */
+    @Getter
+    @Setter
+    private long firstSequenceNumber;
+
+    /**
+     * Sequence number of the last lost message
+     */
+    @Getter
+    @Setter
+    private long lastSequenceNumber;
+
+    @Override
+    public void toBinary(final UnsafeBufferSerializer buffer) {
+        buffer.writeUUID(this.instanceId);
+        buffer.writeUUID(this.topicPublisherId);
+        buffer.writeLong(this.firstSequenceNumber);
+        buffer.writeLong(this.lastSequenceNumber);
+    }
+
+    @Override
+    public void fromBinary(final UnsafeBufferSerializer buffer) {
+        this.instanceId = buffer.readUUID();
+        this.topicPublisherId = buffer.readUUID();
+        this.firstSequenceNumber = buffer.readLong();
+        this.lastSequenceNumber = buffer.readLong();
+    }
+
+    @Override
+    public int serializedSize() {
+        return BINARY_SIZE;
+    }
+}
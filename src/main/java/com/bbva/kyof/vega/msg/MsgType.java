@@ -69,6 +69,26 @@ public final class MsgType {
      */
     public static final byte AUTO_DISC_DAEMON_SERVER_INFO = 12;
 
+    /**
+     * Batch of consecutive data messages of the same topic publisher
+     */
+    public static final byte DATA_BATCH = 13;
+
+    /**
+     * User message with a compact header that identifies the topic publisher by its handle
+     */
+    public static final byte DATA_COMPACT = 14;
+
+    /**
+     * Batch of consecutive data messages with a compact header that identifies the topic publisher by its handle
+     */
+    public static final byte DATA_BATCH_COMPACT = 15;
+
+    /**
+     * Negative acknowledgement of a subscriber that requests the retransmission of a range of lost messages of a topic publisher
+     */
+    public static final byte NAK = 16;
+
     /**
      * Private constructor to avoid instantiation
      */
@@ -110,6 +130,14 @@ public final class MsgType {
                 return "CONTROL_SECURITY_ERROR_RESP";
             case AUTO_DISC_DAEMON_SERVER_INFO:
                 return "AUTO_DISC_DAEMON_SERVER_INFO";
+            case DATA_BATCH:
+                return "DATA_BATCH";
+            case DATA_COMPACT:
+                return "DATA_COMPACT";
+            case DATA_BATCH_COMPACT:
+                return "DATA_BATCH_COMPACT";
+            case NAK:
+                return "NAK";
             default:
                 return "UNKNOWN";
         }
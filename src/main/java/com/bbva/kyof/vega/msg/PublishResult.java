@@ -9,13 +9,13 @@ public enum PublishResult {
     /**
      * Message sent
      * <p>
-     * It doesn't actually means it has been sent, if the publisher is closed, there are no connected clients
-     * or there is an internal aeron error an OK will be returned as well.
+     * It doesn't actually means it has been received, if the publisher has been closed during an un-subscription
+     * an OK will be returned as well.
      */
     OK,
 
     /**
-     * Failed due to back pressure in one or all the underlying sockets
+     * Failed due to back pressure in one or all the underlying sockets, the message can be retried
      */
     BACK_PRESSURED,
 
@@ -27,7 +27,17 @@ public enum PublishResult {
     /**
      * All the aeron publishers are down, and Vega will not send the message.
      */
-    AERON_PUBLISHERS_NOT_FOUND;
+    AERON_PUBLISHERS_NOT_FOUND,
+
+    /**
+     * There are no subscribers connected to any of the underlying sockets, the message has not been sent
+     */
+    NOT_CONNECTED,
+
+    /**
+     * The max position of the stream of one of the underlying sockets has been reached, the socket cannot be used anymore
+     */
+    MAX_POSITION_EXCEEDED;
 
     /**
      * Converts the aeron publication result into our internal publish result enum
@@ -36,10 +46,16 @@ public enum PublishResult {
      * @return Enum with the possible results after a publication
      */
     public static PublishResult fromAeronResult(final long aeronResult) {
-        if (aeronResult == Publication.BACK_PRESSURED) {
+        if (aeronResult >= 0 || aeronResult == Publication.CLOSED) {
+            return PublishResult.OK;
+        } else if (aeronResult == Publication.BACK_PRESSURED || aeronResult == Publication.ADMIN_ACTION) {
             return PublishResult.BACK_PRESSURED;
+        } else if (aeronResult == Publication.NOT_CONNECTED) {
+            return PublishResult.NOT_CONNECTED;
+        } else if (aeronResult == Publication.MAX_POSITION_EXCEEDED) {
+            return PublishResult.MAX_POSITION_EXCEEDED;
         } else {
-            return PublishResult.OK;
+            return PublishResult.UNEXPECTED_ERROR;
         }
     }
 }
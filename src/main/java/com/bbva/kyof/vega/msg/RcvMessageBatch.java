@@ -0,0 +1,213 @@
+package com.bbva.kyof.vega.msg;
+
+import lombok.Getter;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Represent the messages of a topic received in the same poll cycle.
+ * <p>
+ * The contents of the added messages are copied into a single off-heap buffer that is reused between batches, memory is only allocated
+ * when the batch has to grow to fit more messages than any previous one.
+ * <p>
+ * This class is not thread safe!
+ */
+public class RcvMessageBatch implements IRcvMessageBatch {
+    /**
+     * Initial number of messages of the batch
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Initial size of the contents buffer
+     */
+    private static final int INITIAL_CONTENT_SIZE = 4096;
+
+    /**
+     * Alignment of the offset of each message in the contents buffer
+     */
+    private static final int CONTENT_ALIGNMENT = 8;
+
+    /**
+     * Reusable message flyweight
+     */
+    private final RcvMessage flyweight = new RcvMessage();
+
+    /**
+     * Buffer with the contents of all the messages
+     */
+    private final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocateDirect(INITIAL_CONTENT_SIZE));
+
+    /**
+     * Topic name of the messages
+     */
+    @Getter
+    private String topicName;
+
+    /**
+     * Number of messages in the batch
+     */
+    private int size = 0;
+
+    /**
+     * Position in the contents buffer where the next message will be copied
+     */
+    private int contentsLimit = 0;
+
+    /**
+     * Offset of each message in the contents buffer
+     */
+    private int[] contentOffsets = new int[INITIAL_CAPACITY];
+
+    /**
+     * Length of each message
+     */
+    private int[] contentLengths = new int[INITIAL_CAPACITY];
+
+    /**
+     * Sequence number of each message
+     */
+    private long[] sequenceNumbers = new long[INITIAL_CAPACITY];
+
+    /**
+     * Instance id of the sender of each message
+     */
+    private UUID[] instanceIds = new UUID[INITIAL_CAPACITY];
+
+    /**
+     * Topic publisher id of the sender of each message
+     */
+    private UUID[] topicPublisherIds = new UUID[INITIAL_CAPACITY];
+
+    /**
+     * Add a copy of a received message at the end of the batch
+     *
+     * @param msg the received message
+     */
+    public void add(final RcvMessage msg) {
+        if (this.size == this.contentOffsets.length) {
+            this.growMessages();
+        }
+
+        final int length = msg.getContentLength();
+        final int offset = BitUtil.align(this.contentsLimit, CONTENT_ALIGNMENT);
+
+        if (offset + length > this.contents.capacity()) {
+            this.growContents(offset + length);
+        }
+
+        this.contents.putBytes(offset, msg.getContents(), msg.getContentOffset(), length);
+
+        this.topicName = msg.getTopicName();
+        this.contentOffsets[this.size] = offset;
+        this.contentLengths[this.size] = length;
+        this.sequenceNumbers[this.size] = msg.getSequenceNumber();
+        this.instanceIds[this.size] = msg.getInstanceId();
+        this.topicPublisherIds[this.size] = msg.getTopicPublisherId();
+
+        this.contentsLimit = offset + length;
+        this.size++;
+    }
+
+    /**
+     * Remove all the messages of the batch, the memory is kept to be reused
+     */
+    public void clear() {
+        this.size = 0;
+        this.contentsLimit = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public UnsafeBuffer getContents() {
+        return this.contents;
+    }
+
+    @Override
+    public int getContentOffset(final int index) {
+        this.checkIndex(index);
+        return this.contentOffsets[index];
+    }
+
+    @Override
+    public int getContentLength(final int index) {
+        this.checkIndex(index);
+        return this.contentLengths[index];
+    }
+
+    @Override
+    public long getSequenceNumber(final int index) {
+        this.checkIndex(index);
+        return this.sequenceNumbers[index];
+    }
+
+    @Override
+    public UUID getInstanceId(final int index) {
+        this.checkIndex(index);
+        return this.instanceIds[index];
+    }
+
+    @Override
+    public UUID getTopicPublisherId(final int index) {
+        this.checkIndex(index);
+        return this.topicPublisherIds[index];
+    }
+
+    @Override
+    public IRcvMessage getMessage(final int index) {
+        this.checkIndex(index);
+
+        this.flyweight.setTopicName(this.topicName);
+        this.flyweight.setInstanceId(this.instanceIds[index]);
+        this.flyweight.setTopicPublisherId(this.topicPublisherIds[index]);
+        this.flyweight.setSequenceNumber(this.sequenceNumbers[index]);
+        this.flyweight.setUnsafeBufferContent(this.contents);
+        this.flyweight.setContentOffset(this.contentOffsets[index]);
+        this.flyweight.setContentLength(this.contentLengths[index]);
+
+        return this.flyweight;
+    }
+
+    /**
+     * Check that the index is a valid position of the batch
+     *
+     * @param index the index of the message in the batch
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch size " + this.size);
+        }
+    }
+
+    /**
+     * Double the max number of messages of the batch
+     */
+    private void growMessages() {
+        final int newCapacity = this.contentOffsets.length * 2;
+
+        this.contentOffsets = Arrays.copyOf(this.contentOffsets, newCapacity);
+        this.contentLengths = Arrays.copyOf(this.contentLengths, newCapacity);
+        this.sequenceNumbers = Arrays.copyOf(this.sequenceNumbers, newCapacity);
+        this.instanceIds = Arrays.copyOf(this.instanceIds, newCapacity);
+        this.topicPublisherIds = Arrays.copyOf(this.topicPublisherIds, newCapacity);
+    }
+
+    /**
+     * Grow the contents buffer keeping the contents of the messages already added
+     *
+     * @param minCapacity the min capacity of the new buffer
+     */
+    private void growContents(final int minCapacity) {
+        final ByteBuffer newBuffer = ByteBuffer.allocateDirect(BitUtil.findNextPositivePowerOfTwo(minCapacity));
+        this.contents.getBytes(0, newBuffer, 0, this.contentsLimit);
+        this.contents.wrap(newBuffer);
+    }
+}
@@ -24,6 +24,7 @@ public class RcvRequest extends RcvMessage implements IRcvRequest {
     /**
      * The responder object for this request
      */
+    @Getter
     @Setter
     private IRequestResponder requestResponder;
 
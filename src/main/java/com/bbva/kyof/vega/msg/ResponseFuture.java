@@ -0,0 +1,133 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future of the response of a request that expects a single response. It is used as the response listener of the request.
+ * <p>
+ * The future is completed with a promoted copy of the first response and the request is closed. It is completed exceptionally with a
+ * {@link TimeoutException} if the request times out and with a {@link VegaException} if the request could not be sent. Cancelling the
+ * future closes the request.
+ * <p>
+ * By default the future is completed on the poller thread of the responses or the thread of the request timeouts, if an executor is
+ * given the completion is done on the executor instead.
+ * <p>
+ * This class is thread safe!
+ */
+public class ResponseFuture extends CompletableFuture<IRcvResponse> implements IResponseListener {
+    /**
+     * Executor of the completions, null to complete on the calling thread
+     */
+    private final Executor executor;
+
+    /**
+     * The sent request, null until the request has been created
+     */
+    private volatile SentRequest sentRequest;
+
+    /**
+     * Id of the sent request, taken before the request is sent since the object may be reused for a new request once closed
+     */
+    private volatile UUID sentRequestId;
+
+    /**
+     * Create a new future
+     *
+     * @param executor executor of the completions, null to complete on the thread that receives the response
+     */
+    public ResponseFuture(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set the request before it is sent, it should be called before the request is added to the request manager
+     *
+     * @param request the request to send
+     */
+    public void onRequestCreated(final SentRequest request) {
+        this.sentRequestId = request.getRequestId();
+        this.sentRequest = request;
+    }
+
+    /**
+     * Called once the request has been sent. If it could not be sent the future is completed exceptionally.
+     *
+     * @param result the result of the request send
+     */
+    public void onRequestSent(final PublishResult result) {
+        if (result != PublishResult.OK) {
+            this.closeSentRequest();
+            this.completeOnExecutor(null, new VegaException("Error sending request, result " + result));
+        }
+    }
+
+    @Override
+    public void onResponseReceived(final ISentRequest originalSentRequest, final IRcvResponse response) {
+        if (this.isDone()) {
+            return;
+        }
+
+        // A single response is expected
+        originalSentRequest.closeRequest();
+        this.completeOnExecutor(response.promote(), null);
+    }
+
+    @Override
+    public void onRequestTimeout(final ISentRequest originalSentRequest) {
+        this.completeOnExecutor(null, new TimeoutException("Request " + originalSentRequest.getRequestId() + " timed out"));
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+        if (cancelled) {
+            this.closeSentRequest();
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Close the request if it is still the same one, the object may have been reused by the request manager
+     */
+    private void closeSentRequest() {
+        final SentRequest request = this.sentRequest;
+        if (request != null) {
+            request.closeRequest(this.sentRequestId);
+        }
+    }
+
+    /**
+     * Complete the future on the executor if there is one
+     *
+     * @param response the response to complete with, null if it is completed exceptionally
+     * @param error    the error to complete with, null if completed with a response
+     */
+    private void completeOnExecutor(final IRcvResponse response, final Throwable error) {
+        if (this.executor == null) {
+            this.complete(response, error);
+        } else {
+            this.executor.execute(() -> this.complete(response, error));
+        }
+    }
+
+    /**
+     * Complete the future normally or exceptionally
+     *
+     * @param response the response to complete with, null if it is completed exceptionally
+     * @param error    the error to complete with, null if completed with a response
+     */
+    private void complete(final IRcvResponse response, final Throwable error) {
+        if (error == null) {
+            this.complete(response);
+        } else {
+            this.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Publisher of the responses of a request that may receive several responses. It is used as the response listener of the request and
+ * accepts a single subscriber.
+ * <p>
+ * The publisher completes when the expected number of responses has been received, closing the request, or when the request times
+ * out. It fails with a {@link VegaException} if the request could not be sent. Cancelling the subscription closes the request.
+ * <p>
+ * Without executor the responses are delivered on the poller thread of the responses while there is demand, the response objects are
+ * reused by the library and have to be promoted if they are kept after onNext returns. The responses received without demand or
+ * before the subscription are promoted and buffered. If an executor is given all the responses are promoted and delivered on it.
+ * <p>
+ * This class is thread safe!
+ */
+public class ResponsesPublisher implements Flow.Publisher<IRcvResponse>, Flow.Subscription, IResponseListener {
+    /**
+     * Value of the expected responses to complete only on timeout
+     */
+    public static final int UNLIMITED_RESPONSES = 0;
+
+    /**
+     * Number of responses that complete the publisher, {@link #UNLIMITED_RESPONSES} to complete on timeout
+     */
+    private final int expectedResponses;
+
+    /**
+     * Executor of the deliveries, null to deliver on the thread that receives the responses
+     */
+    private final Executor executor;
+
+    /**
+     * Task that delivers the pending signals, reused for every execution on the executor
+     */
+    private final Runnable deliveryTask = this::tryDeliver;
+
+    /**
+     * Promoted responses pending to be delivered
+     */
+    private final ArrayDeque<IRcvResponse> pendingResponses = new ArrayDeque<>();
+
+    /**
+     * Lock for class synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The subscriber, null until the subscription has been done
+     */
+    private Flow.Subscriber<? super IRcvResponse> subscriber;
+
+    /**
+     * True once a subscriber has subscribed
+     */
+    private boolean subscribed = false;
+
+    /**
+     * Number of responses requested by the subscriber and not delivered yet
+     */
+    private long demand = 0;
+
+    /**
+     * Number of responses received
+     */
+    private int numResponses = 0;
+
+    /**
+     * True if no more responses will be received
+     */
+    private boolean finished = false;
+
+    /**
+     * Error to deliver once the pending responses have been delivered, null if the publisher completes normally
+     */
+    private Throwable error = null;
+
+    /**
+     * True once the subscriber has been completed or has failed
+     */
+    private boolean terminated = false;
+
+    /**
+     * True if the subscription has been cancelled
+     */
+    private boolean cancelled = false;
+
+    /**
+     * True while a thread is delivering signals to the subscriber
+     */
+    private boolean delivering = false;
+
+    /**
+     * The sent request, null until the request has been created
+     */
+    private volatile SentRequest sentRequest;
+
+    /**
+     * Id of the sent request, taken before the request is sent since the object may be reused for a new request once closed
+     */
+    private volatile UUID sentRequestId;
+
+    /**
+     * Create a new publisher
+     *
+     * @param expectedResponses number of responses that complete the publisher, {@link #UNLIMITED_RESPONSES} to complete on timeout
+     * @param executor          executor of the deliveries, null to deliver on the thread that receives the responses
+     */
+    public ResponsesPublisher(final int expectedResponses, final Executor executor) {
+        this.expectedResponses = expectedResponses;
+        this.executor = executor;
+    }
+
+    /**
+     * Set the request before it is sent, it should be called before the request is added to the request manager
+     *
+     * @param request the request to send
+     */
+    public void onRequestCreated(final SentRequest request) {
+        this.sentRequestId = request.getRequestId();
+        this.sentRequest = request;
+    }
+
+    /**
+     * Called once the request has been sent. If it could not be sent the publisher fails.
+     *
+     * @param result the result of the request send
+     */
+    public void onRequestSent(final PublishResult result) {
+        if (result != PublishResult.OK) {
+            this.closeSentRequest();
+            this.finish(new VegaException("Error sending request, result " + result));
+        }
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super IRcvResponse> newSubscriber) {
+        final boolean alreadySubscribed;
+
+        synchronized (this.lock) {
+            alreadySubscribed = this.subscribed;
+            this.subscribed = true;
+        }
+
+        if (alreadySubscribed) {
+            newSubscriber.onSubscribe(new RejectedSubscription());
+            newSubscriber.onError(new IllegalStateException("The responses publisher only accepts a single subscriber"));
+            return;
+        }
+
+        // The subscriber is set after onSubscribe to avoid delivering responses before it returns
+        newSubscriber.onSubscribe(this);
+
+        synchronized (this.lock) {
+            this.subscriber = newSubscriber;
+        }
+
+        this.deliver();
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            this.finish(new IllegalArgumentException("The number of requested responses should be positive, requested " + n));
+            this.closeSentRequest();
+            return;
+        }
+
+        synchronized (this.lock) {
+            // Avoid overflows of the demand
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+        }
+
+        this.deliver();
+    }
+
+    @Override
+    public void cancel() {
+        final boolean wasFinished;
+
+        synchronized (this.lock) {
+            this.cancelled = true;
+            this.pendingResponses.clear();
+            wasFinished = this.finished;
+            this.finished = true;
+        }
+
+        if (!wasFinished) {
+            this.closeSentRequest();
+        }
+    }
+
+    @Override
+    public void onResponseReceived(final ISentRequest originalSentRequest, final IRcvResponse response) {
+        final boolean deliverNow;
+        final boolean lastResponse;
+
+        synchronized (this.lock) {
+            if (this.finished) {
+                return;
+            }
+
+            this.numResponses++;
+            lastResponse = this.expectedResponses != UNLIMITED_RESPONSES && this.numResponses >= this.expectedResponses;
+            this.finished = lastResponse;
+
+            // Deliver directly without promoting the response if the subscriber is waiting for it on the same thread
+            deliverNow = this.executor == null && this.subscriber != null && this.demand > 0 && this.pendingResponses.isEmpty() && !this.delivering;
+
+            if (deliverNow) {
+                this.demand--;
+                this.delivering = true;
+            } else {
+                this.pendingResponses.add(response.promote());
+            }
+        }
+
+        if (lastResponse) {
+            originalSentRequest.closeRequest();
+        }
+
+        if (deliverNow) {
+            this.subscriber.onNext(response);
+            this.deliverPending();
+        } else {
+            this.deliver();
+        }
+    }
+
+    @Override
+    public void onRequestTimeout(final ISentRequest originalSentRequest) {
+        this.finish(null);
+    }
+
+    /**
+     * Finish the publisher, the subscriber is completed or failed once the pending responses have been delivered
+     *
+     * @param finishError error to fail the subscriber with, null to complete it
+     */
+    private void finish(final Throwable finishError) {
+        synchronized (this.lock) {
+            if (this.finished) {
+                return;
+            }
+
+            this.finished = true;
+            this.error = finishError;
+        }
+
+        this.deliver();
+    }
+
+    /**
+     * Deliver the pending signals on the executor if there is one, on the calling thread otherwise
+     */
+    private void deliver() {
+        if (this.executor == null) {
+            this.tryDeliver();
+        } else {
+            this.executor.execute(this.deliveryTask);
+        }
+    }
+
+    /**
+     * Deliver the pending signals unless another thread is already delivering them
+     */
+    private void tryDeliver() {
+        synchronized (this.lock) {
+            if (this.delivering) {
+                return;
+            }
+
+            this.delivering = true;
+        }
+
+        this.deliverPending();
+    }
+
+    /**
+     * Deliver the pending responses while there is demand and the completion once there are no more. It should only be called by the
+     * thread that has set the delivering flag, the flag is cleared on exit.
+     */
+    private void deliverPending() {
+        while (true) {
+            IRcvResponse response = null;
+            boolean complete = false;
+
+            synchronized (this.lock) {
+                if (this.subscriber == null || this.cancelled || this.terminated) {
+                    this.delivering = false;
+                    return;
+                }
+
+                if (this.demand > 0 && !this.pendingResponses.isEmpty()) {
+                    response = this.pendingResponses.poll();
+                    this.demand--;
+                } else if (this.finished && (this.pendingResponses.isEmpty() || this.error != null)) {
+                    this.terminated = true;
+                    complete = true;
+                } else {
+                    this.delivering = false;
+                    return;
+                }
+            }
+
+            if (complete) {
+                if (this.error == null) {
+                    this.subscriber.onComplete();
+                } else {
+                    this.subscriber.onError(this.error);
+                }
+
+                synchronized (this.lock) {
+                    this.delivering = false;
+                }
+                return;
+            }
+
+            this.subscriber.onNext(response);
+        }
+    }
+
+    /**
+     * Close the request if it is still the same one, the object may have been reused by the request manager
+     */
+    private void closeSentRequest() {
+        final SentRequest request = this.sentRequest;
+        if (request != null) {
+            request.closeRequest(this.sentRequestId);
+        }
+    }
+
+    /**
+     * Subscription given to the rejected subscribers
+     */
+    private static final class RejectedSubscription implements Flow.Subscription {
+        @Override
+        public void request(final long n) {
+            // Nothing to deliver
+        }
+
+        @Override
+        public void cancel() {
+            // Nothing to cancel
+        }
+    }
+}
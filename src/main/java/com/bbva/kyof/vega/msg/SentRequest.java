@@ -3,11 +3,14 @@ package com.bbva.kyof.vega.msg;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.agrona.DeadlineTimerWheel;
 
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Represents the information of a sent request. <p>
@@ -16,6 +19,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * <p>
  * It is possible to reset the time out of a sent request. This is specially useful when there are multiple responses. <p>
  * <p>
+ * The object may be reused for a new request once closed or expired if the request manager has a pool of sent requests. <p>
+ * <p>
  * This class is thread safe!
  */
 @Slf4j
@@ -25,23 +30,23 @@ public class SentRequest implements ISentRequest {
      */
     @Getter
     @Setter
-    private PublishResult sentResult;
+    private volatile PublishResult sentResult;
 
     /**
      * Unique identifier of the request
      */
     @Getter
-    private final UUID requestId;
+    private UUID requestId;
 
     /**
      * Request expiration time
      */
-    private final AtomicLong expirationTime;
+    private final AtomicLong expirationTime = new AtomicLong();
 
     /**
      * Listener for responses on this request
      */
-    private final IResponseListener responseListener;
+    private IResponseListener responseListener;
 
     /**
      * Number of received responses for this request
@@ -52,13 +57,32 @@ public class SentRequest implements ISentRequest {
      * The topicName the request belongs to
      */
     @Getter
-    private final String topicName;
+    private String topicName;
 
     /**
      * True if the request has been closed
      */
     private boolean closed = false;
 
+    /**
+     * Listener notified when the request is closed or the expiration reset, used by the request manager to update the timeout.
+     * Null if the request is not managed.
+     */
+    @Setter
+    private volatile Consumer<SentRequest> changeListener;
+
+    /**
+     * Id of the timeout timer of the request in the request manager. It should only be used by the request manager.
+     */
+    @Getter
+    @Setter
+    private long timeoutTimerId = DeadlineTimerWheel.NULL_DEADLINE;
+
+    /**
+     * True if a change of the request is waiting to be processed by the request manager, so it is only queued once
+     */
+    private final AtomicBoolean changePending = new AtomicBoolean();
+
     /**
      * Lock for class syncrhonization
      */
@@ -77,10 +101,49 @@ public class SentRequest implements ISentRequest {
             final long timeout,
             final IResponseListener responseListener,
             final Random rndGenerator) {
-        this.topicName = topicName;
-        this.requestId = new UUID(rndGenerator.nextLong(), rndGenerator.nextLong());
-        this.responseListener = responseListener;
-        this.expirationTime = new AtomicLong(System.currentTimeMillis() + timeout);
+        this(topicName, new UUID(rndGenerator.nextLong(), rndGenerator.nextLong()), timeout, responseListener);
+    }
+
+    /**
+     * Constructor of the sent request information
+     *
+     * @param topicName        the topicName the request belong to
+     * @param requestId        the unique ID of the request
+     * @param timeout          timeout for the request expiration
+     * @param responseListener listener for responses
+     */
+    public SentRequest(
+            final String topicName,
+            final UUID requestId,
+            final long timeout,
+            final IResponseListener responseListener) {
+        this.reuse(topicName, requestId, timeout, responseListener);
+    }
+
+    /**
+     * Initialize the sent request information for a new request. It should only be called by the request manager once the
+     * previous request represented by the object has been closed or has expired and removed from the manager.
+     *
+     * @param newTopicName        the topicName the request belong to
+     * @param newRequestId        the unique ID of the request
+     * @param timeout             timeout for the request expiration
+     * @param newResponseListener listener for responses
+     */
+    public void reuse(
+            final String newTopicName,
+            final UUID newRequestId,
+            final long timeout,
+            final IResponseListener newResponseListener) {
+        synchronized (this.lock) {
+            this.topicName = newTopicName;
+            this.requestId = newRequestId;
+            this.responseListener = newResponseListener;
+            this.expirationTime.set(System.currentTimeMillis() + timeout);
+            this.numResponses.set(0);
+            this.sentResult = null;
+            this.closed = false;
+            this.changePending.set(false);
+        }
     }
 
     @Override
@@ -89,9 +152,17 @@ public class SentRequest implements ISentRequest {
         return System.currentTimeMillis() >= expirationTimeValue;
     }
 
+    /**
+     * @return the time in milliseconds when the request expires
+     */
+    public long getExpirationTime() {
+        return this.expirationTime.get();
+    }
+
     @Override
     public void resetExpiration(final long newTimeout) {
         this.expirationTime.set(System.currentTimeMillis() + newTimeout);
+        this.notifyChange();
     }
 
     @Override
@@ -99,6 +170,26 @@ public class SentRequest implements ISentRequest {
         synchronized (this.lock) {
             this.closed = true;
         }
+
+        this.notifyChange();
+    }
+
+    /**
+     * Close the request only if the object still represents the request with the given id, since it may have been reused for a new
+     * request once closed or expired
+     *
+     * @param expectedRequestId the unique ID of the request to close
+     */
+    public void closeRequest(final UUID expectedRequestId) {
+        synchronized (this.lock) {
+            if (!expectedRequestId.equals(this.requestId)) {
+                return;
+            }
+
+            this.closed = true;
+        }
+
+        this.notifyChange();
     }
 
     @Override
@@ -113,6 +204,40 @@ public class SentRequest implements ISentRequest {
         return this.numResponses.get();
     }
 
+    /**
+     * Mark the request as changed. It should only be used by the request manager.
+     *
+     * @return true if it was not marked already, false if the previous change has not been processed yet
+     */
+    public boolean markChangePending() {
+        return !this.changePending.get() && this.changePending.compareAndSet(false, true);
+    }
+
+    /**
+     * Clear the change mark before processing the change. It should only be used by the request manager.
+     */
+    public void clearChangePending() {
+        this.changePending.set(false);
+    }
+
+    /**
+     * @return true if a change of the request is waiting to be processed by the request manager
+     */
+    public boolean isChangePending() {
+        return this.changePending.get();
+    }
+
+    /**
+     * Notify the change listener if there is one
+     */
+    private void notifyChange() {
+        final Consumer<SentRequest> listener = this.changeListener;
+
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
     /**
      * Process a received response and notify the response listener if the request has not been closed yet
      *
@@ -120,6 +245,11 @@ public class SentRequest implements ISentRequest {
      */
     public void onResponseReceived(final RcvResponse response) {
         synchronized (this.lock) {
+            // Ignore the responses of a previous request if the object has been reused
+            if (response.getOriginalRequestId() != null && !response.getOriginalRequestId().equals(this.requestId)) {
+                return;
+            }
+
             // If already closed ignore the response
             if (this.closed) {
                 log.info("Response received on an already closed or expired request. Request ID [{}], Responder AppId [{}]", this.requestId, response.getInstanceId());
@@ -2,9 +2,13 @@ package com.bbva.kyof.vega.protocol;
 
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.protocol.publisher.ITopicPublisher;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvChannelStats;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvDispatcherStats;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvGapRecoveryStats;
 import com.bbva.kyof.vega.protocol.subscriber.ITopicSubListener;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -82,4 +86,50 @@ public interface IVegaInstance extends Closeable {
      * @throws VegaException exception thrown if there is any problem in the un-subscription
      */
     void unsubscribeFromPattern(final String topicPattern) throws VegaException;
-}
\ No newline at end of file
+
+    /**
+     * Return the metrics of the dispatch workers of a receiver poller, like the number of messages waiting in the queue of each worker.
+     * <p>
+     * The dispatch workers are only created if they are enabled in the poller configuration.
+     *
+     * @param pollerName the name of the receiver poller
+     * @return the metrics of the dispatch workers, null if the poller is not in use or it has no dispatch workers
+     */
+    IRcvDispatcherStats getRcvDispatcherStats(final String pollerName);
+
+    /**
+     * Return the metrics of the gap recovery of a receiver poller, like the number of lost messages that have been retransmitted.
+     * <p>
+     * The lost messages are only requested again on the topics with gap recovery enabled in the topic template.
+     *
+     * @param pollerName the name of the receiver poller
+     * @return the metrics of the gap recovery, null if the poller is not in use
+     */
+    IRcvGapRecoveryStats getRcvGapRecoveryStats(final String pollerName);
+
+    /**
+     * Return the metrics of the traffic discarded on each open reception channel because it belongs to topics without subscribers.
+     * <p>
+     * The channels are shared by several topics when there are more topics than combinations of address, port and stream in the
+     * templates, the topics that cause most of the discarded traffic should be moved to their own channels.
+     *
+     * @return the metrics of each open reception channel
+     */
+    List<IRcvChannelStats> getRcvChannelStats();
+
+    /**
+     * Execute a single duty cycle of the tasks of the instance: receiver polling, control messages polling, auto-discovery, request
+     * timeouts, heartbeats and the Aeron client conductor.
+     * <p>
+     * It is only available in INVOKER threading mode, the instance has no threads of its own and the application has to call it
+     * periodically from a single thread. The listeners of the received messages are called from this method.
+     * <p>
+     * The tasks run holding the lock of the invoker, so a task is never closed while it runs. Closing the instance, unsubscribing or
+     * destroying publishers from another thread waits until the current call ends. The listeners may call the instance from the same
+     * thread, but they should not wait for another thread that is closing or unsubscribing, it would never finish.
+     *
+     * @return the amount of work done, 0 if there was nothing to do
+     * @throws IllegalStateException if the threading mode of the instance is not INVOKER
+     */
+    int doWork();
+}
@@ -6,6 +6,7 @@ import com.bbva.kyof.vega.autodiscovery.model.AutoDiscInstanceInfo;
 import com.bbva.kyof.vega.config.general.AeronDriverType;
 import com.bbva.kyof.vega.config.general.ConfigReader;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.ThreadingMode;
 import com.bbva.kyof.vega.driver.EmbeddedMediaDriver;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
@@ -16,6 +17,9 @@ import com.bbva.kyof.vega.protocol.control.ControlSubscriberParams;
 import com.bbva.kyof.vega.protocol.publisher.ITopicPublisher;
 import com.bbva.kyof.vega.protocol.publisher.SendManager;
 import com.bbva.kyof.vega.protocol.subscriber.AeronSubscriberParams;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvChannelStats;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvDispatcherStats;
+import com.bbva.kyof.vega.protocol.subscriber.IRcvGapRecoveryStats;
 import com.bbva.kyof.vega.protocol.subscriber.ITopicSubListener;
 import com.bbva.kyof.vega.protocol.subscriber.ReceiveManager;
 import io.aeron.*;
@@ -24,7 +28,9 @@ import io.aeron.exceptions.DriverTimeoutException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.AgentInvoker;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -58,6 +64,11 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
      */
     private final EmbeddedMediaDriver embeddedMediaDriver;
 
+    /**
+     * Invoker of the Aeron client conductor in INVOKER threading mode, null in other modes
+     */
+    private final AgentInvoker aeronConductorInvoker;
+
     /**
      * True if the manager has been stopped or is currently stopped
      */
@@ -109,6 +120,9 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
             aeronContext.errorHandler(this);
         }
 
+        // In invoker mode the Aeron client conductor is executed by the application as well
+        aeronContext.useConductorAgentInvoker(config.getThreadingMode() == ThreadingMode.INVOKER);
+
         // Start the embedded media driver if required, use the unmanaged one or the external
         if (unmanagedMediaDriver != null) {
             this.embeddedMediaDriver = null;
@@ -127,6 +141,7 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
 
         // Create the Aeron client connection
         final Aeron aeron = Aeron.connect(aeronContext);
+        this.aeronConductorInvoker = aeron.conductorAgentInvoker();
 
         // Create the instance context
         this.vegaContext = new VegaContext(aeron, config);
@@ -134,14 +149,25 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         // Initialize the security information
         this.vegaContext.initializeSecurity(parameters.getSecurityParams());
 
+        // Start the threads shared by the recurrent tasks if the threading mode requires them
+        this.vegaContext.startSharedRunners();
+
         // Create autodiscovery manager
-        final AutodiscManager autodiscoManager = new AutodiscManager(aeron, config.getAutodiscConfig(), this.vegaContext.getInstanceUniqueId());
+        final AutodiscManager autodiscoManager = new AutodiscManager(aeron, config.getAutodiscConfig(), this.vegaContext.getInstanceUniqueId(),
+                this.vegaContext.getBackgroundRunner());
 
         // Set the autodiscovery manager
         this.vegaContext.setAutodiscoveryManager(autodiscoManager);
 
+        // Detect the collisions of the handles of the local topic publishers with the advertised ones
+        autodiscoManager.setPubHandleListener(this.vegaContext.getPublisherHandles());
+
         // Create the asynchronous request manager and start it
-        final AsyncRequestManager asyncRequestManager = new AsyncRequestManager(this.vegaContext.getInstanceUniqueId());
+        final AsyncRequestManager asyncRequestManager = new AsyncRequestManager(
+                this.vegaContext.getInstanceUniqueId(),
+                config.getResponsesConfig().getSentRequestPoolSize(),
+                config.getResponsesConfig().getRequestManagerThreadParams(),
+                this.vegaContext.getBackgroundRunner());
         this.vegaContext.setAsyncRequestManager(asyncRequestManager);
 
         // Initialize the control messages manager
@@ -149,6 +175,7 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
 
         // Initialize the managers to sendMsg and receive
         this.sendManager = new SendManager(this.vegaContext, this.controlMsgsManager.getOwnPubSecureChangesNotifier());
+        this.vegaContext.setRetransmissionRequestListener(this.sendManager);
         this.receiveManager = new ReceiveManager(this.vegaContext, this.controlMsgsManager.getSecureMessagesDecoder(), this.controlMsgsManager.getRecurityRequestsNotifier());
 
         // Start auto-discovery
@@ -228,6 +255,30 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         this.receiveManager.unsubscribefromPattern(topicPattern);
     }
 
+    @Override
+    public IRcvDispatcherStats getRcvDispatcherStats(@NonNull final String pollerName) {
+        return this.receiveManager.getRcvDispatcherStats(pollerName);
+    }
+
+    @Override
+    public IRcvGapRecoveryStats getRcvGapRecoveryStats(@NonNull final String pollerName) {
+        return this.receiveManager.getRcvGapRecoveryStats(pollerName);
+    }
+
+    @Override
+    public List<IRcvChannelStats> getRcvChannelStats() {
+        return this.receiveManager.getRcvChannelStats();
+    }
+
+    @Override
+    public int doWork() {
+        if (this.vegaContext.getTaskInvoker() == null) {
+            throw new IllegalStateException("doWork can only be called on instances with INVOKER threading mode");
+        }
+
+        return this.aeronConductorInvoker.invoke() + this.vegaContext.getTaskInvoker().invoke();
+    }
+
     @Override
     public void close() {
         log.info("Stopping the Manager ID [{}]", this.vegaContext.getInstanceUniqueId());
@@ -252,6 +303,9 @@ public final class VegaInstance implements IVegaInstance, AvailableImageHandler,
         // Stop the heartbeats timer
         this.vegaContext.stopHeartsbeatTimer();
 
+        // Stop the shared threads, all the tasks have been stopped already
+        this.vegaContext.stopSharedRunners();
+
         // Stop the Aeron connection
         this.vegaContext.getAeron().close();
 
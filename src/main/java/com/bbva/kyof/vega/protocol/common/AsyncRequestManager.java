@@ -1,14 +1,24 @@
 package com.bbva.kyof.vega.protocol.common;
 
+import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.RcvResponse;
 import com.bbva.kyof.vega.msg.SentRequest;
+import com.bbva.kyof.vega.util.threads.ISharedTaskRunner;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import org.agrona.DeadlineTimerWheel;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.CachedEpochClock;
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
 import org.agrona.concurrent.SleepingMillisIdleStrategy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * This class manages the asynchronous requests in the framework
@@ -16,17 +26,105 @@ import java.util.concurrent.atomic.AtomicInteger;
  * The purpose of this class is to control the active requests, timeouts, and memory usage.
  * <p>
  * A background thread that is always active will handle the closing of expired requests.
+ * <p>
+ * The request ids are created combining the instance id with a counter, the active requests are stored in a primitive map by the
+ * counter part of the id. If a pool size is given, the closed and expired requests are kept in a pool and reused for new requests.
+ * <p>
+ * The timeouts are scheduled on a timer wheel, so each iteration only checks the requests due in the elapsed ticks instead of all the
+ * active requests. The wheel is driven by a clock updated once per iteration. The requests notify the manager when they are closed or
+ * their expiration is reset to update the wheel, each changed request is queued once on a pre-allocated queue until the change is
+ * processed. If the queue is full the changed requests are found by checking all the active requests on the next iteration.
  */
 public class AsyncRequestManager extends RecurrentTask {
     /**
-     * List of requests that has timeouts
+     * Resolution of the timeouts wheel in milliseconds
+     */
+    private static final long TIMEOUTS_TICK_MILLIS = 1;
+
+    /**
+     * Number of ticks of the timeouts wheel, the requests that expire after a full turn of the wheel are checked once per turn
+     */
+    private static final int TIMEOUTS_TICKS_PER_WHEEL = 2048;
+
+    /**
+     * Capacity of the queue of changed requests
+     */
+    static final int CHANGED_REQUESTS_CAPACITY = 1024;
+
+    /**
+     * Active requests by the least significant bits of the request id
+     */
+    private final Long2ObjectHashMap<SentRequest> sentRequestsById = new Long2ObjectHashMap<>();
+
+    /**
+     * Active requests by the id of their timeout timer
+     */
+    private final Long2ObjectHashMap<SentRequest> sentRequestsByTimerId = new Long2ObjectHashMap<>();
+
+    /**
+     * Wheel with the timeouts of the active requests
+     */
+    private final DeadlineTimerWheel timeoutsWheel;
+
+    /**
+     * Requests closed or with the expiration reset since the last iteration, the queue doesn't take the lock of the manager
+     */
+    private final ManyToOneConcurrentArrayQueue<SentRequest> changedRequests = new ManyToOneConcurrentArrayQueue<>(CHANGED_REQUESTS_CAPACITY);
+
+    /**
+     * True if a changed request didn't fit in the queue, all the active requests have to be checked
+     */
+    private volatile boolean changedRequestsOverflow = false;
+
+    /**
+     * Changed requests found checking all the active requests after an overflow of the queue
+     */
+    private final List<SentRequest> overflowedRequests = new ArrayList<>();
+
+    /**
+     * Listener of the active requests that queues the changed ones
+     */
+    private final Consumer<SentRequest> requestChangeListener = this::queueChangedRequest;
+
+    /**
+     * Clock of the timeouts wheel, updated once per iteration
+     */
+    private final CachedEpochClock clock = new CachedEpochClock();
+
+    /**
+     * Handler of the expired timeouts of the wheel
+     */
+    private final DeadlineTimerWheel.TimerHandler timeoutHandler = this::onTimeoutExpiry;
+
+    /**
+     * Lock for the active requests map
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Most significant bits of the request ids, taken from the instance id
+     */
+    private final long requestIdMostSigBits;
+
+    /**
+     * Counter for the least significant bits of the request ids
+     */
+    private final AtomicLong requestIdCounter = new AtomicLong();
+
+    /**
+     * Pool of sent requests ready to be reused, null if they are not reused
+     */
+    private final ManyToManyConcurrentArrayQueue<SentRequest> sentRequestsPool;
+
+    /**
+     * Requests removed in the current iteration because they have been closed
      */
-    private final ConcurrentMap<UUID, SentRequest> sentRequestsById = new ConcurrentHashMap<>();
+    private final List<SentRequest> closedRequests = new ArrayList<>();
 
     /**
-     * Stores the number of actions performed in the current iteration
+     * Requests removed in the current iteration because they have expired
      */
-    private final AtomicInteger numActionsInIteration = new AtomicInteger(0);
+    private final List<SentRequest> expiredRequests = new ArrayList<>();
 
     /**
      * Constructor of a request sync manager
@@ -34,39 +132,249 @@ public class AsyncRequestManager extends RecurrentTask {
      * @param instanceId unique ID of the library instance
      */
     public AsyncRequestManager(final UUID instanceId) {
+        this(instanceId, 0);
+    }
+
+    /**
+     * Constructor of a request sync manager
+     *
+     * @param instanceId unique ID of the library instance
+     * @param poolSize   max number of sent requests kept for reuse, 0 to disable the reuse
+     */
+    public AsyncRequestManager(final UUID instanceId, final int poolSize) {
+        this(instanceId, poolSize, ThreadParams.DEFAULT);
+    }
+
+    /**
+     * Constructor of a request sync manager
+     *
+     * @param instanceId   unique ID of the library instance
+     * @param poolSize     max number of sent requests kept for reuse, 0 to disable the reuse
+     * @param threadParams parameters of the thread that expires the requests
+     */
+    public AsyncRequestManager(final UUID instanceId, final int poolSize, final ThreadParams threadParams) {
+        this(instanceId, poolSize, threadParams, null);
+    }
+
+    /**
+     * Constructor of a request sync manager
+     *
+     * @param instanceId   unique ID of the library instance
+     * @param poolSize     max number of sent requests kept for reuse, 0 to disable the reuse
+     * @param threadParams parameters of the thread that expires the requests
+     * @param sharedRunner shared runner of the manager, null to run it on its own thread
+     */
+    public AsyncRequestManager(final UUID instanceId, final int poolSize, final ThreadParams threadParams, final ISharedTaskRunner sharedRunner) {
         // 1 millisecond of idle strategy, request timeout is not considered part of the critical path
         super(new SleepingMillisIdleStrategy(1));
-        this.start("AsyncRequestManager_" + instanceId);
+        this.requestIdMostSigBits = instanceId.getMostSignificantBits();
+        this.sentRequestsPool = poolSize > 0 ? new ManyToManyConcurrentArrayQueue<>(poolSize) : null;
+        this.clock.update(System.currentTimeMillis());
+        this.timeoutsWheel = new DeadlineTimerWheel(TimeUnit.MILLISECONDS, this.clock.time(), TIMEOUTS_TICK_MILLIS, TIMEOUTS_TICKS_PER_WHEEL);
+        this.start("AsyncRequestManager_" + instanceId, threadParams, sharedRunner);
     }
 
     @Override
     public int action() {
-        this.numActionsInIteration.set(0);
+        this.clock.update(System.currentTimeMillis());
+        final long now = this.clock.time();
+
+        // Remove the closed and expired requests holding the lock, the listeners are notified without it
+        synchronized (this.lock) {
+            SentRequest changedRequest;
+            while ((changedRequest = this.changedRequests.poll()) != null) {
+                changedRequest.clearChangePending();
+                this.onRequestChanged(changedRequest);
+            }
+
+            if (this.changedRequestsOverflow) {
+                this.processOverflowedRequests();
+            }
 
-        // Check expiration for each active sent request
-        this.sentRequestsById.forEach((id, request) ->
-        {
             // Check should stop to avoid processing new requests if stopping
             if (!this.shouldStop()) {
-                if (request.isClosed()) {
-                    this.sentRequestsById.remove(request.getRequestId());
-                    this.numActionsInIteration.getAndIncrement();
-                } else if (request.hasExpired()) {
-                    this.sentRequestsById.remove(request.getRequestId());
-                    request.onRequestTimeout();
-                    this.numActionsInIteration.getAndIncrement();
-                }
+                this.pollTimeouts(now);
             }
-        });
+        }
 
-        return this.numActionsInIteration.get();
+        final int numActions = this.closedRequests.size() + this.expiredRequests.size();
+
+        for (final SentRequest request : this.expiredRequests) {
+            request.onRequestTimeout();
+            this.recycle(request);
+        }
+
+        for (final SentRequest request : this.closedRequests) {
+            this.recycle(request);
+        }
+
+        this.expiredRequests.clear();
+        this.closedRequests.clear();
+
+        return numActions;
     }
 
     @Override
     public void cleanUp() {
         // Close all pending requests
-        this.sentRequestsById.values().forEach(SentRequest::closeRequest);
-        this.sentRequestsById.clear();
+        synchronized (this.lock) {
+            this.sentRequestsById.values().forEach(SentRequest::closeRequest);
+            this.sentRequestsById.clear();
+            this.sentRequestsByTimerId.clear();
+            this.timeoutsWheel.clear();
+            this.changedRequests.clear();
+            this.changedRequestsOverflow = false;
+        }
+    }
+
+    /**
+     * Queue a request that has been closed or whose expiration has been reset, unless it is already queued
+     *
+     * @param request the changed request
+     */
+    private void queueChangedRequest(final SentRequest request) {
+        if (request.markChangePending() && !this.changedRequests.offer(request)) {
+            // The request keeps the mark, it will be found checking all the active requests
+            this.changedRequestsOverflow = true;
+        }
+    }
+
+    /**
+     * Process the changed requests that didn't fit in the queue, checking all the active requests. It should be called holding the lock.
+     */
+    private void processOverflowedRequests() {
+        this.changedRequestsOverflow = false;
+
+        for (final SentRequest request : this.sentRequestsById.values()) {
+            if (request.isChangePending()) {
+                this.overflowedRequests.add(request);
+            }
+        }
+
+        for (final SentRequest request : this.overflowedRequests) {
+            request.clearChangePending();
+            this.onRequestChanged(request);
+        }
+
+        this.overflowedRequests.clear();
+    }
+
+    /**
+     * Expire the timeouts of the ticks elapsed until the given time. If the wheel is empty it just moves to the current tick.
+     *
+     * @param now current time in milliseconds
+     */
+    private void pollTimeouts(final long now) {
+        if (this.timeoutsWheel.timerCount() == 0) {
+            this.timeoutsWheel.currentTickTime(now);
+            return;
+        }
+
+        // Each poll processes a single tick, repeat until the wheel reaches the current time
+        do {
+            this.timeoutsWheel.poll(now, this.timeoutHandler, Integer.MAX_VALUE);
+        } while (now >= this.timeoutsWheel.currentTickTime());
+    }
+
+    /**
+     * Called when the timeout of a request is reached on the wheel. The request is rescheduled if the expiration has been reset
+     * and the change has not been processed yet.
+     *
+     * @param timeUnit unit of the times of the wheel
+     * @param now      current time
+     * @param timerId  id of the expired timer
+     * @return true, the timer is always consumed
+     */
+    private boolean onTimeoutExpiry(final TimeUnit timeUnit, final long now, final long timerId) {
+        final SentRequest request = this.sentRequestsByTimerId.remove(timerId);
+
+        if (request == null) {
+            return true;
+        }
+
+        request.setTimeoutTimerId(DeadlineTimerWheel.NULL_DEADLINE);
+
+        if (request.isClosed()) {
+            this.removeRequest(request);
+            this.closedRequests.add(request);
+        } else if (request.getExpirationTime() > now) {
+            this.scheduleTimeout(request);
+        } else {
+            this.removeRequest(request);
+            this.expiredRequests.add(request);
+        }
+
+        return true;
+    }
+
+    /**
+     * Process a request that has been closed or whose expiration has been reset. It is ignored if it is no longer active.
+     *
+     * @param request the changed request
+     */
+    private void onRequestChanged(final SentRequest request) {
+        final long timerId = request.getTimeoutTimerId();
+
+        if (timerId == DeadlineTimerWheel.NULL_DEADLINE) {
+            return;
+        }
+
+        if (request.isClosed()) {
+            this.removeRequest(request);
+            this.closedRequests.add(request);
+        } else {
+            this.timeoutsWheel.cancelTimer(timerId);
+            this.sentRequestsByTimerId.remove(timerId);
+            this.scheduleTimeout(request);
+        }
+    }
+
+    /**
+     * Schedule the timeout of a request on its expiration time
+     *
+     * @param request the request to schedule
+     */
+    private void scheduleTimeout(final SentRequest request) {
+        final long timerId = this.timeoutsWheel.scheduleTimer(request.getExpirationTime());
+        request.setTimeoutTimerId(timerId);
+        this.sentRequestsByTimerId.put(timerId, request);
+    }
+
+    /**
+     * Remove an active request from the manager and cancel its timeout
+     *
+     * @param request the request to remove
+     */
+    private void removeRequest(final SentRequest request) {
+        request.setChangeListener(null);
+        this.sentRequestsById.remove(request.getRequestId().getLeastSignificantBits());
+
+        final long timerId = request.getTimeoutTimerId();
+        if (timerId != DeadlineTimerWheel.NULL_DEADLINE) {
+            this.timeoutsWheel.cancelTimer(timerId);
+            this.sentRequestsByTimerId.remove(timerId);
+            request.setTimeoutTimerId(DeadlineTimerWheel.NULL_DEADLINE);
+        }
+    }
+
+    /**
+     * Create a new request with a unique id, reusing a pooled request object if possible. The request is not added to the manager.
+     *
+     * @param topicName        the topicName the request belong to
+     * @param timeout          timeout for the request expiration
+     * @param responseListener listener for responses
+     * @return the created request
+     */
+    public SentRequest createRequest(final String topicName, final long timeout, final IResponseListener responseListener) {
+        final UUID requestId = new UUID(this.requestIdMostSigBits, this.requestIdCounter.incrementAndGet());
+
+        final SentRequest pooledRequest = this.sentRequestsPool == null ? null : this.sentRequestsPool.poll();
+        if (pooledRequest == null) {
+            return new SentRequest(topicName, requestId, timeout, responseListener);
+        }
+
+        pooledRequest.reuse(topicName, requestId, timeout, responseListener);
+        return pooledRequest;
     }
 
     /**
@@ -75,7 +383,16 @@ public class AsyncRequestManager extends RecurrentTask {
      * @param request the request to add
      */
     public void addNewRequest(final SentRequest request) {
-        this.sentRequestsById.put(request.getRequestId(), request);
+        synchronized (this.lock) {
+            request.setChangeListener(this.requestChangeListener);
+            this.sentRequestsById.put(request.getRequestId().getLeastSignificantBits(), request);
+            this.scheduleTimeout(request);
+
+            // Closed before the listener was set, remove it on the next iteration
+            if (request.isClosed()) {
+                this.queueChangedRequest(request);
+            }
+        }
     }
 
     /**
@@ -84,14 +401,32 @@ public class AsyncRequestManager extends RecurrentTask {
      * @param response the response to process
      */
     public void processResponse(final RcvResponse response) {
+        final UUID originalRequestId = response.getOriginalRequestId();
+
         // Find the request for the received response
-        final SentRequest sentRequest = this.sentRequestsById.get(response.getOriginalRequestId());
+        final SentRequest sentRequest;
+        synchronized (this.lock) {
+            sentRequest = this.sentRequestsById.get(originalRequestId.getLeastSignificantBits());
+        }
 
-        if (sentRequest != null) {
+        // The most significant bits may not match if the response is for a request of another instance
+        if (sentRequest != null && originalRequestId.equals(sentRequest.getRequestId())) {
             // Set the topic name
             response.setTopicName(sentRequest.getTopicName());
             // Notify the listener
             sentRequest.onResponseReceived(response);
         }
     }
+
+    /**
+     * Return a request that has been removed from the manager to the pool. The requests are only reused once the send has finished,
+     * since a request may expire while it is still being sent.
+     *
+     * @param request the request to return
+     */
+    private void recycle(final SentRequest request) {
+        if (this.sentRequestsPool != null && request.getSentResult() != null) {
+            this.sentRequestsPool.offer(request);
+        }
+    }
 }
@@ -2,12 +2,23 @@ package com.bbva.kyof.vega.protocol.common;
 
 import com.bbva.kyof.vega.autodiscovery.IAutodiscManager;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.config.general.ThreadingMode;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.protocol.publisher.IRetransmissionRequestListener;
+import com.bbva.kyof.vega.protocol.publisher.PublisherHandleRegistry;
+import com.bbva.kyof.vega.util.threads.ISharedTaskRunner;
+import com.bbva.kyof.vega.util.threads.SharedTaskInvoker;
+import com.bbva.kyof.vega.util.threads.SharedTaskRunner;
+import com.bbva.kyof.vega.util.threads.TaskTimer;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import io.aeron.Aeron;
 import lombok.Getter;
 import lombok.Setter;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
 
-import java.util.Timer;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -28,10 +39,10 @@ public class VegaContext {
     private final UUID instanceUniqueId = UUID.randomUUID();
 
     /**
-     * Timer that controls the tasks related with heartbeats
+     * Timer that controls the tasks related with heartbeats, it runs on the background shared runner if any
      */
     @Getter
-    private final Timer heartbeatsTimer = new Timer("VegaHeartbeatTimer_" + instanceUniqueId);
+    private TaskTimer heartbeatsTimer = new TaskTimer("VegaHeartbeatTimer_" + instanceUniqueId);
 
     /**
      * The configuration of the manager instance
@@ -53,6 +64,42 @@ public class VegaContext {
     @Setter
     private AsyncRequestManager asyncRequestManager;
 
+    /**
+     * Listener for the retransmission requests received from the subscribers
+     */
+    @Getter
+    @Setter
+    private IRetransmissionRequestListener retransmissionRequestListener;
+
+    /**
+     * Shared runner of the auto-discovery, request manager and control messages poller, null if they run on their own threads
+     */
+    @Getter
+    private ISharedTaskRunner backgroundRunner = null;
+
+    /**
+     * Shared runner of the receiver pollers, null if they run on their own threads
+     */
+    @Getter
+    private ISharedTaskRunner networkRunner = null;
+
+    /**
+     * Invoker of all the tasks in INVOKER threading mode, null in other modes
+     */
+    @Getter
+    private SharedTaskInvoker taskInvoker = null;
+
+    /**
+     * Shared runners of the asynchronous topic publisher senders by topic template name, they are created on first use
+     */
+    private final Map<String, ISharedTaskRunner> asyncSenderRunners = new HashMap<>();
+
+    /**
+     * Registry of the handles of the topic publishers with compact data header
+     */
+    @Getter
+    private final PublisherHandleRegistry publisherHandles = new PublisherHandleRegistry();
+
     /**
      * Security context
      */
@@ -78,6 +125,87 @@ public class VegaContext {
         this.heartbeatsTimer.purge();
     }
 
+    /**
+     * Create and start the shared runners required by the threading mode of the configuration. The timers of the instance run on the
+     * background shared runner if there is one.
+     */
+    public void startSharedRunners() {
+        final ThreadingMode threadingMode = this.instanceConfig.getThreadingMode();
+
+        if (threadingMode == ThreadingMode.INVOKER) {
+            this.taskInvoker = new SharedTaskInvoker("VegaInvoker_" + this.instanceUniqueId);
+            this.taskInvoker.start();
+            this.backgroundRunner = this.taskInvoker;
+            this.networkRunner = this.taskInvoker;
+        } else if (threadingMode == ThreadingMode.SHARED) {
+            this.backgroundRunner = new SharedTaskRunner("VegaShared_" + this.instanceUniqueId, this.instanceConfig.createSharedIdleStrategy(),
+                    this.instanceConfig.getSharedThreadParams());
+            this.backgroundRunner.start();
+            this.networkRunner = this.backgroundRunner;
+        } else if (threadingMode == ThreadingMode.SHARED_NETWORK) {
+            // 1 millisecond idle strategy like the dedicated background tasks, they are not in the critical path
+            this.backgroundRunner = new SharedTaskRunner("VegaSharedBackground_" + this.instanceUniqueId, new SleepingMillisIdleStrategy(1),
+                    this.instanceConfig.getSharedBackgroundThreadParams());
+            this.backgroundRunner.start();
+            this.networkRunner = new SharedTaskRunner("VegaSharedNetwork_" + this.instanceUniqueId, this.instanceConfig.createSharedIdleStrategy(),
+                    this.instanceConfig.getSharedThreadParams());
+            this.networkRunner.start();
+        }
+
+        if (this.backgroundRunner != null) {
+            this.heartbeatsTimer = this.createTaskTimer("VegaHeartbeatTimer_" + this.instanceUniqueId);
+        }
+    }
+
+    /**
+     * Create a new timer, it runs on the background shared runner if there is one
+     *
+     * @param name name of the timer
+     * @return the created timer
+     */
+    public TaskTimer createTaskTimer(final String name) {
+        return new TaskTimer(name, this.backgroundRunner);
+    }
+
+    /**
+     * Return the shared runner of the asynchronous topic publisher senders of the given topic template, it is created and started the
+     * first time. All the asynchronous publishers of the same template share the thread, that uses the sender idle strategy of the template.
+     *
+     * @param templateConfig the topic template of the asynchronous publisher
+     * @return the shared runner for the sender of the publisher
+     */
+    public ISharedTaskRunner getAsyncSenderRunner(final TopicTemplateConfig templateConfig) {
+        synchronized (this.asyncSenderRunners) {
+            ISharedTaskRunner runner = this.asyncSenderRunners.get(templateConfig.getName());
+
+            if (runner == null) {
+                runner = new SharedTaskRunner("VegaAsyncSender_" + templateConfig.getName() + "_" + this.instanceUniqueId, templateConfig.createAsyncSenderIdleStrategy(), ThreadParams.DEFAULT);
+                runner.start();
+                this.asyncSenderRunners.put(templateConfig.getName(), runner);
+            }
+
+            return runner;
+        }
+    }
+
+    /**
+     * Stop the shared runners, the tasks that still run on them are stopped as well
+     */
+    public void stopSharedRunners() {
+        synchronized (this.asyncSenderRunners) {
+            this.asyncSenderRunners.values().forEach(ISharedTaskRunner::close);
+            this.asyncSenderRunners.clear();
+        }
+
+        if (this.networkRunner != null && this.networkRunner != this.backgroundRunner) {
+            this.networkRunner.close();
+        }
+
+        if (this.backgroundRunner != null) {
+            this.backgroundRunner.close();
+        }
+    }
+
     /**
      * Initialize the security information using the provided security params. It will ignore the call if there are no parameters.
      *
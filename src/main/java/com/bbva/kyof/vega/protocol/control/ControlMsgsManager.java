@@ -78,7 +78,7 @@ public class ControlMsgsManager implements Closeable, IAutodiscInstanceListener
 
         // Create the poller for control messages
         this.rcvPoller = new ControlMsgsPoller(this.controlSubscriber, this.securityRequestsRcvHandler, this.securityRequester, this.vegaContext.getInstanceUniqueId());
-        this.rcvPoller.start();
+        this.rcvPoller.start(this.vegaContext.getInstanceConfig().getControlRcvConfig().getThreadParams(), this.vegaContext.getBackgroundRunner());
 
         // Subscribe to instance info changes
         this.vegaContext.getAutodiscoveryManager().subscribeToInstances(this);
@@ -3,7 +3,9 @@ package com.bbva.kyof.vega.protocol.control;
 import com.bbva.kyof.vega.Version;
 import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import com.bbva.kyof.vega.util.threads.ISharedTaskRunner;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import io.aeron.FragmentAssembler;
 import io.aeron.logbuffer.Header;
 import lombok.extern.slf4j.Slf4j;
@@ -91,8 +93,18 @@ class ControlMsgsPoller extends RecurrentTask {
      * Start the poller
      */
     void start() {
+        this.start(ThreadParams.DEFAULT, null);
+    }
+
+    /**
+     * Start the poller with the given thread parameters
+     *
+     * @param threadParams parameters of the poller thread
+     * @param sharedRunner shared runner of the poller, null to run it on its own thread
+     */
+    void start(final ThreadParams threadParams, final ISharedTaskRunner sharedRunner) {
         log.info("Starting control messages poller for instance {}", this.ownInstanceId);
-        this.start("ControlMsgsPoller_" + this.ownInstanceId);
+        this.start("ControlMsgsPoller_" + this.ownInstanceId, threadParams, sharedRunner);
     }
 
     @Override
@@ -10,6 +10,7 @@ import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
 import com.bbva.kyof.vega.util.crypto.RSACrypto;
 import com.bbva.kyof.vega.util.threads.BlockCancelTask;
+import com.bbva.kyof.vega.util.threads.TaskTimer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -48,7 +49,7 @@ class SecurityRequester implements
     /**
      * Timer used to schedule the sending of new security requests
      */
-    private final Timer securityRequestsTimer;
+    private final TaskTimer securityRequestsTimer;
 
     /**
      * Stores all the control publishers to send requests to other instances
@@ -93,7 +94,7 @@ class SecurityRequester implements
      */
     SecurityRequester(final VegaContext vegaContext, final ControlPublishers controlPublishers) {
         // Create the timer
-        this.securityRequestsTimer = new Timer("SecurityRequestTimer_" + vegaContext.getInstanceUniqueId());
+        this.securityRequestsTimer = vegaContext.createTaskTimer("SecurityRequestTimer_" + vegaContext.getInstanceUniqueId());
 
         this.controlPublishers = controlPublishers;
         this.ownInstanceId = vegaContext.getInstanceUniqueId();
@@ -1,9 +1,8 @@
 package com.bbva.kyof.vega.protocol.heartbeat;
 
+import com.bbva.kyof.vega.util.threads.TaskTimer;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Timer;
-
 /**
  * This class contains the CheckClientConnectedTask and HeartbeatTask in order to control
  * all the events related to heartbeats. It handle the start / stop of the different tasks
@@ -15,7 +14,7 @@ public class HeartbeatController {
     /**
      * Timer that handles the heartbeat tasks
      */
-    private final Timer timer;
+    private final TaskTimer timer;
 
     /**
      * The task that does the periodic heartbeat send
@@ -25,13 +24,13 @@ public class HeartbeatController {
     /**
      * Create a new controller and launch the tasks
      *
-     * @param timer      vega context
+     * @param timer      timer of the heartbeat tasks
      * @param topicName  name of the topic the controller belongs to
      * @param sender     instance that can send heartbeats
      * @param listener   user listener for heartbeats events
      * @param parameters user parameters for the heartbeat mechanism
      */
-    public HeartbeatController(final Timer timer, final String topicName, final IHeartbeatSender sender, final IClientConnectionListener listener, final HeartbeatParameters parameters) {
+    public HeartbeatController(final TaskTimer timer, final String topicName, final IHeartbeatSender sender, final IClientConnectionListener listener, final HeartbeatParameters parameters) {
         log.info("Activate sending Heartbeats to Topic [{}] with parameters [{}]", topicName, parameters);
 
         // Store the timer
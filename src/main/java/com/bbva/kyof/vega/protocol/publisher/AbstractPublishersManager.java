@@ -17,6 +17,7 @@ import java.io.Closeable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -39,6 +40,11 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
      */
     private final Map<String, T> topicPublishersByTopicName = new HashMap<>();
 
+    /**
+     * Stores the topic publishers by their unique id, it is accessed without lock to retransmit messages
+     */
+    private final Map<UUID, T> topicPublishersById = new ConcurrentHashMap<>();
+
     /**
      * Stores all the registered auto-discovery topic infos for quick lookup
      */
@@ -120,6 +126,7 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
             // Destroy all the topic publishers registered
             this.topicPublishersByTopicName.values().forEach(this::destroyTopicPublisher);
             this.topicPublishersByTopicName.clear();
+            this.topicPublishersById.clear();
 
             // It should be empty but clear anyway
             this.registeredTopicInfosByTopicId.clear();
@@ -165,6 +172,7 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
             }
 
             this.topicPublishersByTopicName.put(topicName, topicPublisher);
+            this.topicPublishersById.put(topicPublisher.getUniqueId(), topicPublisher);
 
             // Get the autodiscovery transport type for subscribers on the same transport
             final AutoDiscTransportType autoDiscSubTransport = this.convertToSubAutodiscTransportType(topicPublisher.getTopicConfig().getTransportType());
@@ -178,6 +186,9 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
             // Process created topic publisher
             this.processCreatedTopicPublisher(topicPublisher);
 
+            // Start the tasks of the publisher now that it is completely created
+            topicPublisher.start();
+
             // Return the created topic publisher
             return topicPublisher;
         }
@@ -204,6 +215,8 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
                 throw new VegaException("No topic publisher found for name " + topicName);
             }
 
+            this.topicPublishersById.remove(topicPublisher.getUniqueId());
+
             this.destroyTopicPublisher(topicPublisher);
         }
     }
@@ -243,7 +256,8 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
                 autoDiscTransportType,
                 topicPublisher.getUniqueId(),
                 topicPublisher.getTopicName(),
-                topicPublisher.hasSecurity() ? this.vegaContext.getSecurityContext().getSecurityId() : AutoDiscTopicInfo.NO_SECURED_CONSTANT);
+                topicPublisher.hasSecurity() ? this.vegaContext.getSecurityContext().getSecurityId() : AutoDiscTopicInfo.NO_SECURED_CONSTANT,
+                topicPublisher.getPublisherHandle());
 
         this.registeredTopicInfosByTopicId.put(autoDiscTopicInfo.getUniqueId(), autoDiscTopicInfo);
 
@@ -274,6 +288,18 @@ abstract class AbstractPublishersManager<T extends AbstractTopicPublisher> imple
         return this.topicPublishersByTopicName.get(topicName);
     }
 
+    /**
+     * Return the topic publisher with the given unique id
+     * <p>
+     * This call is thread-safe
+     *
+     * @param topicPublisherId the unique id of the topic publisher
+     * @return the topic publisher, null if there is none
+     */
+    T getTopicPublisherForId(final UUID topicPublisherId) {
+        return this.topicPublishersById.get(topicPublisherId);
+    }
+
     /**
      * Create the pub autodiscovery transport type using the transport media type given. It will just add the direction.
      *
@@ -1,25 +1,37 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
+import com.bbva.kyof.vega.config.general.BackPressurePolicy;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.msg.ResponseFuture;
+import com.bbva.kyof.vega.msg.ResponsesPublisher;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatController;
 import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatParameters;
 import com.bbva.kyof.vega.protocol.heartbeat.IClientConnectionListener;
 import com.bbva.kyof.vega.protocol.heartbeat.IHeartbeatSender;
+import com.bbva.kyof.vega.util.threads.BlockCancelTask;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.Closeable;
-import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base class for topic publisher implementations.
@@ -28,10 +40,45 @@ import java.util.UUID;
  * <p>
  * Each publisher belongs to a single topicName and handles the sending of messages to all the "aeron publishers" associated to that topicName.
  * <p>
- * The class is thread-safe
+ * If the topic template is configured as thread confined, the publisher is owned by a single thread and no lock is taken on the send path.
+ * In that case messages and requests should always be sent from the same thread and heartbeats are not supported.
+ * <p>
+ * If batching is enabled in the topic template, consecutive messages are accumulated and sent together in a single
+ * {@link MsgType#DATA_BATCH} message when the batch is full, when the linger time expires, on an explicit {@link #flush()} or before
+ * sending a request. The linger time is controlled by a task in the instance timer, or checked on each send if the publisher is thread
+ * confined. Batching is not supported on secure topics.
+ * <p>
+ * When a message cannot be sent due to back pressure the configured {@link BackPressurePolicy} is applied. With RETRY and BLOCK the send
+ * is retried using the configured idle strategy, holding the lock of the publisher. With DROP_OLDEST the message is copied into a bounded
+ * buffer and sent on the next send or flush, dropping the oldest pending message when full. With CONFLATE the messages sent with a
+ * conflation key are kept in a bounded buffer where only the newest message of each key is kept, the replaced messages are seen by
+ * the subscribers as lost messages. Requests, claims and messages without conflation key are never buffered, they are rejected with
+ * back pressure while there are pending messages.
+ * <p>
+ * If the topic template is configured as asynchronous, the messages are copied into the ring buffer of an {@link AsyncPublisherSender}
+ * and sent from the sender thread shared by the asynchronous publishers of the topic template, where the back pressure policy is applied. Requests, explicit flushes and messages too big for the
+ * ring buffer wait until the previously enqueued messages have been sent to keep the order. Claims are never done directly in Aeron.
+ * <p>
+ * If gap recovery is enabled in the topic template, a copy of each data message is kept in a {@link RetransmissionCache} when its
+ * sequence number is assigned, even if the send fails. The subscribers that detect a gap request the lost messages and they are sent
+ * again one by one from the receiver poller of the instance. Requests, claims and conflated messages are never retransmitted.
+ * <p>
+ * The periodic flush task and the asynchronous sender are started by {@link #start()} once the publisher has been constructed.
+ * <p>
+ * The class is thread-safe unless it is thread confined
  */
 @Slf4j
 abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSender, Closeable {
+    /**
+     * Period in milliseconds of the task that sends the pending messages of the drop oldest policy if batching is not enabled
+     */
+    private static final long PENDING_MSGS_FLUSH_PERIOD = 1;
+
+    /**
+     * Max number of messages retransmitted for a single request, the retransmissions run on the receiver poller thread
+     */
+    static final int MAX_RETRANSMITS_PER_REQUEST = 256;
+
     /**
      * Topic name represented by the topic publisher
      */
@@ -62,19 +109,120 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
     private long sequenceNumber = 0;
 
     /**
-     * Random number generator for request id's
+     * Content for a sent heartbeat request
      */
-    private final Random rnd = new Random(System.nanoTime());
+    private final UnsafeBuffer heartbeatContent = new UnsafeBuffer(new byte[0]);
 
     /**
-     * Content for a sent heartbeat request
+     * True if the topic publisher is owned by a single thread and no lock should be taken on the send path
      */
-    private final UnsafeBuffer heartbeatContent = new UnsafeBuffer(new byte[0]);
+    @Getter
+    private final boolean threadConfined;
+
+    /**
+     * Handle of the topic publisher that identifies it in the compact data headers, null if the compact header is disabled
+     */
+    private final PublisherHandle publisherHandle;
 
     /**
      * True if the topic publisher has been closed
      */
-    private boolean closed = false;
+    private volatile boolean closed = false;
+
+    /**
+     * True once the close has started, the sends are not retried anymore and the waiting threads are released
+     */
+    private volatile boolean closeRequested = false;
+
+    /**
+     * True once the periodic flush task and the asynchronous sender have been started
+     */
+    private volatile boolean started = false;
+
+    /**
+     * Sender of the asynchronous publisher, null if the publisher is synchronous
+     */
+    private final AsyncPublisherSender asyncSender;
+
+    /**
+     * Batch for pending messages, null if batching is not enabled
+     */
+    private final TopicMsgBatch msgBatch;
+
+    /**
+     * Max time in nanoseconds a message can wait in the batch
+     */
+    private final long batchLingerNanos;
+
+    /**
+     * Time in nanoseconds when the first message of the current batch was added, only used by thread confined publishers
+     */
+    private long batchStartNanos = 0;
+
+    /**
+     * Task that sends the pending batch when the linger time expires and the pending messages of the drop oldest policy, null if not active
+     */
+    private BlockCancelTask flushTask = null;
+
+    /**
+     * True if the sends should be retried on back pressure
+     */
+    private final boolean retryOnBackPressure;
+
+    /**
+     * Max time in nanoseconds to retry a send, 0 if it should be retried without limit
+     */
+    private final long backPressureRetryTimeoutNanos;
+
+    /**
+     * Idle strategy between retries, null if the sends are not retried
+     */
+    private final IdleStrategy backPressureIdleStrategy;
+
+    /**
+     * Pending messages that could not be sent due to back pressure, null if the policy is not drop oldest
+     */
+    private final PendingMsgsBuffer pendingMsgs;
+
+    /**
+     * Newest pending message of each conflation key that could not be sent due to back pressure, null if the policy is not conflate
+     */
+    private final ConflationBuffer conflationBuffer;
+
+    /**
+     * Number of times a send has been retried due to back pressure
+     */
+    private final AtomicLong backPressureRetries = new AtomicLong();
+
+    /**
+     * Number of pending messages dropped due to back pressure
+     */
+    private final AtomicLong backPressureDrops = new AtomicLong();
+
+    /**
+     * Number of pending messages replaced by a newer message with the same conflation key
+     */
+    private final AtomicLong conflatedMsgs = new AtomicLong();
+
+    /**
+     * Number of batched messages discarded because the batch failed with an error other than back pressure
+     */
+    private final AtomicLong batchDrops = new AtomicLong();
+
+    /**
+     * Copies of the last sent messages to retransmit them, null if gap recovery is not enabled
+     */
+    private final RetransmissionCache retransmissionCache;
+
+    /**
+     * Number of messages retransmitted on request of the subscribers
+     */
+    private final AtomicLong retransmittedMsgs = new AtomicLong();
+
+    /**
+     * Number of requested messages that could not be retransmitted
+     */
+    private final AtomicLong retransmissionMisses = new AtomicLong();
 
     /**
      * Heartbeat controller
@@ -97,39 +245,551 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
         this.topicName = topicName;
         this.topicConfig = topicConfig;
         this.vegaContext = vegaContext;
+        this.threadConfined = topicConfig.isThreadConfinedPublisher();
+
+        if (topicConfig.isCompactDataHeader() && this.hasSecurity()) {
+            log.warn("Compact data header is not supported on secure topics, it will be disabled for topicName [{}]", topicName);
+        }
+
+        final boolean compactDataHeader = topicConfig.isCompactDataHeader() && !this.hasSecurity();
+        this.publisherHandle = compactDataHeader ? vegaContext.getPublisherHandles().createHandle(this.uniqueId) : null;
+
+        if (topicConfig.isBatchingEnabled() && this.hasSecurity()) {
+            log.warn("Batching is not supported on secure topics, it will be disabled for topicName [{}]", topicName);
+        }
+
+        if (topicConfig.isBatchingEnabled() && !this.hasSecurity()) {
+            final int headersSize = compactDataHeader ? PublicationSender.COMPACT_DATA_MSG_HEADERS_SIZE : PublicationSender.DATA_MSG_HEADERS_SIZE;
+            this.msgBatch = new TopicMsgBatch(topicConfig.getBatchMaxSize() - headersSize);
+            this.batchLingerNanos = TimeUnit.MILLISECONDS.toNanos(topicConfig.getBatchLingerTime());
+        } else {
+            this.msgBatch = null;
+            this.batchLingerNanos = 0;
+        }
+
+        final BackPressurePolicy backPressurePolicy = topicConfig.getBackPressurePolicy() == null ? BackPressurePolicy.FAIL_FAST : topicConfig.getBackPressurePolicy();
+        this.retryOnBackPressure = backPressurePolicy == BackPressurePolicy.RETRY || backPressurePolicy == BackPressurePolicy.BLOCK;
+        this.backPressureRetryTimeoutNanos = backPressurePolicy == BackPressurePolicy.RETRY ? topicConfig.getBackPressureRetryTimeout() : 0;
+        this.backPressureIdleStrategy = this.retryOnBackPressure ? topicConfig.createBackPressureIdleStrategy() : null;
+        this.pendingMsgs = backPressurePolicy == BackPressurePolicy.DROP_OLDEST ? new PendingMsgsBuffer(topicConfig.getBackPressureBufferSize()) : null;
+        this.conflationBuffer = backPressurePolicy == BackPressurePolicy.CONFLATE ? new ConflationBuffer(topicConfig.getBackPressureBufferSize()) : null;
+        this.retransmissionCache = topicConfig.isGapRecoveryEnabled() ? new RetransmissionCache(topicConfig.getRetransmissionWindowSize(), topicConfig.getRetransmissionBufferSize()) : null;
+
+        if (topicConfig.isAsyncPublisher()) {
+            this.asyncSender = new AsyncPublisherSender(this, topicConfig.getAsyncPublisherBufferSize(), topicConfig.getAsyncOverflowPolicy(), topicConfig::createAsyncSenderIdleStrategy);
+        } else {
+            this.asyncSender = null;
+        }
+    }
+
+    /**
+     * Start the periodic flush task and the asynchronous sender if they are required by the topic template. They run on other threads,
+     * so they are not started until the publisher has been completely constructed.
+     */
+    void start() {
+        synchronized (this.lock) {
+            if (this.started || this.closed) {
+                return;
+            }
+
+            if (this.msgBatch != null) {
+                this.startFlushTask(this.topicConfig.getBatchLingerTime());
+            } else if (this.pendingMsgs != null || this.conflationBuffer != null) {
+                this.startFlushTask(PENDING_MSGS_FLUSH_PERIOD);
+            }
+
+            if (this.asyncSender != null) {
+                this.asyncSender.start("AsyncPublisherSender_" + this.topicName, ThreadParams.DEFAULT, this.vegaContext.getAsyncSenderRunner(this.topicConfig));
+            }
+
+            this.started = true;
+        }
+    }
+
+    /**
+     * Start the task that sends the pending batch and pending messages periodically. Thread confined publishers check the linger time
+     * on each send instead.
+     *
+     * @param period the period of the task in milliseconds
+     */
+    private void startFlushTask(final long period) {
+        if (this.threadConfined) {
+            return;
+        }
+
+        this.flushTask = new BlockCancelTask() {
+            @Override
+            public void action() {
+                flushSync();
+            }
+        };
+
+        this.vegaContext.getHeartbeatsTimer().schedule(this.flushTask, period, period);
     }
 
     @Override
     public PublishResult sendMsg(final DirectBuffer message, final int offset, final int length) {
+        if (this.asyncSender != null) {
+            return this.sendMsgAsync(message, offset, length);
+        }
+
+        // Thread confined publishers are owned by a single thread, there is no need to lock
+        if (this.threadConfined) {
+            return this.sendMsgInternal(message, offset, length);
+        }
+
         synchronized (this.lock) {
-            if (log.isTraceEnabled()) {
-                log.trace("Sending data message. TopicName [{}]. TopicId [{}]", this.topicName, this.uniqueId);
+            return this.sendMsgInternal(message, offset, length);
+        }
+    }
+
+    @Override
+    public PublishResult sendMsg(final long conflationKey, final DirectBuffer message, final int offset, final int length) {
+        if (this.conflationBuffer == null) {
+            return this.sendMsg(message, offset, length);
+        }
+
+        // Thread confined publishers are owned by a single thread, there is no need to lock
+        if (this.threadConfined) {
+            return this.sendConflatableMsgInternal(conflationKey, message, offset, length);
+        }
+
+        synchronized (this.lock) {
+            return this.sendConflatableMsgInternal(conflationKey, message, offset, length);
+        }
+    }
+
+    /**
+     * Send a normal message with a conflation key, the caller is responsible of the synchronization. If the message is back pressured
+     * or there are still pending messages, it is kept in the conflation buffer replacing the pending message with the same key.
+     *
+     * @param conflationKey the conflation key of the message
+     * @param message       the binary message to send
+     * @param offset        Offset for the message start in the buffer
+     * @param length        Length of the message starting in the given offset
+     * @return the enum with the result of the publication, OK if the message has been buffered
+     */
+    private PublishResult sendConflatableMsgInternal(final long conflationKey, final DirectBuffer message, final int offset, final int length) {
+        if (log.isTraceEnabled()) {
+            log.trace("Sending conflatable data message. TopicName [{}]. TopicId [{}]. Key [{}]", this.topicName, this.uniqueId, conflationKey);
+        }
+
+        // Make sure the publisher has not been closed
+        if (this.closed) {
+            log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // Add a unit to the sequence number
+        this.sequenceNumber = this.sequenceNumber + 1;
+
+        // Send the pending messages first, if there are still pending messages buffer it after them to keep the order
+        if (this.sendConflatedMsgs() == PublishResult.BACK_PRESSURED) {
+            this.addConflatedMsg(conflationKey, message, this.sequenceNumber, offset, length);
+            return PublishResult.OK;
+        }
+
+        final PublishResult result = this.sendToAeron(message, this.sequenceNumber, offset, length);
+
+        if (result == PublishResult.BACK_PRESSURED) {
+            this.addConflatedMsg(conflationKey, message, this.sequenceNumber, offset, length);
+            return PublishResult.OK;
+        }
+
+        return result;
+    }
+
+    /**
+     * Enqueue a normal message in the ring buffer of the asynchronous sender. If it doesn't fit, wait for the pending messages and send
+     * it synchronously.
+     *
+     * @param message the binary message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return the enum with the result of the enqueue
+     */
+    private PublishResult sendMsgAsync(final DirectBuffer message, final int offset, final int length) {
+        if (this.closeRequested) {
+            log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        if (this.asyncSender.canOffer(length)) {
+            return this.asyncSender.offer(message, offset, length);
+        }
+
+        this.asyncSender.awaitDrained();
+
+        synchronized (this.lock) {
+            return this.sendMsgInternal(message, offset, length);
+        }
+    }
+
+    /**
+     * Called by the asynchronous sender when a message is discarded because there is no room in the ring buffer or because the
+     * sender thread could not send it
+     */
+    void onAsyncMsgDropped() {
+        this.backPressureDrops.incrementAndGet();
+    }
+
+    /**
+     * Send a normal message, the caller is responsible of the synchronization
+     *
+     * @param message the binary message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return the enum with the result of the publication
+     */
+    PublishResult sendMsgInternal(final DirectBuffer message, final int offset, final int length) {
+        if (log.isTraceEnabled()) {
+            log.trace("Sending data message. TopicName [{}]. TopicId [{}]", this.topicName, this.uniqueId);
+        }
+
+        // Make sure the publisher has not been closed
+        if (this.closed) {
+            log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        if (this.msgBatch != null) {
+            return this.batchMsg(message, offset, length);
+        }
+
+        // Add a unit to the sequence number
+        this.sequenceNumber = this.sequenceNumber + 1;
+        this.cacheForRetransmission(message, offset, length);
+
+        return this.sendDataToAeron(MsgType.DATA, message, this.sequenceNumber, offset, length);
+    }
+
+    /**
+     * Add a normal message to the batch, sending the pending messages first if there is no room for it.
+     * <p>
+     * If the pending messages cannot be sent, the message is rejected with the same result and no sequence number is consumed. If there
+     * are no subscribers the pending messages are discarded and the message is batched as usual.
+     *
+     * @param message the binary message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return the enum with the result of the publication
+     */
+    private PublishResult batchMsg(final DirectBuffer message, final int offset, final int length) {
+        // There is no linger task for thread confined publishers, check the linger time now
+        if (this.threadConfined && !this.msgBatch.isEmpty() && System.nanoTime() - this.batchStartNanos >= this.batchLingerNanos) {
+            this.flushBatch();
+        }
+
+        // Make room for the message sending the pending ones
+        if (!this.msgBatch.hasRoom(length)) {
+            final PublishResult flushResult = this.flushBatch();
+
+            if (flushResult != PublishResult.OK && flushResult != PublishResult.NOT_CONNECTED) {
+                return flushResult;
             }
+        }
+
+        // Add a unit to the sequence number
+        this.sequenceNumber = this.sequenceNumber + 1;
+        this.cacheForRetransmission(message, offset, length);
+
+        // If it is too big to be batched send it alone, the batch is empty at this point so the order is kept
+        if (!this.msgBatch.canBatch(length)) {
+            return this.sendDataToAeron(MsgType.DATA, message, this.sequenceNumber, offset, length);
+        }
+
+        if (this.threadConfined && this.msgBatch.isEmpty()) {
+            this.batchStartNanos = System.nanoTime();
+        }
+
+        this.msgBatch.add(this.sequenceNumber, message, offset, length);
+
+        // Send it as soon as it is full, if it fails it will be retried on the next send
+        if (this.msgBatch.isFull()) {
+            this.flushBatch();
+        }
 
-            // Make sure the publisher has not been closed
+        return PublishResult.OK;
+    }
+
+    /**
+     * Keep a copy of the message with the current sequence number if gap recovery is enabled
+     *
+     * @param message the binary message to keep
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     */
+    private void cacheForRetransmission(final DirectBuffer message, final int offset, final int length) {
+        if (this.retransmissionCache != null) {
+            this.retransmissionCache.add(this.sequenceNumber, message, offset, length);
+        }
+    }
+
+    /**
+     * Retransmit the messages of a range of sequence numbers requested by a subscriber. Each message is sent once, the messages that
+     * are no longer in the retransmission window are skipped and the retransmission stops on back pressure or after
+     * {@link #MAX_RETRANSMITS_PER_REQUEST} messages, the subscriber will report the messages that have not been received as lost.
+     *
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     */
+    void retransmit(final long firstSequenceNumber, final long lastSequenceNumber) {
+        if (this.retransmissionCache == null) {
+            return;
+        }
+
+        synchronized (this.lock) {
             if (this.closed) {
-                log.error("Error, trying to send a message on a closed publisher on topicName [{}]", this.topicName);
-                return PublishResult.UNEXPECTED_ERROR;
+                return;
             }
 
-            // Add a unit to the sequence number
-            this.sequenceNumber = this.sequenceNumber + 1;
+            // Never go beyond the last sequence number assigned
+            final long last = Math.min(lastSequenceNumber, this.sequenceNumber);
+
+            // Skip at once the messages older than the window, they cannot be in the cache
+            final long first = Math.max(firstSequenceNumber, this.sequenceNumber - this.retransmissionCache.getWindowSize() + 1);
+            final long numSkipped = Math.min(first, last + 1) - firstSequenceNumber;
+            if (numSkipped > 0) {
+                this.retransmissionMisses.addAndGet(numSkipped);
+            }
+
+            // Limit the messages retransmitted in a single call to not stall the receiver poller
+            final long end = Math.min(last, first + MAX_RETRANSMITS_PER_REQUEST - 1);
+            if (end < last) {
+                log.debug("Retransmission of [{}] messages limited to [{}]. TopicName [{}]", last - first + 1, MAX_RETRANSMITS_PER_REQUEST, this.topicName);
+                this.retransmissionMisses.addAndGet(last - end);
+            }
 
-            return this.sendToAeron(message, this.sequenceNumber, offset, length);
+            for (long seq = first; seq <= end; seq++) {
+                if (!this.retransmissionCache.contains(seq)) {
+                    this.retransmissionMisses.incrementAndGet();
+                    continue;
+                }
+
+                final PublishResult result = this.sendToAeron(
+                        this.retransmissionCache.getBuffer(),
+                        seq,
+                        this.retransmissionCache.getOffset(seq),
+                        this.retransmissionCache.getLength(seq));
+
+                if (result == PublishResult.BACK_PRESSURED) {
+                    log.debug("Retransmission back pressured at sequence number [{}]. TopicName [{}]", seq, this.topicName);
+                    this.retransmissionMisses.addAndGet(end - seq + 1);
+                    return;
+                }
+
+                this.retransmittedMsgs.incrementAndGet();
+            }
         }
     }
 
     @Override
-    public SentRequest sendRequest(final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener) {
+    public PublishResult flush() {
+        // Wait for the messages enqueued in the asynchronous sender first
+        if (this.asyncSender != null) {
+            this.asyncSender.awaitDrained();
+        }
+
+        return this.flushSync();
+    }
+
+    /**
+     * Send the pending batch and pending messages if any without waiting for the asynchronous sender
+     *
+     * @return the result of the publication
+     */
+    private PublishResult flushSync() {
+        // Thread confined publishers are owned by a single thread, there is no need to lock
+        if (this.threadConfined) {
+            return this.flushInternal();
+        }
+
+        synchronized (this.lock) {
+            return this.flushInternal();
+        }
+    }
+
+    /**
+     * Send the pending batch and pending messages if any, the caller is responsible of the synchronization
+     *
+     * @return the result of the publication
+     */
+    PublishResult flushInternal() {
+        if (this.closed) {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        final PublishResult result = this.flushBatch();
+        if (result != PublishResult.OK) {
+            return result;
+        }
+
+        final PublishResult pendingResult = this.sendPendingMsgs();
+        if (pendingResult != PublishResult.OK) {
+            return pendingResult;
+        }
+
+        return this.sendConflatedMsgs();
+    }
+
+    /**
+     * Send the pending messages of the batch. If the result is back pressure the messages are kept to retry later, for any
+     * other result the batch is emptied. If there are no subscribers the messages are discarded as it happens with unbatched sends.
+     * The sends of the batched messages already returned OK, if the batch fails with any other error the messages are counted as
+     * dropped.
+     *
+     * @return the result of the publication, OK if there is nothing to send
+     */
+    private PublishResult flushBatch() {
+        if (this.msgBatch == null || this.msgBatch.isEmpty()) {
+            return PublishResult.OK;
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Sending batch of [{}] messages. TopicName [{}]. TopicId [{}]", this.msgBatch.getNumMessages(), this.topicName, this.uniqueId);
+        }
+
+        final PublishResult result = this.sendDataToAeron(MsgType.DATA_BATCH, this.msgBatch.getBuffer(), this.msgBatch.getFirstSequenceNumber(), 0, this.msgBatch.getLength());
+
+        if (result == PublishResult.BACK_PRESSURED) {
+            return result;
+        }
+
+        if (result == PublishResult.NOT_CONNECTED) {
+            if (log.isDebugEnabled()) {
+                log.debug("Discarding batch of [{}] messages, there are no subscribers. TopicName [{}]. TopicId [{}]", this.msgBatch.getNumMessages(), this.topicName, this.uniqueId);
+            }
+        } else if (result != PublishResult.OK) {
+            log.warn("Dropping batch of [{}] messages, send result [{}]. TopicName [{}]. TopicId [{}]", this.msgBatch.getNumMessages(), result, this.topicName, this.uniqueId);
+            this.batchDrops.addAndGet(this.msgBatch.getNumMessages());
+        }
+
+        this.msgBatch.reset();
+        return result;
+    }
+
+    @Override
+    public PublishResult tryClaim(final int length, @NonNull final PublisherClaim claim) {
+        // Thread confined publishers are owned by a single thread, there is no need to lock
+        if (this.threadConfined) {
+            return this.tryClaimInternal(length, claim);
+        }
+
         synchronized (this.lock) {
-            return this.sendRequest(MsgType.DATA_REQ, message, offset, length, timeout, respListener);
+            return this.tryClaimInternal(length, claim);
+        }
+    }
+
+    /**
+     * Claim a region to write a normal message, the caller is responsible of the synchronization
+     *
+     * @param length length of the message to write
+     * @param claim  reusable claim that will contain the region to write the message
+     * @return the enum with the result of the claim
+     */
+    private PublishResult tryClaimInternal(final int length, final PublisherClaim claim) {
+        if (log.isTraceEnabled()) {
+            log.trace("Claiming data message of length [{}]. TopicName [{}]. TopicId [{}]", length, this.topicName, this.uniqueId);
+        }
+
+        // Make sure the publisher has not been closed
+        if (this.closed) {
+            log.error("Error, trying to claim a message on a closed publisher on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // The claim cannot be reused until committed or aborted
+        if (claim.isActive()) {
+            log.error("Error, trying to use a claim that is still active on topicName [{}]", this.topicName);
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // If it cannot be claimed directly in Aeron, the message will be sent with a normal send on commit
+        if (this.asyncSender != null || !this.canClaimFromAeron(length)) {
+            claim.activateCopy(this, length);
+            return PublishResult.OK;
+        }
+
+        // Send the pending batch and messages first to keep the order
+        final PublishResult flushResult = this.flushPendingBeforeUnbuffered();
+        if (flushResult == PublishResult.BACK_PRESSURED) {
+            return flushResult;
+        }
+
+        // Try the claim with the next sequence number, it will only be consumed if the claim succeeds
+        final long nextSequenceNumber = this.sequenceNumber + 1;
+        PublishResult result = this.claimFromAeron(length, nextSequenceNumber, claim);
+
+        if (this.retryOnBackPressure && result == PublishResult.BACK_PRESSURED) {
+            final long retryStartNanos = this.startRetries();
+            while (this.shouldRetry(result, retryStartNanos)) {
+                result = this.claimFromAeron(length, nextSequenceNumber, claim);
+            }
+        }
+
+        if (result == PublishResult.OK) {
+            this.sequenceNumber = nextSequenceNumber;
         }
+
+        return result;
+    }
+
+    @Override
+    public SentRequest sendRequest(final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener) {
+        final SentRequest request = this.vegaContext.getAsyncRequestManager().createRequest(this.topicName, timeout, respListener);
+        this.sendUserRequest(request, message, offset, length);
+        return request;
+    }
+
+    @Override
+    public CompletableFuture<IRcvResponse> sendRequestAsync(final DirectBuffer message, final int offset, final int length, final long timeout, final Executor executor) {
+        final ResponseFuture future = new ResponseFuture(executor);
+        final SentRequest request = this.vegaContext.getAsyncRequestManager().createRequest(this.topicName, timeout, future);
+        future.onRequestCreated(request);
+        future.onRequestSent(this.sendUserRequest(request, message, offset, length));
+        return future;
+    }
+
+    @Override
+    public Flow.Publisher<IRcvResponse> sendRequestPublisher(final DirectBuffer message, final int offset, final int length, final long timeout, final int expectedResponses, final Executor executor) {
+        final ResponsesPublisher publisher = new ResponsesPublisher(expectedResponses, executor);
+        final SentRequest request = this.vegaContext.getAsyncRequestManager().createRequest(this.topicName, timeout, publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(this.sendUserRequest(request, message, offset, length));
+        return publisher;
     }
 
     @Override
     public void sendHeartbeat(final IResponseListener responseListener, final long timeout) {
+        final SentRequest request = this.vegaContext.getAsyncRequestManager().createRequest(this.topicName, timeout, responseListener);
+
         synchronized (this.lock) {
-            this.sendRequest(MsgType.HEARTBEAT_REQ, this.heartbeatContent, 0, 0, timeout, responseListener);
+            this.sendRequest(MsgType.HEARTBEAT_REQ, request, this.heartbeatContent, 0, 0);
+        }
+    }
+
+    /**
+     * Send a request of the user with the right synchronization, once the messages enqueued in the asynchronous sender have been sent
+     *
+     * @param request the request to send
+     * @param message The request message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return the result of the send, the request object cannot be used to get it since it may be reused once closed
+     */
+    private PublishResult sendUserRequest(final SentRequest request, final DirectBuffer message, final int offset, final int length) {
+        // Wait for the messages enqueued in the asynchronous sender first to keep the order
+        if (this.asyncSender != null) {
+            this.asyncSender.awaitDrained();
+        }
+
+        // Thread confined publishers are owned by a single thread, there is no need to lock
+        if (this.threadConfined) {
+            return this.sendRequest(MsgType.DATA_REQ, request, message, offset, length);
+        }
+
+        synchronized (this.lock) {
+            return this.sendRequest(MsgType.DATA_REQ, request, message, offset, length);
         }
     }
 
@@ -139,19 +799,18 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
      * It will send the provided offset and length to get the contents in the buffer to send
      * <p>
      * Try to reuse buffers if possible to reduce memory allocation.
+     * <p>
+     * The result is also set in the request, but once added to the request manager the request may be closed and the object reused
+     * for a new request, so the returned result should be used instead.
      *
-     * @param msgType      framework type of message to send
-     * @param message      The request message to send
-     * @param offset       Offset for the message start in the buffer
-     * @param length       Length of the message starting in the given offset
-     * @param timeout      the timeout of the request in milliseconds
-     * @param respListener Listener for responses on the request. If null no responses will be processed.
-     * @return an object that represent the sent request, containing the request ID and other useful information like the publish result
-     */
-    private SentRequest sendRequest(final byte msgType, final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener) {
-        // Create the request object
-        final SentRequest request = new SentRequest(this.topicName, timeout, respListener, this.rnd);
-
+     * @param msgType framework type of message to send
+     * @param request the request to send, created by the request manager, it may be a reused object
+     * @param message The request message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return the result of the send
+     */
+    private PublishResult sendRequest(final byte msgType, final SentRequest request, final DirectBuffer message, final int offset, final int length) {
         if (log.isTraceEnabled()) {
             log.trace("Sending request message. TopicName [{}]. TopicId [{}]. RequestId [{}]", this.topicName, this.uniqueId, request.getRequestId());
         }
@@ -160,9 +819,19 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
         if (this.closed) {
             log.error("Error, trying to send a request on a closed publisher on topicName [{}]", this.topicName);
             request.setSentResult(PublishResult.UNEXPECTED_ERROR);
-            return request;
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        // Send the pending batch and messages first to keep the order
+        final PublishResult flushResult = this.flushPendingBeforeUnbuffered();
+        if (flushResult == PublishResult.BACK_PRESSURED) {
+            request.setSentResult(flushResult);
+            return flushResult;
         }
 
+        // Take the id before adding it to the request manager, from then on a response may close it and the object may be reused
+        final UUID requestId = request.getRequestId();
+
         // Add to the request manager
         this.vegaContext.getAsyncRequestManager().addNewRequest(request);
 
@@ -170,39 +839,309 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
         this.sequenceNumber = this.sequenceNumber + 1;
 
         // Send the request to all the internal Aeron publishers
-        request.setSentResult(this.sendRequestToAeron(msgType, request.getRequestId(), message, this.sequenceNumber, offset, length));
+        PublishResult result = this.sendRequestToAeron(msgType, requestId, message, this.sequenceNumber, offset, length);
 
-        return request;
+        if (this.retryOnBackPressure && result == PublishResult.BACK_PRESSURED) {
+            final long retryStartNanos = this.startRetries();
+            while (this.shouldRetry(result, retryStartNanos)) {
+                result = this.sendRequestToAeron(msgType, requestId, message, this.sequenceNumber, offset, length);
+            }
+        }
+
+        request.setSentResult(result);
+
+        return result;
+    }
+
+    /**
+     * Send a data message or a batch applying the back pressure policy
+     *
+     * @param msgType        {@link MsgType#DATA} or {@link MsgType#DATA_BATCH}
+     * @param message        the message or batch to send
+     * @param sequenceNumber the sequence number of the message, the first one if it is a batch
+     * @param offset         message offset in the byte buffer
+     * @param length         message length starting from the offset
+     * @return the result of the send process, OK if the message has been buffered
+     */
+    private PublishResult sendDataToAeron(final byte msgType, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // With drop oldest policy send the pending messages first, if there are still pending messages buffer it after them to keep the order
+        if (this.pendingMsgs != null) {
+            if (this.sendPendingMsgs() == PublishResult.BACK_PRESSURED) {
+                this.addPendingMsg(msgType, message, sequenceNumber, offset, length);
+                return PublishResult.OK;
+            }
+        }
+
+        // With conflate policy a message without key cannot be buffered, it cannot be sent before the pending ones
+        if (this.sendConflatedMsgs() == PublishResult.BACK_PRESSURED) {
+            return PublishResult.BACK_PRESSURED;
+        }
+
+        PublishResult result = this.sendDataToAeronOnce(msgType, message, sequenceNumber, offset, length);
+
+        if (result != PublishResult.BACK_PRESSURED) {
+            return result;
+        }
+
+        if (this.pendingMsgs != null) {
+            this.addPendingMsg(msgType, message, sequenceNumber, offset, length);
+            return PublishResult.OK;
+        }
+
+        if (this.retryOnBackPressure) {
+            final long retryStartNanos = this.startRetries();
+            while (this.shouldRetry(result, retryStartNanos)) {
+                result = this.sendDataToAeronOnce(msgType, message, sequenceNumber, offset, length);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Send a data message or a batch a single time
+     *
+     * @param msgType        {@link MsgType#DATA} or {@link MsgType#DATA_BATCH}
+     * @param message        the message or batch to send
+     * @param sequenceNumber the sequence number of the message, the first one if it is a batch
+     * @param offset         message offset in the byte buffer
+     * @param length         message length starting from the offset
+     * @return the result of the send process
+     */
+    private PublishResult sendDataToAeronOnce(final byte msgType, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        if (msgType == MsgType.DATA_BATCH) {
+            return this.sendBatchToAeron(message, sequenceNumber, offset, length);
+        } else {
+            return this.sendToAeron(message, sequenceNumber, offset, length);
+        }
+    }
+
+    /**
+     * Add a message to the pending messages, dropping the oldest one if there is no room
+     *
+     * @param msgType        {@link MsgType#DATA} or {@link MsgType#DATA_BATCH}
+     * @param message        the message or batch to add
+     * @param sequenceNumber the sequence number of the message, the first one if it is a batch
+     * @param offset         message offset in the byte buffer
+     * @param length         message length starting from the offset
+     */
+    private void addPendingMsg(final byte msgType, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        if (this.pendingMsgs.isFull()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Dropping pending message with sequence number [{}] due to back pressure. TopicName [{}]", this.pendingMsgs.getOldestSequenceNumber(), this.topicName);
+            }
+
+            this.pendingMsgs.removeOldest();
+            this.backPressureDrops.incrementAndGet();
+        }
+
+        this.pendingMsgs.add(msgType, sequenceNumber, message, offset, length);
+    }
+
+    /**
+     * Add a message to the conflation buffer, replacing the pending message with the same key or dropping the oldest one if there
+     * is no room
+     *
+     * @param conflationKey  the conflation key of the message
+     * @param message        the message to add
+     * @param sequenceNumber the sequence number of the message
+     * @param offset         message offset in the byte buffer
+     * @param length         message length starting from the offset
+     */
+    private void addConflatedMsg(final long conflationKey, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        if (this.conflationBuffer.isFull() && !this.conflationBuffer.containsKey(conflationKey)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Dropping pending message with sequence number [{}] due to back pressure. TopicName [{}]", this.conflationBuffer.getOldestSequenceNumber(), this.topicName);
+            }
+
+            this.conflationBuffer.removeOldest();
+            this.backPressureDrops.incrementAndGet();
+        }
+
+        if (this.conflationBuffer.put(conflationKey, sequenceNumber, message, offset, length)) {
+            this.conflatedMsgs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Send the pending messages of the conflate policy in order until there are no more or one of them is back pressured.
+     * Messages that fail for any other reason are discarded as it would happen with a direct send.
+     *
+     * @return BACK_PRESSURED if there are still pending messages, OK otherwise
+     */
+    private PublishResult sendConflatedMsgs() {
+        if (this.conflationBuffer == null) {
+            return PublishResult.OK;
+        }
+
+        while (!this.conflationBuffer.isEmpty()) {
+            final PublishResult result = this.sendToAeron(
+                    this.conflationBuffer.getOldestBuffer(),
+                    this.conflationBuffer.getOldestSequenceNumber(),
+                    0,
+                    this.conflationBuffer.getOldestLength());
+
+            if (result == PublishResult.BACK_PRESSURED) {
+                return result;
+            }
+
+            this.conflationBuffer.removeOldest();
+        }
+
+        return PublishResult.OK;
+    }
+
+    /**
+     * Send the pending messages of the drop oldest policy in order until there are no more or one of them is back pressured.
+     * Messages that fail for any other reason are discarded as it would happen with a direct send.
+     *
+     * @return BACK_PRESSURED if there are still pending messages, OK otherwise
+     */
+    private PublishResult sendPendingMsgs() {
+        if (this.pendingMsgs == null) {
+            return PublishResult.OK;
+        }
+
+        while (!this.pendingMsgs.isEmpty()) {
+            final PublishResult result = this.sendDataToAeronOnce(
+                    this.pendingMsgs.getOldestMsgType(),
+                    this.pendingMsgs.getOldestBuffer(),
+                    this.pendingMsgs.getOldestSequenceNumber(),
+                    0,
+                    this.pendingMsgs.getOldestLength());
+
+            if (result == PublishResult.BACK_PRESSURED) {
+                return result;
+            }
+
+            this.pendingMsgs.removeOldest();
+        }
+
+        return PublishResult.OK;
+    }
+
+    /**
+     * Send the pending batch and pending messages before sending something that cannot be buffered, like a request or a claim
+     *
+     * @return BACK_PRESSURED if there are still pending messages
+     */
+    private PublishResult flushPendingBeforeUnbuffered() {
+        final PublishResult flushResult = this.flushBatch();
+        if (flushResult == PublishResult.BACK_PRESSURED) {
+            return flushResult;
+        }
+
+        final PublishResult pendingResult = this.sendPendingMsgs();
+        if (pendingResult == PublishResult.BACK_PRESSURED) {
+            return pendingResult;
+        }
+
+        return this.sendConflatedMsgs();
+    }
+
+    /**
+     * Prepare the idle strategy to start retrying a send
+     *
+     * @return the time in nanoseconds the retries started
+     */
+    private long startRetries() {
+        this.backPressureIdleStrategy.reset();
+        return System.nanoTime();
+    }
+
+    /**
+     * Check if a send should be retried and wait using the idle strategy if so. It should be retried if it was back pressured, the
+     * publisher has not been closed and the retry timeout has not expired.
+     *
+     * @param result          the result of the last try
+     * @param retryStartNanos time in nanoseconds the retries started
+     * @return true if it should be retried
+     */
+    private boolean shouldRetry(final PublishResult result, final long retryStartNanos) {
+        if (result != PublishResult.BACK_PRESSURED || this.closeRequested) {
+            return false;
+        }
+
+        if (this.backPressureRetryTimeoutNanos > 0 && System.nanoTime() - retryStartNanos >= this.backPressureRetryTimeoutNanos) {
+            return false;
+        }
+
+        this.backPressureRetries.incrementAndGet();
+        this.backPressureIdleStrategy.idle();
+        return true;
+    }
+
+    @Override
+    public long getBackPressureRetries() {
+        return this.backPressureRetries.get();
+    }
+
+    @Override
+    public long getBackPressureDrops() {
+        return this.backPressureDrops.get();
+    }
+
+    @Override
+    public long getConflatedMsgs() {
+        return this.conflatedMsgs.get();
+    }
+
+    @Override
+    public long getBatchDrops() {
+        return this.batchDrops.get();
+    }
+
+    @Override
+    public long getRetransmittedMsgs() {
+        return this.retransmittedMsgs.get();
+    }
+
+    @Override
+    public long getRetransmissionMisses() {
+        return this.retransmissionMisses.get();
     }
 
     @Override
     public void activateHeartbeats(@NonNull final IClientConnectionListener listener, @NonNull final HeartbeatParameters parameters) {
+        final HeartbeatController previousController;
+
         synchronized (this.lock) {
             if (this.closed) {
                 log.warn("Trying to activate heartbeats on a closed publisher on topicName [{}]", this.topicName);
                 return;
             }
 
-            // If the heartbeat controller is active, stop it
-            if (this.heartBeatController != null) {
-                this.heartBeatController.stop();
+            // Heartbeats are sent from the heartbeats timer thread, a thread confined publisher cannot be shared with it
+            if (this.threadConfined) {
+                log.error("Heartbeats are not supported on thread confined publishers. TopicName [{}]", this.topicName);
+                return;
             }
 
-            // Create a new controller
+            // Replace the controller, the previous one is stopped outside the lock
+            previousController = this.heartBeatController;
             this.heartBeatController = new HeartbeatController(this.vegaContext.getHeartbeatsTimer(), this.topicName, this, listener, parameters);
         }
+
+        if (previousController != null) {
+            previousController.stop();
+        }
     }
 
     @Override
     public void deactivateHeartbeats() {
+        final HeartbeatController controller;
+
         synchronized (this.lock) {
-            if (this.heartBeatController == null) {
-                log.warn("Heartbeats are not active for topicName [{}]. Ignoring call...", this.topicName);
-            } else {
-                log.info("Stopping Heartbeats on topicName [{}]", this.topicName);
-                this.heartBeatController.stop();
-                this.heartBeatController = null;
-            }
+            controller = this.heartBeatController;
+            this.heartBeatController = null;
+        }
+
+        // Stop it outside the lock, the stop waits for a running heartbeat task that may be waiting for the lock
+        if (controller == null) {
+            log.warn("Heartbeats are not active for topicName [{}]. Ignoring call...", this.topicName);
+        } else {
+            log.info("Stopping Heartbeats on topicName [{}]", this.topicName);
+            controller.stop();
         }
     }
 
@@ -215,13 +1154,39 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
 
     @Override
     public void close() {
+        // Release the threads that are retrying or waiting, they may be holding the lock
+        this.closeRequested = true;
+
+        // Stop the asynchronous sender and send the messages it has not sent yet
+        if (this.asyncSender != null && !this.closed) {
+            if (this.started) {
+                this.asyncSender.close();
+            }
+
+            this.asyncSender.drainRemaining();
+        }
+
+        // Deactivate hearbeats if active
+        if (this.isHeartbeatsActive()) {
+            this.deactivateHeartbeats();
+        }
+
         synchronized (this.lock) {
-            // Deactivate hearbeats if active
-            if (this.heartBeatController != null) {
-                this.deactivateHeartbeats();
+            // Stop the flush task and try to send the pending messages
+            if (this.flushTask != null) {
+                this.flushTask.cancel();
+                this.flushTask = null;
+            }
+
+            if (!this.closed) {
+                this.flushPendingBeforeUnbuffered();
             }
 
             // Set as closed and clean internal information
+            if (!this.closed && this.publisherHandle != null) {
+                this.vegaContext.getPublisherHandles().releaseHandle(this.publisherHandle);
+            }
+
             this.closed = true;
             this.cleanAeronPublishers();
         }
@@ -248,6 +1213,17 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
      */
     abstract PublishResult sendToAeron(DirectBuffer message, long sequenceNumber, int offset, int length);
 
+    /**
+     * Send a batch of messages to all the AeronPublishers related to the topic
+     *
+     * @param batch               buffer with the batch contents
+     * @param firstSequenceNumber the sequence number of the first message in the batch
+     * @param offset              batch offset in the byte buffer
+     * @param length              batch length starting from the offset
+     * @return the result of the send process
+     */
+    abstract PublishResult sendBatchToAeron(DirectBuffer batch, long firstSequenceNumber, int offset, int length);
+
     /**
      * Send request to all the AeronPublishers related to the topic
      *
@@ -261,6 +1237,56 @@ abstract class AbstractTopicPublisher implements ITopicPublisher, IHeartbeatSend
      */
     abstract PublishResult sendRequestToAeron(byte msgType, UUID requestId, DirectBuffer message, long sequenceNumber, int offset, int length);
 
+    /**
+     * Return the handle of the topic publisher that identifies it in the compact data headers
+     *
+     * @return the handle, {@link AutoDiscTopicInfo#NO_PUBLISHER_HANDLE} if the compact header is disabled
+     */
+    public int getPublisherHandle() {
+        return this.publisherHandle == null ? AutoDiscTopicInfo.NO_PUBLISHER_HANDLE : this.publisherHandle.getValue();
+    }
+
+    /**
+     * True if the compact data header is configured and supported for the topic publisher, it is the value advertised by auto-discovery
+     *
+     * @return true if the topic publisher has a handle
+     */
+    boolean isCompactDataHeaderEnabled() {
+        return this.publisherHandle != null;
+    }
+
+    /**
+     * True if the data messages are sent with the compact header instead of the full instance and topic publisher ids. It becomes false
+     * if another topic publisher advertises the same handle, the data messages are sent with the full header from then on.
+     *
+     * @return true if the compact header should be used
+     */
+    public boolean isCompactDataHeader() {
+        return this.publisherHandle != null && !this.publisherHandle.isCollided();
+    }
+
+    /**
+     * True if a message of the given length can be claimed directly in the Aeron buffer of the publisher
+     *
+     * @param length length of the message
+     * @return true if the message can be claimed directly, false if it has to be sent with a normal send on commit
+     */
+    boolean canClaimFromAeron(final int length) {
+        return false;
+    }
+
+    /**
+     * Claim a message directly in the Aeron buffer of the publisher. It is only called if {@link #canClaimFromAeron(int)} is true.
+     *
+     * @param length         length of the message
+     * @param sequenceNumber the sequence number of the message
+     * @param claim          the claim to activate with the reserved region
+     * @return the result of the claim
+     */
+    PublishResult claimFromAeron(final int length, final long sequenceNumber, final PublisherClaim claim) {
+        return PublishResult.UNEXPECTED_ERROR;
+    }
+
     /**
      * Clean related AeronPublishers information. Don't close the aeron publishers, just cleanAfterClose references.
      */
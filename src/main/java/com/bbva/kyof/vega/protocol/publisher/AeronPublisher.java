@@ -1,21 +1,16 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
-import com.bbva.kyof.vega.Version;
-import com.bbva.kyof.vega.msg.*;
+import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
-import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
-import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import io.aeron.Publication;
-import io.aeron.logbuffer.BufferClaim;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.BusySpinIdleStrategy;
 
 import java.io.Closeable;
-import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Wrapper class to encapsulate an Aeron Publisher. <p>
@@ -23,66 +18,71 @@ import java.util.UUID;
  * The objective of the class is to ensure thread safety, store all topics publishers related to the aeron publisher
  * and encapsulate the method to send messages, requests and responses. <p>
  * <p>
- * The publisher will always try to use "bufferClaim" if possible in order to avoid copying the header and contents
- * into a new buffer for each message. When the messages are too big (close to 4k) this cannot be done and we need to
- * use a normal "offer" to send the message. <p>
+ * The messages are serialized and sent by a {@link PublicationSender}. Since the same aeron publisher may be shared by many
+ * topic publishers, the senders are striped by topic publisher id (or request id for responses) and each stripe has its own lock.
+ * Unrelated topics that share the aeron publisher will only contend if they fall in the same stripe. The sender of a stripe is
+ * created the first time it is used, a publisher used by a single topic only pays for one of them. <p>
+ * <p>
+ * If the publisher is exclusive it uses an Aeron exclusive publication and a single sender without any lock. In that case it can only
+ * be used from a single thread at a time. <p>
+ * <p>
+ * If the publisher is multi-destination it uses an Aeron unicast multi-destination-cast publication with manual control. The unicast
+ * destinations are added and removed with {@link #addDestination(int, int)} and {@link #removeDestination(int, int)} and a single
+ * send reaches all of them. <p>
  * <p>
  * It also handles the life-cicle of the publisher.
  * <p>
- * This class is thread safe!!
+ * This class is thread safe unless it is exclusive!!
  */
 @Slf4j
 public class AeronPublisher implements IAeronPublisher, Closeable {
     /**
-     * Aeron publication
+     * Number of lock stripes for non exclusive publishers, it has to be a power of 2
      */
-    private final Publication publication;
+    static final int NUM_LOCK_STRIPES = 8;
 
     /**
-     * Parameters of the publisher
+     * Mask to select the lock stripe given a hash
      */
-    @Getter
-    private final AeronPublisherParams params;
+    private static final int LOCK_STRIPES_MASK = NUM_LOCK_STRIPES - 1;
 
     /**
-     * Reusable base header
-     */
-    private final BaseHeader reusableBaseHeader;
-
-    /**
-     * Reusable data msg header
+     * Aeron publication
      */
-    private final MsgDataHeader reusableMsgHeader;
+    private final Publication publication;
 
     /**
-     * Reusable data request header
+     * Parameters of the publisher
      */
-    private final MsgReqHeader reusableMsgReqHeader;
+    @Getter
+    private final AeronPublisherParams params;
 
     /**
-     * Reusable data response header
+     * True if the publisher is owned by a single thread and uses an exclusive publication
      */
-    private final MsgRespHeader reusableMsgRespHeader;
+    @Getter
+    private final boolean exclusive;
 
     /**
-     * Reusable buffer claim to serialize messages, allowing adding header and user message contents without extra copies
+     * True if the publication is an unicast multi-destination-cast publication
      */
-    private final BufferClaim bufferClaim = new BufferClaim();
+    @Getter
+    private final boolean multiDestination;
 
     /**
-     * Reusable serializer for claim send type
+     * Sender of the publisher if it is exclusive, null otherwise
      */
-    private final UnsafeBufferSerializer claimUnsafeSerializer = new UnsafeBufferSerializer();
+    private final PublicationSender exclusiveSender;
 
     /**
-     * Reusable serializer for offer send type
+     * Senders of the publisher if it is not exclusive, one per lock stripe. They are created lazily on first use
      */
-    private final UnsafeBufferSerializer offerUnsafeSerializer = new UnsafeBufferSerializer();
+    private final AtomicReferenceArray<PublicationSender> senders;
 
     /**
-     * Idle strategy when retrying due to admin action
+     * Unique id of the library instance, required to create the senders
      */
-    private final BusySpinIdleStrategy adminActionRetryIdle = new BusySpinIdleStrategy();
+    private final UUID instanceId;
 
     /**
      * Lock for synchronization of the instance
@@ -96,32 +96,50 @@ public class AeronPublisher implements IAeronPublisher, Closeable {
      * @param params      publisher parameters
      */
     public AeronPublisher(final VegaContext vegaContext, final AeronPublisherParams params) {
-        // Create the reusable base header
-        this.reusableBaseHeader = new BaseHeader(MsgType.DATA, Version.LOCAL_VERSION);
-
-        // Create the reusable headers for all message types
-        this.reusableMsgHeader = new MsgDataHeader();
-        this.reusableMsgReqHeader = new MsgReqHeader();
-        this.reusableMsgRespHeader = new MsgRespHeader();
+        this(vegaContext, params, false);
+    }
 
-        // Preset the unique instance id since it is always the same for all messages sent with this publisher
-        this.reusableMsgHeader.setInstanceId(vegaContext.getInstanceUniqueId());
-        this.reusableMsgReqHeader.setInstanceId(vegaContext.getInstanceUniqueId());
-        this.reusableMsgRespHeader.setInstanceId(vegaContext.getInstanceUniqueId());
+    /**
+     * Create a new publisher instance given the context of the library and the parameters for the publisher
+     *
+     * @param vegaContext context of the instance
+     * @param params      publisher parameters
+     * @param exclusive   true to create an exclusive publication that will be used from a single thread without locks
+     */
+    public AeronPublisher(final VegaContext vegaContext, final AeronPublisherParams params, final boolean exclusive) {
+        this(vegaContext, params, exclusive, false);
+    }
 
+    /**
+     * Create a new publisher instance given the context of the library and the parameters for the publisher
+     *
+     * @param vegaContext      context of the instance
+     * @param params           publisher parameters
+     * @param exclusive        true to create an exclusive publication that will be used from a single thread without locks
+     * @param multiDestination true to create an unicast multi-destination-cast publication, the ip and port of the parameters are ignored
+     */
+    public AeronPublisher(final VegaContext vegaContext, final AeronPublisherParams params, final boolean exclusive, final boolean multiDestination) {
         // Store the parameters
         this.params = params;
+        this.exclusive = exclusive;
+        this.multiDestination = multiDestination;
+        this.instanceId = vegaContext.getInstanceUniqueId();
 
         // Create the aeron publisher channel
         final String publicationChannel = this.createPublicationChannel(params);
 
-        log.info("Creating AeronPublisher with params [{}], channel [{}]", params, publicationChannel);
+        log.info("Creating AeronPublisher with params [{}], channel [{}], exclusive [{}], multiDestination [{}]", params, publicationChannel, exclusive, multiDestination);
 
         // Create the aeron publisher
-        this.publication = vegaContext.getAeron().addPublication(publicationChannel, params.getStreamId());
-
-        // Start the offer serializer buffer to twice the size of the max claim size
-        this.offerUnsafeSerializer.wrap(ByteBuffer.allocate(this.publication.maxPayloadLength() * 2));
+        if (exclusive) {
+            this.publication = vegaContext.getAeron().addExclusivePublication(publicationChannel, params.getStreamId());
+            this.exclusiveSender = new PublicationSender(this.publication, this.instanceId);
+            this.senders = null;
+        } else {
+            this.publication = vegaContext.getAeron().addPublication(publicationChannel, params.getStreamId());
+            this.exclusiveSender = null;
+            this.senders = new AtomicReferenceArray<>(NUM_LOCK_STRIPES);
+        }
     }
 
     @Override
@@ -140,171 +158,257 @@ public class AeronPublisher implements IAeronPublisher, Closeable {
 
     @Override
     public PublishResult sendMessage(final byte msgType, final UUID topicUniqueId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
-        synchronized (this.lock) {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed()) {
-                return PublishResult.OK;
-            }
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed()) {
+            return PublishResult.OK;
+        }
 
-            // Set the topic unique id of the reusable header
-            this.reusableMsgHeader.setTopicPublisherId(topicUniqueId);
+        if (this.exclusive) {
+            return this.exclusiveSender.sendMessage(msgType, topicUniqueId, message, sequenceNumber, offset, length);
+        }
+
+        final PublicationSender sender = this.selectSender(topicUniqueId);
+        synchronized (sender) {
+            return sender.sendMessage(msgType, topicUniqueId, message, sequenceNumber, offset, length);
+        }
+    }
 
-            // Set the sequence number of the reusable header
-            this.reusableMsgHeader.setSequenceNumber(sequenceNumber);
+    @Override
+    public PublishResult sendCompactMessage(final byte msgType, final int publisherHandle, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed()) {
+            return PublishResult.OK;
+        }
 
-            // Send the message
-            return this.send(msgType, this.reusableMsgHeader, message, offset, length);
+        if (this.exclusive) {
+            return this.exclusiveSender.sendCompactMessage(msgType, publisherHandle, message, sequenceNumber, offset, length);
+        }
+
+        final PublicationSender sender = this.selectSender(publisherHandle);
+        synchronized (sender) {
+            return sender.sendCompactMessage(msgType, publisherHandle, message, sequenceNumber, offset, length);
         }
     }
 
     @Override
     public PublishResult sendRequest(final byte msgType, final UUID topicUniqueId, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
-        synchronized (this.lock) {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed()) {
-                return PublishResult.OK;
-            }
-
-            // Set the request header fields
-            this.reusableMsgReqHeader.setTopicPublisherId(topicUniqueId);
-            this.reusableMsgReqHeader.setRequestId(requestId);
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed()) {
+            return PublishResult.OK;
+        }
 
-            // Set the sequence number of the reusable header
-            this.reusableMsgReqHeader.setSequenceNumber(sequenceNumber);
+        if (this.exclusive) {
+            return this.exclusiveSender.sendRequest(msgType, topicUniqueId, requestId, message, sequenceNumber, offset, length);
+        }
 
-            // Send the message
-            return this.send(msgType, this.reusableMsgReqHeader, message, offset, length);
+        final PublicationSender sender = this.selectSender(topicUniqueId);
+        synchronized (sender) {
+            return sender.sendRequest(msgType, topicUniqueId, requestId, message, sequenceNumber, offset, length);
         }
     }
 
     @Override
     public PublishResult sendResponse(final UUID requestId, final DirectBuffer message, final int offset, final int length) {
-        synchronized (this.lock) {
-            // If closed return OK. It may happen during an un-subscription
-            if (this.publication.isClosed()) {
-                return PublishResult.OK;
-            }
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed()) {
+            return PublishResult.OK;
+        }
 
-            // Set the request header fields
-            this.reusableMsgRespHeader.setRequestId(requestId);
+        if (this.exclusive) {
+            return this.exclusiveSender.sendResponse(requestId, message, offset, length);
+        }
 
-            // Send the message
-            return this.send(MsgType.RESP, this.reusableMsgRespHeader, message, offset, length);
+        final PublicationSender sender = this.selectSender(requestId);
+        synchronized (sender) {
+            return sender.sendResponse(requestId, message, offset, length);
         }
     }
 
     /**
-     * Send a message given the message type, header to use and contents
+     * Send a negative acknowledgement to request the retransmission of a range of messages of a topic publisher. It is sent through
+     * the response publisher of the instance that owns the topic publisher.
      *
-     * @param msgType the type of the message
-     * @param header  the header of the message depending on the type (normal, request, response)
-     * @param message the buffer with the message to send
-     * @param offset  the offset in the buffer where the message to send starts
-     * @param length  the length of the message starting from the given offset
-     * @return the result of the message send
+     * @param topicUniqueId       unique Id of the topic publisher that should retransmit the messages
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     * @return the result of the send
      */
-    private PublishResult send(final byte msgType, final IUnsafeSerializable header, final DirectBuffer message, final int offset, final int length) {
-        // Set the message type in the base header
-        this.reusableBaseHeader.setMsgType(msgType);
+    public PublishResult sendNak(final UUID topicUniqueId, final long firstSequenceNumber, final long lastSequenceNumber) {
+        // If closed return OK. It may happen during an un-subscription
+        if (this.publication.isClosed()) {
+            return PublishResult.OK;
+        }
 
-        // Calculate required size to sendMsg
-        final int totalMsgSize = this.reusableBaseHeader.serializedSize() + header.serializedSize() + length;
+        if (this.exclusive) {
+            return this.exclusiveSender.sendNak(topicUniqueId, firstSequenceNumber, lastSequenceNumber);
+        }
 
-        if (log.isTraceEnabled()) {
-            log.trace("Sending message of type [{}], contents size [{}], total size [{}]", MsgType.toString(msgType), length, totalMsgSize);
+        final PublicationSender sender = this.selectSender(topicUniqueId);
+        synchronized (sender) {
+            return sender.sendNak(topicUniqueId, firstSequenceNumber, lastSequenceNumber);
         }
+    }
 
-        // If the message is bigger than max claim size cannot use the claim mechanism
-        if (totalMsgSize > this.publication.maxPayloadLength()) {
-            return this.sendUsingOffer(header, message, offset, length, totalMsgSize);
-        } else {
-            return this.sendUsingClaim(header, message, offset, length, totalMsgSize);
+    /**
+     * Add an unicast destination to a multi-destination publisher
+     *
+     * @param ipAddress ip address of the destination
+     * @param port      port of the destination
+     */
+    public void addDestination(final int ipAddress, final int port) {
+        synchronized (this.lock) {
+            if (this.publication.isClosed()) {
+                return;
+            }
+
+            final String destination = AeronChannelHelper.createUnicastMdcDestinationString(ipAddress, port);
+            log.info("Adding destination [{}] to aeron publisher [{}]", destination, this.params);
+            this.publication.addDestination(destination);
         }
     }
 
     /**
-     * Send a message given the header to use and contents. The message will be sent using the offer mechanism.
+     * Remove an unicast destination from a multi-destination publisher
      *
-     * @param header        the header of the message depending on the type (normal, request, response)
-     * @param message       the buffer with the message to send
-     * @param userMsgOffset offset in the buffer were the user message starts
-     * @param userMsgSize   size of the user message part without the headers
-     * @param totalMsgSize  total size of the message including the headers
-     * @return the result of the message send
+     * @param ipAddress ip address of the destination
+     * @param port      port of the destination
      */
-    private PublishResult sendUsingOffer(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize) {
-        // Make sure the buffer is big enough to serialize the message, if not increase the size
-        if (this.offerUnsafeSerializer.getInternalBuffer().capacity() < totalMsgSize) {
-            this.offerUnsafeSerializer.wrap(ByteBuffer.allocate(totalMsgSize * 2));
-        } else {
-            // Reset the offer buffer offset to start again
-            this.offerUnsafeSerializer.setOffset(0);
+    public void removeDestination(final int ipAddress, final int port) {
+        synchronized (this.lock) {
+            if (this.publication.isClosed()) {
+                return;
+            }
+
+            final String destination = AeronChannelHelper.createUnicastMdcDestinationString(ipAddress, port);
+            log.info("Removing destination [{}] from aeron publisher [{}]", destination, this.params);
+            this.publication.removeDestination(destination);
         }
+    }
+
+    /**
+     * True if a data message of the given length fits in a single frame and can be claimed directly in the publication
+     *
+     * @param length length of the user message
+     * @return true if the message can be claimed
+     */
+    public boolean canClaimMessage(final int length) {
+        return !this.publication.isClosed() && PublicationSender.DATA_MSG_HEADERS_SIZE + length <= this.publication.maxPayloadLength();
+    }
+
+    /**
+     * Check if a data message of the given length with the compact header can be claimed directly in the publication
+     *
+     * @param length length of the user message
+     * @return true if the message can be claimed
+     */
+    public boolean canClaimCompactMessage(final int length) {
+        return !this.publication.isClosed() && PublicationSender.COMPACT_DATA_MSG_HEADERS_SIZE + length <= this.publication.maxPayloadLength();
+    }
 
-        // Write base header
-        this.reusableBaseHeader.toBinary(this.offerUnsafeSerializer);
-        // Write header
-        header.toBinary(this.offerUnsafeSerializer);
-        // Write the user message
-        this.offerUnsafeSerializer.writeBytes(message, userMsgOffset, userMsgSize);
+    /**
+     * Claim a data message for the given topic directly in the publication. The framework headers are written and the claim is
+     * activated with the region available for the user message.
+     * <p>
+     * The claimed region is only reserved under the lock, the commit or abort of the claim does not require it.
+     *
+     * @param msgType        message type to send
+     * @param topicUniqueId  unique Id of the topic publisher
+     * @param sequenceNumber sequence number of the message
+     * @param length         length of the user message, it should be checked first with {@link #canClaimMessage(int)}
+     * @param claim          the claim to activate
+     * @return the result of the claim
+     */
+    public PublishResult claimMessage(final byte msgType, final UUID topicUniqueId, final long sequenceNumber, final int length, final PublisherClaim claim) {
+        if (this.exclusive) {
+            return this.exclusiveSender.claimMessage(msgType, topicUniqueId, sequenceNumber, length, claim);
+        }
 
-        // Send the message
-        long offerResult = this.publication.offer(this.offerUnsafeSerializer.getInternalBuffer(), 0, totalMsgSize);
+        final PublicationSender sender = this.selectSender(topicUniqueId);
+        synchronized (sender) {
+            return sender.claimMessage(msgType, topicUniqueId, sequenceNumber, length, claim);
+        }
+    }
 
-        // Retry in case of admin action
-        while (offerResult == Publication.ADMIN_ACTION) {
-            // Wait a bit to avoid too many retries
-            this.adminActionRetryIdle.idle();
+    /**
+     * Claim a data message for the given topic directly in the publication with the compact header. The framework headers are
+     * written and the claim is activated with the region available for the user message.
+     *
+     * @param msgType         message type to send
+     * @param publisherHandle handle of the topic publisher
+     * @param sequenceNumber  sequence number of the message
+     * @param length          length of the user message, it should be checked first with {@link #canClaimMessage(int)}
+     * @param claim           the claim to activate
+     * @return the result of the claim
+     */
+    public PublishResult claimCompactMessage(final byte msgType, final int publisherHandle, final long sequenceNumber, final int length, final PublisherClaim claim) {
+        if (this.exclusive) {
+            return this.exclusiveSender.claimCompactMessage(msgType, publisherHandle, sequenceNumber, length, claim);
+        }
 
-            // Retry the send
-            offerResult = this.publication.offer(this.offerUnsafeSerializer.getInternalBuffer(), 0, totalMsgSize);
+        final PublicationSender sender = this.selectSender(publisherHandle);
+        synchronized (sender) {
+            return sender.claimCompactMessage(msgType, publisherHandle, sequenceNumber, length, claim);
         }
+    }
 
-        // Convert the result
-        return PublishResult.fromAeronResult(offerResult);
+    /**
+     * Select the sender of the lock stripe that corresponds to the given handle
+     *
+     * @param publisherHandle the handle of the topic publisher
+     * @return the sender of the stripe
+     */
+    private PublicationSender selectSender(final int publisherHandle) {
+        return this.getOrCreateSender(publisherHandle & LOCK_STRIPES_MASK);
     }
 
     /**
-     * Send a message given the header to use and contents. The message will be sent using the claim mechanism.
+     * Select the sender of the lock stripe that corresponds to the given id
      *
-     * @param header        the header of the message depending on the type (normal, request, response)
-     * @param message       the buffer with the message to send
-     * @param userMsgOffset offset in the buffer were the user message starts
-     * @param userMsgSize   size of the user message part without the headers
-     * @param totalMsgSize  total size of the message including the headers
-     * @return the result of the message send
+     * @param id the id used to select the stripe, topic publisher id or request id
+     * @return the sender of the stripe
      */
-    private PublishResult sendUsingClaim(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize) {
-        // Reserve space in the publication.
-        long claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
+    private PublicationSender selectSender(final UUID id) {
+        return this.getOrCreateSender(id.hashCode() & LOCK_STRIPES_MASK);
+    }
 
-        // Retry in case of admin action
-        while (claimResult == Publication.ADMIN_ACTION) {
-            // Wait a bit to avoid too many retries
-            this.adminActionRetryIdle.idle();
+    /**
+     * Return the sender of the given lock stripe, creating it if it is the first time the stripe is used
+     *
+     * @param stripe the index of the lock stripe
+     * @return the sender of the stripe
+     */
+    private PublicationSender getOrCreateSender(final int stripe) {
+        final PublicationSender sender = this.senders.get(stripe);
+        if (sender != null) {
+            return sender;
+        }
 
-            // Retry the send
-            claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
+        final PublicationSender newSender = new PublicationSender(this.publication, this.instanceId);
+        if (this.senders.compareAndSet(stripe, null, newSender)) {
+            return newSender;
         }
 
-        // Claim success, write the data and sendMsg
-        if (claimResult > 0) {
-            // Wrap the buffer claim to serialize
-            this.claimUnsafeSerializer.wrap(this.bufferClaim.buffer(), this.bufferClaim.offset(), totalMsgSize);
-            // Write base header
-            this.reusableBaseHeader.toBinary(this.claimUnsafeSerializer);
-            // Write header
-            header.toBinary(this.claimUnsafeSerializer);
-            // Write the user message
-            this.claimUnsafeSerializer.writeBytes(message, userMsgOffset, userMsgSize);
-            // Send the message
-            this.bufferClaim.commit();
-            // Return Ok in the publication
-            return PublishResult.OK;
+        // Another thread created it first
+        return this.senders.get(stripe);
+    }
+
+    /**
+     * Return the number of lock stripe senders that have been created, only for testing
+     *
+     * @return the number of created senders, 1 if exclusive
+     */
+    int getNumCreatedSenders() {
+        if (this.exclusive) {
+            return 1;
         }
 
-        // Convert the result
-        return PublishResult.fromAeronResult(claimResult);
+        int result = 0;
+        for (int i = 0; i < NUM_LOCK_STRIPES; i++) {
+            if (this.senders.get(i) != null) {
+                result++;
+            }
+        }
+        return result;
     }
 
     /**
@@ -317,6 +421,9 @@ public class AeronPublisher implements IAeronPublisher, Closeable {
         // Create the publication channel string
         switch (params.getTransportType()) {
             case UNICAST:
+                if (this.multiDestination) {
+                    return AeronChannelHelper.createUnicastMdcChannelString();
+                }
                 return AeronChannelHelper.createUnicastChannelString(params.getIpAddress(), params.getPort(), params.getSubnetAddress());
             case MULTICAST:
                 return AeronChannelHelper.createMulticastChannelString(params.getIpAddress(), params.getPort(), params.getSubnetAddress());
@@ -0,0 +1,236 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.config.general.AsyncOverflowPolicy;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sender of an asynchronous topic publisher.
+ * <p>
+ * The user threads copy the messages into a many to one ring buffer and return immediately. The sender thread drains the ring buffer
+ * and sends the messages through the topic publisher, holding the publisher lock once per drained block of messages. Sequence
+ * numbers, batching and the back pressure policy are applied by the sender thread. When the ring buffer becomes empty the pending
+ * batch is sent, so consecutive messages are batched as long as they are enqueued faster than they are sent.
+ * <p>
+ * The senders of the asynchronous publishers of the same topic template run on a single shared thread of the instance. A sender
+ * retrying a back pressured message delays the rest of the senders of the thread.
+ * <p>
+ * The messages the sender thread cannot send are counted in the dropped messages of the topic publisher, since the user thread already
+ * got OK. They are logged at most once per {@link #UNSENT_WARN_INTERVAL_NANOS}. Messages sent while there are no subscribers are not
+ * counted, as it happens with the synchronous publishers.
+ * <p>
+ * The user threads that wait for room in the ring buffer or for the messages to be sent use the sender idle strategy of the topic
+ * template, each thread has its own instance.
+ * <p>
+ * The class is thread-safe, {@link #offer(DirectBuffer, int, int)} can be called from any thread.
+ */
+@Slf4j
+class AsyncPublisherSender extends RecurrentTask implements MessageHandler {
+    /**
+     * Type id of the data messages in the ring buffer
+     */
+    private static final int DATA_MSG_TYPE_ID = 1;
+
+    /**
+     * Max number of messages drained on each action
+     */
+    private static final int DRAIN_LIMIT = 256;
+
+    /**
+     * Min time in nanoseconds between the warnings of messages that could not be sent
+     */
+    static final long UNSENT_WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Topic publisher that sends the messages
+     */
+    private final AbstractTopicPublisher publisher;
+
+    /**
+     * Ring buffer with the messages to send
+     */
+    private final ManyToOneRingBuffer ringBuffer;
+
+    /**
+     * What to do when there is no room in the ring buffer
+     */
+    private final AsyncOverflowPolicy overflowPolicy;
+
+    /**
+     * Idle strategy of each user thread that waits for the sender
+     */
+    private final ThreadLocal<IdleStrategy> waitIdleStrategies;
+
+    /**
+     * Time in nanoseconds of the last warning of messages that could not be sent, only accessed holding the publisher lock
+     */
+    private long lastUnsentWarnNanos;
+
+    /**
+     * Messages that could not be sent since the last warning, only accessed holding the publisher lock
+     */
+    private long unsentSinceWarn = 0;
+
+    /**
+     * Create a new sender, it has to be started after creation
+     *
+     * @param publisher           topic publisher that sends the messages
+     * @param bufferSize          capacity of the ring buffer in bytes, it has to be a power of 2
+     * @param overflowPolicy      what to do when there is no room in the ring buffer
+     * @param idleStrategyFactory creates the idle strategy of the sender if it runs on its own thread and the ones of the waiting threads
+     */
+    AsyncPublisherSender(final AbstractTopicPublisher publisher, final int bufferSize, final AsyncOverflowPolicy overflowPolicy, final Supplier<IdleStrategy> idleStrategyFactory) {
+        super(idleStrategyFactory.get());
+        this.publisher = publisher;
+        this.overflowPolicy = overflowPolicy;
+        this.waitIdleStrategies = ThreadLocal.withInitial(idleStrategyFactory);
+        this.ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(bufferSize + RingBufferDescriptor.TRAILER_LENGTH)));
+        this.lastUnsentWarnNanos = System.nanoTime() - UNSENT_WARN_INTERVAL_NANOS;
+    }
+
+    /**
+     * @param length length of a message
+     * @return true if the message fits in the ring buffer, bigger messages have to be sent synchronously
+     */
+    boolean canOffer(final int length) {
+        return length <= this.ringBuffer.maxMsgLength();
+    }
+
+    /**
+     * Copy a message into the ring buffer applying the overflow policy if there is no room. It should have been checked first that
+     * the message fits in the ring buffer.
+     *
+     * @param message the binary message to send
+     * @param offset  Offset for the message start in the buffer
+     * @param length  Length of the message starting in the given offset
+     * @return OK if the message has been enqueued or dropped, BACK_PRESSURED if there is no room and the policy is fail fast,
+     * UNEXPECTED_ERROR if the sender is stopped while waiting for room
+     */
+    PublishResult offer(final DirectBuffer message, final int offset, final int length) {
+        IdleStrategy waitIdleStrategy = null;
+
+        while (!this.ringBuffer.write(DATA_MSG_TYPE_ID, message, offset, length)) {
+            switch (this.overflowPolicy) {
+                case DROP_NEWEST:
+                    this.publisher.onAsyncMsgDropped();
+                    return PublishResult.OK;
+                case BLOCK:
+                    if (this.shouldStop()) {
+                        return PublishResult.UNEXPECTED_ERROR;
+                    }
+
+                    if (waitIdleStrategy == null) {
+                        waitIdleStrategy = this.startWait();
+                    }
+
+                    waitIdleStrategy.idle();
+                    break;
+                default:
+                    return PublishResult.BACK_PRESSURED;
+            }
+        }
+
+        return PublishResult.OK;
+    }
+
+    /**
+     * Wait until all the messages enqueued before the call have been sent by the sender thread or the sender is stopped. It should not
+     * be called holding the publisher lock.
+     */
+    void awaitDrained() {
+        final long producerPosition = this.ringBuffer.producerPosition();
+
+        if (this.ringBuffer.consumerPosition() >= producerPosition) {
+            return;
+        }
+
+        final IdleStrategy waitIdleStrategy = this.startWait();
+        while (this.ringBuffer.consumerPosition() < producerPosition && !this.shouldStop()) {
+            waitIdleStrategy.idle();
+        }
+    }
+
+    /**
+     * Return the idle strategy of the calling thread ready to start a new wait
+     *
+     * @return the reset idle strategy
+     */
+    private IdleStrategy startWait() {
+        final IdleStrategy waitIdleStrategy = this.waitIdleStrategies.get();
+        waitIdleStrategy.reset();
+        return waitIdleStrategy;
+    }
+
+    /**
+     * Send the messages that are still in the ring buffer, it should only be called once the sender thread has been stopped
+     */
+    void drainRemaining() {
+        synchronized (this.publisher.lock) {
+            while (this.ringBuffer.read(this) > 0) {
+                // Nothing to do, the messages are sent by the handler
+            }
+
+            this.publisher.flushInternal();
+        }
+    }
+
+    @Override
+    public int action() {
+        synchronized (this.publisher.lock) {
+            final int numMsgs = this.ringBuffer.read(this, DRAIN_LIMIT);
+
+            // Send the pending batch as soon as there is nothing else to batch with it
+            if (numMsgs > 0 && this.ringBuffer.size() == 0) {
+                this.publisher.flushInternal();
+            }
+
+            return numMsgs;
+        }
+    }
+
+    @Override
+    public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+        final PublishResult result = this.publisher.sendMsgInternal(buffer, index, length);
+
+        if (result == PublishResult.OK) {
+            return;
+        }
+
+        // Nobody is listening, nothing is lost
+        if (result == PublishResult.NOT_CONNECTED) {
+            if (log.isDebugEnabled()) {
+                log.debug("Asynchronous message not sent, there are no subscribers. TopicName [{}]", this.publisher.getTopicName());
+            }
+            return;
+        }
+
+        // The user thread already got OK, the message is lost
+        this.publisher.onAsyncMsgDropped();
+        this.unsentSinceWarn++;
+
+        final long now = System.nanoTime();
+        if (now - this.lastUnsentWarnNanos >= UNSENT_WARN_INTERVAL_NANOS) {
+            log.warn("[{}] asynchronous messages could not be sent and have been dropped, last result [{}]. TopicName [{}]",
+                    this.unsentSinceWarn, result, this.publisher.getTopicName());
+            this.lastUnsentWarnNanos = now;
+            this.unsentSinceWarn = 0;
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        // Nothing to clean, the remaining messages are sent by the publisher on close
+    }
+}
@@ -0,0 +1,238 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.collections.Long2LongHashMap;
+
+/**
+ * Bounded buffer with copies of the messages of a topic publisher that could not be sent due to back pressure, keeping only the newest
+ * message of each conflation key. <p>
+ * <p>
+ * The messages are kept in a fixed number of slots ordered by the time they were added. When a message is added with the key of a
+ * pending message, the pending one is replaced and the slot is moved to the end, this way the sequence numbers of the pending messages
+ * are always in ascending order. Each slot has its own off-heap buffer that is reused, memory is only allocated when a slot has to grow
+ * to fit a bigger message than any previous one. <p>
+ * <p>
+ * This class is not thread safe!
+ */
+class ConflationBuffer {
+    /**
+     * Initial size of the buffer of each slot
+     */
+    private static final int INITIAL_SLOT_SIZE = 256;
+
+    /**
+     * Value that represents no slot
+     */
+    private static final int NO_SLOT = -1;
+
+    /**
+     * Buffer with the contents of the message of each slot
+     */
+    private final ExpandableDirectByteBuffer[] slotBuffers;
+
+    /**
+     * Conflation key of each slot
+     */
+    private final long[] slotKeys;
+
+    /**
+     * Sequence number of each slot
+     */
+    private final long[] slotSequenceNumbers;
+
+    /**
+     * Length of the message of each slot
+     */
+    private final int[] slotLengths;
+
+    /**
+     * Next slot in order of each used slot, or next free slot of each free slot
+     */
+    private final int[] nextSlots;
+
+    /**
+     * Previous slot in order of each used slot
+     */
+    private final int[] prevSlots;
+
+    /**
+     * Slot of the pending message of each conflation key
+     */
+    private final Long2LongHashMap slotsByKey = new Long2LongHashMap(NO_SLOT);
+
+    /**
+     * Slot with the oldest message
+     */
+    private int head = NO_SLOT;
+
+    /**
+     * Slot with the newest message
+     */
+    private int tail = NO_SLOT;
+
+    /**
+     * First free slot
+     */
+    private int freeHead = 0;
+
+    /**
+     * Number of messages in the buffer
+     */
+    private int size = 0;
+
+    /**
+     * Create a new buffer
+     *
+     * @param capacity max number of messages, one per conflation key
+     */
+    ConflationBuffer(final int capacity) {
+        this.slotBuffers = new ExpandableDirectByteBuffer[capacity];
+        this.slotKeys = new long[capacity];
+        this.slotSequenceNumbers = new long[capacity];
+        this.slotLengths = new int[capacity];
+        this.nextSlots = new int[capacity];
+        this.prevSlots = new int[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            this.slotBuffers[i] = new ExpandableDirectByteBuffer(INITIAL_SLOT_SIZE);
+            this.nextSlots[i] = i + 1 < capacity ? i + 1 : NO_SLOT;
+        }
+    }
+
+    /**
+     * @return true if there are no pending messages
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return true if there is no room for more conflation keys
+     */
+    boolean isFull() {
+        return this.size == this.slotBuffers.length;
+    }
+
+    /**
+     * @return the number of pending messages
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param key conflation key
+     * @return true if there is a pending message with the given key
+     */
+    boolean containsKey(final long key) {
+        return this.slotsByKey.containsKey(key);
+    }
+
+    /**
+     * Add a copy of a message at the end of the buffer, replacing the pending message with the same key if any. If there is no
+     * pending message with the same key it should have been checked first that the buffer is not full.
+     *
+     * @param key            conflation key of the message
+     * @param sequenceNumber sequence number of the message
+     * @param message        buffer with the message
+     * @param offset         offset of the message in the buffer
+     * @param length         length of the message
+     * @return true if a pending message has been replaced
+     */
+    boolean put(final long key, final long sequenceNumber, final DirectBuffer message, final int offset, final int length) {
+        int slot = (int) this.slotsByKey.get(key);
+        final boolean replaced = slot != NO_SLOT;
+
+        if (replaced) {
+            this.unlink(slot);
+        } else {
+            slot = this.freeHead;
+            this.freeHead = this.nextSlots[slot];
+            this.slotsByKey.put(key, slot);
+            this.size++;
+        }
+
+        this.slotBuffers[slot].putBytes(0, message, offset, length);
+        this.slotKeys[slot] = key;
+        this.slotSequenceNumbers[slot] = sequenceNumber;
+        this.slotLengths[slot] = length;
+        this.linkLast(slot);
+
+        return replaced;
+    }
+
+    /**
+     * @return the sequence number of the oldest message
+     */
+    long getOldestSequenceNumber() {
+        return this.slotSequenceNumbers[this.head];
+    }
+
+    /**
+     * @return the buffer with the oldest message, the message starts at offset 0
+     */
+    DirectBuffer getOldestBuffer() {
+        return this.slotBuffers[this.head];
+    }
+
+    /**
+     * @return the length of the oldest message
+     */
+    int getOldestLength() {
+        return this.slotLengths[this.head];
+    }
+
+    /**
+     * Remove the oldest message. It should have been checked first that the buffer is not empty.
+     */
+    void removeOldest() {
+        final int slot = this.head;
+
+        this.unlink(slot);
+        this.slotsByKey.remove(this.slotKeys[slot]);
+        this.nextSlots[slot] = this.freeHead;
+        this.freeHead = slot;
+        this.size--;
+    }
+
+    /**
+     * Remove a used slot from the order of the messages
+     *
+     * @param slot the slot to remove
+     */
+    private void unlink(final int slot) {
+        final int prev = this.prevSlots[slot];
+        final int next = this.nextSlots[slot];
+
+        if (prev == NO_SLOT) {
+            this.head = next;
+        } else {
+            this.nextSlots[prev] = next;
+        }
+
+        if (next == NO_SLOT) {
+            this.tail = prev;
+        } else {
+            this.prevSlots[next] = prev;
+        }
+    }
+
+    /**
+     * Add a slot at the end of the order of the messages
+     *
+     * @param slot the slot to add
+     */
+    private void linkLast(final int slot) {
+        this.prevSlots[slot] = this.tail;
+        this.nextSlots[slot] = NO_SLOT;
+
+        if (this.tail == NO_SLOT) {
+            this.head = slot;
+        } else {
+            this.nextSlots[this.tail] = slot;
+        }
+
+        this.tail = slot;
+    }
+}
@@ -23,6 +23,19 @@ interface IAeronPublisher extends IRequestResponder {
      */
     PublishResult sendMessage(byte msgType, UUID topicId, DirectBuffer message, long sequenceNumber, int offset, int length);
 
+    /**
+     * Send a message for the given topic with the compact header
+     *
+     * @param msgType         message type to send
+     * @param publisherHandle handle of the topic publisher being published
+     * @param message         the message to sendMsg
+     * @param sequenceNumber  sequence number of the message to send
+     * @param offset          offset where the message starts in the buffer
+     * @param length          length of the message to send starting from the offset
+     * @return Enum with the possible results after a publication
+     */
+    PublishResult sendCompactMessage(byte msgType, int publisherHandle, DirectBuffer message, long sequenceNumber, int offset, int length);
+
     /**
      * Send a message for the given topic with the provided contents
      *
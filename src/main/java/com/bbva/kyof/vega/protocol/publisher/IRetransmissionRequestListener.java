@@ -0,0 +1,17 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import java.util.UUID;
+
+/**
+ * Listener for the retransmission requests of the subscribers that have detected a gap in the messages of a topic publisher
+ */
+public interface IRetransmissionRequestListener {
+    /**
+     * Called when a subscriber requests the retransmission of a range of messages
+     *
+     * @param topicPublisherId    unique id of the topic publisher that sent the messages
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     */
+    void onRetransmissionRequest(UUID topicPublisherId, long firstSequenceNumber, long lastSequenceNumber);
+}
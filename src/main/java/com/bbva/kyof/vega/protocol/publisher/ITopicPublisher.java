@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.IResponseListener;
 import com.bbva.kyof.vega.msg.ISentRequest;
 import com.bbva.kyof.vega.msg.PublishResult;
@@ -8,6 +9,9 @@ import com.bbva.kyof.vega.protocol.heartbeat.IClientConnectionListener;
 import org.agrona.DirectBuffer;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 
 /**
  * Interface for a topic publisher with the functionality available for a user
@@ -27,6 +31,78 @@ public interface ITopicPublisher {
      */
     PublishResult sendMsg(final DirectBuffer message, final int offset, final int length);
 
+    /**
+     * This method sends a normal message that can be conflated with other messages of the same conflation key.
+     * <p>
+     * If the back pressure policy of the topic configuration is CONFLATE and the message cannot be sent due to back pressure, it is
+     * kept until it can be sent and replaced by any newer message with the same key sent in the meantime. The replaced messages are
+     * seen by the subscribers as lost messages. With any other policy the key is ignored and it is sent as a normal message.
+     *
+     * @param conflationKey key of the message, only the newest pending message of each key is sent
+     * @param message       the binary message to send
+     * @param offset        Offset for the message start in the buffer
+     * @param length        Length of the message starting in the given offset
+     * @return the enum with the result of the publication, OK if the message has been kept to send it later
+     */
+    PublishResult sendMsg(final long conflationKey, final DirectBuffer message, final int offset, final int length);
+
+    /**
+     * Claim a region to write a normal message directly, avoiding the copy of the user contents.
+     * <p>
+     * If the result is OK the claim will be active, the user should write the message contents in the claimed region and then
+     * commit or abort the claim. Any other result means the claim could not be done and the claim is not active.
+     * <p>
+     * If the claim is done in the Aeron buffer the sequence number is assigned when the claim succeeds.
+     *
+     * @param length length of the message to write
+     * @param claim  reusable claim that will contain the region to write the message, it should not be active
+     * @return the enum with the result of the claim
+     */
+    PublishResult tryClaim(final int length, final PublisherClaim claim);
+
+    /**
+     * Send the pending messages if batching is enabled or the back pressure policy is DROP_OLDEST or CONFLATE in the topic configuration.
+     * If the publisher is asynchronous it waits first until the messages enqueued before the call have been sent by the sender thread.
+     * It does nothing otherwise.
+     *
+     * @return the enum with the result of the publication, OK if there was nothing to send
+     */
+    PublishResult flush();
+
+    /**
+     * @return number of times a send has been retried due to back pressure, only for RETRY and BLOCK back pressure policies
+     */
+    long getBackPressureRetries();
+
+    /**
+     * @return number of pending messages dropped due to back pressure, only for DROP_OLDEST back pressure policy, DROP_NEWEST async
+     * overflow policy and the messages of asynchronous publishers that the sender thread could not send
+     */
+    long getBackPressureDrops();
+
+    /**
+     * @return number of pending messages replaced by a newer message with the same conflation key, only for CONFLATE back
+     * pressure policy
+     */
+    long getConflatedMsgs();
+
+    /**
+     * @return number of batched messages dropped because the batch could not be sent due to an error other than back pressure, only
+     * if batching is enabled. The send of those messages already returned OK.
+     */
+    long getBatchDrops();
+
+    /**
+     * @return number of messages retransmitted on request of the subscribers, only if gap recovery is enabled
+     */
+    long getRetransmittedMsgs();
+
+    /**
+     * @return number of messages requested by the subscribers that could not be retransmitted because they were no longer in the
+     * retransmission window, they were not data messages or the retransmission was back pressured
+     */
+    long getRetransmissionMisses();
+
     /**
      * Send a request on the topic.
      * <p>
@@ -43,6 +119,43 @@ public interface ITopicPublisher {
      */
     ISentRequest sendRequest(final DirectBuffer message, final int offset, final int length, final long timeout, final IResponseListener respListener);
 
+    /**
+     * Send a request on the topic that expects a single response.
+     * <p>
+     * The future is completed with a promoted copy of the first response and the request is closed. It is completed exceptionally
+     * with a TimeoutException if no response arrives before the timeout and with a VegaException if the request cannot be sent.
+     * Cancelling the future closes the request.
+     *
+     * @param message  The request message to send
+     * @param offset   Offset for the message start in the buffer
+     * @param length   Length of the message starting in the given offset
+     * @param timeout  the timeout of the request in milliseconds
+     * @param executor executor of the completion of the future, null to complete it on the thread that receives the response
+     * @return the future of the response
+     */
+    CompletableFuture<IRcvResponse> sendRequestAsync(final DirectBuffer message, final int offset, final int length, final long timeout, final Executor executor);
+
+    /**
+     * Send a request on the topic that may receive responses from several responders.
+     * <p>
+     * The publisher accepts a single subscriber. It completes when the expected number of responses has been received, closing the
+     * request, or when the request times out, and it fails with a VegaException if the request cannot be sent. Cancelling the
+     * subscription closes the request.
+     * <p>
+     * Without executor the responses are delivered on the poller thread while there is demand and have to be promoted if they are
+     * kept after onNext returns. The responses received without demand are promoted and buffered. With executor all the responses
+     * are promoted and delivered on it.
+     *
+     * @param message           The request message to send
+     * @param offset            Offset for the message start in the buffer
+     * @param length            Length of the message starting in the given offset
+     * @param timeout           the timeout of the request in milliseconds
+     * @param expectedResponses number of responses that complete the publisher, 0 to complete on timeout
+     * @param executor          executor of the deliveries to the subscriber, null to deliver on the thread that receives the responses
+     * @return the publisher of the responses
+     */
+    Flow.Publisher<IRcvResponse> sendRequestPublisher(final DirectBuffer message, final int offset, final int length, final long timeout, final int expectedResponses, final Executor executor);
+
     /**
      * @return the topic associated to this topic publisher
      */
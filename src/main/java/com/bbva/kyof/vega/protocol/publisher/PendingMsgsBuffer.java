@@ -0,0 +1,141 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+
+/**
+ * Bounded FIFO buffer with copies of the messages of a topic publisher that could not be sent due to back pressure. <p>
+ * <p>
+ * The buffer has a fixed number of slots, each one with its own expandable buffer that is reused. Memory is only allocated when a slot
+ * has to grow to fit a bigger message than any previous one. <p>
+ * <p>
+ * This class is not thread safe!
+ */
+class PendingMsgsBuffer {
+    /**
+     * Initial size of the buffer of each slot
+     */
+    private static final int INITIAL_SLOT_SIZE = 256;
+
+    /**
+     * Buffer with the contents of the message of each slot
+     */
+    private final ExpandableArrayBuffer[] slotBuffers;
+
+    /**
+     * Message type of each slot
+     */
+    private final byte[] slotMsgTypes;
+
+    /**
+     * Sequence number of each slot
+     */
+    private final long[] slotSequenceNumbers;
+
+    /**
+     * Length of the message of each slot
+     */
+    private final int[] slotLengths;
+
+    /**
+     * Position of the oldest message
+     */
+    private int head = 0;
+
+    /**
+     * Number of messages in the buffer
+     */
+    private int size = 0;
+
+    /**
+     * Create a new buffer
+     *
+     * @param capacity max number of messages
+     */
+    PendingMsgsBuffer(final int capacity) {
+        this.slotBuffers = new ExpandableArrayBuffer[capacity];
+        this.slotMsgTypes = new byte[capacity];
+        this.slotSequenceNumbers = new long[capacity];
+        this.slotLengths = new int[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            this.slotBuffers[i] = new ExpandableArrayBuffer(INITIAL_SLOT_SIZE);
+        }
+    }
+
+    /**
+     * @return true if there are no pending messages
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return true if there is no room for more messages
+     */
+    boolean isFull() {
+        return this.size == this.slotBuffers.length;
+    }
+
+    /**
+     * @return the number of pending messages
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a copy of a message at the end of the buffer. It should have been checked first that the buffer is not full.
+     *
+     * @param msgType        framework type of the message
+     * @param sequenceNumber sequence number of the message, the first one if it is a batch
+     * @param message        buffer with the message
+     * @param offset         offset of the message in the buffer
+     * @param length         length of the message
+     */
+    void add(final byte msgType, final long sequenceNumber, final DirectBuffer message, final int offset, final int length) {
+        final int slot = (this.head + this.size) % this.slotBuffers.length;
+
+        this.slotBuffers[slot].putBytes(0, message, offset, length);
+        this.slotMsgTypes[slot] = msgType;
+        this.slotSequenceNumbers[slot] = sequenceNumber;
+        this.slotLengths[slot] = length;
+        this.size++;
+    }
+
+    /**
+     * @return the message type of the oldest message
+     */
+    byte getOldestMsgType() {
+        return this.slotMsgTypes[this.head];
+    }
+
+    /**
+     * @return the sequence number of the oldest message
+     */
+    long getOldestSequenceNumber() {
+        return this.slotSequenceNumbers[this.head];
+    }
+
+    /**
+     * @return the buffer with the oldest message, the message starts at offset 0
+     */
+    DirectBuffer getOldestBuffer() {
+        return this.slotBuffers[this.head];
+    }
+
+    /**
+     * @return the length of the oldest message
+     */
+    int getOldestLength() {
+        return this.slotLengths[this.head];
+    }
+
+    /**
+     * Remove the oldest message. It should have been checked first that the buffer is not empty.
+     */
+    void removeOldest() {
+        this.head = (this.head + 1) % this.slotBuffers.length;
+        this.size--;
+    }
+}
@@ -0,0 +1,424 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.Version;
+import com.bbva.kyof.vega.msg.*;
+import com.bbva.kyof.vega.serialization.IUnsafeSerializable;
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import io.aeron.Publication;
+import io.aeron.logbuffer.BufferClaim;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Contains the reusable headers, buffer claim and serializers required to send messages, requests and responses over an Aeron publication. <p>
+ * <p>
+ * The sender will always try to use "bufferClaim" if possible in order to avoid copying the header and contents
+ * into a new buffer for each message. When the messages are too big (close to 4k) this cannot be done and we need to
+ * use a normal "offer" to send the message. In that case only the headers are serialized into a small buffer, and both
+ * the headers and the user message are given to Aeron as separated buffers to avoid copying the user message. <p>
+ * <p>
+ * The {@link AeronPublisher} owns one sender per lock stripe, or a single one if the publication is exclusive.
+ * <p>
+ * This class is not thread safe!
+ */
+@Slf4j
+class PublicationSender {
+    /**
+     * Size of the buffer for the headers of offered messages, it is big enough for any header type
+     */
+    private static final int OFFER_HEADERS_BUFFER_SIZE = 128;
+
+    /**
+     * Size of the framework headers of a data message
+     */
+    static final int DATA_MSG_HEADERS_SIZE = BaseHeader.BINARY_SIZE + MsgDataHeader.BINARY_SIZE;
+
+    /**
+     * Size of the framework headers of a data message with the compact header
+     */
+    static final int COMPACT_DATA_MSG_HEADERS_SIZE = BaseHeader.BINARY_SIZE + MsgCompactDataHeader.BINARY_SIZE;
+
+    /**
+     * Empty contents for the messages that only have headers
+     */
+    private static final UnsafeBuffer EMPTY_CONTENT = new UnsafeBuffer(new byte[0]);
+
+    /**
+     * Aeron publication
+     */
+    private final Publication publication;
+
+    /**
+     * Reusable base header
+     */
+    private final BaseHeader reusableBaseHeader;
+
+    /**
+     * Reusable data msg header
+     */
+    private final MsgDataHeader reusableMsgHeader;
+
+    /**
+     * Reusable compact data msg header
+     */
+    private final MsgCompactDataHeader reusableCompactMsgHeader = new MsgCompactDataHeader();
+
+    /**
+     * Reusable data request header
+     */
+    private final MsgReqHeader reusableMsgReqHeader;
+
+    /**
+     * Reusable data response header
+     */
+    private final MsgRespHeader reusableMsgRespHeader;
+
+    /**
+     * Reusable negative acknowledgement header
+     */
+    private final MsgNakHeader reusableMsgNakHeader = new MsgNakHeader();
+
+    /**
+     * Reusable buffer claim to serialize messages, allowing adding header and user message contents without extra copies
+     */
+    private final BufferClaim bufferClaim = new BufferClaim();
+
+    /**
+     * Reusable serializer for claim send type
+     */
+    private final UnsafeBufferSerializer claimUnsafeSerializer = new UnsafeBufferSerializer();
+
+    /**
+     * Reusable serializer for the headers on offer send type, the user message is not copied
+     */
+    private final UnsafeBufferSerializer offerUnsafeSerializer = new UnsafeBufferSerializer();
+
+    /**
+     * Idle strategy when retrying due to admin action
+     */
+    private final BusySpinIdleStrategy adminActionRetryIdle = new BusySpinIdleStrategy();
+
+    /**
+     * Create a new sender for the given publication
+     *
+     * @param publication the publication to send the messages through
+     * @param instanceId  unique id of the library instance, it is the same for all the messages sent
+     */
+    PublicationSender(final Publication publication, final UUID instanceId) {
+        this.publication = publication;
+
+        // Create the reusable base header
+        this.reusableBaseHeader = new BaseHeader(MsgType.DATA, Version.LOCAL_VERSION);
+
+        // Create the reusable headers for all message types
+        this.reusableMsgHeader = new MsgDataHeader();
+        this.reusableMsgReqHeader = new MsgReqHeader();
+        this.reusableMsgRespHeader = new MsgRespHeader();
+
+        // Preset the unique instance id since it is always the same for all messages sent with this publisher
+        this.reusableMsgHeader.setInstanceId(instanceId);
+        this.reusableMsgReqHeader.setInstanceId(instanceId);
+        this.reusableMsgRespHeader.setInstanceId(instanceId);
+        this.reusableMsgNakHeader.setInstanceId(instanceId);
+
+        // The offer serializer only contains the headers
+        this.offerUnsafeSerializer.wrap(ByteBuffer.allocate(OFFER_HEADERS_BUFFER_SIZE));
+    }
+
+    /**
+     * Send a message for the given topic with the provided contents
+     *
+     * @param msgType        message type to send
+     * @param topicUniqueId  unique Id of the topic publisher
+     * @param message        the message to send
+     * @param sequenceNumber sequence number of the message to send
+     * @param offset         offset where the message starts in the buffer
+     * @param length         length of the message to send starting from the offset
+     * @return the result of the message send
+     */
+    PublishResult sendMessage(final byte msgType, final UUID topicUniqueId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // Set the topic unique id of the reusable header
+        this.reusableMsgHeader.setTopicPublisherId(topicUniqueId);
+
+        // Set the sequence number of the reusable header
+        this.reusableMsgHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(msgType, this.reusableMsgHeader, message, offset, length);
+    }
+
+    /**
+     * Send a message for the given topic with the compact header
+     *
+     * @param msgType         message type to send
+     * @param publisherHandle handle of the topic publisher
+     * @param message         the message to send
+     * @param sequenceNumber  sequence number of the message to send
+     * @param offset          offset where the message starts in the buffer
+     * @param length          length of the message to send starting from the offset
+     * @return the result of the message send
+     */
+    PublishResult sendCompactMessage(final byte msgType, final int publisherHandle, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // Set the handle and sequence number of the reusable header
+        this.reusableCompactMsgHeader.setPublisherHandle(publisherHandle);
+        this.reusableCompactMsgHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(msgType, this.reusableCompactMsgHeader, message, offset, length);
+    }
+
+    /**
+     * Send a request for the given topic with the provided contents
+     *
+     * @param msgType        message type to send
+     * @param topicUniqueId  unique Id of the topic publisher
+     * @param requestId      unique id for the request
+     * @param message        the message to send
+     * @param sequenceNumber sequence number of the message to send
+     * @param offset         offset where the message starts in the buffer
+     * @param length         length of the message to send starting from the offset
+     * @return the result of the message send
+     */
+    PublishResult sendRequest(final byte msgType, final UUID topicUniqueId, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // Set the request header fields
+        this.reusableMsgReqHeader.setTopicPublisherId(topicUniqueId);
+        this.reusableMsgReqHeader.setRequestId(requestId);
+
+        // Set the sequence number of the reusable header
+        this.reusableMsgReqHeader.setSequenceNumber(sequenceNumber);
+
+        // Send the message
+        return this.send(msgType, this.reusableMsgReqHeader, message, offset, length);
+    }
+
+    /**
+     * Send a response for the given request id with the provided contents
+     *
+     * @param requestId the id of the request the response belongs to
+     * @param message   the message to send
+     * @param offset    offset where the message starts in the buffer
+     * @param length    length of the message to send starting from the offset
+     * @return the result of the message send
+     */
+    PublishResult sendResponse(final UUID requestId, final DirectBuffer message, final int offset, final int length) {
+        // Set the request header fields
+        this.reusableMsgRespHeader.setRequestId(requestId);
+
+        // Send the message
+        return this.send(MsgType.RESP, this.reusableMsgRespHeader, message, offset, length);
+    }
+
+    /**
+     * Send a negative acknowledgement to request the retransmission of a range of messages of a topic publisher
+     *
+     * @param topicUniqueId       unique Id of the topic publisher that should retransmit the messages
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     * @return the result of the message send
+     */
+    PublishResult sendNak(final UUID topicUniqueId, final long firstSequenceNumber, final long lastSequenceNumber) {
+        // Set the header fields
+        this.reusableMsgNakHeader.setTopicPublisherId(topicUniqueId);
+        this.reusableMsgNakHeader.setFirstSequenceNumber(firstSequenceNumber);
+        this.reusableMsgNakHeader.setLastSequenceNumber(lastSequenceNumber);
+
+        // Send the header alone, there are no contents
+        return this.send(MsgType.NAK, this.reusableMsgNakHeader, EMPTY_CONTENT, 0, 0);
+    }
+
+    /**
+     * Claim a message for the given topic in the publication, write the headers and activate the claim with the region
+     * available for the user message
+     *
+     * @param msgType        message type to send
+     * @param topicUniqueId  unique Id of the topic publisher
+     * @param sequenceNumber sequence number of the message
+     * @param length         length of the user message
+     * @param claim          the claim to activate
+     * @return the result of the claim
+     */
+    PublishResult claimMessage(final byte msgType, final UUID topicUniqueId, final long sequenceNumber, final int length, final PublisherClaim claim) {
+        // Set the headers fields
+        this.reusableMsgHeader.setTopicPublisherId(topicUniqueId);
+        this.reusableMsgHeader.setSequenceNumber(sequenceNumber);
+
+        return this.claim(msgType, this.reusableMsgHeader, length, claim);
+    }
+
+    /**
+     * Claim a message for the given topic in the publication with the compact header, write the headers and activate the claim
+     * with the region available for the user message
+     *
+     * @param msgType         message type to send
+     * @param publisherHandle handle of the topic publisher
+     * @param sequenceNumber  sequence number of the message
+     * @param length          length of the user message
+     * @param claim           the claim to activate
+     * @return the result of the claim
+     */
+    PublishResult claimCompactMessage(final byte msgType, final int publisherHandle, final long sequenceNumber, final int length, final PublisherClaim claim) {
+        // Set the headers fields
+        this.reusableCompactMsgHeader.setPublisherHandle(publisherHandle);
+        this.reusableCompactMsgHeader.setSequenceNumber(sequenceNumber);
+
+        return this.claim(msgType, this.reusableCompactMsgHeader, length, claim);
+    }
+
+    /**
+     * Claim a message in the publication, write the headers and activate the claim with the region available for the user message
+     *
+     * @param msgType message type to send
+     * @param header  the header of the message, data or compact data
+     * @param length  length of the user message
+     * @param claim   the claim to activate
+     * @return the result of the claim
+     */
+    private PublishResult claim(final byte msgType, final IUnsafeSerializable header, final int length, final PublisherClaim claim) {
+        this.reusableBaseHeader.setMsgType(msgType);
+
+        final BufferClaim userBufferClaim = claim.getBufferClaim();
+        final int headersSize = this.reusableBaseHeader.serializedSize() + header.serializedSize();
+        final int totalMsgSize = headersSize + length;
+
+        // Reserve space in the publication.
+        long claimResult = this.publication.tryClaim(totalMsgSize, userBufferClaim);
+
+        // Retry in case of admin action
+        while (claimResult == Publication.ADMIN_ACTION) {
+            // Wait a bit to avoid too many retries
+            this.adminActionRetryIdle.idle();
+
+            // Retry the claim
+            claimResult = this.publication.tryClaim(totalMsgSize, userBufferClaim);
+        }
+
+        if (claimResult > 0) {
+            // Write the headers, the user will write the contents
+            this.claimUnsafeSerializer.wrap(userBufferClaim.buffer(), userBufferClaim.offset(), totalMsgSize);
+            this.reusableBaseHeader.toBinary(this.claimUnsafeSerializer);
+            header.toBinary(this.claimUnsafeSerializer);
+
+            claim.activateDirect(headersSize, length);
+            return PublishResult.OK;
+        }
+
+        // Convert the result
+        return PublishResult.fromAeronResult(claimResult);
+    }
+
+    /**
+     * Send a message given the message type, header to use and contents
+     *
+     * @param msgType the type of the message
+     * @param header  the header of the message depending on the type (normal, request, response)
+     * @param message the buffer with the message to send
+     * @param offset  the offset in the buffer where the message to send starts
+     * @param length  the length of the message starting from the given offset
+     * @return the result of the message send
+     */
+    private PublishResult send(final byte msgType, final IUnsafeSerializable header, final DirectBuffer message, final int offset, final int length) {
+        // Set the message type in the base header
+        this.reusableBaseHeader.setMsgType(msgType);
+
+        // Calculate required size to sendMsg
+        final int totalMsgSize = this.reusableBaseHeader.serializedSize() + header.serializedSize() + length;
+
+        if (log.isTraceEnabled()) {
+            log.trace("Sending message of type [{}], contents size [{}], total size [{}]", MsgType.toString(msgType), length, totalMsgSize);
+        }
+
+        // If the message is bigger than max claim size cannot use the claim mechanism
+        if (totalMsgSize > this.publication.maxPayloadLength()) {
+            return this.sendUsingOffer(header, message, offset, length, totalMsgSize);
+        } else {
+            return this.sendUsingClaim(header, message, offset, length, totalMsgSize);
+        }
+    }
+
+    /**
+     * Send a message given the header to use and contents. The message will be sent using the offer mechanism, the headers and
+     * the user message are offered as separated buffers so the user message is not copied.
+     *
+     * @param header        the header of the message depending on the type (normal, request, response)
+     * @param message       the buffer with the message to send
+     * @param userMsgOffset offset in the buffer were the user message starts
+     * @param userMsgSize   size of the user message part without the headers
+     * @param totalMsgSize  total size of the message including the headers
+     * @return the result of the message send
+     */
+    private PublishResult sendUsingOffer(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize) {
+        // Reset the offer buffer offset to start again
+        this.offerUnsafeSerializer.setOffset(0);
+
+        // Write base header
+        this.reusableBaseHeader.toBinary(this.offerUnsafeSerializer);
+        // Write header
+        header.toBinary(this.offerUnsafeSerializer);
+
+        final UnsafeBuffer headersBuffer = this.offerUnsafeSerializer.getInternalBuffer();
+        final int headersSize = totalMsgSize - userMsgSize;
+
+        // Send the headers and the user message
+        long offerResult = this.publication.offer(headersBuffer, 0, headersSize, message, userMsgOffset, userMsgSize);
+
+        // Retry in case of admin action
+        while (offerResult == Publication.ADMIN_ACTION) {
+            // Wait a bit to avoid too many retries
+            this.adminActionRetryIdle.idle();
+
+            // Retry the send
+            offerResult = this.publication.offer(headersBuffer, 0, headersSize, message, userMsgOffset, userMsgSize);
+        }
+
+        // Convert the result
+        return PublishResult.fromAeronResult(offerResult);
+    }
+
+    /**
+     * Send a message given the header to use and contents. The message will be sent using the claim mechanism.
+     *
+     * @param header        the header of the message depending on the type (normal, request, response)
+     * @param message       the buffer with the message to send
+     * @param userMsgOffset offset in the buffer were the user message starts
+     * @param userMsgSize   size of the user message part without the headers
+     * @param totalMsgSize  total size of the message including the headers
+     * @return the result of the message send
+     */
+    private PublishResult sendUsingClaim(final IUnsafeSerializable header, final DirectBuffer message, final int userMsgOffset, final int userMsgSize, final int totalMsgSize) {
+        // Reserve space in the publication.
+        long claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
+
+        // Retry in case of admin action
+        while (claimResult == Publication.ADMIN_ACTION) {
+            // Wait a bit to avoid too many retries
+            this.adminActionRetryIdle.idle();
+
+            // Retry the send
+            claimResult = this.publication.tryClaim(totalMsgSize, this.bufferClaim);
+        }
+
+        // Claim success, write the data and sendMsg
+        if (claimResult > 0) {
+            // Wrap the buffer claim to serialize
+            this.claimUnsafeSerializer.wrap(this.bufferClaim.buffer(), this.bufferClaim.offset(), totalMsgSize);
+            // Write base header
+            this.reusableBaseHeader.toBinary(this.claimUnsafeSerializer);
+            // Write header
+            header.toBinary(this.claimUnsafeSerializer);
+            // Write the user message
+            this.claimUnsafeSerializer.writeBytes(message, userMsgOffset, userMsgSize);
+            // Send the message
+            this.bufferClaim.commit();
+            // Return Ok in the publication
+            return PublishResult.OK;
+        }
+
+        // Convert the result
+        return PublishResult.fromAeronResult(claimResult);
+    }
+}
@@ -0,0 +1,155 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.msg.PublishResult;
+import io.aeron.logbuffer.BufferClaim;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a claimed region to write the contents of a message before sending it through a topic publisher.
+ * <p>
+ * The claim is filled by {@link ITopicPublisher#tryClaim(int, PublisherClaim)}. If the result is OK the user should write the message
+ * contents in {@link #getBuffer()} between {@link #getOffset()} and {@link #getOffset()} + {@link #getLength()} and then call
+ * {@link #commit()} to send the message or {@link #abort()} to discard it.
+ * <p>
+ * When the publisher allows it, the region is directly in the Aeron term buffer after the framework headers and the message is sent
+ * without any additional copy. If not (unicast with several subscribers, secure topics or messages that don't fit in a single frame)
+ * the region is in an internal buffer of the claim and the message is sent with a normal send when committed.
+ * <p>
+ * The claim instance can be reused, but only for a single message at a time. It should be committed or aborted as soon as possible,
+ * since a direct claim will stop the subscribers from reading any further message of the publication until it is done.
+ * <p>
+ * This class is not thread safe!
+ */
+@Slf4j
+public final class PublisherClaim {
+    /**
+     * Aeron buffer claim used for direct claims
+     */
+    private final BufferClaim bufferClaim = new BufferClaim();
+
+    /**
+     * Buffer that wraps the region available for the user message
+     */
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(0));
+
+    /**
+     * Internal buffer used when the claim cannot be done directly in the Aeron term buffer
+     */
+    private ByteBuffer copyByteBuffer = ByteBuffer.allocate(0);
+
+    /**
+     * Topic publisher that will send the message on commit if the claim is not direct, null otherwise
+     */
+    private AbstractTopicPublisher copyPublisher = null;
+
+    /**
+     * Offset in the buffer where the user message starts
+     */
+    @Getter
+    private int offset;
+
+    /**
+     * Length of the user message
+     */
+    @Getter
+    private int length;
+
+    /**
+     * True if there is a claim in progress that has not been committed or aborted yet
+     */
+    @Getter
+    private boolean active = false;
+
+    /**
+     * @return the buffer the user message should be written into, only valid while the claim is active
+     */
+    public MutableDirectBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Send the message written in the claimed region
+     *
+     * @return the result of the send, for direct claims it is always OK
+     */
+    public PublishResult commit() {
+        if (!this.active) {
+            log.error("Trying to commit a publisher claim that is not active");
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        this.active = false;
+
+        if (this.copyPublisher == null) {
+            this.bufferClaim.commit();
+            return PublishResult.OK;
+        }
+
+        final AbstractTopicPublisher publisher = this.copyPublisher;
+        this.copyPublisher = null;
+        return publisher.sendMsg(this.buffer, this.offset, this.length);
+    }
+
+    /**
+     * Discard the claimed region without sending the message. The subscribers will skip it.
+     */
+    public void abort() {
+        if (!this.active) {
+            log.warn("Trying to abort a publisher claim that is not active");
+            return;
+        }
+
+        this.active = false;
+
+        if (this.copyPublisher == null) {
+            this.bufferClaim.abort();
+        } else {
+            this.copyPublisher = null;
+        }
+    }
+
+    /**
+     * @return the Aeron buffer claim to reserve the space in the publication
+     */
+    BufferClaim getBufferClaim() {
+        return this.bufferClaim;
+    }
+
+    /**
+     * Activate the claim with the region reserved in the Aeron buffer claim
+     *
+     * @param headersLength length of the framework headers already written at the start of the claimed region
+     * @param msgLength     length of the user message
+     */
+    void activateDirect(final int headersLength, final int msgLength) {
+        this.buffer.wrap(this.bufferClaim.buffer(), this.bufferClaim.offset() + headersLength, msgLength);
+        this.offset = 0;
+        this.length = msgLength;
+        this.copyPublisher = null;
+        this.active = true;
+    }
+
+    /**
+     * Activate the claim with a region in the internal buffer. The message will be sent using the given publisher on commit.
+     *
+     * @param publisher the topic publisher that will send the message on commit
+     * @param msgLength length of the user message
+     */
+    void activateCopy(final AbstractTopicPublisher publisher, final int msgLength) {
+        // Make sure the internal buffer is big enough, if not increase the size
+        if (this.copyByteBuffer.capacity() < msgLength) {
+            this.copyByteBuffer = ByteBuffer.allocate(msgLength);
+        }
+
+        this.buffer.wrap(this.copyByteBuffer, 0, msgLength);
+        this.offset = 0;
+        this.length = msgLength;
+        this.copyPublisher = publisher;
+        this.active = true;
+    }
+}
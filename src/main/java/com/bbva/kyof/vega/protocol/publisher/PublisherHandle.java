@@ -0,0 +1,52 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Handle of a topic publisher that sends the data messages with the compact header, created by the {@link PublisherHandleRegistry}
+ * of the instance.<p>
+ * <p>
+ * If another topic publisher advertises the same handle the handle is marked as collided and the topic publisher
+ * falls back to the full data header, the subscribers cannot resolve the handle anymore.<p>
+ * <p>
+ * This class is thread safe
+ */
+final class PublisherHandle {
+    /**
+     * Value of the handle, a non zero integer that identifies the topic publisher in the compact data headers
+     */
+    @Getter
+    private final int value;
+
+    /**
+     * Unique id of the topic publisher that owns the handle
+     */
+    @Getter
+    private final UUID topicPublisherId;
+
+    /**
+     * True if the handle is also used by another topic publisher, once set it never changes
+     */
+    @Getter
+    private volatile boolean collided = false;
+
+    /**
+     * Create a new handle
+     *
+     * @param value            value of the handle
+     * @param topicPublisherId unique id of the topic publisher that owns the handle
+     */
+    PublisherHandle(final int value, final UUID topicPublisherId) {
+        this.value = value;
+        this.topicPublisherId = topicPublisherId;
+    }
+
+    /**
+     * Mark the handle as used by another topic publisher
+     */
+    void markCollided() {
+        this.collided = true;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
+import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscPubHandleListener;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntHashSet;
+
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates the handles of the topic publishers of an instance that send the data messages with the compact header.<p>
+ * <p>
+ * The handles are random integers, the registry avoids the handles already used by the local topic publishers and the handles
+ * advertised by remote topic publishers. A remote topic publisher may still choose the handle of a local one, when its advert
+ * is received the local handle is marked as collided and the local topic publisher sends the data messages with the full header
+ * from then on. The remote topic publisher will do the same when it receives the advert of the local one.<p>
+ * <p>
+ * This class is thread safe
+ */
+@Slf4j
+public class PublisherHandleRegistry implements IAutodiscPubHandleListener {
+    /**
+     * Random number generator for the handles
+     */
+    private final Random rnd = new Random(System.nanoTime());
+
+    /**
+     * Handles of the local topic publishers by value
+     */
+    private final Int2ObjectHashMap<PublisherHandle> localHandles = new Int2ObjectHashMap<>();
+
+    /**
+     * Handles advertised by auto-discovery, they are not used for new local topic publishers
+     */
+    private final IntHashSet advertisedHandles = new IntHashSet();
+
+    /**
+     * Lock for instance synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new handle for the given topic publisher, different than {@link AutoDiscTopicInfo#NO_PUBLISHER_HANDLE}
+     * and than any handle in use or advertised
+     *
+     * @param topicPublisherId unique id of the topic publisher
+     * @return the created handle
+     */
+    PublisherHandle createHandle(final UUID topicPublisherId) {
+        synchronized (this.lock) {
+            int value = AutoDiscTopicInfo.NO_PUBLISHER_HANDLE;
+
+            while (value == AutoDiscTopicInfo.NO_PUBLISHER_HANDLE || this.localHandles.containsKey(value) || this.advertisedHandles.contains(value)) {
+                value = this.rnd.nextInt();
+            }
+
+            final PublisherHandle handle = new PublisherHandle(value, topicPublisherId);
+            this.localHandles.put(value, handle);
+            return handle;
+        }
+    }
+
+    /**
+     * Release the handle of a closed topic publisher
+     *
+     * @param handle the handle to release
+     */
+    void releaseHandle(final PublisherHandle handle) {
+        synchronized (this.lock) {
+            if (this.localHandles.get(handle.getValue()) == handle) {
+                this.localHandles.remove(handle.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void onNewPublisherHandle(final AutoDiscTopicInfo info) {
+        synchronized (this.lock) {
+            this.advertisedHandles.add(info.getPublisherHandle());
+
+            final PublisherHandle localHandle = this.localHandles.get(info.getPublisherHandle());
+            if (localHandle == null || localHandle.isCollided() || localHandle.getTopicPublisherId().equals(info.getUniqueId())) {
+                return;
+            }
+
+            log.warn("Publisher handle [{}] of topic publisher [{}] collides with topic publisher [{}], it will send the data messages with the full header",
+                    localHandle.getValue(), localHandle.getTopicPublisherId(), info.getUniqueId());
+
+            localHandle.markCollided();
+        }
+    }
+}
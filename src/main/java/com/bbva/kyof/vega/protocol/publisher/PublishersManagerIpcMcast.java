@@ -9,7 +9,6 @@ import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.IOwnSecPubTopicsChangesListener;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
-import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import com.bbva.kyof.vega.util.net.InetUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -63,17 +62,26 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
         // Create the aeron publisher parameters for the topic publisher
         final AeronPublisherParams aeronPublisherParams = this.createAeronPublisherParams(topicPublisher);
 
-        // Look for an existing publisher that matches the given parameters
-        AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
+        AeronPublisher aeronPublisher;
 
-        // If it doesn't exists already, create a new one
-        if (aeronPublisher == null) {
-            log.debug("Creating new AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
+        if (topicPublisher.isThreadConfined()) {
+            // Thread confined topic publishers have their own exclusive publisher that is never shared
+            log.debug("Creating new exclusive AeronPublisher for thread confined topic publisher on topic [{}]", topicPublisher.getTopicName());
 
-            aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
-            this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+            aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams, true);
         } else {
-            log.debug("Reusing existing AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
+            // Look for an existing publisher that matches the given parameters
+            aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
+
+            // If it doesn't exists already, create a new one
+            if (aeronPublisher == null) {
+                log.debug("Creating new AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
+
+                aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
+                this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+            } else {
+                log.debug("Reusing existing AeronPublisher for topic publisher on topic [{}]", topicPublisher.getTopicName());
+            }
         }
 
         // Add the related topic to the aeron publisher, there can be more than one since we are reusing
@@ -112,7 +120,7 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
 
             if (!this.topicPublishersByAeronPub.containsKey(aeronPublisher)) {
                 aeronPublisher.close();
-                this.publisherByParams.remove(aeronPublisher.getParams());
+                this.publisherByParams.remove(aeronPublisher.getParams(), aeronPublisher);
             }
 
             // Un-registerTopicInfo topic socket info from auto-discovery
@@ -143,15 +151,15 @@ class PublishersManagerIpcMcast extends AbstractPublishersManager<TopicPublisher
         final TopicTemplateConfig templateCfg = topicPublisher.getTopicConfig();
 
         // Select the Stream ID
-        final int streamId = AeronChannelHelper.selectStreamFromRange(topicName, templateCfg.getNumStreamsPerPort());
+        final int streamId = templateCfg.selectStreamId(topicName);
 
         // Create the publisher parameters
         if (templateCfg.getTransportType() == TransportMediaType.MULTICAST) {
             // Select the ip address
-            final String ipAddress = AeronChannelHelper.selectMcastIpFromRange(topicName, templateCfg.getMulticastAddressLow(), templateCfg.getMulticastAddressHigh());
+            final String ipAddress = templateCfg.selectMcastIp(topicName);
 
             // Select the port
-            final int portNumber = AeronChannelHelper.selectPortFromRange(topicName, templateCfg.getMinPort(), templateCfg.getMaxPort());
+            final int portNumber = templateCfg.selectPort(topicName);
 
             // Create the parameters
             return new AeronPublisherParams(TransportMediaType.MULTICAST, InetUtil.convertIpAddressToInt(ipAddress), portNumber, streamId, templateCfg.getSubnetAddress());
@@ -21,6 +21,9 @@ import java.util.UUID;
 /**
  * Send manager for unicast sending. It will handle all the sockets and relations between topic publisher.
  * <p>
+ * If the topic template is configured with unicast multi-destination-cast, each topic publisher has a single multi-destination aeron publisher
+ * per stream id and the subscribers are added to it as destinations, instead of having one aeron publisher per subscriber.
+ * <p>
  * This class is thread safe!
  */
 @Slf4j
@@ -45,6 +48,11 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
      */
     private final Map<UUID, AeronPublisher> aeronPubBySubTopicSocketId = new HashMap<>();
 
+    /**
+     * Store the destination of the sub topic socket infos that are related to a multi-destination aeron publisher
+     */
+    private final Map<UUID, AeronPublisherParams> mdcDestinationBySubTopicSocketId = new HashMap<>();
+
     /**
      * Constructor
      *
@@ -61,6 +69,7 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         this.subTopicSocketInfosByTopicName.clear();
         this.subTopicSocketInfosByAeronPub.clear();
         this.aeronPubBySubTopicSocketId.clear();
+        this.mdcDestinationBySubTopicSocketId.clear();
     }
 
     @Override
@@ -170,12 +179,13 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
             // Create the aeron publisher parameters for the topic publisher
             final AeronPublisherParams aeronPublisherParams = this.createAeronPublisherParams(topicPublisher, subTopicSocketInfo);
 
-            // Check if we already have the socket created with that parameters, if not create a new one
-            AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
-
-            if (aeronPublisher == null) {
-                aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
-                this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+            // Find or create the aeron publisher for the parameters
+            final AeronPublisher aeronPublisher;
+            if (topicPublisher.getTopicConfig().isUnicastMdc()) {
+                aeronPublisher = this.findOrCreateMdcAeronPublisher(topicPublisher, aeronPublisherParams);
+                this.addMdcDestination(aeronPublisher, aeronPublisherParams, subTopicSocketInfo);
+            } else {
+                aeronPublisher = this.findOrCreateAeronPublisher(topicPublisher, aeronPublisherParams);
             }
 
             // Add all the relations between the topic socket id and the topic publisher and aeron publisher
@@ -189,6 +199,95 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         }
     }
 
+    /**
+     * Find the aeron publisher that match the given parameters or create a new one if there is none.
+     * <p>
+     * Aeron publishers are shared between topic publishers unless the topic publisher is thread confined, in that case the topic publisher
+     * has its own exclusive aeron publishers.
+     *
+     * @param topicPublisher       the topic publisher the aeron publisher is for
+     * @param aeronPublisherParams the parameters of the aeron publisher
+     * @return the found or created aeron publisher
+     */
+    private AeronPublisher findOrCreateAeronPublisher(final TopicPublisherUnicast topicPublisher, final AeronPublisherParams aeronPublisherParams) {
+        if (topicPublisher.isThreadConfined()) {
+            // Check if the topic publisher already has an exclusive publisher with that parameters, if not create a new one
+            final AeronPublisher exclusivePublisher = topicPublisher.findAeronPublisher(aeronPublisherParams);
+
+            if (exclusivePublisher == null) {
+                return new AeronPublisher(this.getVegaContext(), aeronPublisherParams, true);
+            }
+
+            return exclusivePublisher;
+        }
+
+        // Check if we already have the socket created with that parameters, if not create a new one
+        AeronPublisher aeronPublisher = this.publisherByParams.get(aeronPublisherParams);
+
+        if (aeronPublisher == null) {
+            aeronPublisher = new AeronPublisher(this.getVegaContext(), aeronPublisherParams);
+            this.publisherByParams.put(aeronPublisherParams, aeronPublisher);
+        }
+
+        return aeronPublisher;
+    }
+
+    /**
+     * Find the multi-destination aeron publisher of the topic publisher for the stream of the given parameters or create a new one if
+     * there is none. Multi-destination aeron publishers are never shared between topic publishers.
+     *
+     * @param topicPublisher       the topic publisher the aeron publisher is for
+     * @param aeronPublisherParams the parameters of the subscriber destination
+     * @return the found or created aeron publisher
+     */
+    private AeronPublisher findOrCreateMdcAeronPublisher(final TopicPublisherUnicast topicPublisher, final AeronPublisherParams aeronPublisherParams) {
+        // The ip and port are given by the destinations, the publication is identified only by the stream
+        final AeronPublisherParams mdcParams = new AeronPublisherParams(
+                TransportMediaType.UNICAST,
+                0,
+                0,
+                aeronPublisherParams.getStreamId(),
+                aeronPublisherParams.getSubnetAddress());
+
+        final AeronPublisher mdcPublisher = topicPublisher.findAeronPublisher(mdcParams);
+
+        if (mdcPublisher == null) {
+            return new AeronPublisher(this.getVegaContext(), mdcParams, topicPublisher.isThreadConfined(), true);
+        }
+
+        return mdcPublisher;
+    }
+
+    /**
+     * Add the subscriber as a destination of the multi-destination aeron publisher. The destination is only added if there are no
+     * other subscribers already related to the aeron publisher with the same destination.
+     *
+     * @param mdcPublisher       the multi-destination aeron publisher
+     * @param destinationParams  the parameters of the subscriber destination
+     * @param subTopicSocketInfo topic socket info of the subscriber
+     */
+    private void addMdcDestination(final AeronPublisher mdcPublisher,
+                                   final AeronPublisherParams destinationParams,
+                                   final AutoDiscTopicSocketInfo subTopicSocketInfo) {
+        if (!this.isMdcDestinationInUse(mdcPublisher, destinationParams)) {
+            mdcPublisher.addDestination(destinationParams.getIpAddress(), destinationParams.getPort());
+        }
+
+        this.mdcDestinationBySubTopicSocketId.put(subTopicSocketInfo.getUniqueId(), destinationParams);
+    }
+
+    /**
+     * Check if any sub topic socket info related to the multi-destination aeron publisher has the given destination
+     *
+     * @param mdcPublisher      the multi-destination aeron publisher
+     * @param destinationParams the parameters of the destination
+     * @return true if the destination is in use
+     */
+    private boolean isMdcDestinationInUse(final AeronPublisher mdcPublisher, final AeronPublisherParams destinationParams) {
+        return this.subTopicSocketInfosByAeronPub.anyValueForKeyMatchFilter(mdcPublisher,
+                topicSocket -> destinationParams.equals(this.mdcDestinationBySubTopicSocketId.get(topicSocket.getUniqueId())));
+    }
+
     @Override
     public void onTimedOutAutoDiscTopicSocketInfo(final AutoDiscTopicSocketInfo subscriberTopicSocketInfo) {
         log.debug("Topic socket info event timed out in auto-discovery {}", subscriberTopicSocketInfo);
@@ -234,11 +333,17 @@ class PublishersManagerUnicast extends AbstractPublishersManager<TopicPublisherU
         // Remove it also from the topic socket id's related to the aeron publisher
         this.subTopicSocketInfosByAeronPub.remove(aeronPublisher, subTopicSocketInfo);
 
+        // If it is a destination of a multi-destination publisher, remove the destination if no other subscriber uses it
+        final AeronPublisherParams mdcDestination = this.mdcDestinationBySubTopicSocketId.remove(subTopicSocketInfo.getUniqueId());
+        if (mdcDestination != null && !this.isMdcDestinationInUse(aeronPublisher, mdcDestination)) {
+            aeronPublisher.removeDestination(mdcDestination.getIpAddress(), mdcDestination.getPort());
+        }
+
         // If there are no more topic socket ids for the Aeron Subscriber, we should close it
         if (!this.subTopicSocketInfosByAeronPub.containsKey(aeronPublisher)) {
             // If there are no topic sockets attached to the AeronPublisher we should remove it as well
             aeronPublisher.close();
-            this.publisherByParams.remove(aeronPublisher.getParams());
+            this.publisherByParams.remove(aeronPublisher.getParams(), aeronPublisher);
         }
 
         // We have to decide if the aeron publisher should be removed form the topic publisher
@@ -0,0 +1,153 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounded window with copies of the last messages sent by a topic publisher, to retransmit them when a subscriber reports a gap. <p>
+ * <p>
+ * The contents are copied one after another into an off-heap ring of bytes, a message never wraps around the end of the ring. The
+ * position of each message in the ring is kept in a slot indexed by the sequence number, so the window holds up to the given number of
+ * messages as long as their contents fit in the ring. A message is available while its slot and its bytes have not been overwritten by
+ * newer messages. <p>
+ * <p>
+ * This class is not thread safe!
+ */
+class RetransmissionCache {
+    /**
+     * Sequence number of the empty slots
+     */
+    private static final long NO_SEQUENCE_NUMBER = Long.MIN_VALUE;
+
+    /**
+     * Off-heap ring with the contents of the messages
+     */
+    private final UnsafeBuffer buffer;
+
+    /**
+     * Mask to convert a position into an offset of the ring, the size of the ring is a power of 2
+     */
+    private final int bufferMask;
+
+    /**
+     * Mask to convert a sequence number into a slot, the number of slots is a power of 2
+     */
+    private final int slotMask;
+
+    /**
+     * Sequence number of the message of each slot
+     */
+    private final long[] slotSequenceNumbers;
+
+    /**
+     * Position of the contents of the message of each slot, it grows with every message and never wraps
+     */
+    private final long[] slotPositions;
+
+    /**
+     * Length of the message of each slot
+     */
+    private final int[] slotLengths;
+
+    /**
+     * Position where the next message will be written
+     */
+    private long tailPosition = 0;
+
+    /**
+     * Create a new cache
+     *
+     * @param windowSize max number of messages, it has to be a power of 2
+     * @param bufferSize size in bytes of the ring for the contents, it has to be a power of 2
+     */
+    RetransmissionCache(final int windowSize, final int bufferSize) {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferSize));
+        this.bufferMask = bufferSize - 1;
+        this.slotMask = windowSize - 1;
+        this.slotSequenceNumbers = new long[windowSize];
+        this.slotPositions = new long[windowSize];
+        this.slotLengths = new int[windowSize];
+
+        Arrays.fill(this.slotSequenceNumbers, NO_SEQUENCE_NUMBER);
+    }
+
+    /**
+     * Add a copy of a sent message, it replaces the oldest message of the window. Messages bigger than the ring are not kept.
+     *
+     * @param sequenceNumber sequence number of the message
+     * @param message        buffer with the message
+     * @param offset         offset of the message in the buffer
+     * @param length         length of the message
+     */
+    void add(final long sequenceNumber, final DirectBuffer message, final int offset, final int length) {
+        final int slot = (int) sequenceNumber & this.slotMask;
+
+        if (length > this.buffer.capacity()) {
+            this.slotSequenceNumbers[slot] = NO_SEQUENCE_NUMBER;
+            return;
+        }
+
+        // Skip the end of the ring if the message doesn't fit, it is always written in one piece
+        int bufferOffset = (int) this.tailPosition & this.bufferMask;
+        if (bufferOffset + length > this.buffer.capacity()) {
+            this.tailPosition += this.buffer.capacity() - bufferOffset;
+            bufferOffset = 0;
+        }
+
+        this.buffer.putBytes(bufferOffset, message, offset, length);
+        this.slotSequenceNumbers[slot] = sequenceNumber;
+        this.slotPositions[slot] = this.tailPosition;
+        this.slotLengths[slot] = length;
+        this.tailPosition += length;
+    }
+
+    /**
+     * Check if a message is still in the window
+     *
+     * @param sequenceNumber sequence number of the message
+     * @return true if the message can be retransmitted
+     */
+    boolean contains(final long sequenceNumber) {
+        final int slot = (int) sequenceNumber & this.slotMask;
+
+        // The contents may have been overwritten even if the slot is still there
+        return this.slotSequenceNumbers[slot] == sequenceNumber && this.tailPosition - this.slotPositions[slot] <= this.buffer.capacity();
+    }
+
+    /**
+     * @return the max number of messages of the window
+     */
+    int getWindowSize() {
+        return this.slotSequenceNumbers.length;
+    }
+
+    /**
+     * @return the ring with the contents of the messages
+     */
+    DirectBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Return the offset in the ring of a message, it should have been checked first that the message is in the window
+     *
+     * @param sequenceNumber sequence number of the message
+     * @return the offset of the contents
+     */
+    int getOffset(final long sequenceNumber) {
+        return (int) this.slotPositions[(int) sequenceNumber & this.slotMask] & this.bufferMask;
+    }
+
+    /**
+     * Return the length of a message, it should have been checked first that the message is in the window
+     *
+     * @param sequenceNumber sequence number of the message
+     * @return the length of the contents
+     */
+    int getLength(final long sequenceNumber) {
+        return this.slotLengths[(int) sequenceNumber & this.slotMask];
+    }
+}
@@ -81,6 +81,12 @@ class SecureTopicPublisherIpcMcast extends TopicPublisherIpcMcast {
         return this.aeronPublisher.sendMessage(MsgType.ENCRYPTED_DATA, this.getUniqueId(), this.encryptedUnsafeBuffer, sequenceNumber, 0, encrypedMsg.limit());
     }
 
+    @Override
+    boolean canClaimFromAeron(final int length) {
+        // The message has to be encrypted before sending, it cannot be written directly in Aeron
+        return false;
+    }
+
     @Override
     boolean hasSecurity() {
         return true;
@@ -8,6 +8,7 @@ import com.bbva.kyof.vega.protocol.control.IOwnSecPubTopicsChangesListener;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
+import java.util.UUID;
 
 /**
  * Main class to handle the sending functionality on the framework. It contains separate managers for unicast messaging and multicast/ipc messaging.
@@ -19,7 +20,7 @@ import java.io.Closeable;
  * This class is not thread safe!!
  */
 @Slf4j
-public class SendManager implements Closeable {
+public class SendManager implements Closeable, IRetransmissionRequestListener {
     /**
      * The manager to handle all publication logic for multicast and ipc
      */
@@ -146,6 +147,22 @@ public class SendManager implements Closeable {
         }
     }
 
+    @Override
+    public void onRetransmissionRequest(final UUID topicPublisherId, final long firstSequenceNumber, final long lastSequenceNumber) {
+        AbstractTopicPublisher topicPublisher = this.ipcMulticastPublishersManager.getTopicPublisherForId(topicPublisherId);
+        if (topicPublisher == null) {
+            topicPublisher = this.unicastPublishersManager.getTopicPublisherForId(topicPublisherId);
+        }
+
+        // It may have been destroyed after the messages were sent
+        if (topicPublisher == null) {
+            log.debug("Retransmission request received for unknown topic publisher [{}]", topicPublisherId);
+            return;
+        }
+
+        topicPublisher.retransmit(firstSequenceNumber, lastSequenceNumber);
+    }
+
     @Override
     public void close() {
         log.info("Closing send manager for instance ID [{}]", this.vegaContext.getInstanceUniqueId());
@@ -0,0 +1,120 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import lombok.Getter;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulates consecutive data messages of a topic publisher to send them together in a single {@link com.bbva.kyof.vega.msg.MsgType#DATA_BATCH}
+ * message. <p>
+ * <p>
+ * The batch contents are the entries one after the other, each entry is the length of the message as an int followed by the message contents.
+ * The sequence number of the batch is the sequence number of the first message, the rest are consecutive. <p>
+ * <p>
+ * This class is not thread safe!
+ */
+class TopicMsgBatch {
+    /**
+     * Size of the sub-header of each entry of the batch
+     */
+    static final int ENTRY_HEADER_SIZE = UnsafeBufferSerializer.INT_SIZE;
+
+    /**
+     * Buffer with the batch contents
+     */
+    @Getter
+    private final UnsafeBuffer buffer;
+
+    /**
+     * Max size of the batch contents
+     */
+    private final int capacity;
+
+    /**
+     * Current size of the batch contents
+     */
+    @Getter
+    private int length = 0;
+
+    /**
+     * Number of messages in the batch
+     */
+    @Getter
+    private int numMessages = 0;
+
+    /**
+     * Sequence number of the first message in the batch
+     */
+    @Getter
+    private long firstSequenceNumber = 0;
+
+    /**
+     * Create a new batch
+     *
+     * @param capacity max size of the batch contents without the headers of the message
+     */
+    TopicMsgBatch(final int capacity) {
+        this.capacity = capacity;
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocate(capacity));
+    }
+
+    /**
+     * @param msgLength length of a message
+     * @return true if a message of the given length fits in an empty batch
+     */
+    boolean canBatch(final int msgLength) {
+        return ENTRY_HEADER_SIZE + msgLength <= this.capacity;
+    }
+
+    /**
+     * @param msgLength length of a message
+     * @return true if a message of the given length fits in the remaining space of the batch
+     */
+    boolean hasRoom(final int msgLength) {
+        return this.length + ENTRY_HEADER_SIZE + msgLength <= this.capacity;
+    }
+
+    /**
+     * @return true if there is no room for any other message
+     */
+    boolean isFull() {
+        return !this.hasRoom(1);
+    }
+
+    /**
+     * @return true if there are no messages in the batch
+     */
+    boolean isEmpty() {
+        return this.numMessages == 0;
+    }
+
+    /**
+     * Add a message to the batch. It should have been checked first that there is room for it.
+     *
+     * @param sequenceNumber sequence number of the message, it has to be consecutive to the previous one
+     * @param message        buffer with the message
+     * @param offset         offset of the message in the buffer
+     * @param msgLength      length of the message
+     */
+    void add(final long sequenceNumber, final DirectBuffer message, final int offset, final int msgLength) {
+        if (this.numMessages == 0) {
+            this.firstSequenceNumber = sequenceNumber;
+        }
+
+        this.buffer.putInt(this.length, msgLength);
+        this.buffer.putBytes(this.length + ENTRY_HEADER_SIZE, message, offset, msgLength);
+        this.length += ENTRY_HEADER_SIZE + msgLength;
+        this.numMessages++;
+    }
+
+    /**
+     * Remove all the messages of the batch
+     */
+    void reset() {
+        this.length = 0;
+        this.numMessages = 0;
+    }
+}
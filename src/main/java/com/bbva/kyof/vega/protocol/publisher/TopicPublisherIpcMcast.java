@@ -46,15 +46,51 @@ class TopicPublisherIpcMcast extends AbstractTopicPublisher {
 
     @Override
     protected PublishResult sendToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        if (this.isCompactDataHeader()) {
+            return this.aeronPublisher.sendCompactMessage(MsgType.DATA_COMPACT, this.getPublisherHandle(), message, sequenceNumber, offset, length);
+        }
+
         return this.aeronPublisher.sendMessage(MsgType.DATA, this.getUniqueId(), message, sequenceNumber, offset, length);
     }
 
+    @Override
+    PublishResult sendBatchToAeron(final DirectBuffer batch, final long firstSequenceNumber, final int offset, final int length) {
+        if (this.isCompactDataHeader()) {
+            return this.aeronPublisher.sendCompactMessage(MsgType.DATA_BATCH_COMPACT, this.getPublisherHandle(), batch, firstSequenceNumber, offset, length);
+        }
+
+        return this.aeronPublisher.sendMessage(MsgType.DATA_BATCH, this.getUniqueId(), batch, firstSequenceNumber, offset, length);
+    }
+
     @Override
     protected PublishResult sendRequestToAeron(final byte msgType, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
         // Send the request to all the internal Aeron publishers
         return this.aeronPublisher.sendRequest(msgType, this.getUniqueId(), requestId, message, sequenceNumber, offset, length);
     }
 
+    @Override
+    boolean canClaimFromAeron(final int length) {
+        if (this.aeronPublisher == null) {
+            return false;
+        }
+
+        return this.isCompactDataHeader() ? this.aeronPublisher.canClaimCompactMessage(length) : this.aeronPublisher.canClaimMessage(length);
+    }
+
+    @Override
+    PublishResult claimFromAeron(final int length, final long sequenceNumber, final PublisherClaim claim) {
+        if (this.isCompactDataHeader()) {
+            return this.aeronPublisher.claimCompactMessage(MsgType.DATA_COMPACT, this.getPublisherHandle(), sequenceNumber, length, claim);
+        }
+
+        // The handle may have collided after checking the length for the compact header, the full header needs more space
+        if (this.isCompactDataHeaderEnabled() && !this.aeronPublisher.canClaimMessage(length)) {
+            return PublishResult.UNEXPECTED_ERROR;
+        }
+
+        return this.aeronPublisher.claimMessage(MsgType.DATA, this.getUniqueId(), sequenceNumber, length, claim);
+    }
+
     @Override
     protected void cleanAeronPublishers() {
         this.aeronPublisher = null;
@@ -5,9 +5,13 @@ import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
-import com.bbva.kyof.vega.util.collection.NativeArraySet;
+import com.bbva.kyof.vega.util.collection.DelayedChangesArray;
+import com.bbva.kyof.vega.util.collection.IDelayedChangesArray;
 import org.agrona.DirectBuffer;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -15,6 +19,12 @@ import java.util.UUID;
  * <p>
  * In this case there may be multiple related aeron publishers since the subscriber is the end-point of the communication
  * <p>
+ * The aeron publishers are added and removed by the auto-discovery thread. The changes are stored in a delayed changes array and applied
+ * by the sending thread before each send, this way thread confined publishers can send without taking the lock.
+ * <p>
+ * If a message is back pressured on some of the aeron publishers, the retries of the same sequence number are only sent through the
+ * aeron publishers that were back pressured.
+ * <p>
  * The class is thread-safe
  */
 class TopicPublisherUnicast extends AbstractTopicPublisher {
@@ -23,10 +33,45 @@ class TopicPublisherUnicast extends AbstractTopicPublisher {
      */
     private static final int PUBS_NUMBER = 5;
 
+    /**
+     * Value of the retry sequence number when there is no partially sent message
+     */
+    private static final long NO_RETRY_SEQUENCE_NUMBER = -1;
+
     /**
      * Publisher that can sendMsg the messages into real transport
      */
-    private final NativeArraySet<AeronPublisher> aeronPublishers = new NativeArraySet<>(AeronPublisher.class, PUBS_NUMBER);
+    private final IDelayedChangesArray<AeronPublisher> aeronPublishers = new DelayedChangesArray<>(AeronPublisher.class, PUBS_NUMBER);
+
+    /**
+     * Related aeron publishers by the parameters used to create them
+     */
+    private final Map<AeronPublisherParams, AeronPublisher> aeronPublishersByParams = new HashMap<>();
+
+    /**
+     * Sequence number of the last message that was back pressured on some of the aeron publishers, only accessed by the sending thread
+     */
+    private long retrySequenceNumber = NO_RETRY_SEQUENCE_NUMBER;
+
+    /**
+     * Aeron publishers that don't have to send again the message with the retry sequence number
+     */
+    private IAeronPublisher[] retryCompletedPublishers = new IAeronPublisher[PUBS_NUMBER];
+
+    /**
+     * Number of aeron publishers that don't have to send again the message with the retry sequence number
+     */
+    private int numRetryCompletedPublishers = 0;
+
+    /**
+     * Combined result of the aeron publishers that don't have to send again the message with the retry sequence number
+     */
+    private PublishResult retryCompletedResult = PublishResult.NOT_CONNECTED;
+
+    /**
+     * Result of each aeron publisher in the last send, reused between sends
+     */
+    private PublishResult[] lastSendResults = new PublishResult[PUBS_NUMBER];
 
     /**
      * Constructor of the class
@@ -51,79 +96,223 @@ class TopicPublisherUnicast extends AbstractTopicPublisher {
 
     @Override
     protected PublishResult sendToAeron(final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
-        return this.sendToAeron(MsgType.DATA, message, sequenceNumber, offset, length);
+        return this.sendToAeron(this.isCompactDataHeader() ? MsgType.DATA_COMPACT : MsgType.DATA, message, sequenceNumber, offset, length);
+    }
+
+    @Override
+    PublishResult sendBatchToAeron(final DirectBuffer batch, final long firstSequenceNumber, final int offset, final int length) {
+        return this.sendToAeron(this.isCompactDataHeader() ? MsgType.DATA_BATCH_COMPACT : MsgType.DATA_BATCH, batch, firstSequenceNumber, offset, length);
     }
 
     /**
-     * Send message to all the AeronPublishers related to the topic
+     * Send message to all the AeronPublishers related to the topic, with the compact header if enabled
      *
-     * @param msgType the message type for the header
+     * @param msgType the message type for the header, it should be a compact type if the compact header is enabled
      * @param message the message to send
      * @param offset  message offset in the byte buffer
      * @param length  message length starting from the offset
      * @return the result of the send process
      */
     PublishResult sendToAeron(final byte msgType, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // The header is given by the message type, the handle may collide while sending
+        final boolean compactDataHeader = msgType == MsgType.DATA_COMPACT || msgType == MsgType.DATA_BATCH_COMPACT;
+
+        // Apply the changes performed by auto-discovery since the last send
+        this.aeronPublishers.applyPendingChanges();
+
         // Get the publishers internal array
         final IAeronPublisher[] publishers = this.aeronPublishers.getInternalArray();
 
-        boolean hasBackPressure = false;
-
         if (this.aeronPublishers.getNumElements() == 0) {
             return PublishResult.AERON_PUBLISHERS_NOT_FOUND;
         }
 
-        for (int i = 0; i < this.aeronPublishers.getNumElements(); i++) {
-            final PublishResult sendResult = publishers[i].sendMessage(msgType, this.getUniqueId(), message, sequenceNumber, offset, length);
+        final int numPublishers = this.aeronPublishers.getNumElements();
+        final boolean isRetry = this.startSend(sequenceNumber, numPublishers);
+        PublishResult result = isRetry ? this.retryCompletedResult : PublishResult.NOT_CONNECTED;
+
+        for (int i = 0; i < numPublishers; i++) {
+            // Skip the aeron publishers that have already sent the retried message
+            if (isRetry && this.isRetryCompleted(publishers[i])) {
+                continue;
+            }
+
+            final PublishResult sendResult;
+            if (compactDataHeader) {
+                sendResult = publishers[i].sendCompactMessage(msgType, this.getPublisherHandle(), message, sequenceNumber, offset, length);
+            } else {
+                sendResult = publishers[i].sendMessage(msgType, this.getUniqueId(), message, sequenceNumber, offset, length);
+            }
 
             // If there is an unexpected error, return without trying with any other publisher
             if (sendResult == PublishResult.UNEXPECTED_ERROR) {
                 return PublishResult.UNEXPECTED_ERROR;
-            } else if (sendResult == PublishResult.BACK_PRESSURED) {
-                hasBackPressure = true;
             }
-        }
 
-        if (hasBackPressure) {
-            return PublishResult.BACK_PRESSURED;
-        } else {
-            return PublishResult.OK;
+            this.lastSendResults[i] = sendResult;
+            result = combineResults(result, sendResult);
         }
+
+        this.endSend(sequenceNumber, isRetry, publishers, numPublishers, result);
+        return result;
     }
 
     @Override
     protected PublishResult sendRequestToAeron(final byte msgType, final UUID requestId, final DirectBuffer message, final long sequenceNumber, final int offset, final int length) {
+        // Apply the changes performed by auto-discovery since the last send
+        this.aeronPublishers.applyPendingChanges();
+
         // Get the publishers internal array
         final IAeronPublisher[] publishers = this.aeronPublishers.getInternalArray();
 
-        boolean hasBackPressure = false;
-
         if (this.aeronPublishers.getNumElements() == 0) {
             return PublishResult.AERON_PUBLISHERS_NOT_FOUND;
         }
 
-        for (int i = 0; i < this.aeronPublishers.getNumElements(); i++) {
+        final int numPublishers = this.aeronPublishers.getNumElements();
+        final boolean isRetry = this.startSend(sequenceNumber, numPublishers);
+        PublishResult result = isRetry ? this.retryCompletedResult : PublishResult.NOT_CONNECTED;
+
+        for (int i = 0; i < numPublishers; i++) {
+            // Skip the aeron publishers that have already sent the retried request
+            if (isRetry && this.isRetryCompleted(publishers[i])) {
+                continue;
+            }
 
             final PublishResult sendResult = publishers[i].sendRequest(msgType, this.getUniqueId(), requestId, message, sequenceNumber, offset, length);
 
             // If there is an unexpected error, return without trying with any other publisher
             if (sendResult == PublishResult.UNEXPECTED_ERROR) {
                 return sendResult;
-            } else if (sendResult == PublishResult.BACK_PRESSURED) {
-                hasBackPressure = true;
             }
+
+            this.lastSendResults[i] = sendResult;
+            result = combineResults(result, sendResult);
         }
 
-        if (hasBackPressure) {
-            return PublishResult.BACK_PRESSURED;
-        } else {
-            return PublishResult.OK;
+        this.endSend(sequenceNumber, isRetry, publishers, numPublishers, result);
+        return result;
+    }
+
+    /**
+     * Prepare a send through the aeron publishers
+     *
+     * @param sequenceNumber sequence number of the message to send
+     * @param numPublishers  number of aeron publishers
+     * @return true if the message is a retry of the last partially sent message
+     */
+    private boolean startSend(final long sequenceNumber, final int numPublishers) {
+        if (this.lastSendResults.length < numPublishers) {
+            this.lastSendResults = new PublishResult[numPublishers];
+        }
+
+        for (int i = 0; i < numPublishers; i++) {
+            this.lastSendResults[i] = null;
+        }
+
+        return sequenceNumber == this.retrySequenceNumber;
+    }
+
+    /**
+     * Update the retry state after a send through the aeron publishers. If the message has been back pressured the aeron publishers
+     * that have sent it are stored to skip them on the retries.
+     *
+     * @param sequenceNumber sequence number of the sent message
+     * @param isRetry        true if the send was a retry of the last partially sent message
+     * @param publishers     the aeron publishers
+     * @param numPublishers  number of aeron publishers
+     * @param result         the combined result of the send
+     */
+    private void endSend(final long sequenceNumber, final boolean isRetry, final IAeronPublisher[] publishers, final int numPublishers, final PublishResult result) {
+        if (result != PublishResult.BACK_PRESSURED) {
+            if (isRetry) {
+                this.retrySequenceNumber = NO_RETRY_SEQUENCE_NUMBER;
+                this.numRetryCompletedPublishers = 0;
+                Arrays.fill(this.retryCompletedPublishers, null);
+            }
+            return;
+        }
+
+        if (!isRetry) {
+            this.retrySequenceNumber = sequenceNumber;
+            this.numRetryCompletedPublishers = 0;
+            Arrays.fill(this.retryCompletedPublishers, null);
+            this.retryCompletedResult = PublishResult.NOT_CONNECTED;
+        }
+
+        for (int i = 0; i < numPublishers; i++) {
+            final PublishResult sendResult = this.lastSendResults[i];
+
+            if (sendResult != null && sendResult != PublishResult.BACK_PRESSURED) {
+                if (this.numRetryCompletedPublishers == this.retryCompletedPublishers.length) {
+                    this.retryCompletedPublishers = Arrays.copyOf(this.retryCompletedPublishers, this.numRetryCompletedPublishers * 2);
+                }
+
+                this.retryCompletedPublishers[this.numRetryCompletedPublishers++] = publishers[i];
+                this.retryCompletedResult = combineResults(this.retryCompletedResult, sendResult);
+            }
+        }
+    }
+
+    /**
+     * @param publisher an aeron publisher
+     * @return true if the aeron publisher has already sent the message with the retry sequence number
+     */
+    private boolean isRetryCompleted(final IAeronPublisher publisher) {
+        for (int i = 0; i < this.numRetryCompletedPublishers; i++) {
+            if (this.retryCompletedPublishers[i] == publisher) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Combine the results of sending through several aeron publishers. Back pressure has priority since the message can be retried,
+     * then max position exceeded, then OK if it has been sent through any of them. It is only not connected if no one was connected.
+     *
+     * @param previous the combined result of the previous aeron publishers
+     * @param next     the result of the next aeron publisher
+     * @return the combined result
+     */
+    private static PublishResult combineResults(final PublishResult previous, final PublishResult next) {
+        return resultPriority(next) > resultPriority(previous) ? next : previous;
+    }
+
+    /**
+     * @param result a send result of an aeron publisher
+     * @return the priority of the result when combining the results of several aeron publishers
+     */
+    private static int resultPriority(final PublishResult result) {
+        switch (result) {
+            case BACK_PRESSURED:
+                return 3;
+            case MAX_POSITION_EXCEEDED:
+                return 2;
+            case NOT_CONNECTED:
+                return 0;
+            default:
+                return 1;
         }
     }
 
     @Override
     protected void cleanAeronPublishers() {
         this.aeronPublishers.clear();
+        this.aeronPublishersByParams.clear();
+    }
+
+    /**
+     * Find the related aeron publisher that has been created with the given parameters
+     *
+     * @param params the parameters of the aeron publisher
+     * @return the aeron publisher, null if not found
+     */
+    AeronPublisher findAeronPublisher(final AeronPublisherParams params) {
+        synchronized (this.lock) {
+            return this.aeronPublishersByParams.get(params);
+        }
     }
 
     /**
@@ -134,6 +323,7 @@ class TopicPublisherUnicast extends AbstractTopicPublisher {
     void addAeronPublisher(final AeronPublisher publisher) {
         synchronized (this.lock) {
             this.aeronPublishers.addElement(publisher);
+            this.aeronPublishersByParams.put(publisher.getParams(), publisher);
         }
     }
 
@@ -145,6 +335,7 @@ class TopicPublisherUnicast extends AbstractTopicPublisher {
     void removeAeronPublisher(final AeronPublisher publisher) {
         synchronized (this.lock) {
             this.aeronPublishers.removeElement(publisher);
+            this.aeronPublishersByParams.remove(publisher.getParams(), publisher);
         }
     }
 }
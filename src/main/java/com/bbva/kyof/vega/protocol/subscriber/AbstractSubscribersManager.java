@@ -178,6 +178,24 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
         // Store the topic subscriber in a map
         this.topicSubscribersByTopicName.put(topicSubscriber.getTopicName(), topicSubscriber);
 
+        // Assign the dispatch worker of the poller of the topic, if the poller delivers the messages through dispatch workers
+        final String pollerName = topicSubscriber.getTopicConfig().getRcvPoller();
+        final RcvDispatchWorker dispatchWorker = this.pollersManager.assignDispatchWorker(pollerName);
+        topicSubscriber.setDispatchWorker(dispatchWorker);
+
+        // Assign the flusher of the thread that calls the listeners, it delivers the batches at the end of each poll cycle
+        topicSubscriber.setBatchFlusher(this.pollersManager.getBatchFlusher(pollerName, dispatchWorker));
+
+        // Assign the gap recovery of the poller, it requests the retransmission of the lost messages
+        if (topicSubscriber.getTopicConfig().isGapRecoveryEnabled()) {
+            topicSubscriber.setGapRecovery(this.pollersManager.getGapRecovery(pollerName));
+        }
+
+        // Assign the reorder timeouts of the poller, they release the out of order messages held for too long
+        if (topicSubscriber.getTopicConfig().isReorderingEnabled()) {
+            topicSubscriber.setReorderTimeouts(this.pollersManager.getReorderTimeouts(pollerName));
+        }
+
         // Get the autodiscovery transport type for publishers on the same transport
         final AutoDiscTransportType autoDiscPubTransport = this.convertToPubAutodiscTransportType(topicSubscriber.getTopicConfig().getTransportType());
 
@@ -360,7 +378,7 @@ abstract class AbstractSubscribersManager implements Closeable, IAutodiscTopicSu
             }
 
             // Store the relationship between publisher and subscriber
-            this.topicSubAndTopicPubIdRelations.addTopicPubRelation(pubTopicInfo.getUniqueId(), topicSubscriber);
+            this.topicSubAndTopicPubIdRelations.addTopicPubRelation(pubTopicInfo.getUniqueId(), pubTopicInfo.getInstanceId(), pubTopicInfo.getPublisherHandle(), topicSubscriber);
 
             // If the publisher uses encryption and the subscriber as well, register to obtain the session key
             if (pubTopicInfo.hasSecurity() && topicSubscriber.hasSecurity()) {
@@ -4,11 +4,14 @@ package com.bbva.kyof.vega.protocol.subscriber;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.util.net.AeronChannelHelper;
 import io.aeron.Subscription;
-import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Wrapper class to encapsulate an Aeron Subscriber.
@@ -21,7 +24,7 @@ import java.io.Closeable;
  * This class is thread safe!!
  */
 @Slf4j
-class AeronSubscriber implements Closeable {
+class AeronSubscriber implements Closeable, IRcvChannelStats {
     /**
      * Parameters of the aeron subscriber
      */
@@ -33,6 +36,24 @@ class AeronSubscriber implements Closeable {
      */
     private final Subscription subscription;
 
+    /**
+     * Priority of the subscription in the poller, the subscriptions with higher priority are polled first. It should be settled before
+     * the subscription is added to the poller.
+     */
+    @Getter
+    @Setter(AccessLevel.PACKAGE)
+    private int pollPriority;
+
+    /**
+     * Number of rejected messages, it is only written by the poller thread
+     */
+    private final AtomicLong rejectedMsgs = new AtomicLong();
+
+    /**
+     * Number of bytes of the rejected messages, it is only written by the poller thread
+     */
+    private final AtomicLong rejectedBytes = new AtomicLong();
+
     /**
      * Object for instance synchronization
      */
@@ -90,20 +111,42 @@ class AeronSubscriber implements Closeable {
     }
 
     /**
-     * Perform a reception poll
+     * Perform a controlled reception poll, the fragment handler decides if each fragment is consumed or it stays in the subscription to
+     * be polled again
      *
-     * @param fragmentHandler the fragment handler that will process the message
+     * @param fragmentHandler the controlled fragment handler that will process the message
      * @param maxFragments    maximum number of fragments to get in the polling
-     * @return the number of messages retrieved
+     * @return the number of fragments consumed
      */
-    public int poll(final FragmentHandler fragmentHandler, final int maxFragments) {
+    public int controlledPoll(final ControlledFragmentHandler fragmentHandler, final int maxFragments) {
         synchronized (this.lock) {
             // Check if closed, it may happen that a poll is performed while it is being closed or after until removed from poller
             if (this.subscription.isClosed()) {
                 return 0;
             }
 
-            return this.subscription.poll(fragmentHandler, maxFragments);
+            return this.subscription.controlledPoll(fragmentHandler, maxFragments);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Count a message discarded by the poller because it comes from a topic publisher without subscribers. It should only be called
+     * by the poller thread.
+     *
+     * @param length the length of the message in bytes
+     */
+    void onRejectedMsg(final int length) {
+        this.rejectedMsgs.lazySet(this.rejectedMsgs.get() + 1);
+        this.rejectedBytes.lazySet(this.rejectedBytes.get() + length);
+    }
+
+    @Override
+    public long getRejectedMsgs() {
+        return this.rejectedMsgs.get();
+    }
+
+    @Override
+    public long getRejectedBytes() {
+        return this.rejectedBytes.get();
+    }
+}
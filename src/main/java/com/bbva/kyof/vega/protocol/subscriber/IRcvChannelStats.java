@@ -0,0 +1,25 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+/**
+ * Metrics of the traffic received on an Aeron channel and stream that is discarded because it doesn't belong to any subscribed topic.
+ * All the topics that share the channel are received, a high amount of rejected traffic means that some of the topics should be moved
+ * to their own channels.
+ * <p>
+ * The values are read without synchronization, they may be slightly outdated. They start from zero every time the channel is opened.
+ */
+public interface IRcvChannelStats {
+    /**
+     * @return the parameters of the channel
+     */
+    AeronSubscriberParams getParams();
+
+    /**
+     * @return the number of data messages and batches discarded because they come from topic publishers without subscribers
+     */
+    long getRejectedMsgs();
+
+    /**
+     * @return the number of bytes of the discarded data messages and batches
+     */
+    long getRejectedBytes();
+}
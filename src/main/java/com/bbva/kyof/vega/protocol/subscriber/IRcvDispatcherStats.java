@@ -0,0 +1,45 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+/**
+ * Metrics of the dispatch workers of a receiver poller. The workers deliver the received messages to the listeners instead of the
+ * poller thread when they are enabled in the poller configuration.
+ * <p>
+ * The values are read without synchronization, they may be slightly outdated.
+ */
+public interface IRcvDispatcherStats {
+    /**
+     * @return the number of dispatch workers
+     */
+    int getNumWorkers();
+
+    /**
+     * @return the max number of messages that can wait in the queue of each worker
+     */
+    int getQueueCapacity();
+
+    /**
+     * Return the number of messages waiting in the queue of a worker
+     *
+     * @param worker index of the worker, from 0 to the number of workers
+     * @return the number of messages waiting to be delivered
+     */
+    int getQueueDepth(int worker);
+
+    /**
+     * Return the max number of messages that have been waiting at the same time in the queue of a worker
+     *
+     * @param worker index of the worker, from 0 to the number of workers
+     * @return the max number of messages waiting at the same time
+     */
+    int getMaxQueueDepth(int worker);
+
+    /**
+     * @return the number of messages, requests and loss notifications handed to the workers
+     */
+    long getDispatchedMsgs();
+
+    /**
+     * @return the number of messages, requests and loss notifications discarded because the queue of a worker was full
+     */
+    long getDroppedMsgs();
+}
@@ -0,0 +1,29 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+/**
+ * Metrics of the gap recovery of the topic subscribers of a receiver poller. The subscribers of the topics with gap recovery enabled
+ * request the retransmission of the lost messages before reporting them as lost.
+ * <p>
+ * The values are read without synchronization, they may be slightly outdated.
+ */
+public interface IRcvGapRecoveryStats {
+    /**
+     * @return the number of retransmission requests sent to the topic publishers
+     */
+    long getRetransmissionRequests();
+
+    /**
+     * @return the number of lost messages that have been received again from the topic publishers
+     */
+    long getRecoveredMsgs();
+
+    /**
+     * @return the number of messages reported as lost after requesting their retransmission
+     */
+    long getUnrecoveredMsgs();
+
+    /**
+     * @return the number of gaps waiting for the retransmission of the lost messages
+     */
+    int getNumPendingGaps();
+}
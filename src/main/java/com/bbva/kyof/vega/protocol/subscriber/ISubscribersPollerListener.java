@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.msg.MsgNakHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
@@ -10,25 +11,63 @@ import com.bbva.kyof.vega.msg.RcvResponse;
  */
 interface ISubscribersPollerListener {
     /**
-     * Callback when a new data message is received
+     * Check if there is any subscribed topic for the topic publisher with the given id. The data messages of unknown topic publishers
+     * are discarded by the poller before decoding them.
      *
-     * @param msg the data message
+     * @param topicPubIdMsb most significant bits of the id of the topic publisher
+     * @param topicPubIdLsb least significant bits of the id of the topic publisher
+     * @return true if the messages of the topic publisher have to be delivered
      */
-    void onDataMsgReceived(RcvMessage msg);
+    boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb);
 
     /**
-     * Callback when a new encrypted data message is received
+     * Check if there is any subscribed topic for the topic publisher with the given handle. The data messages with the compact header
+     * of unknown topic publishers are discarded by the poller before decoding them.
      *
-     * @param msg the encrypted data message
+     * @param publisherHandle handle of the topic publisher
+     * @return true if the messages of the topic publisher have to be delivered
      */
-    void onEncryptedDataMsgReceived(RcvMessage msg);
+    boolean isPublisherHandleKnown(int publisherHandle);
+
+    /**
+     * Callback when a new data message is received. The instance and topic publisher ids of the message are not set, they have to be
+     * resolved from the bits of the topic publisher id.
+     *
+     * @param topicPubIdMsb most significant bits of the id of the topic publisher that sent the message
+     * @param topicPubIdLsb least significant bits of the id of the topic publisher that sent the message
+     * @param msg           the data message
+     * @return the action to take on the reception
+     */
+    RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg);
+
+    /**
+     * Callback when a new data message with the compact header is received. The instance and topic publisher ids of the message are
+     * not set, they have to be resolved from the handle.
+     *
+     * @param publisherHandle handle of the topic publisher that sent the message
+     * @param msg             the data message
+     * @return the action to take on the reception
+     */
+    RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg);
+
+    /**
+     * Callback when a new encrypted data message is received. The instance and topic publisher ids of the message are not set, they
+     * have to be resolved from the bits of the topic publisher id.
+     *
+     * @param topicPubIdMsb most significant bits of the id of the topic publisher that sent the message
+     * @param topicPubIdLsb least significant bits of the id of the topic publisher that sent the message
+     * @param msg           the encrypted data message
+     * @return the action to take on the reception
+     */
+    RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg);
 
     /**
      * Callback when a new data request message is received
      *
      * @param request the received request
+     * @return the action to take on the reception
      */
-    void onDataRequestMsgReceived(RcvRequest request);
+    RcvAction onDataRequestMsgReceived(RcvRequest request);
 
     /**
      * Callback when a new response message is received
@@ -37,6 +76,23 @@ interface ISubscribersPollerListener {
      */
     void onDataResponseMsgReceived(RcvResponse response);
 
+    /**
+     * Callback when a new negative acknowledgement is received, a subscriber requests the retransmission of lost messages
+     *
+     * @param nakHeader header of the negative acknowledgement
+     */
+    void onNakMsgReceived(MsgNakHeader nakHeader);
+
+    /**
+     * Request the retransmission of a range of lost messages to a topic publisher
+     *
+     * @param topicPubInfo        information of the topic publisher that sent the messages
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     * @return true if the request has been sent
+     */
+    boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber);
+
     /**
      * Callback when a new heartbeat request message is received
      *
@@ -0,0 +1,36 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvMessageBatch;
+
+/**
+ * Implement in order to receive the messages of a subscribed topic in batches instead of one by one.
+ * <p>
+ * The messages of the topic received in the same poll cycle are accumulated and delivered together at the end of the cycle. If the
+ * poller of the topic has dispatch workers, the cycle is each drain of the queue of the worker.
+ * <p>
+ * The order of messages, requests and losses is kept, the pending batch is delivered before any request or loss report of the topic.
+ * <p>
+ * Requests and losses are still delivered one by one through the methods of {@link ITopicSubListener}.
+ */
+public interface ITopicBatchSubListener extends ITopicSubListener {
+    /**
+     * Method called with the messages of the topic received in the same poll cycle. The batch is never empty.
+     * <p>
+     * IMPORTANT: The batch and its contents are reused, if the messages are going to be accessed after the callback returns they should
+     * be promoted!!
+     *
+     * @param batch the received messages
+     */
+    void onMessages(final IRcvMessageBatch batch);
+
+    /**
+     * Not called for batch listeners, the messages are delivered through {@link #onMessages(IRcvMessageBatch)}
+     *
+     * @param receivedMessage the received message
+     */
+    @Override
+    default void onMessageReceived(final IRcvMessage receivedMessage) {
+        // The messages are delivered in batches
+    }
+}
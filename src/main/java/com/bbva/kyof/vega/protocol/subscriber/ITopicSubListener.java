@@ -27,7 +27,41 @@ public interface ITopicSubListener {
     void onRequestReceived(final IRcvRequest receivedRequest);
 
     /**
-     * The method is invoked when a gap in the sequence number of the last two messages received from the same topicPublisherId is detected {@link com.bbva.kyof.vega.protocol.subscriber.TopicSubscriber#checkMessageLoss(com.bbva.kyof.vega.msg.RcvMessage) }.
+     * Method called when a message is received, the returned action allows the listener to apply back pressure on the reception.
+     * <p>
+     * If the action is {@link RcvAction#ABORT} the message is not consumed and it will be delivered again on the next poll cycle, if the
+     * topic has several listeners it is delivered again to all of them. The messages of the same Aeron fragment that have already been
+     * consumed are not delivered again.
+     * <p>
+     * The action is ignored if the message is delivered by a dispatch worker of the poller.
+     * <p>
+     * Default implementation calls {@link #onMessageReceived(IRcvMessage)} and continues with the next message
+     *
+     * @param receivedMessage the received message
+     * @return the action to take on the reception
+     */
+    default RcvAction onControlledMessageReceived(final IRcvMessage receivedMessage) {
+        this.onMessageReceived(receivedMessage);
+        return RcvAction.CONTINUE;
+    }
+
+    /**
+     * Method called when a request message is received, the returned action allows the listener to apply back pressure on the reception.
+     * <p>
+     * The behaviour of the actions is the same than in {@link #onControlledMessageReceived(IRcvMessage)}.
+     * <p>
+     * Default implementation calls {@link #onRequestReceived(IRcvRequest)} and continues with the next message
+     *
+     * @param receivedRequest the received request
+     * @return the action to take on the reception
+     */
+    default RcvAction onControlledRequestReceived(final IRcvRequest receivedRequest) {
+        this.onRequestReceived(receivedRequest);
+        return RcvAction.CONTINUE;
+    }
+
+    /**
+     * The method is invoked when a gap in the sequence number of the last two messages received from the same topicPublisherId is detected {@link com.bbva.kyof.vega.protocol.subscriber.TopicSubscriber#checkLoss }.
      * This sequence number is located at the message data header of Vega {@link com.bbva.kyof.vega.msg.MsgDataHeader }
      * <p>
      * Vega is implemented over Aeron, that provides a reliable connection for unreliable protocols.
@@ -37,6 +71,8 @@ public interface ITopicSubListener {
      * <p>
      * Message loss is not check for responses.
      * <p>
+     * IMPORTANT: The report is reused, if it is going to be accessed after the callback returns its values should be copied!!
+     * <p>
      * Default implementation does nothing with the loss report
      *
      * @param lostReport a report of the lost messages
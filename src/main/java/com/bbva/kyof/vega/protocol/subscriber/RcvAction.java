@@ -0,0 +1,56 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Action returned by a listener after processing a received message or request, it allows the listener to apply back pressure on the
+ * reception. The messages that are not consumed stay in the Aeron buffers and Aeron flow control slows down the publisher.
+ * <p>
+ * The values are ordered from the least to the most restrictive, when a message is delivered to several listeners the most restrictive
+ * action is applied.
+ */
+public enum RcvAction {
+    /**
+     * The message has been consumed, continue with the next one
+     */
+    CONTINUE(ControlledFragmentHandler.Action.CONTINUE),
+    /**
+     * The message has been consumed, commit the position of the subscription and continue with the next one
+     */
+    COMMIT(ControlledFragmentHandler.Action.COMMIT),
+    /**
+     * The message has been consumed, stop polling the subscription until the next poll cycle
+     */
+    BREAK(ControlledFragmentHandler.Action.BREAK),
+    /**
+     * The message has not been consumed, stop polling the subscription. The message will be delivered again on the next poll cycle
+     */
+    ABORT(ControlledFragmentHandler.Action.ABORT);
+
+    /**
+     * Equivalent action of the Aeron controlled poll
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final ControlledFragmentHandler.Action aeronAction;
+
+    /**
+     * Create a new action
+     *
+     * @param aeronAction equivalent action of the Aeron controlled poll
+     */
+    RcvAction(final ControlledFragmentHandler.Action aeronAction) {
+        this.aeronAction = aeronAction;
+    }
+
+    /**
+     * Return the most restrictive of this action and the given one
+     *
+     * @param other the other action
+     * @return the most restrictive action
+     */
+    public RcvAction mostRestrictive(final RcvAction other) {
+        return other.ordinal() > this.ordinal() ? other : this;
+    }
+}
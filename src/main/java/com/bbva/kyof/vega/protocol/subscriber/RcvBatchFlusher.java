@@ -0,0 +1,73 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Keep the topic subscribers with messages waiting to be delivered to batch listeners and deliver them at the end of a poll cycle.
+ * <p>
+ * Each poller and dispatch worker has its own flusher, it is only accessed by the thread that delivers the messages.
+ * <p>
+ * This class is not thread safe!
+ */
+@Slf4j
+class RcvBatchFlusher {
+    /**
+     * Initial number of pending topic subscribers
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Topic subscribers with a pending batch
+     */
+    private TopicSubscriber[] pendingSubscribers = new TopicSubscriber[INITIAL_CAPACITY];
+
+    /**
+     * Number of topic subscribers with a pending batch
+     */
+    private int numPending = 0;
+
+    /**
+     * Add a topic subscriber with a pending batch
+     *
+     * @param topicSubscriber the topic subscriber
+     */
+    void addPending(final TopicSubscriber topicSubscriber) {
+        if (this.numPending == this.pendingSubscribers.length) {
+            this.pendingSubscribers = Arrays.copyOf(this.pendingSubscribers, this.numPending * 2);
+        }
+
+        this.pendingSubscribers[this.numPending++] = topicSubscriber;
+    }
+
+    /**
+     * Deliver the pending batches of all the topic subscribers, the errors of the listeners are logged
+     *
+     * @return the number of topic subscribers flushed
+     */
+    int flush() {
+        final int numFlushed = this.numPending;
+
+        for (int i = 0; i < numFlushed; i++) {
+            final TopicSubscriber topicSubscriber = this.pendingSubscribers[i];
+            this.pendingSubscribers[i] = null;
+
+            try {
+                topicSubscriber.flushBatch();
+            } catch (final RuntimeException e) {
+                log.error("Unexpected error delivering a batch of received messages of topic [{}]", topicSubscriber.getTopicName(), e);
+            }
+        }
+
+        this.numPending = 0;
+        return numFlushed;
+    }
+
+    /**
+     * @return the number of topic subscribers with a pending batch
+     */
+    int getNumPending() {
+        return this.numPending;
+    }
+}
@@ -0,0 +1,452 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.DispatchOverflowPolicy;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.msg.RcvRequest;
+import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
+import com.bbva.kyof.vega.msg.lost.MsgLostReport;
+import com.bbva.kyof.vega.util.threads.RecurrentTask;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Worker thread that delivers received messages to the listeners of the topic subscribers assigned to it. <p>
+ * <p>
+ * The messages are copied into a bounded queue of pre-allocated entries, each entry has its own off-heap buffer for the contents that
+ * is reused, memory is only allocated when an entry has to grow to fit a bigger message than any previous one. The messages are
+ * delivered in the same order they have been added, the delivered messages are only valid during the listener callback as the ones
+ * delivered by the poller thread. <p>
+ * <p>
+ * Each entry has a sequence that tells if it is free or ready to be delivered, the entries are claimed with a CAS since the pollers
+ * that share an Aeron subscription may add messages for the same worker. <p>
+ * <p>
+ * The messages discarded when the queue is full are counted on the topic subscriber and reported as lost with its next entry. <p>
+ * <p>
+ * This class is thread safe!
+ */
+@Slf4j
+class RcvDispatchWorker extends RecurrentTask {
+    /**
+     * Initial size of the contents buffer of each entry
+     */
+    private static final int INITIAL_CONTENT_SIZE = 256;
+
+    /**
+     * Max number of messages delivered on each action
+     */
+    private static final int DRAIN_LIMIT = 256;
+
+    /**
+     * Value returned when no entry has been claimed
+     */
+    private static final long NO_POSITION = -1;
+
+    /**
+     * Type of the entries with a received message
+     */
+    private static final int MSG_ENTRY = 0;
+
+    /**
+     * Type of the entries with a received request
+     */
+    private static final int REQUEST_ENTRY = 1;
+
+    /**
+     * Type of the entries with a loss detected without message
+     */
+    private static final int LOSS_ENTRY = 2;
+
+    /**
+     * Entries of the queue
+     */
+    private final Entry[] entries;
+
+    /**
+     * Sequence of each entry, the entry is free for the position equal to the sequence and ready to be delivered when the sequence
+     * is one more than the position
+     */
+    private final AtomicLongArray entrySequences;
+
+    /**
+     * Mask to get the entry of a position
+     */
+    private final int mask;
+
+    /**
+     * Position of the next entry to claim
+     */
+    private final AtomicLong producerPosition = new AtomicLong();
+
+    /**
+     * Position of the next entry to deliver, only modified by the worker thread
+     */
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    /**
+     * What to do when the queue is full
+     */
+    private final DispatchOverflowPolicy overflowPolicy;
+
+    /**
+     * Number of entries added to the queue
+     */
+    private final AtomicLong dispatchedMsgs = new AtomicLong();
+
+    /**
+     * Number of entries discarded because the queue was full
+     */
+    private final AtomicLong droppedMsgs = new AtomicLong();
+
+    /**
+     * Max number of entries waiting at the same time
+     */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * Flusher for the batches of the topic subscribers assigned to the worker
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final RcvBatchFlusher batchFlusher = new RcvBatchFlusher();
+
+    /**
+     * Create a new worker, it has to be started after creation
+     *
+     * @param queueSize      max number of messages waiting to be delivered, it has to be a power of 2
+     * @param overflowPolicy what to do when the queue is full
+     * @param idleStrategy   idle strategy of the worker when there is nothing to deliver
+     */
+    RcvDispatchWorker(final int queueSize, final DispatchOverflowPolicy overflowPolicy, final IdleStrategy idleStrategy) {
+        super(idleStrategy);
+        this.overflowPolicy = overflowPolicy;
+        this.entries = new Entry[queueSize];
+        this.entrySequences = new AtomicLongArray(queueSize);
+        this.mask = queueSize - 1;
+
+        for (int i = 0; i < queueSize; i++) {
+            this.entries[i] = new Entry();
+            this.entrySequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add a copy of a received message to the queue
+     *
+     * @param topicSubscriber the topic subscriber of the message
+     * @param lostReport      report of the messages lost before this one, null if none
+     * @param msg             the received message
+     */
+    void dispatchMessage(final TopicSubscriber topicSubscriber, final IMsgLostReport lostReport, final RcvMessage msg) {
+        final long position = this.claim(topicSubscriber);
+        if (position == NO_POSITION) {
+            return;
+        }
+
+        final Entry entry = this.entries[(int) position & this.mask];
+        entry.set(MSG_ENTRY, topicSubscriber, lostReport);
+        entry.copyMessage(msg, entry.msg);
+        entry.addDroppedMsgs(topicSubscriber.takeDispatchDrops(), msg);
+
+        this.publish(position);
+    }
+
+    /**
+     * Add a copy of a received request to the queue
+     *
+     * @param topicSubscriber the topic subscriber of the request
+     * @param lostReport      report of the messages lost before this one, null if none
+     * @param request         the received request
+     */
+    void dispatchRequest(final TopicSubscriber topicSubscriber, final IMsgLostReport lostReport, final RcvRequest request) {
+        final long position = this.claim(topicSubscriber);
+        if (position == NO_POSITION) {
+            return;
+        }
+
+        final Entry entry = this.entries[(int) position & this.mask];
+        entry.set(REQUEST_ENTRY, topicSubscriber, lostReport);
+        entry.copyMessage(request, entry.request);
+        entry.addDroppedMsgs(topicSubscriber.takeDispatchDrops(), request);
+        entry.request.setRequestId(request.getRequestId());
+        entry.request.setRequestResponder(request.getRequestResponder());
+
+        this.publish(position);
+    }
+
+    /**
+     * Add a copy of a loss detected without message, like the ones detected by heartbeats, to the queue
+     *
+     * @param topicSubscriber the topic subscriber of the loss
+     * @param lostReport      report of the lost messages
+     */
+    void dispatchLoss(final TopicSubscriber topicSubscriber, final IMsgLostReport lostReport) {
+        final long position = this.claim(topicSubscriber);
+        if (position == NO_POSITION) {
+            return;
+        }
+
+        final Entry entry = this.entries[(int) position & this.mask];
+        entry.set(LOSS_ENTRY, topicSubscriber, lostReport);
+        entry.addDroppedMsgs(topicSubscriber.takeDispatchDrops(), null);
+
+        this.publish(position);
+    }
+
+    /**
+     * Claim the next entry applying the overflow policy if the queue is full
+     *
+     * @param topicSubscriber the topic subscriber of the entry, the dropped entries are counted on it
+     * @return the position of the claimed entry, NO_POSITION if the entry has been dropped or the worker is stopping
+     */
+    private long claim(final TopicSubscriber topicSubscriber) {
+        long position = this.producerPosition.get();
+
+        while (true) {
+            final long sequence = this.entrySequences.get((int) position & this.mask);
+
+            if (sequence == position) {
+                if (this.producerPosition.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (sequence < position) {
+                // The entry has not been delivered yet, the queue is full
+                if (this.overflowPolicy == DispatchOverflowPolicy.DROP_NEWEST || this.shouldStop()) {
+                    this.droppedMsgs.incrementAndGet();
+                    topicSubscriber.addDispatchDrop();
+                    return NO_POSITION;
+                }
+
+                Thread.yield();
+            }
+
+            position = this.producerPosition.get();
+        }
+    }
+
+    /**
+     * Make a claimed entry ready to be delivered
+     *
+     * @param position the position of the entry
+     */
+    private void publish(final long position) {
+        this.entrySequences.lazySet((int) position & this.mask, position + 1);
+        this.dispatchedMsgs.incrementAndGet();
+
+        final int queueDepth = (int) (position + 1 - this.consumerPosition.get());
+        if (queueDepth > this.maxQueueDepth.get()) {
+            this.maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+        }
+    }
+
+    @Override
+    public int action() {
+        long position = this.consumerPosition.get();
+        int numDelivered = 0;
+
+        while (numDelivered < DRAIN_LIMIT && !this.shouldStop()) {
+            final int index = (int) position & this.mask;
+
+            if (this.entrySequences.get(index) != position + 1) {
+                break;
+            }
+
+            this.entries[index].deliver();
+
+            // Free the entry for the producers
+            this.entrySequences.lazySet(index, position + this.entries.length);
+            position++;
+            this.consumerPosition.lazySet(position);
+            numDelivered++;
+        }
+
+        // Deliver the batches of the drained messages
+        if (this.batchFlusher.getNumPending() > 0) {
+            this.batchFlusher.flush();
+        }
+
+        return numDelivered;
+    }
+
+    @Override
+    public void cleanUp() {
+        // Nothing to clean, the messages that have not been delivered are discarded
+    }
+
+    /**
+     * @return the number of messages waiting to be delivered
+     */
+    int getQueueDepth() {
+        return (int) (this.producerPosition.get() - this.consumerPosition.get());
+    }
+
+    /**
+     * @return the max number of messages that can wait to be delivered
+     */
+    int getQueueCapacity() {
+        return this.entries.length;
+    }
+
+    /**
+     * @return the max number of messages that have been waiting at the same time
+     */
+    int getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    /**
+     * @return the number of messages added to the queue
+     */
+    long getDispatchedMsgs() {
+        return this.dispatchedMsgs.get();
+    }
+
+    /**
+     * @return the number of messages discarded because the queue was full
+     */
+    long getDroppedMsgs() {
+        return this.droppedMsgs.get();
+    }
+
+    /**
+     * Entry of the queue with the copy of a received message, request or loss
+     */
+    private static final class Entry {
+        /**
+         * Message used for the entries of type message
+         */
+        private final RcvMessage msg = new RcvMessage();
+
+        /**
+         * Request used for the entries of type request
+         */
+        private final RcvRequest request = new RcvRequest();
+
+        /**
+         * Report of the messages lost before the message
+         */
+        private final MsgLostReport lostReport = new MsgLostReport(null, null, 0, null);
+
+        /**
+         * Buffer with the contents of the message or request
+         */
+        private final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocateDirect(INITIAL_CONTENT_SIZE));
+
+        /**
+         * Type of the entry
+         */
+        private int type;
+
+        /**
+         * Topic subscriber the entry belongs to
+         */
+        private TopicSubscriber topicSubscriber;
+
+        /**
+         * True if there is a loss to report
+         */
+        private boolean hasLoss;
+
+        /**
+         * Set the common fields of the entry
+         *
+         * @param entryType            type of the entry
+         * @param entryTopicSubscriber topic subscriber the entry belongs to
+         * @param entryLostReport      report of the lost messages, null if none
+         */
+        private void set(final int entryType, final TopicSubscriber entryTopicSubscriber, final IMsgLostReport entryLostReport) {
+            this.type = entryType;
+            this.topicSubscriber = entryTopicSubscriber;
+            this.hasLoss = entryLostReport != null;
+
+            if (this.hasLoss) {
+                this.lostReport.setInstanceId(entryLostReport.getInstanceId());
+                this.lostReport.setTopicName(entryLostReport.getTopicName());
+                this.lostReport.setNumberLostMessages(entryLostReport.getNumberLostMessages());
+                this.lostReport.setTopicPublisherId(entryLostReport.getTopicPublisherId());
+            }
+        }
+
+        /**
+         * Add the messages discarded before the entry to its lost report
+         *
+         * @param numDropped number of discarded messages
+         * @param source     the received message of the entry to fill the report if there is no other loss, null for loss entries
+         */
+        private void addDroppedMsgs(final long numDropped, final RcvMessage source) {
+            if (numDropped == 0) {
+                return;
+            }
+
+            if (this.hasLoss) {
+                this.lostReport.setNumberLostMessages(this.lostReport.getNumberLostMessages() + numDropped);
+                return;
+            }
+
+            // The discarded messages may come from any topic publisher of the topic, they are reported with the publisher of the entry
+            this.hasLoss = true;
+            this.lostReport.setInstanceId(source.getInstanceId());
+            this.lostReport.setTopicName(source.getTopicName());
+            this.lostReport.setNumberLostMessages(numDropped);
+            this.lostReport.setTopicPublisherId(source.getTopicPublisherId());
+        }
+
+        /**
+         * Copy the fields and contents of a received message into the given message of the entry
+         *
+         * @param source the received message
+         * @param target the message of the entry
+         */
+        private void copyMessage(final RcvMessage source, final RcvMessage target) {
+            final int length = source.getContentLength();
+
+            // Grow the buffer if the message doesn't fit
+            if (this.contents.capacity() < length) {
+                this.contents.wrap(ByteBuffer.allocateDirect(BitUtil.findNextPositivePowerOfTwo(length)));
+            }
+
+            this.contents.putBytes(0, source.getContents(), source.getContentOffset(), length);
+
+            target.setInstanceId(source.getInstanceId());
+            target.setTopicPublisherId(source.getTopicPublisherId());
+            target.setTopicName(source.getTopicName());
+            target.setSequenceNumber(source.getSequenceNumber());
+            target.setUnsafeBufferContent(this.contents);
+            target.setContentOffset(0);
+            target.setContentLength(length);
+        }
+
+        /**
+         * Deliver the entry to the listeners of the topic subscriber, the errors of the listeners are logged
+         */
+        private void deliver() {
+            final IMsgLostReport entryLostReport = this.hasLoss ? this.lostReport : null;
+
+            try {
+                switch (this.type) {
+                    case MSG_ENTRY:
+                        this.topicSubscriber.deliverMessage(entryLostReport, this.msg);
+                        break;
+                    case REQUEST_ENTRY:
+                        this.topicSubscriber.deliverRequest(entryLostReport, this.request);
+                        break;
+                    default:
+                        this.topicSubscriber.deliverLoss(entryLostReport);
+                        break;
+                }
+            } catch (final RuntimeException e) {
+                log.error("Unexpected error delivering a received message of topic [{}]", this.topicSubscriber.getTopicName(), e);
+            }
+
+            // Don't keep the topic subscriber once delivered
+            this.topicSubscriber = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.RcvPollerConfig;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+
+/**
+ * Set of worker threads that deliver the messages received by a poller to the listeners, so a slow listener doesn't stop the poller
+ * and the listeners of different topics can run in parallel. <p>
+ * <p>
+ * Each topic subscriber is assigned to a single worker in round robin, all the messages, requests and losses of a topic are delivered
+ * by the same worker in the order they have been received. <p>
+ * <p>
+ * This class is thread safe!
+ */
+@Slf4j
+class RcvDispatcher implements IRcvDispatcherStats, Closeable {
+    /**
+     * The workers of the dispatcher
+     */
+    private final RcvDispatchWorker[] workers;
+
+    /**
+     * Name of the poller the dispatcher belongs to
+     */
+    private final String pollerName;
+
+    /**
+     * Index of the worker for the next topic subscriber
+     */
+    private int nextWorker = 0;
+
+    /**
+     * Lock for instance synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Parameters of the worker threads
+     */
+    private final ThreadParams threadParams;
+
+    /**
+     * Create a new dispatcher, it has to be started after creation
+     *
+     * @param config configuration of the poller, the dispatch workers should be enabled
+     */
+    RcvDispatcher(final RcvPollerConfig config) {
+        this.pollerName = config.getName();
+        this.threadParams = config.getDispatchThreadParams();
+        this.workers = new RcvDispatchWorker[config.getDispatchWorkerThreads()];
+
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new RcvDispatchWorker(config.getDispatchQueueSize(), config.getDispatchOverflowPolicy(), config.createDispatchIdleStrategy());
+        }
+    }
+
+    /**
+     * Start the workers
+     */
+    void start() {
+        log.info("Starting [{}] dispatch workers for poller [{}]", this.workers.length, this.pollerName);
+
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i].start("SubscriberPoller " + this.pollerName + " dispatcher " + i, this.threadParams.forGroupMember(i));
+        }
+    }
+
+    /**
+     * Return the worker for a new topic subscriber
+     *
+     * @return the worker that will deliver the messages of the topic subscriber
+     */
+    RcvDispatchWorker assignWorker() {
+        synchronized (this.lock) {
+            final RcvDispatchWorker worker = this.workers[this.nextWorker];
+            this.nextWorker = (this.nextWorker + 1) % this.workers.length;
+            return worker;
+        }
+    }
+
+    @Override
+    public void close() {
+        log.info("Stopping dispatch workers for poller [{}]", this.pollerName);
+
+        for (final RcvDispatchWorker worker : this.workers) {
+            worker.close();
+        }
+    }
+
+    @Override
+    public int getNumWorkers() {
+        return this.workers.length;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return this.workers[0].getQueueCapacity();
+    }
+
+    @Override
+    public int getQueueDepth(final int worker) {
+        return this.workers[worker].getQueueDepth();
+    }
+
+    @Override
+    public int getMaxQueueDepth(final int worker) {
+        return this.workers[worker].getMaxQueueDepth();
+    }
+
+    @Override
+    public long getDispatchedMsgs() {
+        long result = 0;
+        for (final RcvDispatchWorker worker : this.workers) {
+            result += worker.getDispatchedMsgs();
+        }
+        return result;
+    }
+
+    @Override
+    public long getDroppedMsgs() {
+        long result = 0;
+        for (final RcvDispatchWorker worker : this.workers) {
+            result += worker.getDroppedMsgs();
+        }
+        return result;
+    }
+}
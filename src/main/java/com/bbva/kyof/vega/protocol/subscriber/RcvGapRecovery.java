@@ -0,0 +1,224 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keep the gaps of the topic publishers that are waiting for the retransmission of the lost messages and report them as lost when the
+ * gap fill timeout expires.
+ * <p>
+ * Each topic publisher has at most one pending gap, stored in its {@link TopicPublisherInfo}. The retransmitted messages of the gap
+ * are delivered as they arrive, the messages of the gap that are skipped by a later one are reported as lost immediately. If the topic
+ * subscriber holds the out of order messages in a reorder window, the gap is the one before the first held message.
+ * <p>
+ * Each poller has its own gap recovery, it is only accessed by the poller thread except for the metrics.
+ * <p>
+ * This class is not thread safe!
+ */
+@Slf4j
+class RcvGapRecovery implements IRcvGapRecoveryStats {
+    /**
+     * Listener of the poller, it sends the retransmission requests
+     */
+    private final ISubscribersPollerListener listener;
+
+    /**
+     * Topic publishers with a pending gap
+     */
+    private final List<TopicPublisherInfo> pendingGaps = new ArrayList<>();
+
+    /**
+     * Number of topic publishers with a pending gap, it is kept for the metrics
+     */
+    private volatile int numPendingGaps = 0;
+
+    /**
+     * Number of retransmission requests sent
+     */
+    private final AtomicLong retransmissionRequests = new AtomicLong();
+
+    /**
+     * Number of lost messages received again
+     */
+    private final AtomicLong recoveredMsgs = new AtomicLong();
+
+    /**
+     * Number of messages reported as lost after requesting their retransmission
+     */
+    private final AtomicLong unrecoveredMsgs = new AtomicLong();
+
+    /**
+     * Create a new gap recovery
+     *
+     * @param listener listener of the poller that sends the retransmission requests
+     */
+    RcvGapRecovery(final ISubscribersPollerListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Request the retransmission of a gap and keep it as pending. The topic publisher should not have another pending gap.
+     *
+     * @param topicPubInfo        information of the topic publisher that sent the messages
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     * @param timeoutNanos        max time in nanoseconds to wait for the retransmission
+     * @return true if the request has been sent, false if the messages should be reported as lost now
+     */
+    boolean openGap(final TopicPublisherInfo topicPubInfo, final long firstSequenceNumber, final long lastSequenceNumber, final long timeoutNanos) {
+        if (!this.listener.requestRetransmission(topicPubInfo, firstSequenceNumber, lastSequenceNumber)) {
+            return false;
+        }
+
+        this.retransmissionRequests.incrementAndGet();
+        topicPubInfo.setPendingGap(firstSequenceNumber, lastSequenceNumber, System.nanoTime() + timeoutNanos);
+        this.addPending(topicPubInfo);
+        return true;
+    }
+
+    /**
+     * Called when a message of the pending gap of a topic publisher is received. The gap is closed once the last message arrives.
+     *
+     * @param topicPubInfo   information of the topic publisher that sent the message
+     * @param sequenceNumber sequence number of the received message, it has to be in the pending gap
+     * @return the number of messages of the gap before the received one that have been skipped and should be reported as lost
+     */
+    long onGapMsgReceived(final TopicPublisherInfo topicPubInfo, final long sequenceNumber) {
+        final long numSkipped = sequenceNumber - topicPubInfo.getGapFirstSequenceNumber();
+
+        this.recoveredMsgs.incrementAndGet();
+        this.unrecoveredMsgs.addAndGet(numSkipped);
+
+        if (sequenceNumber == topicPubInfo.getGapLastSequenceNumber()) {
+            topicPubInfo.clearPendingGap();
+            this.removePending(topicPubInfo);
+        } else {
+            topicPubInfo.setGapFirstSequenceNumber(sequenceNumber + 1);
+        }
+
+        return numSkipped;
+    }
+
+    /**
+     * Called when a message of the pending gap has not been consumed by the listeners. It will be received again, so the gap is
+     * extended back to the message or opened again if it was already closed.
+     *
+     * @param topicPubInfo   information of the topic publisher that sent the message
+     * @param sequenceNumber sequence number of the message
+     * @param timeoutNanos   max time in nanoseconds to wait for the message if the gap has to be opened again
+     */
+    void onGapMsgAborted(final TopicPublisherInfo topicPubInfo, final long sequenceNumber, final long timeoutNanos) {
+        this.recoveredMsgs.decrementAndGet();
+
+        if (topicPubInfo.hasPendingGap()) {
+            topicPubInfo.setGapFirstSequenceNumber(sequenceNumber);
+        } else {
+            topicPubInfo.setPendingGap(sequenceNumber, sequenceNumber, System.nanoTime() + timeoutNanos);
+            this.addPending(topicPubInfo);
+        }
+    }
+
+    /**
+     * Report as lost the messages of the pending gaps whose timeout has expired
+     *
+     * @param nowNanos current time in nanoseconds
+     * @return the number of expired gaps
+     */
+    int expireGaps(final long nowNanos) {
+        int numExpired = 0;
+
+        for (int i = this.pendingGaps.size() - 1; i >= 0; i--) {
+            final TopicPublisherInfo topicPubInfo = this.pendingGaps.get(i);
+
+            if (nowNanos - topicPubInfo.getGapDeadlineNanos() < 0) {
+                continue;
+            }
+
+            final long firstLost = topicPubInfo.getGapFirstSequenceNumber();
+            final long numLost = topicPubInfo.getGapLastSequenceNumber() - firstLost + 1;
+            topicPubInfo.clearPendingGap();
+            this.pendingGaps.remove(i);
+            this.unrecoveredMsgs.addAndGet(numLost);
+            numExpired++;
+
+            try {
+                topicPubInfo.getTopicSubscriber().onGapExpired(topicPubInfo, firstLost, numLost);
+            } catch (final RuntimeException e) {
+                log.error("Unexpected error reporting the lost messages of topic [{}]", topicPubInfo.getTopicSubscriber().getTopicName(), e);
+            }
+        }
+
+        this.numPendingGaps = this.pendingGaps.size();
+        return numExpired;
+    }
+
+    /**
+     * Give up the pending gap of a topic publisher, its messages are reported as lost by the caller
+     *
+     * @param topicPubInfo information of the topic publisher with the pending gap
+     */
+    void abandonGap(final TopicPublisherInfo topicPubInfo) {
+        this.unrecoveredMsgs.addAndGet(topicPubInfo.getGapLastSequenceNumber() - topicPubInfo.getGapFirstSequenceNumber() + 1);
+        topicPubInfo.clearPendingGap();
+        this.removePending(topicPubInfo);
+    }
+
+    /**
+     * @return true if there is any pending gap
+     */
+    boolean hasPendingGaps() {
+        return !this.pendingGaps.isEmpty();
+    }
+
+    /**
+     * Forget the pending gaps, called when the poller is stopped
+     */
+    void clear() {
+        this.pendingGaps.forEach(TopicPublisherInfo::clearPendingGap);
+        this.pendingGaps.clear();
+        this.numPendingGaps = 0;
+    }
+
+    /**
+     * Add a topic publisher with a new pending gap
+     *
+     * @param topicPubInfo the topic publisher
+     */
+    private void addPending(final TopicPublisherInfo topicPubInfo) {
+        this.pendingGaps.add(topicPubInfo);
+        this.numPendingGaps = this.pendingGaps.size();
+    }
+
+    /**
+     * Remove a topic publisher whose gap has been closed
+     *
+     * @param topicPubInfo the topic publisher
+     */
+    private void removePending(final TopicPublisherInfo topicPubInfo) {
+        this.pendingGaps.remove(topicPubInfo);
+        this.numPendingGaps = this.pendingGaps.size();
+    }
+
+    @Override
+    public long getRetransmissionRequests() {
+        return this.retransmissionRequests.get();
+    }
+
+    @Override
+    public long getRecoveredMsgs() {
+        return this.recoveredMsgs.get();
+    }
+
+    @Override
+    public long getUnrecoveredMsgs() {
+        return this.unrecoveredMsgs.get();
+    }
+
+    @Override
+    public int getNumPendingGaps() {
+        return this.numPendingGaps;
+    }
+}
@@ -0,0 +1,88 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keep the topic publishers with out of order messages held in their {@link RcvReorderWindow} and release the messages when the reorder
+ * timeout expires, reporting the missing ones as lost.
+ * <p>
+ * The windows of the topic publishers with a gap pending of retransmission don't expire, they are released when the gap is filled or
+ * by the expiration of the gap.
+ * <p>
+ * Each poller has its own reorder timeouts, it is only accessed by the poller thread.
+ * <p>
+ * This class is not thread safe!
+ */
+@Slf4j
+class RcvReorderTimeouts {
+    /**
+     * Topic publishers with held messages
+     */
+    private final List<TopicPublisherInfo> heldWindows = new ArrayList<>();
+
+    /**
+     * Add a topic publisher whose window has started to hold messages
+     *
+     * @param topicPubInfo the topic publisher
+     */
+    void add(final TopicPublisherInfo topicPubInfo) {
+        this.heldWindows.add(topicPubInfo);
+    }
+
+    /**
+     * Remove a topic publisher whose window is empty again
+     *
+     * @param topicPubInfo the topic publisher
+     */
+    void remove(final TopicPublisherInfo topicPubInfo) {
+        this.heldWindows.remove(topicPubInfo);
+    }
+
+    /**
+     * Release the held messages of the windows whose timeout has expired
+     *
+     * @param nowNanos current time in nanoseconds
+     * @return the number of expired windows
+     */
+    int expireWindows(final long nowNanos) {
+        int numExpired = 0;
+
+        for (int i = this.heldWindows.size() - 1; i >= 0; i--) {
+            final TopicPublisherInfo topicPubInfo = this.heldWindows.get(i);
+
+            if (topicPubInfo.hasPendingGap() || nowNanos - topicPubInfo.getReorderWindow().getDeadlineNanos() < 0) {
+                continue;
+            }
+
+            numExpired++;
+
+            try {
+                topicPubInfo.getTopicSubscriber().onReorderWindowExpired(topicPubInfo);
+            } catch (final RuntimeException e) {
+                log.error("Unexpected error releasing the held messages of topic [{}]", topicPubInfo.getTopicSubscriber().getTopicName(), e);
+                topicPubInfo.getReorderWindow().clear();
+                this.heldWindows.remove(topicPubInfo);
+            }
+        }
+
+        return numExpired;
+    }
+
+    /**
+     * @return true if there is any window with held messages
+     */
+    boolean hasHeldWindows() {
+        return !this.heldWindows.isEmpty();
+    }
+
+    /**
+     * Forget the held messages, called when the poller is stopped
+     */
+    void clear() {
+        this.heldWindows.forEach(topicPubInfo -> topicPubInfo.getReorderWindow().clear());
+        this.heldWindows.clear();
+    }
+}
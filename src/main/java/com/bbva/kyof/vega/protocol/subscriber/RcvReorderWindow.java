@@ -0,0 +1,187 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.RcvMessage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Window of out of order messages of a topic publisher held by a topic subscriber until the missing messages arrive.
+ * <p>
+ * The messages are copied into off-heap buffers, one per slot. The slot of a message is given by its sequence number, so the window
+ * only accepts messages less than the window size ahead of the expected sequence number. The buffers grow with the size of the messages
+ * and are reused.
+ * <p>
+ * This class is not thread safe, it is only accessed by the poller thread of the topic subscriber.
+ */
+class RcvReorderWindow {
+    /**
+     * Initial size of the buffer of each slot
+     */
+    private static final int INITIAL_CONTENT_SIZE = 128;
+
+    /**
+     * Value of the sequence number of an empty slot
+     */
+    private static final long EMPTY_SLOT = TopicPublisherInfo.NO_SEQUENCE_NUMBER;
+
+    /**
+     * Sequence number of the message of each slot, {@link #EMPTY_SLOT} if empty
+     */
+    private final long[] slotSequenceNumbers;
+
+    /**
+     * Message of each slot
+     */
+    private final RcvMessage[] slotMessages;
+
+    /**
+     * Buffer with the contents of the message of each slot, created on first use
+     */
+    private final UnsafeBuffer[] slotContents;
+
+    /**
+     * Mask to get the slot of a sequence number
+     */
+    private final int slotMask;
+
+    /**
+     * Number of held messages
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private int numHeld = 0;
+
+    /**
+     * Time in nanoseconds when the held messages will be released even if the missing ones have not arrived
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private long deadlineNanos;
+
+    /**
+     * Create a new window
+     *
+     * @param windowSize max number of held messages, it has to be a power of 2
+     */
+    RcvReorderWindow(final int windowSize) {
+        this.slotSequenceNumbers = new long[windowSize];
+        this.slotMessages = new RcvMessage[windowSize];
+        this.slotContents = new UnsafeBuffer[windowSize];
+        this.slotMask = windowSize - 1;
+
+        Arrays.fill(this.slotSequenceNumbers, EMPTY_SLOT);
+    }
+
+    /**
+     * @return the max number of held messages
+     */
+    int getWindowSize() {
+        return this.slotSequenceNumbers.length;
+    }
+
+    /**
+     * @return true if there are no held messages
+     */
+    boolean isEmpty() {
+        return this.numHeld == 0;
+    }
+
+    /**
+     * Hold a copy of a message. The message should be less than the window size ahead of the expected sequence number.
+     *
+     * @param msg the message to hold
+     * @return false if the message was already held
+     */
+    boolean hold(final RcvMessage msg) {
+        final int slot = (int) msg.getSequenceNumber() & this.slotMask;
+
+        if (this.slotSequenceNumbers[slot] == msg.getSequenceNumber()) {
+            return false;
+        }
+
+        final int length = msg.getContentLength();
+
+        // Create or grow the buffer if the message doesn't fit
+        UnsafeBuffer contents = this.slotContents[slot];
+        if (contents == null) {
+            contents = new UnsafeBuffer(ByteBuffer.allocateDirect(BitUtil.findNextPositivePowerOfTwo(Math.max(length, INITIAL_CONTENT_SIZE))));
+            this.slotContents[slot] = contents;
+            this.slotMessages[slot] = new RcvMessage();
+        } else if (contents.capacity() < length) {
+            contents.wrap(ByteBuffer.allocateDirect(BitUtil.findNextPositivePowerOfTwo(length)));
+        }
+
+        contents.putBytes(0, msg.getContents(), msg.getContentOffset(), length);
+
+        final RcvMessage target = this.slotMessages[slot];
+        target.setInstanceId(msg.getInstanceId());
+        target.setTopicPublisherId(msg.getTopicPublisherId());
+        target.setTopicName(msg.getTopicName());
+        target.setSequenceNumber(msg.getSequenceNumber());
+        target.setUnsafeBufferContent(contents);
+        target.setContentOffset(0);
+        target.setContentLength(length);
+
+        this.slotSequenceNumbers[slot] = msg.getSequenceNumber();
+        this.numHeld++;
+        return true;
+    }
+
+    /**
+     * Return the held message with the given sequence number
+     *
+     * @param sequenceNumber the sequence number of the message
+     * @return the held message, only valid until it is removed, null if not held
+     */
+    RcvMessage get(final long sequenceNumber) {
+        final int slot = (int) sequenceNumber & this.slotMask;
+        return this.slotSequenceNumbers[slot] == sequenceNumber ? this.slotMessages[slot] : null;
+    }
+
+    /**
+     * Remove the held message with the given sequence number
+     *
+     * @param sequenceNumber the sequence number of the message
+     */
+    void remove(final long sequenceNumber) {
+        final int slot = (int) sequenceNumber & this.slotMask;
+
+        if (this.slotSequenceNumbers[slot] == sequenceNumber) {
+            this.slotSequenceNumbers[slot] = EMPTY_SLOT;
+            this.numHeld--;
+        }
+    }
+
+    /**
+     * Find the first held message from the given sequence number
+     *
+     * @param fromSequenceNumber the first sequence number to look for, it should be the expected sequence number
+     * @return the sequence number of the first held message, {@link TopicPublisherInfo#NO_SEQUENCE_NUMBER} if the window is empty
+     */
+    long findFirstHeld(final long fromSequenceNumber) {
+        if (this.numHeld == 0) {
+            return TopicPublisherInfo.NO_SEQUENCE_NUMBER;
+        }
+
+        for (long sequenceNumber = fromSequenceNumber; sequenceNumber < fromSequenceNumber + this.slotSequenceNumbers.length; sequenceNumber++) {
+            if (this.slotSequenceNumbers[(int) sequenceNumber & this.slotMask] == sequenceNumber) {
+                return sequenceNumber;
+            }
+        }
+
+        return TopicPublisherInfo.NO_SEQUENCE_NUMBER;
+    }
+
+    /**
+     * Remove all the held messages
+     */
+    void clear() {
+        Arrays.fill(this.slotSequenceNumbers, EMPTY_SLOT);
+        this.numHeld = 0;
+    }
+}
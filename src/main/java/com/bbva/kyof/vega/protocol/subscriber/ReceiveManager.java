@@ -7,7 +7,9 @@ import com.bbva.kyof.vega.autodiscovery.subscriber.IAutodiscPubTopicPatternListe
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.MsgNakHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
+import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
 import com.bbva.kyof.vega.msg.RcvResponse;
@@ -15,12 +17,15 @@ import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.protocol.control.ISecuredMsgsDecoder;
 import com.bbva.kyof.vega.protocol.control.ISecurityRequesterNotifier;
 import com.bbva.kyof.vega.protocol.publisher.AeronPublisher;
+import com.bbva.kyof.vega.protocol.publisher.IRetransmissionRequestListener;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -487,37 +492,113 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         return this.subscribersManagerUnicast.getResponsesSubscriberParams();
     }
 
+    /**
+     * Return the metrics of the dispatch workers of a receiver poller
+     *
+     * @param pollerName the name of the poller
+     * @return the metrics of the dispatch workers, null if the poller is not in use or it has no dispatch workers
+     */
+    public IRcvDispatcherStats getRcvDispatcherStats(final String pollerName) {
+        return this.pollersManager.getDispatcherStats(pollerName);
+    }
+
+    /**
+     * Return the metrics of the gap recovery of a receiver poller
+     *
+     * @param pollerName the name of the poller
+     * @return the metrics of the gap recovery, null if the poller is not in use
+     */
+    public IRcvGapRecoveryStats getRcvGapRecoveryStats(final String pollerName) {
+        return this.pollersManager.getGapRecoveryStats(pollerName);
+    }
+
+    /**
+     * Return the metrics of the rejected traffic of the channels that are being received
+     *
+     * @return the metrics of each open channel
+     */
+    public List<IRcvChannelStats> getRcvChannelStats() {
+        final List<IRcvChannelStats> result = new ArrayList<>();
+        this.subscribersManagerIpcMcast.collectRcvChannelStats(result);
+        this.subscribersManagerUnicast.collectRcvChannelStats(result);
+        return result;
+    }
+
     @Override
-    public void onDataMsgReceived(final RcvMessage msg) {
-        // Find the related topic subscriber if any
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(msg.getTopicPublisherId());
-        if (topicSubscriber != null) {
-            // The message is not encrypted, make sure the topic has no security
-            if (topicSubscriber.hasSecurity()) {
-                log.warn("Non encrypted message received on a secured topic subscriber. {}", msg);
-                return;
-            }
+    public boolean isTopicPublisherKnown(final long topicPubIdMsb, final long topicPubIdLsb) {
+        return this.topicSubAndTopicPubIdRelations.getTopicPublisher(topicPubIdMsb, topicPubIdLsb) != null;
+    }
 
-            // Set the topic name
-            msg.setTopicName(topicSubscriber.getTopicName());
+    @Override
+    public boolean isPublisherHandleKnown(final int publisherHandle) {
+        return this.topicSubAndTopicPubIdRelations.getTopicPublisherForHandle(publisherHandle) != null;
+    }
 
-            // Send to the listener
-            topicSubscriber.onMessageReceived(msg);
+    @Override
+    public RcvAction onDataMsgReceived(final long topicPubIdMsb, final long topicPubIdLsb, final RcvMessage msg) {
+        // Find the related topic publisher if any, the ids are taken from it to avoid creating them for each message
+        final TopicPublisherInfo topicPubInfo = this.topicSubAndTopicPubIdRelations.getTopicPublisher(topicPubIdMsb, topicPubIdLsb);
+        if (topicPubInfo == null) {
+            return RcvAction.CONTINUE;
         }
+
+        return this.processDataMsg(topicPubInfo, msg);
     }
 
     @Override
-    public void onEncryptedDataMsgReceived(final RcvMessage msg) {
-        // Find the related topic subscriber if any
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(msg.getTopicPublisherId());
-        if (topicSubscriber != null) {
+    public RcvAction onCompactDataMsgReceived(final int publisherHandle, final RcvMessage msg) {
+        // Resolve the ids of the topic publisher from the handle, the handle is unknown until auto-discovery advertises it
+        final TopicPublisherInfo handleInfo = this.topicSubAndTopicPubIdRelations.getTopicPublisherForHandle(publisherHandle);
+        if (handleInfo == null) {
+            return RcvAction.CONTINUE;
+        }
+
+        return this.processDataMsg(handleInfo, msg);
+    }
+
+    /**
+     * Process a non encrypted data message from a known topic publisher
+     *
+     * @param topicPubInfo information of the topic publisher that sent the message
+     * @param msg          the received message
+     * @return the action to take on the reception
+     */
+    private RcvAction processDataMsg(final TopicPublisherInfo topicPubInfo, final RcvMessage msg) {
+        final TopicSubscriber topicSubscriber = topicPubInfo.getTopicSubscriber();
+
+        msg.setInstanceId(topicPubInfo.getInstanceId());
+        msg.setTopicPublisherId(topicPubInfo.getTopicPublisherId());
+
+        // The message is not encrypted, make sure the topic has no security
+        if (topicSubscriber.hasSecurity()) {
+            log.warn("Non encrypted message received on a secured topic subscriber. {}", msg);
+            return RcvAction.CONTINUE;
+        }
+
+        // Set the topic name
+        msg.setTopicName(topicSubscriber.getTopicName());
+
+        // Send to the listener
+        return topicSubscriber.onMessageReceived(topicPubInfo, msg);
+    }
+
+    @Override
+    public RcvAction onEncryptedDataMsgReceived(final long topicPubIdMsb, final long topicPubIdLsb, final RcvMessage msg) {
+        // Find the related topic publisher if any, the ids are taken from it to avoid creating them for each message
+        final TopicPublisherInfo topicPubInfo = this.topicSubAndTopicPubIdRelations.getTopicPublisher(topicPubIdMsb, topicPubIdLsb);
+        if (topicPubInfo != null) {
+            final TopicSubscriber topicSubscriber = topicPubInfo.getTopicSubscriber();
+
+            msg.setInstanceId(topicPubInfo.getInstanceId());
+            msg.setTopicPublisherId(topicPubInfo.getTopicPublisherId());
+
             // Set the topic name
             msg.setTopicName(topicSubscriber.getTopicName());
 
             // The message is encrypted, make sure the topic has security
             if (!topicSubscriber.hasSecurity()) {
                 log.warn("Encrypted message received on a non secured topic subscriber. {}", msg);
-                return;
+                return RcvAction.CONTINUE;
             }
 
             // Get the decoder
@@ -525,31 +606,38 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
 
             // It may be null if it has not found yet, or we don't have permissions, or not configured, etc etc
             if (aesDecoder != null) {
-                ((SecureTopicSubscriber) topicSubscriber).onSecureMsgReceived(msg, aesDecoder);
+                return ((SecureTopicSubscriber) topicSubscriber).onSecureMsgReceived(topicPubInfo, msg, aesDecoder);
             }
         }
+
+        return RcvAction.CONTINUE;
     }
 
     @Override
-    public void onDataRequestMsgReceived(final RcvRequest request) {
+    public RcvAction onDataRequestMsgReceived(final RcvRequest request) {
         // Look for the responder socket for the given sender application instance id
         final AeronPublisher responsePublisher = this.responsePublishersManager.getResponsePublisherForInstance(request.getInstanceId());
 
         if (responsePublisher == null) {
             log.info("Request received but no responder instance id found for it in auto-discovery. Requester id [{}]", request.getInstanceId());
-            return;
+            return RcvAction.CONTINUE;
         }
 
         // Set the responder socket
         request.setRequestResponder(responsePublisher);
 
         // Find the topic subscriber and notify to the listener
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(request.getTopicPublisherId());
-        if (topicSubscriber != null) {
+        final TopicPublisherInfo topicPubInfo = this.topicSubAndTopicPubIdRelations.getTopicPublisher(
+                request.getTopicPublisherId().getMostSignificantBits(), request.getTopicPublisherId().getLeastSignificantBits());
+        if (topicPubInfo != null) {
+            final TopicSubscriber topicSubscriber = topicPubInfo.getTopicSubscriber();
+
             // Set the topic name
             request.setTopicName(topicSubscriber.getTopicName());
-            topicSubscriber.onRequestReceived(request);
+            return topicSubscriber.onRequestReceived(topicPubInfo, request);
         }
+
+        return RcvAction.CONTINUE;
     }
 
     @Override
@@ -563,10 +651,11 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         }
 
         // Find the topic subscriber and notify to the listener
-        final TopicSubscriber topicSubscriber = this.topicSubAndTopicPubIdRelations.getTopicSubscriberForTopicPublisherId(heartbeatReqMsgHeader.getTopicPublisherId());
-        if (topicSubscriber != null) {
-            // Set the topic name
-            topicSubscriber.onHeartbeatReceived(heartbeatReqMsgHeader, topicSubscriber.getTopicName());
+        final TopicPublisherInfo topicPubInfo = this.topicSubAndTopicPubIdRelations.getTopicPublisher(
+                heartbeatReqMsgHeader.getTopicPublisherId().getMostSignificantBits(), heartbeatReqMsgHeader.getTopicPublisherId().getLeastSignificantBits());
+        if (topicPubInfo != null) {
+            final TopicSubscriber topicSubscriber = topicPubInfo.getTopicSubscriber();
+            topicSubscriber.onHeartbeatReceived(topicPubInfo, heartbeatReqMsgHeader, topicSubscriber.getTopicName());
         }
     }
 
@@ -575,6 +664,28 @@ public final class ReceiveManager implements ISubscribersPollerListener, Closeab
         this.vegaContext.getAsyncRequestManager().processResponse(response);
     }
 
+    @Override
+    public void onNakMsgReceived(final MsgNakHeader nakHeader) {
+        final IRetransmissionRequestListener retransmissionListener = this.vegaContext.getRetransmissionRequestListener();
+
+        if (retransmissionListener != null) {
+            retransmissionListener.onRetransmissionRequest(nakHeader.getTopicPublisherId(), nakHeader.getFirstSequenceNumber(), nakHeader.getLastSequenceNumber());
+        }
+    }
+
+    @Override
+    public boolean requestRetransmission(final TopicPublisherInfo topicPubInfo, final long firstSequenceNumber, final long lastSequenceNumber) {
+        // The request is sent to the instance of the topic publisher through its response publisher
+        final AeronPublisher responsePublisher = this.responsePublishersManager.getResponsePublisherForInstance(topicPubInfo.getInstanceId());
+
+        if (responsePublisher == null) {
+            log.debug("Cannot request the retransmission of lost messages, no responder found for instance id [{}]", topicPubInfo.getInstanceId());
+            return false;
+        }
+
+        return responsePublisher.sendNak(topicPubInfo.getTopicPublisherId(), firstSequenceNumber, lastSequenceNumber) == PublishResult.OK;
+    }
+
     /**
      * Return true if subscribed to pattern
      * <p>
@@ -50,10 +50,12 @@ class SecureTopicSubscriber extends TopicSubscriber {
     /**
      * Method called when a secure message is received. The message will be "decoded" using the provided AesCrypto.
      *
+     * @param topicPubInfo     information of the topic publisher that sent the message
      * @param receivedMessage  the received message
      * @param aesCryptoDecoder the AES crypto decoder to decode the received message
+     * @return the most restrictive action returned by the listeners
      */
-    void onSecureMsgReceived(final RcvMessage receivedMessage, final AESCrypto aesCryptoDecoder) {
+    RcvAction onSecureMsgReceived(final TopicPublisherInfo topicPubInfo, final RcvMessage receivedMessage, final AESCrypto aesCryptoDecoder) {
         // Make sure we can hold the message and the decoded message
         if (this.byteBufferMsgContents.capacity() < receivedMessage.getContentLength()) {
             this.byteBufferMsgContents = ByteBuffer.allocate(receivedMessage.getContentLength() * 2);
@@ -79,11 +81,11 @@ class SecureTopicSubscriber extends TopicSubscriber {
             receivedMessage.setContentLength(this.decodedMsgBuffer.byteBuffer().position());
         } catch (final VegaException e) {
             log.warn("Unexpected error decoding secure received message on topic " + this.getTopicName(), e);
-            return;
+            return RcvAction.CONTINUE;
         }
 
         // Finally call the parent implementation
-        super.onMessageReceived(receivedMessage);
+        return super.onMessageReceived(topicPubInfo, receivedMessage);
     }
 
     /**
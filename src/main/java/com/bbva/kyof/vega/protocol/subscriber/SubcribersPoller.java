@@ -6,16 +6,40 @@ import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
 import com.bbva.kyof.vega.util.collection.DelayedChangesArray;
 import com.bbva.kyof.vega.util.collection.IDelayedChangesArray;
+import com.bbva.kyof.vega.util.threads.ISharedTaskRunner;
 import com.bbva.kyof.vega.util.threads.RecurrentTask;
-import io.aeron.FragmentAssembler;
+import io.aeron.ControlledFragmentAssembler;
+import io.aeron.Image;
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.Header;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Class that perform message polling over a set of subscribers
  * <p>
+ * The subscribers are polled in controlled mode, the listeners decide with the returned {@link RcvAction} if each message is consumed.
+ * A not consumed fragment stays in the subscription and it is polled again on the next cycle. If the fragment is a batch of messages,
+ * the index of the first not consumed message is kept to skip the consumed ones when the fragment is polled again.
+ * <p>
+ * On each cycle the subscribers are polled in order of priority, each one with its own budget of fragments. The budget is fixed unless
+ * the adaptive poll budget is enabled in the configuration.
+ * <p>
+ * The data messages of topic publishers without subscribers are discarded before decoding them, the id of the publisher is read at
+ * a fixed offset of the fragment. The discarded messages are counted on the subscription they have been polled from.
+ * <p>
+ * The pending gaps of the topic subscribers with gap recovery and the held messages of the topic subscribers with reordering are checked
+ * after each poll cycle, the lost messages of the expired gaps and windows are reported from the poller thread.
+ * <p>
  * This class is thread safe!!
  */
 @Slf4j
@@ -25,15 +49,22 @@ class SubcribersPoller extends RecurrentTask {
      */
     private static final int DEFAULT_SUB_NUMBER = 10;
 
+    /**
+     * Order in which the subscriptions are polled, highest priority first. The sort is stable so the subscriptions with the same
+     * priority keep the order in which they were added.
+     */
+    private static final Comparator<AeronSubscriber> POLL_ORDER = Comparator.comparingInt(AeronSubscriber::getPollPriority).reversed();
+
     /**
      * Reusable base header for received messages
      */
     private final BaseHeader reusableBaseHeader = new BaseHeader();
 
+
     /**
-     * Reusable header for received data messages
+     * Reusable compact data message header for received messages
      */
-    private final MsgDataHeader reusableDataMsgHeader = new MsgDataHeader();
+    private final MsgCompactDataHeader reusableCompactDataMsgHeader = new MsgCompactDataHeader();
 
     /**
      * Reusable header for received request
@@ -45,6 +76,11 @@ class SubcribersPoller extends RecurrentTask {
      */
     private final MsgRespHeader reusableRespMsgHeader = new MsgRespHeader();
 
+    /**
+     * Reusable header for received negative acknowledgements
+     */
+    private final MsgNakHeader reusableNakMsgHeader = new MsgNakHeader();
+
     /**
      * Reusable message object for received messages
      */
@@ -73,7 +109,12 @@ class SubcribersPoller extends RecurrentTask {
     /**
      * Fragment assembler that will handle the new messages in the subscribers
      */
-    private final FragmentAssembler fragmentAssembler;
+    private final ControlledFragmentAssembler fragmentAssembler;
+
+    /**
+     * Index of the first not consumed message of each aborted batch fragment by the correlation id of the image of the fragment
+     */
+    private final Long2LongHashMap batchResumeIndexes = new Long2LongHashMap(0);
 
     /**
      * Listener for received messages
@@ -94,6 +135,75 @@ class SubcribersPoller extends RecurrentTask {
      */
     private final int maxFragmentsPerPoll;
 
+    /**
+     * Min number of fragments to look for when polling a single subscriber, it is equal to the max if the budget is not adaptive
+     */
+    private final int minFragmentsPerPoll;
+
+    /**
+     * Poll budget of each subscription, they are kept while the subscription is in the poller
+     */
+    private final Map<AeronSubscriber, SubscriptionPollBudget> budgetsBySubscription = new IdentityHashMap<>();
+
+    /**
+     * Subscriptions in the order they are polled, it is rebuilt every time the subscriptions of the poller change
+     */
+    private AeronSubscriber[] pollOrder = new AeronSubscriber[DEFAULT_SUB_NUMBER];
+
+    /**
+     * Poll budget of the subscription in the same position of the poll order
+     */
+    private SubscriptionPollBudget[] pollBudgets = new SubscriptionPollBudget[DEFAULT_SUB_NUMBER];
+
+    /**
+     * Number of subscriptions in the poll order
+     */
+    private int numPolled = 0;
+
+    /**
+     * Subscription that is being polled, the rejected messages are counted on it
+     */
+    private AeronSubscriber polledSubscriber;
+
+    /**
+     * Dispatch workers that deliver the received messages to the listeners, null if they are delivered by the poller thread
+     */
+    @Getter
+    private final RcvDispatcher dispatcher;
+
+    /**
+     * Flusher for the batches of the topic subscribers whose listeners are called by the poller thread
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final RcvBatchFlusher batchFlusher = new RcvBatchFlusher();
+
+    /**
+     * Gap recovery for the topic subscribers of the poller that request the retransmission of the lost messages
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final RcvGapRecovery gapRecovery;
+
+    /**
+     * Reorder timeouts for the topic subscribers of the poller that hold the out of order messages
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final RcvReorderTimeouts reorderTimeouts = new RcvReorderTimeouts();
+
+    /**
+     * Most significant bits of the topic publisher id of the last received data message header
+     */
+    private long rcvTopicPubIdMsb;
+
+    /**
+     * Least significant bits of the topic publisher id of the last received data message header
+     */
+    private long rcvTopicPubIdLsb;
+
+    /**
+     * Sequence number of the last received data message header
+     */
+    private long rcvSequenceNumber;
+
     /**
      * Create a new poller
      *
@@ -104,9 +214,12 @@ class SubcribersPoller extends RecurrentTask {
         super(config.getIdleStrategy());
         this.listener = listener;
         this.config = config;
-        this.fragmentAssembler = new FragmentAssembler(this::processAeronMsg);
+        this.fragmentAssembler = new ControlledFragmentAssembler(this::processAeronMsg);
         this.subscribers = new DelayedChangesArray<>(AeronSubscriber.class, DEFAULT_SUB_NUMBER);
         this.maxFragmentsPerPoll = config.getMaxFragmentsPerPoll();
+        this.minFragmentsPerPoll = config.isAdaptivePollBudget() ? config.getMinFragmentsPerPoll() : this.maxFragmentsPerPoll;
+        this.dispatcher = config.isDispatchEnabled() ? new RcvDispatcher(config) : null;
+        this.gapRecovery = new RcvGapRecovery(listener);
     }
 
     /**
@@ -128,36 +241,131 @@ class SubcribersPoller extends RecurrentTask {
     }
 
     /**
-     * Start the poller
+     * Start the poller on its own thread
      */
     void start() {
+        this.start((ISharedTaskRunner) null);
+    }
+
+    /**
+     * Start the poller. The dispatch workers always run on their own threads.
+     *
+     * @param sharedRunner shared runner of the poller, null to run it on its own thread
+     */
+    void start(final ISharedTaskRunner sharedRunner) {
         log.info("Starting poller manager with name [{}]", this.config.getName());
-        this.start("SubscriberPoller " + this.config.getName());
+
+        if (this.dispatcher != null) {
+            this.dispatcher.start();
+        }
+
+        this.start("SubscriberPoller " + this.config.getName(), this.config.getThreadParams(), sharedRunner);
+    }
+
+    /**
+     * Return the dispatch worker for a new topic subscriber of the poller
+     *
+     * @return the worker that will deliver the messages of the topic subscriber, null if they are delivered by the poller thread
+     */
+    RcvDispatchWorker assignDispatchWorker() {
+        return this.dispatcher == null ? null : this.dispatcher.assignWorker();
+    }
+
+    @Override
+    public void close() {
+        // Stop the poller first so no more messages are dispatched
+        super.close();
+
+        if (this.dispatcher != null) {
+            this.dispatcher.close();
+        }
     }
 
     @Override
     public int action() {
-        // Apply pending changes
-        this.subscribers.applyPendingChanges();
+        // Apply pending changes and sort the subscriptions again if there are changes
+        if (this.subscribers.applyPendingChanges()) {
+            this.updatePollOrder();
+        }
 
         int fragmentsRead = 0;
 
-        // Get the internal collection
-        final AeronSubscriber[] subscriptionsArray = this.subscribers.getInternalArray();
+        // Poll all the subscribers by priority, the batches of each poll are delivered before polling the next subscriber
+        for (int i = 0; i < this.numPolled && !this.shouldStop(); i++) {
+            final SubscriptionPollBudget budget = this.pollBudgets[i];
+            this.polledSubscriber = this.pollOrder[i];
+            final int subscriptionFragmentsRead = this.polledSubscriber.controlledPoll(this.fragmentAssembler, budget.getFragmentLimit());
+            budget.onPoll(subscriptionFragmentsRead);
+            fragmentsRead += subscriptionFragmentsRead;
+
+            if (this.batchFlusher.getNumPending() > 0) {
+                this.batchFlusher.flush();
+            }
+        }
+
+        // Report the gaps that have not been retransmitted in time and release the messages held for too long
+        if (this.gapRecovery.hasPendingGaps() || this.reorderTimeouts.hasHeldWindows()) {
+            final long nowNanos = System.nanoTime();
+            this.gapRecovery.expireGaps(nowNanos);
+            this.reorderTimeouts.expireWindows(nowNanos);
 
-        // Poll all the subscribers
-        for (int i = 0; i < this.subscribers.getNumElements() && !this.shouldStop(); i++) {
-            fragmentsRead += subscriptionsArray[i].poll(this.fragmentAssembler, this.maxFragmentsPerPoll);
+            if (this.batchFlusher.getNumPending() > 0) {
+                this.batchFlusher.flush();
+            }
         }
 
         // Return number of read fragments
         return fragmentsRead;
     }
 
+    /**
+     * Rebuild the poll order with the current subscriptions sorted by priority. The budgets of the subscriptions that are still in the
+     * poller are kept, new subscriptions start with the min budget.
+     */
+    private void updatePollOrder() {
+        final int numElements = this.subscribers.getNumElements();
+
+        if (numElements > this.pollOrder.length) {
+            this.pollOrder = new AeronSubscriber[numElements];
+            this.pollBudgets = new SubscriptionPollBudget[numElements];
+        }
+
+        System.arraycopy(this.subscribers.getInternalArray(), 0, this.pollOrder, 0, numElements);
+        Arrays.fill(this.pollOrder, numElements, this.pollOrder.length, null);
+        Arrays.fill(this.pollBudgets, numElements, this.pollBudgets.length, null);
+        Arrays.sort(this.pollOrder, 0, numElements, POLL_ORDER);
+
+        final Map<AeronSubscriber, SubscriptionPollBudget> currentBudgets = new IdentityHashMap<>(numElements);
+
+        for (int i = 0; i < numElements; i++) {
+            SubscriptionPollBudget budget = this.budgetsBySubscription.get(this.pollOrder[i]);
+
+            if (budget == null) {
+                budget = new SubscriptionPollBudget(this.minFragmentsPerPoll, this.maxFragmentsPerPoll);
+            }
+
+            this.pollBudgets[i] = budget;
+            currentBudgets.put(this.pollOrder[i], budget);
+        }
+
+        // Forget the budgets of the removed subscriptions
+        this.budgetsBySubscription.clear();
+        this.budgetsBySubscription.putAll(currentBudgets);
+        this.numPolled = numElements;
+    }
+
     @Override
     public void cleanUp() {
         log.info("Cleaning poller manager [{}] after closing", this.config.getName());
         this.subscribers.clear();
+        this.batchResumeIndexes.clear();
+        this.budgetsBySubscription.clear();
+        Arrays.fill(this.pollOrder, null);
+        Arrays.fill(this.pollBudgets, null);
+        this.numPolled = 0;
+        this.polledSubscriber = null;
+        this.gapRecovery.clear();
+        this.reorderTimeouts.clear();
     }
 
     /**
@@ -167,8 +375,15 @@ class SubcribersPoller extends RecurrentTask {
      * @param offset the offset where the message starts on the buffer
      * @param length the length of the message
      * @param header the Aeron header of the message
+     * @return the action of the controlled poll, ABORT if the message has not been consumed
      */
-    private void processAeronMsg(final DirectBuffer buffer, final int offset, final int length, final Header header) {
+    private ControlledFragmentHandler.Action processAeronMsg(final DirectBuffer buffer, final int offset, final int length, final Header header) {
+        // Discard the data messages of unknown topic publishers before decoding anything
+        if (this.isFromUnknownPublisher(buffer, offset)) {
+            this.polledSubscriber.onRejectedMsg(length);
+            return ControlledFragmentHandler.Action.CONTINUE;
+        }
+
         // Wrap the buffer into the serializer
         this.bufferSerializer.wrap(buffer, offset, length);
 
@@ -178,74 +393,314 @@ class SubcribersPoller extends RecurrentTask {
         // Check the version
         if (!this.reusableBaseHeader.isVersionCompatible()) {
             log.warn("Message message received from incompatible library version [{}]", Version.toStringRep(this.reusableBaseHeader.getVersion()));
-            return;
+            return ControlledFragmentHandler.Action.CONTINUE;
         }
 
         // Check the message type
         switch (this.reusableBaseHeader.getMsgType()) {
             case MsgType.DATA:
-                this.processDataMessage();
-                break;
+                return this.processDataMessage().getAeronAction();
+            case MsgType.DATA_BATCH:
+                return this.processDataBatchMessage(header).getAeronAction();
+            case MsgType.DATA_COMPACT:
+                return this.processCompactDataMessage().getAeronAction();
+            case MsgType.DATA_BATCH_COMPACT:
+                return this.processCompactDataBatchMessage(header).getAeronAction();
             case MsgType.DATA_REQ:
-                this.processDataRequestMessage();
-                break;
+                return this.processDataRequestMessage().getAeronAction();
             case MsgType.HEARTBEAT_REQ:
                 this.processHeartbeatRequestMessage();
                 break;
             case MsgType.RESP:
                 this.processDataResponseMessage();
                 break;
-            case MsgType.ENCRYPTED_DATA:
-                this.processEncryptedDataMessage();
+            case MsgType.NAK:
+                this.processNakMessage();
                 break;
+            case MsgType.ENCRYPTED_DATA:
+                return this.processEncryptedDataMessage().getAeronAction();
             default:
                 log.warn("Unexpected message type received [{}]", this.reusableBaseHeader.getMsgType());
                 break;
         }
+
+        return ControlledFragmentHandler.Action.CONTINUE;
+    }
+
+    /**
+     * Check if a fragment is a data message of a topic publisher without subscribers. The message type and the id of the publisher are
+     * read directly from the buffer, the other fragments are never considered unknown.
+     *
+     * @param buffer the buffer that contains the message
+     * @param offset the offset where the message starts on the buffer
+     * @return true if the fragment is a data message of an unknown topic publisher
+     */
+    private boolean isFromUnknownPublisher(final DirectBuffer buffer, final int offset) {
+        final int headerOffset = offset + BaseHeader.BINARY_SIZE;
+
+        switch (buffer.getByte(offset + BaseHeader.MSG_TYPE_OFFSET)) {
+            case MsgType.DATA:
+            case MsgType.DATA_BATCH:
+            case MsgType.ENCRYPTED_DATA:
+                final int topicPubIdOffset = headerOffset + MsgDataHeader.TOPIC_PUB_ID_OFFSET;
+                return !this.listener.isTopicPublisherKnown(buffer.getLong(topicPubIdOffset), buffer.getLong(topicPubIdOffset + UnsafeBufferSerializer.LONG_SIZE));
+            case MsgType.DATA_COMPACT:
+            case MsgType.DATA_BATCH_COMPACT:
+                return !this.listener.isPublisherHandleKnown(buffer.getInt(headerOffset + MsgCompactDataHeader.PUBLISHER_HANDLE_OFFSET));
+            default:
+                return false;
+        }
     }
 
     /**
      * Process a message of type data that has already been wrapped on the buffer serializer
+     *
+     * @return the action of the listeners
      */
-    private void processDataMessage() {
+    private RcvAction processDataMessage() {
         if (log.isTraceEnabled()) {
             log.trace("Data message received");
         }
 
-        // Deserialize the header to get the id of the publisher that sent the message
-        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+        // Read the header to get the id of the publisher that sent the message
+        this.readDataMsgHeaderBits();
+
+        // Set the fields of the reusable received msg, the ids are resolved by the listener
+        this.reusableReceivedMsg.setSequenceNumber(this.rcvSequenceNumber);
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+        this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+        this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
+
+        return this.listener.onDataMsgReceived(this.rcvTopicPubIdMsb, this.rcvTopicPubIdLsb, this.reusableReceivedMsg);
+    }
+
+    /**
+     * Process a batch of data messages that has already been wrapped on the buffer serializer. Each message of the batch
+     * is delivered separately with consecutive sequence numbers starting from the one in the header.
+     *
+     * @param header the Aeron header of the fragment
+     * @return the most restrictive action of the listeners, ABORT if a message of the batch has not been consumed
+     */
+    private RcvAction processDataBatchMessage(final Header header) {
+        // Read the header to get the id of the publisher that sent the batch
+        this.readDataMsgHeaderBits();
+
+        if (log.isTraceEnabled()) {
+            log.trace("Data batch message received with first sequence number [{}]", this.rcvSequenceNumber);
+        }
+
+        if (!this.isValidBatch()) {
+            log.warn("Discarding malformed data batch message with first sequence number [{}]", this.rcvSequenceNumber);
+            return RcvAction.CONTINUE;
+        }
+
+        // Set the common fields of the reusable received msg, the ids are resolved by the listener
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+
+        final int resumeIndex = this.takeBatchResumeIndex(header);
+        RcvAction result = RcvAction.CONTINUE;
+        long sequenceNumber = this.rcvSequenceNumber;
+
+        // Each entry is the length of the message followed by the contents
+        for (int index = 0; this.bufferSerializer.getOffset() < this.bufferSerializer.getMsgLength(); index++) {
+            final int entryLength = this.bufferSerializer.readInt();
+
+            // Skip the messages consumed before the fragment was aborted
+            if (index >= resumeIndex) {
+                this.reusableReceivedMsg.setSequenceNumber(sequenceNumber);
+                this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+                this.reusableReceivedMsg.setContentLength(entryLength);
 
-        // Set the fields of the reusable received msg
-        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceId());
-        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherId());
-        this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
+                final RcvAction action = this.listener.onDataMsgReceived(this.rcvTopicPubIdMsb, this.rcvTopicPubIdLsb, this.reusableReceivedMsg);
+                if (action == RcvAction.ABORT) {
+                    this.abortBatch(header, index);
+                    return action;
+                }
+
+                result = result.mostRestrictive(action);
+            }
+
+            this.bufferSerializer.setOffset(this.bufferSerializer.getOffset() + entryLength);
+            sequenceNumber++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Process a message of type data with the compact header that has already been wrapped on the buffer serializer
+     *
+     * @return the action of the listeners
+     */
+    private RcvAction processCompactDataMessage() {
+        if (log.isTraceEnabled()) {
+            log.trace("Compact data message received");
+        }
+
+        // Deserialize the header to get the handle of the publisher that sent the message
+        this.reusableCompactDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        // Set the fields of the reusable received msg, the ids are resolved by the listener
+        this.reusableReceivedMsg.setSequenceNumber(this.reusableCompactDataMsgHeader.getSequenceNumber());
         this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
         this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
 
-        this.listener.onDataMsgReceived(this.reusableReceivedMsg);
+        return this.listener.onCompactDataMsgReceived(this.reusableCompactDataMsgHeader.getPublisherHandle(), this.reusableReceivedMsg);
+    }
+
+    /**
+     * Process a batch of data messages with the compact header that has already been wrapped on the buffer serializer. Each message
+     * of the batch is delivered separately with consecutive sequence numbers starting from the one in the header.
+     *
+     * @param header the Aeron header of the fragment
+     * @return the most restrictive action of the listeners, ABORT if a message of the batch has not been consumed
+     */
+    private RcvAction processCompactDataBatchMessage(final Header header) {
+        // Deserialize the header to get the handle of the publisher that sent the batch
+        this.reusableCompactDataMsgHeader.fromBinary(this.bufferSerializer);
+
+        if (log.isTraceEnabled()) {
+            log.trace("Compact data batch message received with first sequence number [{}]", this.reusableCompactDataMsgHeader.getSequenceNumber());
+        }
+
+        if (!this.isValidBatch()) {
+            log.warn("Discarding malformed compact data batch message with first sequence number [{}]", this.reusableCompactDataMsgHeader.getSequenceNumber());
+            return RcvAction.CONTINUE;
+        }
+
+        final int publisherHandle = this.reusableCompactDataMsgHeader.getPublisherHandle();
+        this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
+
+        final int resumeIndex = this.takeBatchResumeIndex(header);
+        RcvAction result = RcvAction.CONTINUE;
+        long sequenceNumber = this.reusableCompactDataMsgHeader.getSequenceNumber();
+
+        // Each entry is the length of the message followed by the contents
+        for (int index = 0; this.bufferSerializer.getOffset() < this.bufferSerializer.getMsgLength(); index++) {
+            final int entryLength = this.bufferSerializer.readInt();
+
+            // Skip the messages consumed before the fragment was aborted
+            if (index >= resumeIndex) {
+                this.reusableReceivedMsg.setSequenceNumber(sequenceNumber);
+                this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
+                this.reusableReceivedMsg.setContentLength(entryLength);
+
+                final RcvAction action = this.listener.onCompactDataMsgReceived(publisherHandle, this.reusableReceivedMsg);
+                if (action == RcvAction.ABORT) {
+                    this.abortBatch(header, index);
+                    return action;
+                }
+
+                result = result.mostRestrictive(action);
+            }
+
+            this.bufferSerializer.setOffset(this.bufferSerializer.getOffset() + entryLength);
+            sequenceNumber++;
+        }
+
+        return result;
+    }
+
+    /**
+     * Check that all the entries of the batch wrapped on the buffer serializer fit in the fragment, starting at the current offset.
+     * The batch is checked before delivering any of its messages, so a corrupt batch is discarded completely.
+     *
+     * @return true if the length of every entry is valid
+     */
+    private boolean isValidBatch() {
+        final UnsafeBuffer buffer = this.bufferSerializer.getInternalBuffer();
+        final int end = this.bufferSerializer.getMsgLength();
+        int position = this.bufferSerializer.getOffset();
+
+        while (position < end) {
+            if (end - position < UnsafeBufferSerializer.INT_SIZE) {
+                return false;
+            }
+
+            final int entryLength = buffer.getInt(position);
+            position += UnsafeBufferSerializer.INT_SIZE;
+
+            if (entryLength < 0 || entryLength > end - position) {
+                return false;
+            }
+
+            position += entryLength;
+        }
+
+        return true;
+    }
+
+    /**
+     * Return the index of the first message to deliver of a batch fragment, it is not 0 if the fragment was aborted after consuming some
+     * of the messages
+     *
+     * @param header the Aeron header of the fragment
+     * @return the index of the first message to deliver
+     */
+    private int takeBatchResumeIndex(final Header header) {
+        if (this.batchResumeIndexes.isEmpty()) {
+            return 0;
+        }
+
+        // An aborted fragment is always the next one polled from the same image
+        return (int) this.batchResumeIndexes.remove(imageKey(header));
+    }
+
+    /**
+     * Keep the index of the first not consumed message of an aborted batch fragment
+     *
+     * @param header the Aeron header of the fragment
+     * @param index  the index of the aborted message
+     */
+    private void abortBatch(final Header header, final int index) {
+        if (index > 0) {
+            this.batchResumeIndexes.put(imageKey(header), index);
+        }
+    }
+
+    /**
+     * Return the key of the image of a fragment
+     *
+     * @param header the Aeron header of the fragment
+     * @return the correlation id of the image, the session id if the header has no image
+     */
+    private static long imageKey(final Header header) {
+        final Object context = header.context();
+        return context instanceof Image ? ((Image) context).correlationId() : header.sessionId();
     }
 
     /**
      * Process a message of type data that has already been wrapped on the buffer serializer
+     *
+     * @return the action of the listeners
      */
-    private void processEncryptedDataMessage() {
+    private RcvAction processEncryptedDataMessage() {
         if (log.isTraceEnabled()) {
             log.trace("Encrypted data message received");
         }
 
-        // Deserialize the header to get the id of the publisher that sent the message
-        this.reusableDataMsgHeader.fromBinary(this.bufferSerializer);
+        // Read the header to get the id of the publisher that sent the message
+        this.readDataMsgHeaderBits();
 
-        // Set the fields of the reusable received msg
-        this.reusableReceivedMsg.setInstanceId(this.reusableDataMsgHeader.getInstanceId());
-        this.reusableReceivedMsg.setTopicPublisherId(this.reusableDataMsgHeader.getTopicPublisherId());
+        // Set the fields of the reusable received msg, the ids are resolved by the listener
         this.reusableReceivedMsg.setUnsafeBufferContent(this.bufferSerializer.getInternalBuffer());
-        this.reusableReceivedMsg.setSequenceNumber(this.reusableDataMsgHeader.getSequenceNumber());
+        this.reusableReceivedMsg.setSequenceNumber(this.rcvSequenceNumber);
         this.reusableReceivedMsg.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedMsg.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
 
-        this.listener.onEncryptedDataMsgReceived(this.reusableReceivedMsg);
+        return this.listener.onEncryptedDataMsgReceived(this.rcvTopicPubIdMsb, this.rcvTopicPubIdLsb, this.reusableReceivedMsg);
+    }
+
+    /**
+     * Read a {@link MsgDataHeader} that has already been wrapped on the buffer serializer without creating the ids. The instance id is
+     * skipped since it is resolved by the listener together with the topic publisher id.
+     */
+    private void readDataMsgHeaderBits() {
+        this.bufferSerializer.setOffset(this.bufferSerializer.getOffset() + UnsafeBufferSerializer.UUID_SIZE);
+        this.rcvTopicPubIdMsb = this.bufferSerializer.readLong();
+        this.rcvTopicPubIdLsb = this.bufferSerializer.readLong();
+        this.rcvSequenceNumber = this.bufferSerializer.readLong();
     }
 
     /**
@@ -269,10 +724,27 @@ class SubcribersPoller extends RecurrentTask {
         this.listener.onDataResponseMsgReceived(this.reusableReceivedResponse);
     }
 
+    /**
+     * Process a negative acknowledgement that has already been wrapped on the buffer serializer
+     */
+    private void processNakMessage() {
+        // Deserialize the header to get the topic publisher and the lost messages
+        this.reusableNakMsgHeader.fromBinary(this.bufferSerializer);
+
+        if (log.isTraceEnabled()) {
+            log.trace("Negative acknowledgement received for topic publisher [{}] from sequence number [{}] to [{}]",
+                    this.reusableNakMsgHeader.getTopicPublisherId(), this.reusableNakMsgHeader.getFirstSequenceNumber(), this.reusableNakMsgHeader.getLastSequenceNumber());
+        }
+
+        this.listener.onNakMsgReceived(this.reusableNakMsgHeader);
+    }
+
     /**
      * Process a message of type data request that has already been wrapped on the buffer serializer
+     *
+     * @return the action of the listeners
      */
-    private void processDataRequestMessage() {
+    private RcvAction processDataRequestMessage() {
         if (log.isTraceEnabled()) {
             log.trace("Request message received");
         }
@@ -289,7 +761,7 @@ class SubcribersPoller extends RecurrentTask {
         this.reusableReceivedRequest.setContentOffset(this.bufferSerializer.getOffset());
         this.reusableReceivedRequest.setContentLength(this.bufferSerializer.getMsgLength() - this.bufferSerializer.getOffset());
 
-        this.listener.onDataRequestMsgReceived(this.reusableReceivedRequest);
+        return this.listener.onDataRequestMsgReceived(this.reusableReceivedRequest);
     }
 
     /**
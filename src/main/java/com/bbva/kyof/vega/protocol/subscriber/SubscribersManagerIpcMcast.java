@@ -7,6 +7,7 @@ import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -59,6 +60,17 @@ class SubscribersManagerIpcMcast extends AbstractSubscribersManager {
                 removeTopicSocketInfo(topicSubscriber, topicSocketId));
     }
 
+    /**
+     * Add the metrics of the rejected traffic of the open Aeron subscribers of the manager to the given list
+     *
+     * @param stats the list to add the metrics to
+     */
+    void collectRcvChannelStats(final List<IRcvChannelStats> stats) {
+        synchronized (this.lock) {
+            stats.addAll(this.subscriberByParams.values());
+        }
+    }
+
     @Override
     public void cleanAfterClose() {
         this.subscriberByParams.clear();
@@ -104,7 +116,8 @@ class SubscribersManagerIpcMcast extends AbstractSubscribersManager {
                 aeronSubscriber = new AeronSubscriber(this.getVegaContext(), aeronSubscriberParams);
                 this.subscriberByParams.put(aeronSubscriberParams, aeronSubscriber);
 
-                // Add to the poller
+                // Add to the poller with the priority of the topic template
+                aeronSubscriber.setPollPriority(topicSubscriber.getTopicConfig().getRcvPollPriority());
                 this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber);
             }
 
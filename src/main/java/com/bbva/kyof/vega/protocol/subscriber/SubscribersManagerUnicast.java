@@ -14,6 +14,7 @@ import com.bbva.kyof.vega.util.net.InetUtil;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -84,7 +85,8 @@ final class SubscribersManagerUnicast extends AbstractSubscribersManager {
             aeronSubscriber = new AeronSubscriber(this.getVegaContext(), aeronSubscriberParams);
             this.subscribersByParams.put(aeronSubscriberParams, aeronSubscriber);
 
-            // Add to the poller
+            // Add to the poller with the priority of the topic template
+            aeronSubscriber.setPollPriority(topicSubscriber.getTopicConfig().getRcvPollPriority());
             this.getPollersManager().getPoller(topicSubscriber.getTopicConfig().getRcvPoller()).addSubscription(aeronSubscriber);
         }
 
@@ -120,6 +122,17 @@ final class SubscribersManagerUnicast extends AbstractSubscribersManager {
         this.unRegisterTopicSocketInfoFromAutodiscovery(topicSubscriber);
     }
 
+    /**
+     * Add the metrics of the rejected traffic of the open Aeron subscribers of the manager to the given list
+     *
+     * @param stats the list to add the metrics to
+     */
+    void collectRcvChannelStats(final List<IRcvChannelStats> stats) {
+        synchronized (this.lock) {
+            stats.addAll(this.subscribersByParams.values());
+        }
+    }
+
     @Override
     public void cleanAfterClose() {
         // Destroy the subscriber to receive responses
@@ -147,13 +160,13 @@ final class SubscribersManagerUnicast extends AbstractSubscribersManager {
         final TopicTemplateConfig templateCfg = topicSubscriber.getTopicConfig();
 
         // Select the Stream ID
-        final int streamId = AeronChannelHelper.selectStreamFromRange(topicName, templateCfg.getNumStreamsPerPort());
+        final int streamId = templateCfg.selectStreamId(topicName);
 
         // Select the ip address using the subnet address, since we are using 32 bit mask subnets we can use that address directly
         final String ipAddress = templateCfg.getSubnetAddress().getIpAddres().getHostAddress();
 
         // Select the port
-        final int portNumber = AeronChannelHelper.selectPortFromRange(topicName, templateCfg.getMinPort(), templateCfg.getMaxPort());
+        final int portNumber = templateCfg.selectPort(topicName);
 
         // Create the parameters
         return new AeronSubscriberParams(TransportMediaType.UNICAST, InetUtil.convertIpAddressToInt(ipAddress), portNumber, streamId, templateCfg.getSubnetAddress());
@@ -63,7 +63,7 @@ class SubscribersPollersManager implements Closeable {
 
                 poller = new SubcribersPoller(this.listener, pollerConfig);
                 this.subscriberPollersByName.put(pollerName, poller);
-                poller.start();
+                poller.start(this.vegaContext.getNetworkRunner());
                 return poller;
             } else {
                 return poller;
@@ -71,6 +71,97 @@ class SubscribersPollersManager implements Closeable {
         }
     }
 
+    /**
+     * Return the dispatch worker for a new topic subscriber of the given poller. The poller is created if it has dispatch workers.
+     *
+     * @param pollerName the name of the poller of the topic subscriber
+     * @return the worker that will deliver the messages of the topic subscriber, null if they are delivered by the poller thread
+     */
+    RcvDispatchWorker assignDispatchWorker(final String pollerName) {
+        final RcvPollerConfig pollerConfig = this.vegaContext.getInstanceConfig().getPollerConfigForPollerName(pollerName);
+
+        if (pollerConfig == null || !pollerConfig.isDispatchEnabled()) {
+            return null;
+        }
+
+        return this.getPoller(pollerName).assignDispatchWorker();
+    }
+
+    /**
+     * Return the flusher for the batches of a new topic subscriber of the given poller. The poller is created if it doesn't exist.
+     *
+     * @param pollerName     the name of the poller of the topic subscriber
+     * @param dispatchWorker the dispatch worker of the topic subscriber, null if the messages are delivered by the poller thread
+     * @return the flusher of the thread that delivers the messages, null if there is no configuration for the poller
+     */
+    RcvBatchFlusher getBatchFlusher(final String pollerName, final RcvDispatchWorker dispatchWorker) {
+        if (dispatchWorker != null) {
+            return dispatchWorker.getBatchFlusher();
+        }
+
+        if (this.vegaContext.getInstanceConfig().getPollerConfigForPollerName(pollerName) == null) {
+            return null;
+        }
+
+        return this.getPoller(pollerName).getBatchFlusher();
+    }
+
+    /**
+     * Return the gap recovery of the given poller for a new topic subscriber with gap recovery enabled. The poller is created if it
+     * doesn't exist.
+     *
+     * @param pollerName the name of the poller of the topic subscriber
+     * @return the gap recovery of the poller, null if there is no configuration for the poller
+     */
+    RcvGapRecovery getGapRecovery(final String pollerName) {
+        if (this.vegaContext.getInstanceConfig().getPollerConfigForPollerName(pollerName) == null) {
+            return null;
+        }
+
+        return this.getPoller(pollerName).getGapRecovery();
+    }
+
+    /**
+     * Return the reorder timeouts of the given poller for a new topic subscriber with reordering enabled. The poller is created if it
+     * doesn't exist.
+     *
+     * @param pollerName the name of the poller of the topic subscriber
+     * @return the reorder timeouts of the poller, null if there is no configuration for the poller
+     */
+    RcvReorderTimeouts getReorderTimeouts(final String pollerName) {
+        if (this.vegaContext.getInstanceConfig().getPollerConfigForPollerName(pollerName) == null) {
+            return null;
+        }
+
+        return this.getPoller(pollerName).getReorderTimeouts();
+    }
+
+    /**
+     * Return the metrics of the gap recovery of a poller
+     *
+     * @param pollerName the name of the poller
+     * @return the metrics of the gap recovery, null if the poller has not been created
+     */
+    IRcvGapRecoveryStats getGapRecoveryStats(final String pollerName) {
+        synchronized (this.lock) {
+            final SubcribersPoller poller = this.subscriberPollersByName.get(pollerName);
+            return poller == null ? null : poller.getGapRecovery();
+        }
+    }
+
+    /**
+     * Return the metrics of the dispatch workers of a poller
+     *
+     * @param pollerName the name of the poller
+     * @return the metrics of the dispatch workers, null if the poller has not been created or it has no dispatch workers
+     */
+    IRcvDispatcherStats getDispatcherStats(final String pollerName) {
+        synchronized (this.lock) {
+            final SubcribersPoller poller = this.subscriberPollersByName.get(pollerName);
+            return poller == null ? null : poller.getDispatcher();
+        }
+    }
+
     @Override
     public void close() {
         log.info("Stopping SubscribersPollersManager for instance id [{}]...", this.vegaContext.getInstanceUniqueId());
@@ -0,0 +1,54 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import lombok.Getter;
+
+/**
+ * Max number of fragments to poll from a subscription on each poll cycle.
+ * <p>
+ * The budget doubles every time the subscription fills it and halves when the subscription uses less than half of it, always between
+ * the given min and max. If both are equal the budget is fixed.
+ * <p>
+ * This class is not thread safe!
+ */
+class SubscriptionPollBudget {
+    /**
+     * Min number of fragments per poll
+     */
+    private final int minFragments;
+
+    /**
+     * Max number of fragments per poll
+     */
+    private final int maxFragments;
+
+    /**
+     * Current number of fragments per poll
+     */
+    @Getter
+    private int fragmentLimit;
+
+    /**
+     * Create a new budget, it starts at the min number of fragments
+     *
+     * @param minFragments min number of fragments per poll
+     * @param maxFragments max number of fragments per poll
+     */
+    SubscriptionPollBudget(final int minFragments, final int maxFragments) {
+        this.minFragments = minFragments;
+        this.maxFragments = maxFragments;
+        this.fragmentLimit = minFragments;
+    }
+
+    /**
+     * Adapt the budget to the result of the last poll
+     *
+     * @param fragmentsRead number of fragments read in the last poll of the subscription
+     */
+    void onPoll(final int fragmentsRead) {
+        if (fragmentsRead >= this.fragmentLimit) {
+            this.fragmentLimit = Math.min(this.fragmentLimit << 1, this.maxFragments);
+        } else if (fragmentsRead < this.fragmentLimit >> 1) {
+            this.fragmentLimit = Math.max(this.fragmentLimit >> 1, this.minFragments);
+        }
+    }
+}
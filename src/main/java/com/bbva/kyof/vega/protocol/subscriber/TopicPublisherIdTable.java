@@ -0,0 +1,201 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import org.agrona.BitUtil;
+import org.agrona.collections.Hashing;
+
+/**
+ * Immutable open addressing hash table of topic publisher information keyed by the two longs of the topic publisher id. <p>
+ * <p>
+ * Lookups don't need to create the UUID of the topic publisher id, so the received messages can be routed without allocations.
+ * Changes return a new copy of the table with the change applied, the readers see either the old or the new table and never need
+ * any lock. The table uses linear probing and is kept at most half full.<p>
+ * <p>
+ * This class is thread safe since it is immutable
+ */
+final class TopicPublisherIdTable {
+    /**
+     * Min number of slots of the table
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Empty table to start from
+     */
+    static final TopicPublisherIdTable EMPTY = new TopicPublisherIdTable(new long[MIN_CAPACITY * 2], new TopicPublisherInfo[MIN_CAPACITY], 0);
+
+    /**
+     * Most and least significant bits of the topic publisher id of each slot, two consecutive positions per slot
+     */
+    private final long[] keys;
+
+    /**
+     * Topic publisher information of each slot, null if the slot is free
+     */
+    private final TopicPublisherInfo[] values;
+
+    /**
+     * Mask to get the slot from a hash
+     */
+    private final int mask;
+
+    /**
+     * Number of topic publishers in the table
+     */
+    private final int size;
+
+    /**
+     * Create a new table with the given contents
+     *
+     * @param keys   bits of the topic publisher ids of each slot
+     * @param values information of each slot
+     * @param size   number of topic publishers
+     */
+    private TopicPublisherIdTable(final long[] keys, final TopicPublisherInfo[] values, final int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = values.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of topic publishers in the table
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Return the information of the topic publisher with the given id
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @return the information of the topic publisher, null if not found
+     */
+    TopicPublisherInfo get(final long topicPubIdMsb, final long topicPubIdLsb) {
+        final int slot = this.findSlot(topicPubIdMsb, topicPubIdLsb);
+        return this.values[slot];
+    }
+
+    /**
+     * Return a copy of the table adding the given topic publisher information, replacing the existing one with the same id
+     *
+     * @param info the topic publisher information to add
+     * @return the new table
+     */
+    TopicPublisherIdTable put(final TopicPublisherInfo info) {
+        final long topicPubIdMsb = info.getTopicPublisherId().getMostSignificantBits();
+        final long topicPubIdLsb = info.getTopicPublisherId().getLeastSignificantBits();
+        final boolean replace = this.values[this.findSlot(topicPubIdMsb, topicPubIdLsb)] != null;
+        final int newSize = replace ? this.size : this.size + 1;
+
+        // Grow the table if it would be more than half full
+        final TopicPublisherIdTable newTable;
+        if (newSize * 2 > this.values.length) {
+            newTable = this.copy(BitUtil.findNextPositivePowerOfTwo(newSize * 2), newSize);
+        } else {
+            newTable = new TopicPublisherIdTable(this.keys.clone(), this.values.clone(), newSize);
+        }
+
+        newTable.putInPlace(topicPubIdMsb, topicPubIdLsb, info);
+        return newTable;
+    }
+
+    /**
+     * Return a copy of the table without the topic publisher with the given id
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @return the new table, or the same table if the topic publisher was not in it
+     */
+    TopicPublisherIdTable remove(final long topicPubIdMsb, final long topicPubIdLsb) {
+        if (this.values[this.findSlot(topicPubIdMsb, topicPubIdLsb)] == null) {
+            return this;
+        }
+
+        final TopicPublisherIdTable newTable = new TopicPublisherIdTable(this.keys.clone(), this.values.clone(), this.size - 1);
+        newTable.removeInPlace(topicPubIdMsb, topicPubIdLsb);
+        return newTable;
+    }
+
+    /**
+     * Find the slot of the topic publisher with the given id, or the free slot where it should be added
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @return the slot found
+     */
+    private int findSlot(final long topicPubIdMsb, final long topicPubIdLsb) {
+        int slot = Hashing.hash(topicPubIdMsb ^ topicPubIdLsb, this.mask);
+
+        while (this.values[slot] != null) {
+            if (this.keys[slot * 2] == topicPubIdMsb && this.keys[slot * 2 + 1] == topicPubIdLsb) {
+                return slot;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Create a copy of the table with a new capacity, used to grow the table
+     *
+     * @param capacity new number of slots, power of 2
+     * @param newSize  number of topic publishers of the new table
+     * @return the new table
+     */
+    private TopicPublisherIdTable copy(final int capacity, final int newSize) {
+        final TopicPublisherIdTable newTable = new TopicPublisherIdTable(new long[capacity * 2], new TopicPublisherInfo[capacity], newSize);
+
+        for (int i = 0; i < this.values.length; i++) {
+            if (this.values[i] != null) {
+                newTable.putInPlace(this.keys[i * 2], this.keys[i * 2 + 1], this.values[i]);
+            }
+        }
+
+        return newTable;
+    }
+
+    /**
+     * Add or replace an entry, only used on new copies of the table before they are published
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     * @param info          the topic publisher information
+     */
+    private void putInPlace(final long topicPubIdMsb, final long topicPubIdLsb, final TopicPublisherInfo info) {
+        final int slot = this.findSlot(topicPubIdMsb, topicPubIdLsb);
+        this.keys[slot * 2] = topicPubIdMsb;
+        this.keys[slot * 2 + 1] = topicPubIdLsb;
+        this.values[slot] = info;
+    }
+
+    /**
+     * Remove an existing entry shifting back the following entries of the probe sequence, only used on new copies of the table
+     * before they are published
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id
+     * @param topicPubIdLsb least significant bits of the topic publisher id
+     */
+    private void removeInPlace(final long topicPubIdMsb, final long topicPubIdLsb) {
+        int freeSlot = this.findSlot(topicPubIdMsb, topicPubIdLsb);
+        this.values[freeSlot] = null;
+
+        int slot = (freeSlot + 1) & this.mask;
+        while (this.values[slot] != null) {
+            final int idealSlot = Hashing.hash(this.keys[slot * 2] ^ this.keys[slot * 2 + 1], this.mask);
+
+            // Move the entry to the free slot if the free slot is between its ideal slot and its current slot
+            if (((slot - idealSlot) & this.mask) >= ((slot - freeSlot) & this.mask)) {
+                this.keys[freeSlot * 2] = this.keys[slot * 2];
+                this.keys[freeSlot * 2 + 1] = this.keys[slot * 2 + 1];
+                this.values[freeSlot] = this.values[slot];
+                this.values[slot] = null;
+                freeSlot = slot;
+            }
+
+            slot = (slot + 1) & this.mask;
+        }
+    }
+}
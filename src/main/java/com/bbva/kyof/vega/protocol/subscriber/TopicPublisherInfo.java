@@ -0,0 +1,116 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Information of a topic publisher related to a topic subscriber, resolved on reception from the topic publisher id or from the handle
+ * of a topic publisher that sends data messages with the compact header.
+ * <p>
+ * It also keeps the next sequence number expected from the topic publisher, this way the losses are checked with the same object that
+ * has been resolved to route the message.
+ * <p>
+ * The ids and the topic subscriber are immutable, the expected sequence number, the pending gap and the reorder window are only accessed
+ * by the poller thread of the topic subscriber
+ */
+@RequiredArgsConstructor
+class TopicPublisherInfo {
+    /**
+     * Value of the expected sequence number before receiving anything from the topic publisher
+     */
+    static final long NO_SEQUENCE_NUMBER = Long.MIN_VALUE;
+
+    /**
+     * Unique id of the instance of the topic publisher
+     */
+    @Getter
+    private final UUID instanceId;
+
+    /**
+     * Unique id of the topic publisher
+     */
+    @Getter
+    private final UUID topicPublisherId;
+
+    /**
+     * Topic subscriber related to the topic publisher
+     */
+    @Getter
+    private final TopicSubscriber topicSubscriber;
+
+    /**
+     * Next sequence number expected from the topic publisher, {@link #NO_SEQUENCE_NUMBER} if nothing has been received yet
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private long expectedSequenceNumber = NO_SEQUENCE_NUMBER;
+
+    /**
+     * Sequence number of the first message of the gap waiting for retransmission, {@link #NO_SEQUENCE_NUMBER} if there is no pending gap
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private long gapFirstSequenceNumber = NO_SEQUENCE_NUMBER;
+
+    /**
+     * Sequence number of the last message of the gap waiting for retransmission
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private long gapLastSequenceNumber = NO_SEQUENCE_NUMBER;
+
+    /**
+     * Time in nanoseconds when the messages of the pending gap will be reported as lost
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private long gapDeadlineNanos;
+
+    /**
+     * Window of the out of order messages held until the missing ones arrive, created on first use if reordering is enabled
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private RcvReorderWindow reorderWindow;
+
+    /**
+     * Set the gap waiting for retransmission
+     *
+     * @param firstSequenceNumber sequence number of the first lost message
+     * @param lastSequenceNumber  sequence number of the last lost message
+     * @param deadlineNanos       time in nanoseconds when the messages will be reported as lost
+     */
+    void setPendingGap(final long firstSequenceNumber, final long lastSequenceNumber, final long deadlineNanos) {
+        this.gapFirstSequenceNumber = firstSequenceNumber;
+        this.gapLastSequenceNumber = lastSequenceNumber;
+        this.gapDeadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Forget the gap waiting for retransmission
+     */
+    void clearPendingGap() {
+        this.gapFirstSequenceNumber = NO_SEQUENCE_NUMBER;
+        this.gapLastSequenceNumber = NO_SEQUENCE_NUMBER;
+    }
+
+    /**
+     * @return true if there is a gap waiting for retransmission
+     */
+    boolean hasPendingGap() {
+        return this.gapFirstSequenceNumber != NO_SEQUENCE_NUMBER;
+    }
+
+    /**
+     * Check if a sequence number belongs to the gap waiting for retransmission
+     *
+     * @param sequenceNumber the sequence number to check
+     * @return true if there is a pending gap and it contains the sequence number
+     */
+    boolean isInPendingGap(final long sequenceNumber) {
+        return this.hasPendingGap() && sequenceNumber >= this.gapFirstSequenceNumber && sequenceNumber <= this.gapLastSequenceNumber;
+    }
+}
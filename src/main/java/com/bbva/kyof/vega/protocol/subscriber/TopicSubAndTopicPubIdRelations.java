@@ -1,10 +1,14 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.util.collection.HashMapOfHashSet;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntHashSet;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class helps to manage the relationships between topic subscribers and topic publishers.<p>
@@ -14,19 +18,42 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * The topic publishers can be local or remote from other instances.<p>
  * <p>
+ * The topic publishers are stored by id in a primitive table that is copied on each change, the changes are only performed by
+ * auto-discovery and the receiver threads resolve the ids from the bits of the received headers without locks or allocations.<p>
+ * <p>
+ * The topic publishers that send data messages with the compact header are also stored by handle. The handle table is copied on
+ * each change, the changes are only performed by auto-discovery and the receiver threads resolve the handles without locks.<p>
+ * <p>
  * This class is thread safe
  */
+@Slf4j
 class TopicSubAndTopicPubIdRelations {
     /**
-     * Store the topic subscribers by the topic publisher id that publish on the same topic name. <p>
+     * Information of the topic publishers by topic publisher id, including the topic subscriber of the same topic name.
+     * It is replaced by a new copy on each change
      */
-    private final Map<UUID, TopicSubscriber> topicSubsByTopicPubId = new ConcurrentHashMap<>();
+    private volatile TopicPublisherIdTable topicPubInfosByTopicPubId = TopicPublisherIdTable.EMPTY;
 
     /**
      * Set of topic publisher id's by topic subscriber id. This map is used during unsubscriptions
      */
     private final HashMapOfHashSet<UUID, UUID> topicPubsByTopicSubId = new HashMapOfHashSet<>();
 
+    /**
+     * Information of the topic publishers by handle, it is replaced by a new copy on each change
+     */
+    private volatile Int2ObjectHashMap<TopicPublisherInfo> handleInfosByHandle = new Int2ObjectHashMap<>();
+
+    /**
+     * Handle of the topic publishers by topic publisher id, only for the topic publishers that have a handle
+     */
+    private final Map<UUID, Integer> handlesByTopicPubId = new HashMap<>();
+
+    /**
+     * Handles used by more than one topic publisher, they are never resolved again
+     */
+    private final IntHashSet collidedHandles = new IntHashSet();
+
     /**
      * Lock for instance synchronization
      */
@@ -41,9 +68,58 @@ class TopicSubAndTopicPubIdRelations {
      * @param topicSubscriber the topic subscriber
      */
     void addTopicPubRelation(final UUID topicPubId, final TopicSubscriber topicSubscriber) {
+        this.addTopicPubRelation(topicPubId, null, AutoDiscTopicInfo.NO_PUBLISHER_HANDLE, topicSubscriber);
+    }
+
+    /**
+     * Add a relationshipt between a topic publisher id and a topic subscriber, storing as well the handle of the topic publisher
+     * if it sends data messages with the compact header. Both should share the topic name.
+     * <p>
+     * If the handle is already used by a different topic publisher it cannot be resolved, a warning is logged and the handle is removed.
+     * The compact data messages with the handle are rejected until the topic publishers detect the collision and fall back to the full header.
+     *
+     * @param topicPubId      the topic publisher id
+     * @param instanceId      the instance id of the topic publisher
+     * @param publisherHandle the handle of the topic publisher, {@link AutoDiscTopicInfo#NO_PUBLISHER_HANDLE} if it has no handle
+     * @param topicSubscriber the topic subscriber
+     */
+    void addTopicPubRelation(final UUID topicPubId, final UUID instanceId, final int publisherHandle, final TopicSubscriber topicSubscriber) {
         synchronized (this.lock) {
-            this.topicSubsByTopicPubId.put(topicPubId, topicSubscriber);
+            // If the relation already exists keep the information, it contains the expected sequence number of the topic publisher
+            final TopicPublisherInfo existingPubInfo = this.topicPubInfosByTopicPubId.get(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits());
+            final TopicPublisherInfo topicPubInfo;
+            if (existingPubInfo != null && existingPubInfo.getTopicSubscriber() == topicSubscriber) {
+                topicPubInfo = existingPubInfo;
+            } else {
+                topicPubInfo = new TopicPublisherInfo(instanceId, topicPubId, topicSubscriber);
+                this.topicPubInfosByTopicPubId = this.topicPubInfosByTopicPubId.put(topicPubInfo);
+            }
             this.topicPubsByTopicSubId.put(topicSubscriber.getUniqueId(), topicPubId);
+
+            if (publisherHandle == AutoDiscTopicInfo.NO_PUBLISHER_HANDLE || this.collidedHandles.contains(publisherHandle)) {
+                return;
+            }
+
+            final TopicPublisherInfo existingInfo = this.handleInfosByHandle.get(publisherHandle);
+            if (existingInfo != null && existingInfo.getTopicPublisherId().equals(topicPubId)) {
+                return;
+            }
+
+            final Int2ObjectHashMap<TopicPublisherInfo> newHandleInfos = new Int2ObjectHashMap<>(this.handleInfosByHandle);
+
+            if (existingInfo == null) {
+                newHandleInfos.put(publisherHandle, topicPubInfo);
+                this.handlesByTopicPubId.put(topicPubId, publisherHandle);
+            } else {
+                log.warn("Publisher handle [{}] of topic publisher [{}] collides with topic publisher [{}], their compact data messages will be rejected " +
+                        "until they fall back to the full data header", publisherHandle, topicPubId, existingInfo.getTopicPublisherId());
+
+                this.collidedHandles.add(publisherHandle);
+                newHandleInfos.remove(publisherHandle);
+                this.handlesByTopicPubId.remove(existingInfo.getTopicPublisherId());
+            }
+
+            this.handleInfosByHandle = newHandleInfos;
         }
     }
 
@@ -57,9 +133,8 @@ class TopicSubAndTopicPubIdRelations {
      */
     void removeTopicPubRelation(final UUID topicPubId, final TopicSubscriber topicSubscriber) {
         synchronized (this.lock) {
-            this.topicSubsByTopicPubId.remove(topicPubId);
+            this.removeTopicPub(topicPubId);
             this.topicPubsByTopicSubId.remove(topicSubscriber.getUniqueId(), topicPubId);
-            topicSubscriber.onTopicPublisherRemoved(topicPubId);
         }
     }
 
@@ -70,7 +145,7 @@ class TopicSubAndTopicPubIdRelations {
      */
     void removeTopicSubscriber(final TopicSubscriber topicSubscriber) {
         synchronized (this.lock) {
-            this.topicPubsByTopicSubId.removeAndConsumeIfKeyEquals(topicSubscriber.getUniqueId(), this.topicSubsByTopicPubId::remove);
+            this.topicPubsByTopicSubId.removeAndConsumeIfKeyEquals(topicSubscriber.getUniqueId(), this::removeTopicPub);
         }
     }
 
@@ -80,7 +155,10 @@ class TopicSubAndTopicPubIdRelations {
     public void clear() {
         synchronized (this.lock) {
             this.topicPubsByTopicSubId.clear();
-            this.topicSubsByTopicPubId.clear();
+            this.topicPubInfosByTopicPubId = TopicPublisherIdTable.EMPTY;
+            this.handlesByTopicPubId.clear();
+            this.collidedHandles.clear();
+            this.handleInfosByHandle = new Int2ObjectHashMap<>();
         }
     }
 
@@ -91,6 +169,44 @@ class TopicSubAndTopicPubIdRelations {
      * @return the topic subscriber that matches, null in none
      */
     TopicSubscriber getTopicSubscriberForTopicPublisherId(final UUID topicPublisherId) {
-        return this.topicSubsByTopicPubId.get(topicPublisherId);
+        final TopicPublisherInfo topicPubInfo = this.getTopicPublisher(topicPublisherId.getMostSignificantBits(), topicPublisherId.getLeastSignificantBits());
+        return topicPubInfo == null ? null : topicPubInfo.getTopicSubscriber();
+    }
+
+    /**
+     * Return the information of the topic publisher with the given id if any, it doesn't allocate memory
+     *
+     * @param topicPubIdMsb most significant bits of the topic publisher id to look for
+     * @param topicPubIdLsb least significant bits of the topic publisher id to look for
+     * @return the information of the topic publisher that matches, null if none
+     */
+    TopicPublisherInfo getTopicPublisher(final long topicPubIdMsb, final long topicPubIdLsb) {
+        return this.topicPubInfosByTopicPubId.get(topicPubIdMsb, topicPubIdLsb);
+    }
+
+    /**
+     * Return the information of the topic publisher with the given handle if any
+     *
+     * @param publisherHandle the handle of the topic publisher to look for
+     * @return the information of the topic publisher that matches, null if none
+     */
+    TopicPublisherInfo getTopicPublisherForHandle(final int publisherHandle) {
+        return this.handleInfosByHandle.get(publisherHandle);
+    }
+
+    /**
+     * Remove the topic subscriber and the handle stored for the given topic publisher id, it should be called holding the lock
+     *
+     * @param topicPubId the topic publisher id
+     */
+    private void removeTopicPub(final UUID topicPubId) {
+        this.topicPubInfosByTopicPubId = this.topicPubInfosByTopicPubId.remove(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits());
+
+        final Integer publisherHandle = this.handlesByTopicPubId.remove(topicPubId);
+        if (publisherHandle != null) {
+            final Int2ObjectHashMap<TopicPublisherInfo> newHandleInfos = new Int2ObjectHashMap<>(this.handleInfosByHandle);
+            newHandleInfos.remove(publisherHandle.intValue());
+            this.handleInfosByHandle = newHandleInfos;
+        }
     }
 }
@@ -3,10 +3,13 @@ package com.bbva.kyof.vega.protocol.subscriber;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.msg.RcvMessageBatch;
 import com.bbva.kyof.vega.msg.RcvRequest;
+import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
 import com.bbva.kyof.vega.msg.lost.MsgLostReport;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Closeable;
@@ -15,6 +18,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -23,6 +27,26 @@ import java.util.function.Consumer;
  * <p>
  * The class assumes that listeners changes and aeron subscriber changes are always performed in thread-safe mode. It allows concurrent actions
  * of change listeners and receive messages.
+ * <p>
+ * The messages of a topic subscriber are always received by the same poller thread, the loss detection relies on it to keep the expected
+ * sequence numbers and the loss report without synchronization.
+ * <p>
+ * If the poller of the topic has dispatch workers, the listeners are called by the worker assigned to the topic subscriber instead of the
+ * poller thread. The loss detection is still performed by the poller thread.
+ * <p>
+ * The messages for {@link ITopicBatchSubListener} listeners are accumulated in a batch that is delivered at the end of the poll cycle
+ * by the flusher of the thread that calls the listeners.
+ * <p>
+ * If gap recovery is enabled in the topic template, the retransmission of a gap is requested to the topic publisher instead of reporting
+ * the loss. The following messages are delivered normally and the retransmitted ones are delivered as they arrive, the messages that
+ * are not received before the gap fill timeout are reported as lost by the {@link RcvGapRecovery} of the poller. Only one gap per topic
+ * publisher is recovered at a time, the gaps found while another one is pending are reported immediately.
+ * <p>
+ * If reordering is enabled in the topic template, the messages that arrive ahead of a gap are held in the {@link RcvReorderWindow} of
+ * the topic publisher and delivered in order once the missing ones arrive. The missing messages are reported as lost when the reorder
+ * timeout of the poller expires, or when a message too far ahead or a request forces the release of the window. With gap recovery the
+ * retransmission of the missing messages is requested and the window is held until the gap is filled or expires. The messages released
+ * from the window are not the ones being polled, an ABORT of the listeners is ignored for them.
  */
 @Slf4j
 class TopicSubscriber implements Closeable {
@@ -60,11 +84,86 @@ class TopicSubscriber implements Closeable {
     private final Set<AeronSubscriber> aeronSubscribers = new HashSet<>();
 
     /**
-     * Stores the sequence number for each TopicId
+     * Reusable report for the detected losses, it is only valid during the listener callbacks
+     */
+    private final MsgLostReport reusableLostReport = new MsgLostReport(null, null, 0, null);
+
+    /**
+     * Worker that calls the listeners, null if they are called by the poller thread
+     */
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private volatile RcvDispatchWorker dispatchWorker;
+
+    /**
+     * Flusher of the thread that calls the listeners, it delivers the pending batch at the end of the poll cycle. If null the batch is
+     * delivered for each message
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile RcvBatchFlusher batchFlusher;
+
+    /**
+     * Gap recovery of the poller thread, null if gap recovery is not enabled for the topic
+     */
+    @Setter(AccessLevel.PACKAGE)
+    private volatile RcvGapRecovery gapRecovery;
+
+    /**
+     * Max time in nanoseconds to wait for the retransmission of a gap
+     */
+    private final long gapFillTimeoutNanos;
+
+    /**
+     * Reorder timeouts of the poller thread, null if reordering is not enabled for the topic
      */
-    @Getter(AccessLevel.PROTECTED)
-    private final ConcurrentMap<UUID, AtomicLong> expectedSeqNumByTopicPubId = new ConcurrentHashMap<>();
+    @Setter(AccessLevel.PACKAGE)
+    private volatile RcvReorderTimeouts reorderTimeouts;
 
+    /**
+     * Max number of out of order messages held per topic publisher
+     */
+    private final int reorderWindowSize;
+
+    /**
+     * Max time in nanoseconds the out of order messages are held
+     */
+    private final long reorderTimeoutNanos;
+
+    /**
+     * True if any of the listeners receives the messages in batches
+     */
+    private volatile boolean hasBatchListeners = false;
+
+    /**
+     * Messages waiting to be delivered to the batch listeners, created on first use. Only accessed by the thread that calls the listeners
+     */
+    private RcvMessageBatch pendingBatch;
+
+    /**
+     * True if the topic subscriber has been added to the flusher for the pending batch
+     */
+    private boolean batchFlushScheduled = false;
+
+    /**
+     * Messages discarded by the dispatch worker because its queue was full, they are reported as lost with the next dispatched entry
+     */
+    private final AtomicLong pendingDispatchDrops = new AtomicLong();
+
+    /**
+     * Count a message discarded by the dispatch worker because its queue was full
+     */
+    void addDispatchDrop() {
+        this.pendingDispatchDrops.incrementAndGet();
+    }
+
+    /**
+     * Return the messages discarded by the dispatch worker since the last call and reset the count
+     *
+     * @return the number of discarded messages
+     */
+    long takeDispatchDrops() {
+        return this.pendingDispatchDrops.get() == 0 ? 0 : this.pendingDispatchDrops.getAndSet(0);
+    }
 
     /**
      * Constructs a new topic subscriber
@@ -75,74 +174,459 @@ class TopicSubscriber implements Closeable {
     TopicSubscriber(final String topicName, final TopicTemplateConfig topicConfig) {
         this.topicName = topicName;
         this.topicConfig = topicConfig;
+        this.gapFillTimeoutNanos = topicConfig.isGapRecoveryEnabled() ? TimeUnit.MILLISECONDS.toNanos(topicConfig.getGapFillTimeout()) : 0;
+        this.reorderWindowSize = topicConfig.isReorderingEnabled() ? topicConfig.getReorderWindowSize() : 0;
+        this.reorderTimeoutNanos = topicConfig.isReorderingEnabled() ? TimeUnit.MILLISECONDS.toNanos(topicConfig.getReorderTimeout()) : 0;
     }
 
     /**
      * Method called when a message is received.
      *
+     * @param topicPubInfo    information of the topic publisher that sent the message
+     * @param receivedMessage the received message
+     * @return the most restrictive action returned by the listeners, CONTINUE if the message is not delivered by the caller thread
+     */
+    RcvAction onMessageReceived(final TopicPublisherInfo topicPubInfo, final RcvMessage receivedMessage) {
+        final RcvReorderTimeouts currentReorderTimeouts = this.reorderTimeouts;
+        if (currentReorderTimeouts != null && this.holdIfOutOfOrder(currentReorderTimeouts, topicPubInfo, receivedMessage)) {
+            return RcvAction.CONTINUE;
+        }
+
+        final MsgLostReport lostReport = this.checkLoss(topicPubInfo, receivedMessage.getSequenceNumber(), receivedMessage.getTopicName());
+
+        if (!notDuplicatedData(lostReport)) {
+            return RcvAction.CONTINUE;
+        }
+
+        final RcvDispatchWorker currentDispatchWorker = this.dispatchWorker;
+        if (currentDispatchWorker != null) {
+            currentDispatchWorker.dispatchMessage(this, lostReport, receivedMessage);
+            this.releaseHeldMessages(topicPubInfo, TopicPublisherInfo.NO_SEQUENCE_NUMBER);
+            return RcvAction.CONTINUE;
+        }
+
+        final RcvAction action = this.deliverMessage(lostReport, receivedMessage);
+        this.onDeliveryAction(topicPubInfo, receivedMessage.getSequenceNumber(), action);
+
+        if (action != RcvAction.ABORT) {
+            this.releaseHeldMessages(topicPubInfo, TopicPublisherInfo.NO_SEQUENCE_NUMBER);
+        }
+
+        return action;
+    }
+
+    /**
+     * Hold a message that arrives ahead of the expected one in the reorder window of the topic publisher
+     *
+     * @param currentReorderTimeouts reorder timeouts of the poller
+     * @param topicPubInfo           information of the topic publisher that sent the message
+     * @param receivedMessage        the received message
+     * @return true if the message has been held or it was already held, false if it has to be processed now
+     */
+    private boolean holdIfOutOfOrder(final RcvReorderTimeouts currentReorderTimeouts, final TopicPublisherInfo topicPubInfo, final RcvMessage receivedMessage) {
+        final long sequenceNumber = receivedMessage.getSequenceNumber();
+
+        // First message, in order or duplicated
+        if (topicPubInfo.getExpectedSequenceNumber() == TopicPublisherInfo.NO_SEQUENCE_NUMBER || sequenceNumber <= topicPubInfo.getExpectedSequenceNumber()) {
+            return false;
+        }
+
+        RcvReorderWindow window = topicPubInfo.getReorderWindow();
+        if (window == null) {
+            window = new RcvReorderWindow(this.reorderWindowSize);
+            topicPubInfo.setReorderWindow(window);
+        }
+
+        // Too far ahead, release the held messages before it and hold it only if it fits now
+        if (sequenceNumber - topicPubInfo.getExpectedSequenceNumber() >= window.getWindowSize()) {
+            this.releaseHeldMessages(topicPubInfo, sequenceNumber);
+
+            final long expectedSequenceNumber = topicPubInfo.getExpectedSequenceNumber();
+            if (sequenceNumber <= expectedSequenceNumber || sequenceNumber - expectedSequenceNumber >= window.getWindowSize()) {
+                this.abandonPendingGap(topicPubInfo);
+                return false;
+            }
+        }
+
+        final boolean wasEmpty = window.isEmpty();
+
+        // Already held, it is a duplicate
+        if (!window.hold(receivedMessage)) {
+            return true;
+        }
+
+        if (wasEmpty) {
+            currentReorderTimeouts.add(topicPubInfo);
+            this.waitForMissingMessages(topicPubInfo, window);
+        } else if (topicPubInfo.isInPendingGap(sequenceNumber)) {
+            // The pending gap always ends before the first held message, the rest is requested again if it is still missing
+            topicPubInfo.setGapLastSequenceNumber(sequenceNumber - 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Start waiting for the messages missing before the first held message. The retransmission is requested if gap recovery is enabled.
+     *
+     * @param topicPubInfo information of the topic publisher
+     * @param window       the reorder window of the topic publisher, it should not be empty
+     */
+    private void waitForMissingMessages(final TopicPublisherInfo topicPubInfo, final RcvReorderWindow window) {
+        window.setDeadlineNanos(System.nanoTime() + this.reorderTimeoutNanos);
+
+        final RcvGapRecovery currentGapRecovery = this.gapRecovery;
+        if (currentGapRecovery != null && !topicPubInfo.hasPendingGap()) {
+            final long expectedSequenceNumber = topicPubInfo.getExpectedSequenceNumber();
+            currentGapRecovery.openGap(topicPubInfo, expectedSequenceNumber, window.findFirstHeld(expectedSequenceNumber) - 1, this.gapFillTimeoutNanos);
+        }
+    }
+
+    /**
+     * Release the held messages of a topic publisher that follow the expected sequence number. The missing messages before a held one
+     * are reported as lost if the held message is before the given sequence number.
+     *
+     * @param topicPubInfo       information of the topic publisher
+     * @param skipBeforeSequence the missing messages before this sequence number are skipped, {@link TopicPublisherInfo#NO_SEQUENCE_NUMBER}
+     *                           to release only the messages in order
+     */
+    private void releaseHeldMessages(final TopicPublisherInfo topicPubInfo, final long skipBeforeSequence) {
+        final RcvReorderWindow window = topicPubInfo.getReorderWindow();
+        if (window == null || window.isEmpty()) {
+            return;
+        }
+
+        while (!window.isEmpty()) {
+            final long expectedSequenceNumber = topicPubInfo.getExpectedSequenceNumber();
+            RcvMessage heldMessage = window.get(expectedSequenceNumber);
+            MsgLostReport lostReport = null;
+
+            if (heldMessage == null) {
+                final long firstHeld = window.findFirstHeld(expectedSequenceNumber);
+                if (firstHeld == TopicPublisherInfo.NO_SEQUENCE_NUMBER || firstHeld >= skipBeforeSequence) {
+                    break;
+                }
+
+                // The missing messages are reported with the held one, the pending gap is given up
+                this.abandonPendingGap(topicPubInfo);
+                heldMessage = window.get(firstHeld);
+                lostReport = this.fillLostReport(topicPubInfo, heldMessage.getTopicName(), firstHeld - expectedSequenceNumber);
+            }
+
+            topicPubInfo.setExpectedSequenceNumber(heldMessage.getSequenceNumber() + 1);
+
+            final RcvDispatchWorker currentDispatchWorker = this.dispatchWorker;
+            if (currentDispatchWorker == null) {
+                this.deliverMessage(lostReport, heldMessage);
+            } else {
+                currentDispatchWorker.dispatchMessage(this, lostReport, heldMessage);
+            }
+
+            window.remove(heldMessage.getSequenceNumber());
+        }
+
+        final RcvReorderTimeouts currentReorderTimeouts = this.reorderTimeouts;
+        if (window.isEmpty()) {
+            if (currentReorderTimeouts != null) {
+                currentReorderTimeouts.remove(topicPubInfo);
+            }
+        } else {
+            this.waitForMissingMessages(topicPubInfo, window);
+        }
+    }
+
+    /**
+     * Give up the gap pending of retransmission before the held messages of a topic publisher, the caller reports the messages as lost.
+     * A gap behind the expected sequence number is kept.
+     *
+     * @param topicPubInfo information of the topic publisher
+     */
+    private void abandonPendingGap(final TopicPublisherInfo topicPubInfo) {
+        final RcvGapRecovery currentGapRecovery = this.gapRecovery;
+        if (currentGapRecovery != null && topicPubInfo.hasPendingGap() &&
+                topicPubInfo.getGapFirstSequenceNumber() >= topicPubInfo.getExpectedSequenceNumber()) {
+            currentGapRecovery.abandonGap(topicPubInfo);
+        }
+    }
+
+    /**
+     * Method called by the reorder timeouts of the poller when the held messages of a topic publisher have waited too long. All the held
+     * messages are released and the missing ones reported as lost.
+     *
+     * @param topicPubInfo information of the topic publisher
+     */
+    void onReorderWindowExpired(final TopicPublisherInfo topicPubInfo) {
+        this.releaseHeldMessages(topicPubInfo, Long.MAX_VALUE);
+    }
+
+    /**
+     * Deliver a received message to the listeners, preceded by the loss report if there has been a loss
+     *
+     * @param lostReport      report of the messages lost before this one, null if none
      * @param receivedMessage the received message
+     * @return the most restrictive action returned by the listeners
      */
-    void onMessageReceived(final RcvMessage receivedMessage) {
+    RcvAction deliverMessage(final IMsgLostReport lostReport, final RcvMessage receivedMessage) {
+        // The messages already in the batch go before the loss
+        if (lostReport != null) {
+            this.flushBatch();
+        }
+
+        RcvAction action = RcvAction.CONTINUE;
+
         final ITopicSubListener currentNormalListener = this.normalListener;
-        // log.warn("Received seq number, {}", receivedMessage.getSequenceNumber());
-        final MsgLostReport lostReport = this.checkMessageLoss(receivedMessage);
 
-        if (notDuplicatedData(lostReport) && currentNormalListener != null) {
+        if (currentNormalListener != null) {
             if (lostReport != null) {
-                this.normalListener.onMessageLost(lostReport);
+                currentNormalListener.onMessageLost(lostReport);
             }
 
-            this.normalListener.onMessageReceived(receivedMessage);
+            if (!(currentNormalListener instanceof ITopicBatchSubListener)) {
+                action = currentNormalListener.onControlledMessageReceived(receivedMessage);
+            }
         }
 
-        if (notDuplicatedData(lostReport) && !this.patternListenersByPattern.isEmpty()) {
+        if (!this.patternListenersByPattern.isEmpty()) {
             if (lostReport != null) {
                 this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
             }
 
-            this.patternListenersByPattern.forEach((key, value) -> value.onMessageReceived(receivedMessage));
+            for (final ITopicSubListener patternListener : this.patternListenersByPattern.values()) {
+                if (!(patternListener instanceof ITopicBatchSubListener)) {
+                    action = action.mostRestrictive(patternListener.onControlledMessageReceived(receivedMessage));
+                }
+            }
+        }
+
+        // An aborted message will be received again
+        if (this.hasBatchListeners && action != RcvAction.ABORT) {
+            this.addToBatch(receivedMessage);
+        }
+
+        return action;
+    }
+
+    /**
+     * Add a copy of a received message to the pending batch and schedule the delivery of the batch
+     *
+     * @param receivedMessage the received message
+     */
+    private void addToBatch(final RcvMessage receivedMessage) {
+        if (this.pendingBatch == null) {
+            this.pendingBatch = new RcvMessageBatch();
+        }
+
+        this.pendingBatch.add(receivedMessage);
+
+        final RcvBatchFlusher currentBatchFlusher = this.batchFlusher;
+        if (currentBatchFlusher == null) {
+            this.flushBatch();
+        } else if (!this.batchFlushScheduled) {
+            this.batchFlushScheduled = true;
+            currentBatchFlusher.addPending(this);
+        }
+    }
+
+    /**
+     * Deliver the pending batch to the batch listeners, called by the flusher at the end of the poll cycle or before delivering a request
+     * or loss to keep the order
+     */
+    void flushBatch() {
+        this.batchFlushScheduled = false;
+
+        final RcvMessageBatch batch = this.pendingBatch;
+        if (batch == null || batch.size() == 0) {
+            return;
+        }
+
+        try {
+            final ITopicSubListener currentNormalListener = this.normalListener;
+            if (currentNormalListener instanceof ITopicBatchSubListener) {
+                ((ITopicBatchSubListener) currentNormalListener).onMessages(batch);
+            }
+
+            if (!this.patternListenersByPattern.isEmpty()) {
+                this.patternListenersByPattern.forEach((key, value) -> {
+                    if (value instanceof ITopicBatchSubListener) {
+                        ((ITopicBatchSubListener) value).onMessages(batch);
+                    }
+                });
+            }
+        } finally {
+            batch.clear();
         }
     }
 
     /**
      * Method called when a request message is received.
      *
+     * @param topicPubInfo    information of the topic publisher that sent the request
      * @param receivedRequest the received request
+     * @return the most restrictive action returned by the listeners, CONTINUE if the request is not delivered by the caller thread
      */
-    void onRequestReceived(final RcvRequest receivedRequest) {
-        final MsgLostReport lostReport = this.checkMessageLoss(receivedRequest);
+    RcvAction onRequestReceived(final TopicPublisherInfo topicPubInfo, final RcvRequest receivedRequest) {
+        // The requests are not held, the held messages before the request are released first
+        if (this.reorderTimeouts != null && receivedRequest.getSequenceNumber() > topicPubInfo.getExpectedSequenceNumber() &&
+                topicPubInfo.getExpectedSequenceNumber() != TopicPublisherInfo.NO_SEQUENCE_NUMBER) {
+            this.releaseHeldMessages(topicPubInfo, receivedRequest.getSequenceNumber());
+            this.abandonPendingGap(topicPubInfo);
+        }
+
+        final MsgLostReport lostReport = this.checkLoss(topicPubInfo, receivedRequest.getSequenceNumber(), receivedRequest.getTopicName());
 
-        if (notDuplicatedData(lostReport) && this.normalListener != null) {
+        if (!notDuplicatedData(lostReport)) {
+            return RcvAction.CONTINUE;
+        }
+
+        final RcvDispatchWorker currentDispatchWorker = this.dispatchWorker;
+        if (currentDispatchWorker != null) {
+            currentDispatchWorker.dispatchRequest(this, lostReport, receivedRequest);
+            this.releaseHeldMessages(topicPubInfo, TopicPublisherInfo.NO_SEQUENCE_NUMBER);
+            return RcvAction.CONTINUE;
+        }
+
+        final RcvAction action = this.deliverRequest(lostReport, receivedRequest);
+        this.onDeliveryAction(topicPubInfo, receivedRequest.getSequenceNumber(), action);
+
+        if (action != RcvAction.ABORT) {
+            this.releaseHeldMessages(topicPubInfo, TopicPublisherInfo.NO_SEQUENCE_NUMBER);
+        }
+
+        return action;
+    }
+
+    /**
+     * Process the action of the listeners after delivering a message or request. If aborted, the message will be received again and
+     * the expected sequence number is moved back so it is not taken as duplicated. If it was a retransmitted message the pending gap is
+     * moved back instead. The loss report, if any, is not repeated.
+     *
+     * @param topicPubInfo   information of the topic publisher that sent the message
+     * @param sequenceNumber the sequence number of the message
+     * @param action         the action returned by the listeners
+     */
+    private void onDeliveryAction(final TopicPublisherInfo topicPubInfo, final long sequenceNumber, final RcvAction action) {
+        if (action != RcvAction.ABORT) {
+            return;
+        }
+
+        final RcvGapRecovery currentGapRecovery = this.gapRecovery;
+        if (currentGapRecovery != null && topicPubInfo.getExpectedSequenceNumber() != sequenceNumber + 1) {
+            currentGapRecovery.onGapMsgAborted(topicPubInfo, sequenceNumber, this.gapFillTimeoutNanos);
+        } else {
+            topicPubInfo.setExpectedSequenceNumber(sequenceNumber);
+        }
+    }
+
+    /**
+     * Deliver a received request to the listeners, preceded by the loss report if there has been a loss
+     *
+     * @param lostReport      report of the messages lost before this one, null if none
+     * @param receivedRequest the received request
+     * @return the most restrictive action returned by the listeners
+     */
+    RcvAction deliverRequest(final IMsgLostReport lostReport, final RcvRequest receivedRequest) {
+        // The messages already in the batch go before the request
+        this.flushBatch();
+
+        RcvAction action = RcvAction.CONTINUE;
+
+        final ITopicSubListener currentNormalListener = this.normalListener;
+
+        if (currentNormalListener != null) {
             if (lostReport != null) {
-                this.normalListener.onMessageLost(lostReport);
+                currentNormalListener.onMessageLost(lostReport);
             }
 
-            this.normalListener.onRequestReceived(receivedRequest);
+            action = currentNormalListener.onControlledRequestReceived(receivedRequest);
         }
 
-        if (notDuplicatedData(lostReport) && !this.patternListenersByPattern.isEmpty()) {
+        if (!this.patternListenersByPattern.isEmpty()) {
             if (lostReport != null) {
                 this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
             }
 
-            this.patternListenersByPattern.forEach((key, value) -> value.onRequestReceived(receivedRequest));
+            for (final ITopicSubListener patternListener : this.patternListenersByPattern.values()) {
+                action = action.mostRestrictive(patternListener.onControlledRequestReceived(receivedRequest));
+            }
         }
+
+        return action;
     }
 
     /**
      * Method called when a heartbeat request message is received.
      *
+     * @param topicPubInfo          information of the topic publisher that sent the heartbeat
      * @param heartbeatReqMsgHeader the received heartbeat header request
      * @param topicName             The name of the target topic
      */
-    void onHeartbeatReceived(final MsgReqHeader heartbeatReqMsgHeader, final String topicName) {
-        final MsgLostReport lostReport = this.checkHeartbeatLoss(heartbeatReqMsgHeader, topicName);
+    void onHeartbeatReceived(final TopicPublisherInfo topicPubInfo, final MsgReqHeader heartbeatReqMsgHeader, final String topicName) {
+        // The loss of the messages missing in the reorder window is reported when the window is released
+        final RcvReorderWindow window = topicPubInfo.getReorderWindow();
+        if (window != null && !window.isEmpty()) {
+            return;
+        }
+
+        final MsgLostReport lostReport = this.checkLoss(topicPubInfo, heartbeatReqMsgHeader.getSequenceNumber(), topicName);
 
-        if (this.normalListener != null && lostReport != null) {
-            this.normalListener.onMessageLost(lostReport);
+        if (lostReport == null || !notDuplicatedData(lostReport)) {
+            return;
         }
 
-        if (!this.patternListenersByPattern.isEmpty() && lostReport != null) {
+        log.warn("Message lost detected by heartbeat, sequence number found {}, {}", heartbeatReqMsgHeader.getSequenceNumber(), lostReport);
+        this.dispatchLoss(lostReport);
+    }
+
+    /**
+     * Method called by the gap recovery when the retransmission of a gap has not been completed before the timeout. If the gap is
+     * the one before the held messages of the reorder window, the window is released and the loss is reported with the first held message.
+     *
+     * @param topicPubInfo        information of the topic publisher that sent the messages
+     * @param firstSequenceNumber sequence number of the first message of the gap that has not been received
+     * @param numLostMessages     number of messages of the gap that have not been received
+     */
+    void onGapExpired(final TopicPublisherInfo topicPubInfo, final long firstSequenceNumber, final long numLostMessages) {
+        final RcvReorderWindow window = topicPubInfo.getReorderWindow();
+        if (window != null && !window.isEmpty() && firstSequenceNumber >= topicPubInfo.getExpectedSequenceNumber()) {
+            this.releaseHeldMessages(topicPubInfo, Long.MAX_VALUE);
+            return;
+        }
+
+        final MsgLostReport lostReport = this.fillLostReport(topicPubInfo, this.topicName, numLostMessages);
+
+        log.warn("Message lost detected after requesting the retransmission, {}", lostReport);
+        this.dispatchLoss(lostReport);
+    }
+
+    /**
+     * Deliver a loss detected without message to the listeners, through the dispatch worker if there is one
+     *
+     * @param lostReport report of the lost messages
+     */
+    private void dispatchLoss(final MsgLostReport lostReport) {
+        final RcvDispatchWorker currentDispatchWorker = this.dispatchWorker;
+        if (currentDispatchWorker == null) {
+            this.deliverLoss(lostReport);
+        } else {
+            currentDispatchWorker.dispatchLoss(this, lostReport);
+        }
+    }
+
+    /**
+     * Deliver a loss detected without message to the listeners
+     *
+     * @param lostReport report of the lost messages
+     */
+    void deliverLoss(final IMsgLostReport lostReport) {
+        // The messages already in the batch go before the loss
+        this.flushBatch();
+
+        final ITopicSubListener currentNormalListener = this.normalListener;
+        if (currentNormalListener != null) {
+            currentNormalListener.onMessageLost(lostReport);
+        }
+
+        if (!this.patternListenersByPattern.isEmpty()) {
             this.patternListenersByPattern.forEach((key, value) -> value.onMessageLost(lostReport));
         }
     }
@@ -158,6 +642,7 @@ class TopicSubscriber implements Closeable {
         }
 
         this.normalListener = null;
+        this.updateHasBatchListeners();
         return true;
     }
 
@@ -173,6 +658,7 @@ class TopicSubscriber implements Closeable {
         }
 
         this.normalListener = listener;
+        this.updateHasBatchListeners();
         return true;
     }
 
@@ -184,7 +670,12 @@ class TopicSubscriber implements Closeable {
      * @return false if there was already a listener for the pattern
      */
     boolean addPatternListener(final String pattern, final ITopicSubListener listener) {
-        return this.patternListenersByPattern.putIfAbsent(pattern, listener) == null;
+        if (this.patternListenersByPattern.putIfAbsent(pattern, listener) != null) {
+            return false;
+        }
+
+        this.updateHasBatchListeners();
+        return true;
     }
 
     /**
@@ -194,7 +685,25 @@ class TopicSubscriber implements Closeable {
      * @return false if there was already no listener for the pattern
      */
     boolean removePatternListener(final String pattern) {
-        return this.patternListenersByPattern.remove(pattern) != null;
+        if (this.patternListenersByPattern.remove(pattern) == null) {
+            return false;
+        }
+
+        this.updateHasBatchListeners();
+        return true;
+    }
+
+    /**
+     * Update the flag that tells if any of the listeners receives the messages in batches
+     */
+    private void updateHasBatchListeners() {
+        boolean result = this.normalListener instanceof ITopicBatchSubListener;
+
+        for (final ITopicSubListener listener : this.patternListenersByPattern.values()) {
+            result |= listener instanceof ITopicBatchSubListener;
+        }
+
+        this.hasBatchListeners = result;
     }
 
     /**
@@ -230,7 +739,7 @@ class TopicSubscriber implements Closeable {
         this.aeronSubscribers.clear();
         this.normalListener = null;
         this.patternListenersByPattern.clear();
-        this.expectedSeqNumByTopicPubId.clear();
+        this.hasBatchListeners = false;
     }
 
     /**
@@ -250,108 +759,83 @@ class TopicSubscriber implements Closeable {
     }
 
     /**
-     * Method called when a message is received, checks for losses between this message and the last received message
-     * of the same topicPublisherId through the use of sequence numbers that are incorporated in the header of the message
-     *
-     * @param msg the received message
-     * @return MsgLostReport object with the loss information if there is a loss, if not return null
-     */
-    private MsgLostReport checkMessageLoss(final RcvMessage msg) {
-        // Result of the loss check
-        MsgLostReport lossResult = null;
-
-        // Check if there is an expected sequence number for the topic publisher
-        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(msg.getTopicPublisherId());
-
-        // There is no number, add a new expected sequence
-        if (expectedSequenceNumber == null) {
-            // Update the expected sequence number to the next one
-            expectedSequenceNumber = new AtomicLong(msg.getSequenceNumber() + 1);
-            this.expectedSeqNumByTopicPubId.put(msg.getTopicPublisherId(), expectedSequenceNumber);
-        } else if (expectedSequenceNumber.get() != msg.getSequenceNumber()) // There is an expected sequence number, check for gap
-        {
-            // There is a gap and therefore a loss, create the loss report
-            lossResult = new MsgLostReport(
-                    msg.getInstanceId(),
-                    msg.getTopicName(),
-                    msg.getSequenceNumber() - expectedSequenceNumber.get(),
-                    msg.getTopicPublisherId()
-            );
-
-            // log.warn("Message loss detected (backpressure?): expected={}, message={}, missing={}, size={}",
-            //         expectedSequenceNumber,
-            //         msg.getSequenceNumber(),
-            //         lossResult,
-            //         msg.getContentLength());
-
-            // Update expected sequence number to the next one received
-            expectedSequenceNumber.set(msg.getSequenceNumber() + 1);
-        } else // In any other case everything is all right, just increment the expected sequence number
-        {
-            expectedSequenceNumber.incrementAndGet();
-        }
-
-        return lossResult;
-    }
-
-    /**
-     * Method called when a heartbeat request is received, checks for losses between this message and the last received message
-     * of the same topicPublisherId through the use of sequence numbers that are incorporated in the header of the message
+     * Checks for losses between a received message, request or heartbeat and the last one received from the same topic publisher
+     * through the use of sequence numbers that are incorporated in the headers. The expected sequence number is kept in the topic
+     * publisher information, it is only accessed by the poller thread of the topic subscriber.
+     * <p>
+     * A message behind the expected one doesn't move the expected sequence number back. It is delivered if it belongs to the gap
+     * pending of retransmission and taken as duplicated otherwise.
      *
-     * @param heartbeatReqMsgHeader the heartbeat header received message
-     * @return MsgLostReport object with the loss information if there is a loss, if not return null
+     * @param topicPubInfo   information of the topic publisher that sent the message
+     * @param sequenceNumber the sequence number of the received message
+     * @param topicName      the topic name of the received message
+     * @return the reusable lost report filled with the loss information if there is a loss, or with a negative number of lost
+     * messages if it is duplicated, null otherwise
      */
-    private MsgLostReport checkHeartbeatLoss(final MsgReqHeader heartbeatReqMsgHeader, final String topicName) {
-        // Result of the loss check
-        MsgLostReport lossResult = null;
+    private MsgLostReport checkLoss(final TopicPublisherInfo topicPubInfo, final long sequenceNumber, final String topicName) {
+        final long expectedSequenceNumber = topicPubInfo.getExpectedSequenceNumber();
 
-        // Check if there is an expected sequence number for the topic publisher
-        AtomicLong expectedSequenceNumber = this.expectedSeqNumByTopicPubId.get(heartbeatReqMsgHeader.getTopicPublisherId());
+        final RcvGapRecovery currentGapRecovery = this.gapRecovery;
 
-        // There is no number, add a new expected sequence
-        if (expectedSequenceNumber == null) {
-            // Update the expected sequence number to the next one
-            expectedSequenceNumber = new AtomicLong(heartbeatReqMsgHeader.getSequenceNumber() + 1);
-            this.expectedSeqNumByTopicPubId.put(heartbeatReqMsgHeader.getTopicPublisherId(), expectedSequenceNumber);
-        } else if (expectedSequenceNumber.get() != heartbeatReqMsgHeader.getSequenceNumber()) // There is an expected sequence number, check for gap
-        {
-            // There is a gap and therefore a loss, create the loss report
-            lossResult = new MsgLostReport(
-                    heartbeatReqMsgHeader.getInstanceId(),
-                    topicName,
-                    heartbeatReqMsgHeader.getSequenceNumber() - expectedSequenceNumber.get(),
-                    heartbeatReqMsgHeader.getTopicPublisherId()
-            );
+        // Nothing received before from the topic publisher or no gap. With reordering it may be a retransmitted message of the gap
+        if (expectedSequenceNumber == TopicPublisherInfo.NO_SEQUENCE_NUMBER || expectedSequenceNumber == sequenceNumber) {
+            topicPubInfo.setExpectedSequenceNumber(sequenceNumber + 1);
+
+            if (currentGapRecovery != null && topicPubInfo.isInPendingGap(sequenceNumber)) {
+                currentGapRecovery.onGapMsgReceived(topicPubInfo, sequenceNumber);
+            }
 
-            // Update expected sequence number to the next one received
-            expectedSequenceNumber.set(heartbeatReqMsgHeader.getSequenceNumber() + 1);
+            return null;
+        }
+
+        // Behind the expected one, it is a retransmitted message of the pending gap or a duplicated one
+        if (sequenceNumber < expectedSequenceNumber) {
+            if (currentGapRecovery == null || !topicPubInfo.isInPendingGap(sequenceNumber)) {
+                return this.fillLostReport(topicPubInfo, topicName, sequenceNumber - expectedSequenceNumber);
+            }
 
-            log.warn("Message lost detected by heartbeat, sequence number found {}, {}", heartbeatReqMsgHeader.getSequenceNumber(), lossResult);
-        } else // In any other case everything is all right, just increment the expected sequence number
-        {
-            expectedSequenceNumber.incrementAndGet();
+            // The messages of the gap skipped by this one are lost
+            final long numSkipped = currentGapRecovery.onGapMsgReceived(topicPubInfo, sequenceNumber);
+            return numSkipped == 0 ? null : this.fillLostReport(topicPubInfo, topicName, numSkipped);
         }
 
-        return lossResult;
+        // Update the expected sequence number to the next one
+        topicPubInfo.setExpectedSequenceNumber(sequenceNumber + 1);
+
+        // There is a gap, request the retransmission if possible, the loss is reported if it is not retransmitted in time
+        if (currentGapRecovery != null && !topicPubInfo.hasPendingGap() &&
+                currentGapRecovery.openGap(topicPubInfo, expectedSequenceNumber, sequenceNumber - 1, this.gapFillTimeoutNanos)) {
+            return null;
+        }
+
+        // The loss is reported now
+        return this.fillLostReport(topicPubInfo, topicName, sequenceNumber - expectedSequenceNumber);
     }
 
     /**
-     * Check if the received message is not a duplicated one
+     * Fill the reusable lost report
      *
-     * @param lostReport report of loss data
-     * @return boolean if it is a duplicated message
+     * @param topicPubInfo    information of the topic publisher that sent the messages
+     * @param topicName       the topic name of the messages
+     * @param numLostMessages the number of lost messages
+     * @return the reusable lost report
      */
-    private boolean notDuplicatedData(MsgLostReport lostReport) {
-        return lostReport == null || lostReport.getNumberLostMessages() >= 0;
+    private MsgLostReport fillLostReport(final TopicPublisherInfo topicPubInfo, final String topicName, final long numLostMessages) {
+        this.reusableLostReport.setInstanceId(topicPubInfo.getInstanceId());
+        this.reusableLostReport.setTopicName(topicName);
+        this.reusableLostReport.setNumberLostMessages(numLostMessages);
+        this.reusableLostReport.setTopicPublisherId(topicPubInfo.getTopicPublisherId());
+
+        return this.reusableLostReport;
     }
 
     /**
-     * Notify that a topic publisher has been removed. It will be deleted from the map of expected sequence numbers
-     * to keep memory clean
+     * Check if the received message is not a duplicated one
      *
-     * @param topicPubId the unique ID of the topic publisher
+     * @param lostReport report of loss data
+     * @return boolean if it is a duplicated message
      */
-    void onTopicPublisherRemoved(final UUID topicPubId) {
-        this.expectedSeqNumByTopicPubId.remove(topicPubId);
+    private boolean notDuplicatedData(MsgLostReport lostReport) {
+        return lostReport == null || lostReport.getNumberLostMessages() >= 0;
     }
 }
@@ -73,6 +73,11 @@ public final class DelayedChangesArray<T> implements IDelayedChangesArray<T> {
      */
     private int numElements = 0;
 
+    /**
+     * True if there are pending changes to apply, it allows the iterating thread to skip the lock if there is nothing to apply
+     */
+    private volatile boolean hasPendingChanges = false;
+
     /**
      * Construct a new collection *
      *
@@ -132,6 +137,7 @@ public final class DelayedChangesArray<T> implements IDelayedChangesArray<T> {
 
             // Add to pending changes, it will apply them to the collection and the map later on
             this.pendingChanges.add(new PendingChange<T>(element, ChangeType.ADD));
+            this.hasPendingChanges = true;
 
             return true;
         }
@@ -146,6 +152,7 @@ public final class DelayedChangesArray<T> implements IDelayedChangesArray<T> {
 
             // Add the action to pending changes, it will apply them to the collection and map later on
             this.pendingChanges.add(new PendingChange<>(element, ChangeType.REMOVE));
+            this.hasPendingChanges = true;
 
             return true;
         }
@@ -165,10 +172,17 @@ public final class DelayedChangesArray<T> implements IDelayedChangesArray<T> {
     }
 
     @Override
-    public void applyPendingChanges() {
+    public boolean applyPendingChanges() {
+        // Avoid taking the lock if there is nothing to apply
+        if (!this.hasPendingChanges) {
+            return false;
+        }
+
         synchronized (this.modificationsLock) {
+            this.hasPendingChanges = false;
+
             if (this.pendingChanges.isEmpty()) {
-                return;
+                return false;
             }
 
             for (final PendingChange<T> pendingChange : pendingChanges) {
@@ -180,6 +194,7 @@ public final class DelayedChangesArray<T> implements IDelayedChangesArray<T> {
             }
 
             pendingChanges.clear();
+            return true;
         }
     }
 
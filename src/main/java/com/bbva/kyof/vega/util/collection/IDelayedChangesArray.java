@@ -45,8 +45,10 @@ public interface IDelayedChangesArray<T> {
 
     /**
      * Apply the pending changes into the internal Array. Never perform this while the collection is being iterated!
+     *
+     * @return true if there were pending changes to apply
      */
-    void applyPendingChanges();
+    boolean applyPendingChanges();
 
     /**
      * Clear all the internal information
@@ -89,6 +89,31 @@ public final class AeronChannelHelper {
         }
     }
 
+    /**
+     * Create a string that represents an Aeron unicast multi-destination-cast channel with manual control. The destinations
+     * are added and removed from the publication using {@link #createUnicastMdcDestinationString(int, int)}.
+     *
+     * @return the string with the multi-destination-cast channel
+     */
+    public static String createUnicastMdcChannelString() {
+        if (reliable) {
+            return "aeron:udp?control-mode=manual";
+        } else {
+            return "aeron:udp?control-mode=manual|reliable=false";
+        }
+    }
+
+    /**
+     * Create a string that represents a destination of an Aeron multi-destination-cast channel
+     *
+     * @param ipAddress Ip address of the destination
+     * @param port      the port of the destination
+     * @return the string with the destination
+     */
+    public static String createUnicastMdcDestinationString(final int ipAddress, final int port) {
+        return String.format("aeron:udp?endpoint=%s:%d", InetUtil.convertIntToIpAddress(ipAddress), port);
+    }
+
     /**
      * Selects an IP address from a range of IPs. The selected address is always ODD and the next EVEN address is reserved for
      * control messages. This means that it will return an ODD address in the range that allows the next address to be in the range
@@ -117,7 +142,7 @@ public final class AeronChannelHelper {
      * @param maxIp the maximum value of the range, should be EVEN
      * @return the IP selected
      */
-    private static String selectMcastIpFromRange(final int hash, final String minIp, final String maxIp) {
+    public static String selectMcastIpFromRange(final int hash, final String minIp, final String maxIp) {
         // Convert the ip addresses to a 32 bit integer
         final int intMinIp = InetUtil.convertIpAddressToInt(minIp);
         final int intMaxIp = InetUtil.convertIpAddressToInt(maxIp);
@@ -133,7 +158,7 @@ public final class AeronChannelHelper {
         }
 
         // Find the number of ODD ip's in the range
-        final int oddIpsInRange = (intMaxIp - intMinIp + 1) / 2;
+        final int oddIpsInRange = getNumMcastIpsInRange(intMinIp, intMaxIp);
 
         // Select the ODD in the range to use
         final int intIpToUse = intMinIp + Math.abs(hash % oddIpsInRange) * 2;
@@ -142,6 +167,28 @@ public final class AeronChannelHelper {
         return InetUtil.convertIntToIpAddress(intIpToUse);
     }
 
+    /**
+     * Return the number of multicast addresses that can be selected in a range, only the ODD addresses are used
+     *
+     * @param minIp the minimun value of the range, should be ODD
+     * @param maxIp the maximum value of the range, should be EVEN
+     * @return the number of addresses that can be selected
+     */
+    public static int getNumMcastIpsInRange(final String minIp, final String maxIp) {
+        return getNumMcastIpsInRange(InetUtil.convertIpAddressToInt(minIp), InetUtil.convertIpAddressToInt(maxIp));
+    }
+
+    /**
+     * Return the number of multicast addresses that can be selected in a range, only the ODD addresses are used
+     *
+     * @param intMinIp the minimun value of the range as a 32 bit integer
+     * @param intMaxIp the maximum value of the range as a 32 bit integer
+     * @return the number of addresses that can be selected
+     */
+    private static int getNumMcastIpsInRange(final int intMinIp, final int intMaxIp) {
+        return (intMaxIp - intMinIp + 1) / 2;
+    }
+
     /**
      * Selects a port from a range of ports
      *
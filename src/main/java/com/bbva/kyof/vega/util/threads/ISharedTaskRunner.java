@@ -0,0 +1,36 @@
+package com.bbva.kyof.vega.util.threads;
+
+import java.io.Closeable;
+
+/**
+ * Runner that executes the actions of several recurrent tasks on the same thread. The idle strategies of the tasks are ignored.
+ * <p>
+ * The tasks are stopped when they are closed or when the runner is closed.
+ */
+public interface ISharedTaskRunner extends Closeable {
+    /**
+     * Start the runner, it has to be called before adding tasks
+     */
+    void start();
+
+    /**
+     * Add a task to the runner
+     *
+     * @param task     the task to add
+     * @param taskName name of the task
+     */
+    void addTask(RecurrentRunner task, String taskName);
+
+    /**
+     * Remove a task from the runner, the task is notified once it has been removed
+     *
+     * @param task the task to remove
+     */
+    void removeTask(RecurrentRunner task);
+
+    /**
+     * Stop the runner, the remaining tasks are stopped as well
+     */
+    @Override
+    void close();
+}
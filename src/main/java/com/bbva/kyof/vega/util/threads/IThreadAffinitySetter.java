@@ -0,0 +1,15 @@
+package com.bbva.kyof.vega.util.threads;
+
+/**
+ * Mechanism to pin the calling thread to a set of CPUs. It can be replaced in {@link ThreadAffinity} to use a native library.
+ */
+@FunctionalInterface
+public interface IThreadAffinitySetter {
+    /**
+     * Pin the calling thread to the given CPUs
+     *
+     * @param cpus the CPUs the thread can run on, it is never empty
+     * @return true if the affinity has been applied
+     */
+    boolean setCurrentThreadAffinity(int[] cpus);
+}
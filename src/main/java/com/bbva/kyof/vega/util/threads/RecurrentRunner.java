@@ -28,6 +28,10 @@ public abstract class RecurrentRunner implements Runnable, Closeable {
      * True if the task has been stopped
      */
     private volatile boolean stopped = false;
+    /**
+     * Shared runner that executes the task, null if the task runs on its own thread
+     */
+    private volatile ISharedTaskRunner sharedRunner = null;
 
     /**
      * Create a new recurrent runner
@@ -42,6 +46,12 @@ public abstract class RecurrentRunner implements Runnable, Closeable {
     public void close() {
         this.shouldStopRunner = true;
 
+        // On a shared runner the task is stopped once it has been removed from the runner
+        final ISharedTaskRunner runner = this.sharedRunner;
+        if (runner != null) {
+            runner.removeTask(this);
+        }
+
         while (!this.stopped) {
             try {
                 Thread.sleep(SLEEP_TIME);
@@ -70,6 +80,23 @@ public abstract class RecurrentRunner implements Runnable, Closeable {
         this.cleanUp();
     }
 
+    /**
+     * Settle the shared runner that executes the task
+     *
+     * @param runner the shared runner
+     */
+    void setSharedRunner(final ISharedTaskRunner runner) {
+        this.sharedRunner = runner;
+    }
+
+    /**
+     * Called by the shared runner once the task has been removed from it or the runner has been closed
+     */
+    void onSharedRunnerStopped() {
+        this.stopped = true;
+        this.cleanUp();
+    }
+
     /**
      * Action to execute.
      *
@@ -1,10 +1,12 @@
 package com.bbva.kyof.vega.util.threads;
 
+import lombok.extern.slf4j.Slf4j;
 import org.agrona.concurrent.IdleStrategy;
 
 /**
  * Created by cnebrera on 18/05/16.
  */
+@Slf4j
 public abstract class RecurrentTask extends RecurrentRunner {
     /**
      * Create a new recurrent task
@@ -21,6 +23,37 @@ public abstract class RecurrentTask extends RecurrentRunner {
      * @param threadName the name of the task thread
      */
     public void start(final String threadName) {
-        new Thread(this, threadName).start();
+        this.start(threadName, ThreadParams.DEFAULT);
+    }
+
+    /**
+     * Start the recurrent task with the given thread parameters. The CPU affinity is applied by the thread itself before the first action.
+     *
+     * @param threadName the default name of the task thread, it is replaced by the name of the parameters if settled
+     * @param params     parameters of the thread
+     */
+    public void start(final String threadName, final ThreadParams params) {
+        params.newThread(this, threadName).start();
+    }
+
+    /**
+     * Start the recurrent task on the given shared runner, or on its own thread if there is no shared runner. The idle strategy of the
+     * task is not used on a shared runner, the runner applies its own idle strategy to the actions of all its tasks. The thread parameters
+     * are ignored as well, a warning is logged if they are not the default ones.
+     *
+     * @param threadName   the name of the task, used as default thread name if the task runs on its own thread
+     * @param params       parameters of the thread if the task runs on its own thread
+     * @param sharedRunner shared runner for the task, null to run it on its own thread
+     */
+    public void start(final String threadName, final ThreadParams params, final ISharedTaskRunner sharedRunner) {
+        if (sharedRunner == null) {
+            this.start(threadName, params);
+        } else {
+            if (params != ThreadParams.DEFAULT) {
+                log.warn("Thread parameters {} of task [{}] are ignored, the task runs on a shared thread", params, threadName);
+            }
+
+            sharedRunner.addTask(this, threadName);
+        }
     }
 }
@@ -0,0 +1,172 @@
+package com.bbva.kyof.vega.util.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.collections.ArrayUtil;
+
+/**
+ * Shared runner without thread, the actions of the tasks are executed by the application thread that calls {@link #invoke()}.
+ * <p>
+ * The tasks are added and removed immediately. If a task is removed from another thread while the tasks are being invoked, the removal
+ * waits for the end of the cycle. The actions run holding the lock of the invoker for that reason, the code called by the actions
+ * should not wait for other threads that add or remove tasks.
+ * <p>
+ * This class is thread safe!
+ */
+@Slf4j
+public class SharedTaskInvoker implements ISharedTaskRunner {
+    /**
+     * Empty list of tasks
+     */
+    private static final InvokedTask[] EMPTY_TASKS = new InvokedTask[0];
+
+    /**
+     * Name of the invoker
+     */
+    private final String name;
+
+    /**
+     * Tasks of the invoker, the array is replaced on every change so it can be iterated while tasks are added or removed
+     */
+    private InvokedTask[] tasks = EMPTY_TASKS;
+
+    /**
+     * True if the invoker has been closed
+     */
+    private boolean closed = false;
+
+    /**
+     * Lock for instance synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new invoker
+     *
+     * @param name name of the invoker
+     */
+    public SharedTaskInvoker(final String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void start() {
+        log.info("Starting shared task invoker [{}], the tasks are executed by the application", this.name);
+    }
+
+    @Override
+    public void addTask(final RecurrentRunner task, final String taskName) {
+        synchronized (this.lock) {
+            if (this.closed) {
+                throw new IllegalStateException("Cannot add task " + taskName + " to the closed shared task invoker " + this.name);
+            }
+
+            log.info("Adding task [{}] to shared task invoker [{}]", taskName, this.name);
+
+            task.setSharedRunner(this);
+            this.tasks = ArrayUtil.add(this.tasks, new InvokedTask(task, taskName));
+        }
+    }
+
+    @Override
+    public void removeTask(final RecurrentRunner task) {
+        synchronized (this.lock) {
+            for (final InvokedTask invokedTask : this.tasks) {
+                if (invokedTask.task == task) {
+                    log.info("Removing task [{}] from shared task invoker [{}]", invokedTask.taskName, this.name);
+
+                    this.tasks = ArrayUtil.remove(this.tasks, invokedTask);
+                    invokedTask.stop();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Execute a single action of every task, holding the lock of the invoker so the tasks are not removed while they run
+     *
+     * @return the sum of the work done by the tasks, 0 if the invoker is closed
+     */
+    public int invoke() {
+        synchronized (this.lock) {
+            int workCount = 0;
+
+            // The tasks may add or remove tasks from the same thread, the removed ones are skipped
+            for (final InvokedTask invokedTask : this.tasks) {
+                if (!invokedTask.stopped) {
+                    workCount += invokedTask.invoke();
+                }
+            }
+
+            return workCount;
+        }
+    }
+
+    @Override
+    public void close() {
+        log.info("Stopping shared task invoker [{}]", this.name);
+
+        synchronized (this.lock) {
+            this.closed = true;
+
+            for (final InvokedTask invokedTask : this.tasks) {
+                invokedTask.stop();
+            }
+
+            this.tasks = EMPTY_TASKS;
+        }
+    }
+
+    /**
+     * Task of the invoker
+     */
+    private static final class InvokedTask {
+        /**
+         * The task
+         */
+        private final RecurrentRunner task;
+
+        /**
+         * Name of the task
+         */
+        private final String taskName;
+
+        /**
+         * True once the task has been removed
+         */
+        private boolean stopped = false;
+
+        /**
+         * Create a new invoked task
+         *
+         * @param task     the task
+         * @param taskName name of the task
+         */
+        private InvokedTask(final RecurrentRunner task, final String taskName) {
+            this.task = task;
+            this.taskName = taskName;
+        }
+
+        /**
+         * Execute an action of the task, the errors are logged and the task keeps running
+         *
+         * @return the work done by the task
+         */
+        private int invoke() {
+            try {
+                return this.task.action();
+            } catch (final RuntimeException e) {
+                log.error("Unexpected error on task [{}]", this.taskName, e);
+                return 0;
+            }
+        }
+
+        /**
+         * Stop the task
+         */
+        private void stop() {
+            this.stopped = true;
+            this.task.onSharedRunnerStopped();
+        }
+    }
+}
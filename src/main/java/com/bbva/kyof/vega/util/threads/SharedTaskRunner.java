@@ -0,0 +1,211 @@
+package com.bbva.kyof.vega.util.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.DynamicCompositeAgent;
+import org.agrona.concurrent.IdleStrategy;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Runs the actions of several recurrent tasks on a single thread. Each task is an Agrona agent of a dynamic composite agent, the
+ * tasks can be added and removed while the runner is running.
+ * <p>
+ * The idle strategy of the runner is applied once per cycle with the sum of the work done by all the tasks, the idle strategies of the
+ * tasks are ignored. The tasks are stopped when they are closed or when the runner is closed.
+ * <p>
+ * This class is thread safe!
+ */
+@Slf4j
+public class SharedTaskRunner implements ISharedTaskRunner {
+    /**
+     * Time in milliseconds to wait while a previous addition or removal of a task is pending
+     */
+    private static final long PENDING_CHANGE_SLEEP_TIME = 1;
+
+    /**
+     * Name of the runner, used as name of the thread
+     */
+    private final String name;
+
+    /**
+     * Composite agent with the tasks of the runner
+     */
+    private final DynamicCompositeAgent compositeAgent;
+
+    /**
+     * Runner of the composite agent
+     */
+    private final AgentRunner agentRunner;
+
+    /**
+     * Parameters of the thread of the runner
+     */
+    private final ThreadParams threadParams;
+
+    /**
+     * Agent of each task of the runner
+     */
+    private final Map<RecurrentRunner, TaskAgent> agentsByTask = new IdentityHashMap<>();
+
+    /**
+     * Lock for instance synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new shared runner, it has to be started before adding tasks
+     *
+     * @param name         name of the runner, used as name of the thread
+     * @param idleStrategy idle strategy applied after each cycle over the tasks
+     * @param threadParams parameters of the thread of the runner
+     */
+    public SharedTaskRunner(final String name, final IdleStrategy idleStrategy, final ThreadParams threadParams) {
+        this.name = name;
+        this.threadParams = threadParams;
+        this.compositeAgent = new DynamicCompositeAgent(name);
+        this.agentRunner = new AgentRunner(idleStrategy, this::onError, null, this.compositeAgent);
+    }
+
+    /**
+     * Start the thread of the runner, it returns once the runner accepts tasks
+     */
+    @Override
+    public void start() {
+        log.info("Starting shared task runner [{}]", this.name);
+        AgentRunner.startOnThread(this.agentRunner, task -> this.threadParams.newThread(task, this.name));
+
+        while (this.compositeAgent.status() == DynamicCompositeAgent.Status.INIT) {
+            this.waitPendingChange();
+        }
+    }
+
+    /**
+     * Add a task to the runner, its actions are executed from the next cycle
+     *
+     * @param task     the task to add
+     * @param taskName name of the task
+     */
+    @Override
+    public void addTask(final RecurrentRunner task, final String taskName) {
+        synchronized (this.lock) {
+            if (this.agentRunner.isClosed()) {
+                throw new IllegalStateException("Cannot add task " + taskName + " to the closed shared task runner " + this.name);
+            }
+
+            log.info("Adding task [{}] to shared task runner [{}]", taskName, this.name);
+
+            final TaskAgent agent = new TaskAgent(task, taskName);
+            task.setSharedRunner(this);
+            this.agentsByTask.put(task, agent);
+
+            while (!this.compositeAgent.tryAdd(agent)) {
+                this.waitPendingChange();
+            }
+
+            // Wait for the addition, a task pending to be added would not be stopped if the runner is closed
+            while (!this.compositeAgent.hasAddAgentCompleted()) {
+                this.waitPendingChange();
+            }
+        }
+    }
+
+    /**
+     * Remove a task from the runner, the task is notified once it has been removed
+     *
+     * @param task the task to remove
+     */
+    @Override
+    public void removeTask(final RecurrentRunner task) {
+        synchronized (this.lock) {
+            final TaskAgent agent = this.agentsByTask.remove(task);
+
+            // If the runner is closed all the tasks have already been notified
+            if (agent == null || this.agentRunner.isClosed()) {
+                return;
+            }
+
+            log.info("Removing task [{}] from shared task runner [{}]", agent.taskName, this.name);
+
+            while (!this.compositeAgent.tryRemove(agent) && !this.agentRunner.isClosed()) {
+                this.waitPendingChange();
+            }
+        }
+    }
+
+    /**
+     * Wait for the runner to apply the previous addition or removal of a task
+     */
+    private void waitPendingChange() {
+        try {
+            Thread.sleep(PENDING_CHANGE_SLEEP_TIME);
+        } catch (final InterruptedException e) {
+            log.error("Thread unexpectedly interrupted", e);
+        }
+    }
+
+    /**
+     * Called when a task throws an exception in its action, the runner keeps running
+     *
+     * @param throwable the exception thrown
+     */
+    private void onError(final Throwable throwable) {
+        log.error("Unexpected error on shared task runner [{}]", this.name, throwable);
+    }
+
+    /**
+     * Stop the runner, the remaining tasks are stopped as well
+     */
+    @Override
+    public void close() {
+        log.info("Stopping shared task runner [{}]", this.name);
+
+        synchronized (this.lock) {
+            this.agentRunner.close();
+            this.agentsByTask.clear();
+        }
+    }
+
+    /**
+     * Agent that executes the actions of a task
+     */
+    private static final class TaskAgent implements Agent {
+        /**
+         * The task
+         */
+        private final RecurrentRunner task;
+
+        /**
+         * Name of the task
+         */
+        private final String taskName;
+
+        /**
+         * Create a new agent for a task
+         *
+         * @param task     the task
+         * @param taskName name of the task
+         */
+        private TaskAgent(final RecurrentRunner task, final String taskName) {
+            this.task = task;
+            this.taskName = taskName;
+        }
+
+        @Override
+        public int doWork() {
+            return this.task.action();
+        }
+
+        @Override
+        public void onClose() {
+            this.task.onSharedRunnerStopped();
+        }
+
+        @Override
+        public String roleName() {
+            return this.taskName;
+        }
+    }
+}
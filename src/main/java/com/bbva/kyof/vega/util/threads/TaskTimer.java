@@ -0,0 +1,282 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.agrona.concurrent.NoOpIdleStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+
+/**
+ * Timer for periodic tasks. By default the tasks are executed by a {@link Timer} thread, created with the first scheduled task. If a
+ * shared runner is provided the due tasks are executed by the runner instead and no thread is created.
+ * <p>
+ * The tasks are cancelled calling their cancel method, the cancelled tasks are discarded on purge.
+ * <p>
+ * This class is thread safe!
+ */
+public class TaskTimer {
+    /**
+     * Name of the timer
+     */
+    private final String name;
+
+    /**
+     * Tasks executed by the shared runner, null if the timer has its own thread
+     */
+    private final ScheduledTasks scheduledTasks;
+
+    /**
+     * Timer thread, created with the first scheduled task if there is no shared runner
+     */
+    private Timer timer = null;
+
+    /**
+     * True if the timer has been cancelled
+     */
+    private boolean cancelled = false;
+
+    /**
+     * Lock for instance synchronization
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Create a new timer with its own thread
+     *
+     * @param name name of the timer, used as name of the thread
+     */
+    public TaskTimer(final String name) {
+        this(name, null);
+    }
+
+    /**
+     * Create a new timer
+     *
+     * @param name         name of the timer
+     * @param sharedRunner shared runner that executes the due tasks, null to use a thread of the timer
+     */
+    public TaskTimer(final String name, final ISharedTaskRunner sharedRunner) {
+        this.name = name;
+
+        if (sharedRunner == null) {
+            this.scheduledTasks = null;
+        } else {
+            this.scheduledTasks = new ScheduledTasks();
+            this.scheduledTasks.start(name, ThreadParams.DEFAULT, sharedRunner);
+        }
+    }
+
+    /**
+     * Schedule a task for repeated fixed-delay execution
+     *
+     * @param task   the task
+     * @param delay  delay in milliseconds before the first execution
+     * @param period time in milliseconds between the end of an execution and the next one
+     */
+    public void schedule(final BlockCancelTask task, final long delay, final long period) {
+        synchronized (this.lock) {
+            if (this.scheduledTasks == null) {
+                this.getTimer().schedule(task, delay, period);
+            } else {
+                this.checkNotCancelled();
+                this.scheduledTasks.add(new ScheduledTask(task, System.currentTimeMillis() + delay, period, false));
+            }
+        }
+    }
+
+    /**
+     * Schedule a task for repeated fixed-rate execution
+     *
+     * @param task   the task
+     * @param delay  delay in milliseconds before the first execution
+     * @param period time in milliseconds between the start of an execution and the next one
+     */
+    public void scheduleAtFixedRate(final BlockCancelTask task, final long delay, final long period) {
+        synchronized (this.lock) {
+            if (this.scheduledTasks == null) {
+                this.getTimer().scheduleAtFixedRate(task, delay, period);
+            } else {
+                this.checkNotCancelled();
+                this.scheduledTasks.add(new ScheduledTask(task, System.currentTimeMillis() + delay, period, true));
+            }
+        }
+    }
+
+    /**
+     * Discard the cancelled tasks
+     */
+    public void purge() {
+        synchronized (this.lock) {
+            if (this.scheduledTasks != null) {
+                this.scheduledTasks.purge();
+            } else if (this.timer != null) {
+                this.timer.purge();
+            }
+        }
+    }
+
+    /**
+     * Cancel the timer, the scheduled tasks won't be executed again and no more tasks can be scheduled
+     */
+    public void cancel() {
+        synchronized (this.lock) {
+            if (this.cancelled) {
+                return;
+            }
+
+            this.cancelled = true;
+
+            if (this.timer != null) {
+                this.timer.cancel();
+            }
+        }
+
+        // Stopped without the lock, a running task may be using the timer
+        if (this.scheduledTasks != null) {
+            this.scheduledTasks.close();
+        }
+    }
+
+    /**
+     * @return the timer thread, it is created if required
+     */
+    private Timer getTimer() {
+        this.checkNotCancelled();
+
+        if (this.timer == null) {
+            this.timer = new Timer(this.name);
+        }
+
+        return this.timer;
+    }
+
+    /**
+     * Check that the timer has not been cancelled
+     */
+    private void checkNotCancelled() {
+        if (this.cancelled) {
+            throw new IllegalStateException("Timer " + this.name + " already cancelled");
+        }
+    }
+
+    /**
+     * Task scheduled on a shared runner
+     */
+    private static final class ScheduledTask {
+        /**
+         * The task
+         */
+        private final BlockCancelTask task;
+
+        /**
+         * Period of the task in milliseconds
+         */
+        private final long period;
+
+        /**
+         * True if the period is measured between the start of executions, false if it is measured from the end of the last one
+         */
+        private final boolean fixedRate;
+
+        /**
+         * Time in milliseconds of the next execution
+         */
+        private long nextExecutionTime;
+
+        /**
+         * Create a new scheduled task
+         *
+         * @param task              the task
+         * @param firstExecutionTime time in milliseconds of the first execution
+         * @param period            period of the task in milliseconds
+         * @param fixedRate         true if the period is measured between the start of executions
+         */
+        private ScheduledTask(final BlockCancelTask task, final long firstExecutionTime, final long period, final boolean fixedRate) {
+            this.task = task;
+            this.nextExecutionTime = firstExecutionTime;
+            this.period = period;
+            this.fixedRate = fixedRate;
+        }
+    }
+
+    /**
+     * Recurrent task of the shared runner that executes the due tasks
+     */
+    private static final class ScheduledTasks extends RecurrentTask {
+        /**
+         * The scheduled tasks
+         */
+        private final List<ScheduledTask> tasks = new ArrayList<>();
+
+        /**
+         * Tasks to execute in the current action, reused to avoid allocations
+         */
+        private final List<ScheduledTask> dueTasks = new ArrayList<>();
+
+        /**
+         * Create the recurrent task, it only runs on a shared runner that ignores the idle strategy
+         */
+        private ScheduledTasks() {
+            super(NoOpIdleStrategy.INSTANCE);
+        }
+
+        /**
+         * Add a scheduled task
+         *
+         * @param task the task to add
+         */
+        private void add(final ScheduledTask task) {
+            synchronized (this.tasks) {
+                this.tasks.add(task);
+            }
+        }
+
+        /**
+         * Remove the cancelled tasks
+         */
+        private void purge() {
+            synchronized (this.tasks) {
+                this.tasks.removeIf(scheduled -> scheduled.task.isCanceled());
+            }
+        }
+
+        @Override
+        public int action() {
+            final long now = System.currentTimeMillis();
+
+            synchronized (this.tasks) {
+                for (final ScheduledTask scheduled : this.tasks) {
+                    if (scheduled.nextExecutionTime <= now) {
+                        this.dueTasks.add(scheduled);
+                    }
+                }
+            }
+
+            if (this.dueTasks.isEmpty()) {
+                return 0;
+            }
+
+            // Run the tasks without holding the lock, they may schedule or cancel tasks
+            for (final ScheduledTask scheduled : this.dueTasks) {
+                if (scheduled.task.isCanceled()) {
+                    continue;
+                }
+
+                scheduled.task.run();
+                scheduled.nextExecutionTime = scheduled.fixedRate ? scheduled.nextExecutionTime + scheduled.period : System.currentTimeMillis() + scheduled.period;
+            }
+
+            final int numDueTasks = this.dueTasks.size();
+            this.dueTasks.clear();
+            this.purge();
+            return numDueTasks;
+        }
+
+        @Override
+        public void cleanUp() {
+            synchronized (this.tasks) {
+                this.tasks.clear();
+            }
+        }
+    }
+}
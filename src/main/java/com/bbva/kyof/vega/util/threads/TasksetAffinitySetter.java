@@ -0,0 +1,73 @@
+package com.bbva.kyof.vega.util.threads;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Affinity setter for Linux that doesn't require native code. The id of the calling thread is read from /proc/thread-self and the
+ * affinity is applied with the taskset command, that calls sched_setaffinity for the thread.
+ * <p>
+ * It is slow since it launches a process, it is meant to be called once when the thread starts.
+ */
+@Slf4j
+public class TasksetAffinitySetter implements IThreadAffinitySetter {
+    /**
+     * Status file of the calling thread
+     */
+    private static final Path THREAD_STAT = Paths.get("/proc/thread-self/stat");
+
+    /**
+     * Max time in seconds to wait for the taskset command
+     */
+    private static final long TASKSET_TIMEOUT = 5;
+
+    @Override
+    public boolean setCurrentThreadAffinity(final int[] cpus) {
+        final String cpuList = Arrays.stream(cpus).mapToObj(Integer::toString).collect(Collectors.joining(","));
+
+        try {
+            final String threadId = readCurrentThreadId();
+            final Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, threadId).redirectErrorStream(true).start();
+
+            if (!process.waitFor(TASKSET_TIMEOUT, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                log.warn("Timeout pinning thread [{}] to cpus [{}]", Thread.currentThread().getName(), cpuList);
+                return false;
+            }
+
+            if (process.exitValue() != 0) {
+                final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+                log.warn("Error pinning thread [{}] to cpus [{}]: {}", Thread.currentThread().getName(), cpuList, output);
+                return false;
+            }
+
+            return true;
+        } catch (final IOException e) {
+            log.warn("Cannot pin thread [{}] to cpus [{}], taskset or /proc not available", Thread.currentThread().getName(), cpuList, e);
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while pinning thread [{}] to cpus [{}]", Thread.currentThread().getName(), cpuList);
+            return false;
+        }
+    }
+
+    /**
+     * Read the operating system id of the calling thread, it is the first field of the status file of the thread
+     *
+     * @return the id of the thread
+     * @throws IOException if the status file cannot be read
+     */
+    static String readCurrentThreadId() throws IOException {
+        final String stat = new String(Files.readAllBytes(THREAD_STAT), StandardCharsets.US_ASCII);
+        return stat.substring(0, stat.indexOf(' '));
+    }
+}
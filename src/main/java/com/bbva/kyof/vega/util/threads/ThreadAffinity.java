@@ -0,0 +1,51 @@
+package com.bbva.kyof.vega.util.threads;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Pins the threads of the library to CPUs. By default it uses the {@link TasksetAffinitySetter}, a different mechanism can be plugged
+ * before starting the library instances.
+ * <p>
+ * A failure to pin a thread is logged and the thread keeps running without affinity.
+ */
+@Slf4j
+public final class ThreadAffinity {
+    /**
+     * Mechanism used to pin the threads
+     */
+    private static volatile IThreadAffinitySetter affinitySetter = new TasksetAffinitySetter();
+
+    /**
+     * Private constructor to avoid instantiation
+     */
+    private ThreadAffinity() {
+        // Nothing to do
+    }
+
+    /**
+     * Replace the mechanism used to pin the threads, it applies to the threads started after the call
+     *
+     * @param setter the new mechanism
+     */
+    public static void setAffinitySetter(final IThreadAffinitySetter setter) {
+        affinitySetter = setter;
+    }
+
+    /**
+     * Pin the calling thread to the given CPUs
+     *
+     * @param cpus the CPUs the thread can run on
+     * @return true if the affinity has been applied
+     */
+    public static boolean pinCurrentThread(final int[] cpus) {
+        final boolean pinned = affinitySetter.setCurrentThreadAffinity(cpus);
+
+        if (pinned) {
+            log.info("Thread [{}] pinned to cpus {}", Thread.currentThread().getName(), Arrays.toString(cpus));
+        }
+
+        return pinned;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bbva.kyof.vega.util.threads;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Parameters of the thread of a {@link RecurrentTask}. All of them are optional, the values that are not settled keep the defaults of
+ * a new Java thread.
+ * <p>
+ * This class is immutable and thread safe
+ */
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@ToString
+public final class ThreadParams {
+    /**
+     * Parameters that keep all the defaults
+     */
+    public static final ThreadParams DEFAULT = ThreadParams.builder().build();
+
+    /**
+     * Name of the thread, it replaces the default name given by the task
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * CPUs the thread is pinned to, null or empty to let it float across all the CPUs
+     */
+    private final int[] cpuAffinity;
+
+    /**
+     * Priority of the thread, between {@link Thread#MIN_PRIORITY} and {@link Thread#MAX_PRIORITY}
+     */
+    @Getter
+    private final Integer priority;
+
+    /**
+     * True if the thread is a daemon thread
+     */
+    @Getter
+    private final Boolean daemon;
+
+    /**
+     * @return a copy of the CPUs the thread is pinned to, null if not pinned
+     */
+    public int[] getCpuAffinity() {
+        return this.cpuAffinity == null ? null : this.cpuAffinity.clone();
+    }
+
+    /**
+     * @return true if the thread has to be pinned to some CPUs
+     */
+    public boolean hasCpuAffinity() {
+        return this.cpuAffinity != null && this.cpuAffinity.length > 0;
+    }
+
+    /**
+     * Return the name of the thread
+     *
+     * @param defaultName name given by the task
+     * @return the name of the parameters if settled, the default one otherwise
+     */
+    public String selectName(final String defaultName) {
+        return this.name == null ? defaultName : this.name;
+    }
+
+    /**
+     * Create a new thread with the parameters, it is not started. The CPU affinity is applied by the thread itself before running the task.
+     *
+     * @param task        the task of the thread
+     * @param defaultName the default name of the thread, it is replaced by the name of the parameters if settled
+     * @return the created thread
+     */
+    public Thread newThread(final Runnable task, final String defaultName) {
+        final Thread thread;
+
+        if (this.hasCpuAffinity()) {
+            final int[] cpus = this.getCpuAffinity();
+            thread = new Thread(() -> {
+                ThreadAffinity.pinCurrentThread(cpus);
+                task.run();
+            }, this.selectName(defaultName));
+        } else {
+            thread = new Thread(task, this.selectName(defaultName));
+        }
+
+        if (this.priority != null) {
+            thread.setPriority(this.priority);
+        }
+
+        if (this.daemon != null) {
+            thread.setDaemon(this.daemon);
+        }
+
+        return thread;
+    }
+
+    /**
+     * Return the parameters for one of a group of threads that share them. The name, if settled, gets the index of the thread as suffix.
+     *
+     * @param index index of the thread in the group
+     * @return the parameters of the thread
+     */
+    public ThreadParams forGroupMember(final int index) {
+        return this.name == null ? this : this.toBuilder().name(this.name + "-" + index).build();
+    }
+}
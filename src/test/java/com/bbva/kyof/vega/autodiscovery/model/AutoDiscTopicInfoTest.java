@@ -104,4 +104,59 @@ public class AutoDiscTopicInfoTest {
         // Check again the limits
         Assert.assertTrue(serializer.getOffset() == readedInfo.serializedSize());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fromBinaryToBinaryWithPublisherHandle() {
+        final UUID instanceId = UUID.randomUUID();
+        final UUID uniqueId = UUID.randomUUID();
+
+        final AutoDiscTopicInfo topicInfo = new AutoDiscTopicInfo(instanceId, AutoDiscTransportType.PUB_IPC, uniqueId, "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, 5678);
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary and read again
+        topicInfo.toBinary(serializer);
+        Assert.assertTrue(serializer.getOffset() == topicInfo.serializedSize());
+
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+        serializer.wrap(buffer);
+
+        AutoDiscTopicInfo readedInfo = new AutoDiscTopicInfo();
+        readedInfo.fromBinary(serializer);
+
+        Assert.assertEquals(topicInfo, readedInfo);
+        Assert.assertEquals(5678, readedInfo.getPublisherHandle());
+        Assert.assertFalse(readedInfo.hasSecurity());
+    }
+
+    @Test
+    public void fromBinaryWithoutPublisherHandle() {
+        final UUID instanceId = UUID.randomUUID();
+        final UUID uniqueId = UUID.randomUUID();
+
+        // Serialize the info as a previous version would do, without the publisher handle
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+        serializer.writeUUID(instanceId);
+        serializer.writeByte(AutoDiscTransportType.PUB_IPC.getByteValue());
+        serializer.writeUUID(uniqueId);
+        serializer.writeString("topic");
+        serializer.writeInt(AutoDiscTopicInfo.NO_SECURED_CONSTANT);
+
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+        serializer.wrap(buffer);
+
+        AutoDiscTopicInfo readedInfo = new AutoDiscTopicInfo();
+        readedInfo.fromBinary(serializer);
+
+        Assert.assertEquals(uniqueId, readedInfo.getUniqueId());
+        Assert.assertEquals("topic", readedInfo.getTopicName());
+        Assert.assertEquals(AutoDiscTopicInfo.NO_PUBLISHER_HANDLE, readedInfo.getPublisherHandle());
+    }
+}
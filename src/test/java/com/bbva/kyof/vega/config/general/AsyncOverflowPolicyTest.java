@@ -0,0 +1,13 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncOverflowPolicyTest {
+    @Test
+    public void valueAndFromValue() throws Exception {
+        Assert.assertEquals(AsyncOverflowPolicy.FAIL_FAST.value(), "FAIL_FAST");
+        Assert.assertEquals(AsyncOverflowPolicy.DROP_NEWEST.value(), "DROP_NEWEST");
+        Assert.assertEquals(AsyncOverflowPolicy.fromValue("BLOCK"), AsyncOverflowPolicy.BLOCK);
+    }
+}
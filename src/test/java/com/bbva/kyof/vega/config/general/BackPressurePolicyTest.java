@@ -0,0 +1,15 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BackPressurePolicyTest {
+    @Test
+    public void valueAndFromValue() throws Exception {
+        Assert.assertEquals(BackPressurePolicy.FAIL_FAST.value(), "FAIL_FAST");
+        Assert.assertEquals(BackPressurePolicy.DROP_OLDEST.value(), "DROP_OLDEST");
+        Assert.assertEquals(BackPressurePolicy.fromValue("RETRY"), BackPressurePolicy.RETRY);
+        Assert.assertEquals(BackPressurePolicy.fromValue("BLOCK"), BackPressurePolicy.BLOCK);
+        Assert.assertEquals(BackPressurePolicy.fromValue("CONFLATE"), BackPressurePolicy.CONFLATE);
+    }
+}
@@ -1,6 +1,7 @@
 package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.exception.VegaException;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.reflect.Constructor;
@@ -23,7 +24,10 @@ public class ConfigReaderTest {
 
     @Test
     public void loadValidConfig() throws Exception {
-        ConfigReader.readConfiguration(validConfigFile);
+        final GlobalConfiguration config = ConfigReader.readConfiguration(validConfigFile);
+
+        Assert.assertEquals("default-poller", config.getPollerConfigForPollerName("default_poller").getThreadParams().getName());
+        Assert.assertEquals(5, config.getPollerConfigForPollerName("default_poller").getThreadParams().getPriority().intValue());
     }
 
     @Test(expected = VegaException.class)
@@ -0,0 +1,12 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DispatchOverflowPolicyTest {
+    @Test
+    public void valueAndFromValue() throws Exception {
+        Assert.assertEquals(DispatchOverflowPolicy.BLOCK.value(), "BLOCK");
+        Assert.assertEquals(DispatchOverflowPolicy.fromValue("DROP_NEWEST"), DispatchOverflowPolicy.DROP_NEWEST);
+    }
+}
@@ -3,6 +3,9 @@ package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.autodiscovery.daemon.CommandLineParserTest;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.SleepingIdleStrategy;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -277,6 +280,51 @@ public class GlobalConfigurationTest {
         // Topic security config map get
         Assert.assertNull(configuration.getTopicSecurityTemplateForTopic("invalidTopic"));
         Assert.assertNull(configuration.getTopicSecurityTemplateForTopic("secure"));
+
+        // Default threading mode
+        Assert.assertEquals(ThreadingMode.DEDICATED, configuration.getThreadingMode());
+        Assert.assertEquals(IdleStrategyType.SLEEP_NANOS, configuration.getSharedIdleStrategyType());
+        Assert.assertEquals(GlobalConfiguration.DEFAULT_SHARED_IDLE_STRATEGY_SLEEP_NANOS, configuration.getSharedIdleStrategySleepTime().longValue());
+        Assert.assertTrue(configuration.createSharedIdleStrategy() instanceof SleepingIdleStrategy);
+        Assert.assertSame(ThreadParams.DEFAULT, configuration.getSharedThreadParams());
+        Assert.assertSame(ThreadParams.DEFAULT, configuration.getSharedBackgroundThreadParams());
+    }
+
+    @Test
+    public void sharedThreadingMode() throws VegaException {
+        final GlobalConfiguration.GlobalConfigurationBuilder builder = GlobalConfiguration.builder().driverType(AeronDriverType.EXTERNAL);
+        builder.externalDriverDir(EXTERNAL_DRIVER_DIR);
+        builder.threadingMode(ThreadingMode.SHARED).sharedIdleStrategyType(IdleStrategyType.BUSY_SPIN);
+        builder.sharedThread(ThreadConfig.builder().name("shared").cpuAffinity("1").build());
+        builder.sharedBackgroundThread(ThreadConfig.builder().priority(3).build());
+        this.addRcvPollerConfig(builder);
+        this.addAutoDiscConfig(builder);
+        this.addResponsesConfig(builder);
+        this.addTopicTemplateConfig(builder);
+        this.addTopicConfig(builder);
+
+        final GlobalConfiguration configuration = builder.build();
+        configuration.completeAndValidateConfig();
+
+        Assert.assertEquals(ThreadingMode.SHARED, configuration.getThreadingMode());
+        Assert.assertNull(configuration.getSharedIdleStrategySleepTime());
+        Assert.assertTrue(configuration.createSharedIdleStrategy() instanceof BusySpinIdleStrategy);
+        Assert.assertEquals("shared", configuration.getSharedThreadParams().getName());
+        Assert.assertEquals(3, configuration.getSharedBackgroundThreadParams().getPriority().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void invalidSharedThread() throws VegaException {
+        final GlobalConfiguration.GlobalConfigurationBuilder builder = GlobalConfiguration.builder().driverType(AeronDriverType.EXTERNAL);
+        builder.externalDriverDir(EXTERNAL_DRIVER_DIR);
+        builder.threadingMode(ThreadingMode.SHARED).sharedThread(ThreadConfig.builder().priority(20).build());
+        this.addRcvPollerConfig(builder);
+        this.addAutoDiscConfig(builder);
+        this.addResponsesConfig(builder);
+        this.addTopicTemplateConfig(builder);
+        this.addTopicConfig(builder);
+
+        builder.build().completeAndValidateConfig();
     }
 
     private RcvPollerConfig createValidRcvPollerConfig(final String pollerName) {
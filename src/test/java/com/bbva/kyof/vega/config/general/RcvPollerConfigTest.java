@@ -1,6 +1,8 @@
 package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import org.agrona.concurrent.BackoffIdleStrategy;
 import org.agrona.concurrent.BusySpinIdleStrategy;
 import org.agrona.concurrent.SleepingIdleStrategy;
 import org.junit.Assert;
@@ -52,4 +54,129 @@ public class RcvPollerConfigTest {
 
         Assert.assertTrue(config.getIdleStrategy() instanceof SleepingIdleStrategy);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void adaptivePollBudgetDisabledByDefault() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                maxFragmentsPerPoll(10).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertFalse(config.isAdaptivePollBudget());
+        Assert.assertNull(config.getMinFragmentsPerPoll());
+        Assert.assertEquals(10, config.getMaxFragmentsPerPoll().intValue());
+    }
+
+    @Test
+    public void adaptivePollBudgetDefaultParams() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                adaptivePollBudget(true).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertTrue(config.isAdaptivePollBudget());
+        Assert.assertEquals(RcvPollerConfig.DEFAULT_ADAPTIVE_MIN_FRAGMENTS_POLL, config.getMinFragmentsPerPoll().intValue());
+        Assert.assertEquals(RcvPollerConfig.DEFAULT_ADAPTIVE_MAX_FRAGMENTS_POLL, config.getMaxFragmentsPerPoll().intValue());
+
+        // The default max is never lower than the min
+        final RcvPollerConfig bigMinConfig = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                adaptivePollBudget(true).minFragmentsPerPoll(100).build();
+        bigMinConfig.completeAndValidateConfig();
+        Assert.assertEquals(100, bigMinConfig.getMaxFragmentsPerPoll().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void adaptivePollBudgetInvalidMin() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                adaptivePollBudget(true).minFragmentsPerPoll(0).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void adaptivePollBudgetMaxLowerThanMin() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                adaptivePollBudget(true).minFragmentsPerPoll(8).maxFragmentsPerPoll(4).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test
+    public void dispatchDisabledByDefault() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertFalse(config.isDispatchEnabled());
+        Assert.assertNull(config.getDispatchQueueSize());
+        Assert.assertNull(config.createDispatchIdleStrategy());
+    }
+
+    @Test
+    public void dispatchDefaultParams() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchWorkerThreads(2).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertTrue(config.isDispatchEnabled());
+        Assert.assertEquals(2, config.getDispatchWorkerThreads().intValue());
+        Assert.assertEquals(RcvPollerConfig.DEFAULT_DISPATCH_QUEUE_SIZE, config.getDispatchQueueSize().intValue());
+        Assert.assertEquals(DispatchOverflowPolicy.BLOCK, config.getDispatchOverflowPolicy());
+        Assert.assertTrue(config.createDispatchIdleStrategy() instanceof BackoffIdleStrategy);
+        Assert.assertNotSame(config.createDispatchIdleStrategy(), config.createDispatchIdleStrategy());
+    }
+
+    @Test
+    public void dispatchParams() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchWorkerThreads(1).dispatchQueueSize(64).dispatchOverflowPolicy(DispatchOverflowPolicy.DROP_NEWEST).
+                dispatchIdleStrategyType(IdleStrategyType.SLEEP_NANOS).dispatchIdleStrategySleepTime(10L).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals(64, config.getDispatchQueueSize().intValue());
+        Assert.assertEquals(DispatchOverflowPolicy.DROP_NEWEST, config.getDispatchOverflowPolicy());
+        Assert.assertTrue(config.createDispatchIdleStrategy() instanceof SleepingIdleStrategy);
+    }
+
+    @Test(expected = VegaException.class)
+    public void dispatchInvalidWorkerThreads() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchWorkerThreads(0).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void dispatchQueueSizeNotPowerOf2() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchWorkerThreads(1).dispatchQueueSize(100).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void dispatchSleepIdleMissingTime() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchWorkerThreads(1).dispatchIdleStrategyType(IdleStrategyType.SLEEP_NANOS).build();
+        config.completeAndValidateConfig();
+    }
+
+    @Test
+    public void threadParams() throws Exception {
+        final RcvPollerConfig defaultConfig = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).build();
+        defaultConfig.completeAndValidateConfig();
+
+        Assert.assertSame(ThreadParams.DEFAULT, defaultConfig.getThreadParams());
+        Assert.assertSame(ThreadParams.DEFAULT, defaultConfig.getDispatchThreadParams());
+
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                thread(ThreadConfig.builder().name("poller").cpuAffinity("1").build()).
+                dispatchThread(ThreadConfig.builder().name("worker").priority(8).build()).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals("poller", config.getThreadParams().getName());
+        Assert.assertArrayEquals(new int[]{1}, config.getThreadParams().getCpuAffinity());
+        Assert.assertEquals("worker", config.getDispatchThreadParams().getName());
+        Assert.assertEquals(8, config.getDispatchThreadParams().getPriority().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void invalidThreadParams() throws Exception {
+        final RcvPollerConfig config = RcvPollerConfig.builder().name("name").idleStrategyType(IdleStrategyType.BUSY_SPIN).
+                dispatchThread(ThreadConfig.builder().cpuAffinity("x").build()).build();
+        config.completeAndValidateConfig();
+    }
+}
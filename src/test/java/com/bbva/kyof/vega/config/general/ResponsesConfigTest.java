@@ -42,6 +42,19 @@ public class ResponsesConfigTest {
         Assert.assertEquals(ResponsesConfig.DEFAULT_MIN_PORT, (int) config.getMinPort());
         Assert.assertEquals(ResponsesConfig.DEFAULT_NUM_STREAMS, (int) config.getNumStreams());
         Assert.assertNotNull(config.getSubnetAddress());
+        Assert.assertEquals(0, (int) config.getSentRequestPoolSize());
+    }
+
+    @Test
+    public void validateSentRequestPoolSize() throws Exception {
+        final ResponsesConfig config = this.minimumBuilder.sentRequestPoolSize(1024).build();
+        config.completeAndValidateConfig();
+        Assert.assertEquals(1024, (int) config.getSentRequestPoolSize());
+    }
+
+    @Test(expected = VegaException.class)
+    public void validateNegativeSentRequestPoolSize() throws Exception {
+        this.minimumBuilder.sentRequestPoolSize(-1).build().completeAndValidateConfig();
     }
 
     @Test
@@ -0,0 +1,69 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThreadConfigTest {
+    @Test
+    public void emptyConstructor() throws Exception {
+        new ThreadConfig();
+    }
+
+    @Test
+    public void emptyConfig() throws Exception {
+        final ThreadConfig config = ThreadConfig.builder().build();
+        config.completeAndValidateConfig();
+
+        final ThreadParams params = config.getThreadParams();
+        Assert.assertNull(params.getName());
+        Assert.assertNull(params.getCpuAffinity());
+        Assert.assertFalse(params.hasCpuAffinity());
+        Assert.assertNull(params.getPriority());
+        Assert.assertNull(params.getDaemon());
+    }
+
+    @Test
+    public void validConfig() throws Exception {
+        final ThreadConfig config = ThreadConfig.builder().name("poller").cpuAffinity("4, 1-2,2").priority(7).daemon(true).build();
+        config.completeAndValidateConfig();
+
+        final ThreadParams params = config.getThreadParams();
+        Assert.assertEquals("poller", params.getName());
+        Assert.assertArrayEquals(new int[]{1, 2, 4}, params.getCpuAffinity());
+        Assert.assertTrue(params.hasCpuAffinity());
+        Assert.assertEquals(7, params.getPriority().intValue());
+        Assert.assertTrue(params.getDaemon());
+    }
+
+    @Test(expected = VegaException.class)
+    public void emptyName() throws Exception {
+        ThreadConfig.builder().name(" ").build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void priorityTooLow() throws Exception {
+        ThreadConfig.builder().priority(Thread.MIN_PRIORITY - 1).build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void priorityTooHigh() throws Exception {
+        ThreadConfig.builder().priority(Thread.MAX_PRIORITY + 1).build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void invalidCpu() throws Exception {
+        ThreadConfig.builder().cpuAffinity("1,a").build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void invalidCpuRange() throws Exception {
+        ThreadConfig.builder().cpuAffinity("3-1").build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void negativeCpu() throws Exception {
+        ThreadConfig.builder().cpuAffinity("-1").build().completeAndValidateConfig();
+    }
+}
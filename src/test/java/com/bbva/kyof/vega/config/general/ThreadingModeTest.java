@@ -0,0 +1,13 @@
+package com.bbva.kyof.vega.config.general;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThreadingModeTest {
+    @Test
+    public void valueAndFromValue() throws Exception {
+        Assert.assertEquals(ThreadingMode.SHARED.value(), "SHARED");
+        Assert.assertEquals(ThreadingMode.fromValue("SHARED_NETWORK"), ThreadingMode.SHARED_NETWORK);
+        Assert.assertEquals(ThreadingMode.fromValue("INVOKER"), ThreadingMode.INVOKER);
+    }
+}
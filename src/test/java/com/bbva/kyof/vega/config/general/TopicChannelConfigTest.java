@@ -0,0 +1,36 @@
+package com.bbva.kyof.vega.config.general;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopicChannelConfigTest {
+    @Test
+    public void emptyConstructor() throws Exception {
+        new TopicChannelConfig();
+    }
+
+    @Test
+    public void validConfig() throws Exception {
+        final TopicChannelConfig config = TopicChannelConfig.builder().topic("topic").channel(3).build();
+        config.completeAndValidateConfig();
+
+        Assert.assertEquals("topic", config.getTopic());
+        Assert.assertEquals(3, config.getChannel().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void missingTopic() throws Exception {
+        TopicChannelConfig.builder().channel(3).build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void missingChannel() throws Exception {
+        TopicChannelConfig.builder().topic("topic").build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void negativeChannel() throws Exception {
+        TopicChannelConfig.builder().topic("topic").channel(-1).build().completeAndValidateConfig();
+    }
+}
@@ -2,9 +2,13 @@ package com.bbva.kyof.vega.config.general;
 
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.SleepingIdleStrategy;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 /**
  * Created by cnebrera on 01/08/16.
  */
@@ -52,6 +56,559 @@ public class TopicTemplateConfigTest {
         Assert.assertEquals(TopicTemplateConfig.DEFAULT_UCAST_MAX_PORT, (int) unicastConfig.getMaxPort());
         Assert.assertEquals(TopicTemplateConfig.DEFAULT_STREAMS_PER_PORT, (int) unicastConfig.getNumStreamsPerPort());
         Assert.assertNotNull(unicastConfig.getSubnetAddress());
+        Assert.assertFalse(unicastConfig.isThreadConfinedPublisher());
+    }
+
+    @Test
+    public void testThreadConfinedPublisher() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                threadConfinedPublisher(true).
+                build();
+
+        config.completeAndValidateConfig();
+
+        Assert.assertTrue(config.isThreadConfinedPublisher());
+        Assert.assertTrue(config.getThreadConfinedPublisher());
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isBatchingEnabled());
+        Assert.assertNull(config.getBatchLingerTime());
+
+        final TopicTemplateConfig batchConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                batchMaxSize(1024).
+                build();
+
+        batchConfig.completeAndValidateConfig();
+        Assert.assertTrue(batchConfig.isBatchingEnabled());
+        Assert.assertEquals(1024, batchConfig.getBatchMaxSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_BATCH_LINGER_TIME, batchConfig.getBatchLingerTime().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void testBatchMaxSizeTooSmall() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                batchMaxSize(TopicTemplateConfig.MIN_BATCH_MAX_SIZE - 1).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testBatchWrongLingerTime() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                batchMaxSize(1024).
+                batchLingerTime(0).
+                build().completeAndValidateConfig();
+    }
+
+    @Test
+    public void testUnicastMdc() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isUnicastMdc());
+
+        final TopicTemplateConfig mdcConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                unicastMdc(true).
+                build();
+
+        mdcConfig.completeAndValidateConfig();
+        Assert.assertTrue(mdcConfig.isUnicastMdc());
+
+        // Ignored if not unicast
+        final TopicTemplateConfig ipcConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                unicastMdc(true).
+                build();
+
+        ipcConfig.completeAndValidateConfig();
+        Assert.assertFalse(ipcConfig.isUnicastMdc());
+    }
+
+    @Test
+    public void testBackPressurePolicy() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicy.FAIL_FAST, config.getBackPressurePolicy());
+        Assert.assertNull(config.createBackPressureIdleStrategy());
+
+        final TopicTemplateConfig retryConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.RETRY).
+                build();
+
+        retryConfig.completeAndValidateConfig();
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_BACK_PRESSURE_RETRY_TIMEOUT, retryConfig.getBackPressureRetryTimeout().longValue());
+        Assert.assertEquals(IdleStrategyType.BACK_OFF, retryConfig.getBackPressureIdleStrategyType());
+        Assert.assertTrue(retryConfig.createBackPressureIdleStrategy() instanceof BackoffIdleStrategy);
+        Assert.assertNotSame(retryConfig.createBackPressureIdleStrategy(), retryConfig.createBackPressureIdleStrategy());
+
+        final TopicTemplateConfig blockConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.BLOCK).
+                backPressureIdleStrategyType(IdleStrategyType.SLEEP_NANOS).
+                backPressureIdleStrategySleepTime(1000L).
+                build();
+
+        blockConfig.completeAndValidateConfig();
+        Assert.assertNull(blockConfig.getBackPressureRetryTimeout());
+        Assert.assertTrue(blockConfig.createBackPressureIdleStrategy() instanceof SleepingIdleStrategy);
+
+        final TopicTemplateConfig dropConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.DROP_OLDEST).
+                build();
+
+        dropConfig.completeAndValidateConfig();
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_BACK_PRESSURE_BUFFER_SIZE, dropConfig.getBackPressureBufferSize().intValue());
+        Assert.assertNull(dropConfig.createBackPressureIdleStrategy());
+
+        // Conflate policy, default buffer size
+        final TopicTemplateConfig conflateConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.CONFLATE).
+                build();
+
+        conflateConfig.completeAndValidateConfig();
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_BACK_PRESSURE_BUFFER_SIZE, conflateConfig.getBackPressureBufferSize().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void testConflateWithBatching() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.CONFLATE).
+                batchMaxSize(1024).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testConflateWithAsyncPublisher() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.CONFLATE).
+                asyncPublisherBufferSize(65536).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testBackPressureWrongRetryTimeout() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.RETRY).
+                backPressureRetryTimeout(0L).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testBackPressureMissingSleepTime() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.BLOCK).
+                backPressureIdleStrategyType(IdleStrategyType.SLEEP_NANOS).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testBackPressureWrongBufferSize() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.DROP_OLDEST).
+                backPressureBufferSize(0).
+                build().completeAndValidateConfig();
+    }
+
+    @Test
+    public void testAsyncPublisher() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isAsyncPublisher());
+        Assert.assertNull(config.getAsyncOverflowPolicy());
+        Assert.assertNull(config.createAsyncSenderIdleStrategy());
+
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(65536).
+                build();
+
+        asyncConfig.completeAndValidateConfig();
+        Assert.assertTrue(asyncConfig.isAsyncPublisher());
+        Assert.assertEquals(AsyncOverflowPolicy.FAIL_FAST, asyncConfig.getAsyncOverflowPolicy());
+        Assert.assertEquals(BackPressurePolicy.BLOCK, asyncConfig.getBackPressurePolicy());
+        Assert.assertTrue(asyncConfig.createAsyncSenderIdleStrategy() instanceof BackoffIdleStrategy);
+
+        final TopicTemplateConfig sleepConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(65536).
+                asyncOverflowPolicy(AsyncOverflowPolicy.BLOCK).
+                asyncSenderIdleStrategyType(IdleStrategyType.SLEEP_NANOS).
+                asyncSenderIdleStrategySleepTime(1000L).
+                backPressurePolicy(BackPressurePolicy.FAIL_FAST).
+                build();
+
+        sleepConfig.completeAndValidateConfig();
+        Assert.assertEquals(BackPressurePolicy.FAIL_FAST, sleepConfig.getBackPressurePolicy());
+        Assert.assertTrue(sleepConfig.createAsyncSenderIdleStrategy() instanceof SleepingIdleStrategy);
+    }
+
+    @Test
+    public void testCompactDataHeader() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isCompactDataHeader());
+
+        final TopicTemplateConfig compactConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                compactDataHeader(true).
+                build();
+
+        compactConfig.completeAndValidateConfig();
+        Assert.assertTrue(compactConfig.isCompactDataHeader());
+    }
+
+    @Test
+    public void testTopicChannels() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                minPort(35000).
+                maxPort(35002).
+                numStreamsPerPort(4).
+                topicChannels(Arrays.asList(new TopicChannelConfig("topic0", 0), new TopicChannelConfig("topic5", 5))).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertEquals(12, config.getNumChannels());
+        Assert.assertEquals(0, config.getTopicChannel("topic0").intValue());
+        Assert.assertNull(config.getTopicChannel("other"));
+
+        // The stream changes first, then the port
+        Assert.assertEquals(2, config.selectStreamId("topic0"));
+        Assert.assertEquals(35000, config.selectPort("topic0"));
+        Assert.assertEquals(3, config.selectStreamId("topic5"));
+        Assert.assertEquals(35001, config.selectPort("topic5"));
+
+        // Not mapped topics use the hash of the name
+        Assert.assertEquals(2 + Math.abs("other".hashCode() % 4), config.selectStreamId("other"));
+    }
+
+    @Test
+    public void testMulticastTopicChannels() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.MULTICAST).
+                minPort(35000).
+                maxPort(35001).
+                numStreamsPerPort(2).
+                multicastAddressLow("225.0.0.1").
+                multicastAddressHigh("225.0.0.4").
+                topicChannels(Arrays.asList(new TopicChannelConfig("topic3", 3), new TopicChannelConfig("topic4", 4))).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertEquals(8, config.getNumChannels());
+
+        // The address changes after all the ports and streams of the previous one are used
+        Assert.assertEquals("225.0.0.1", config.selectMcastIp("topic3"));
+        Assert.assertEquals(35001, config.selectPort("topic3"));
+        Assert.assertEquals(3, config.selectStreamId("topic3"));
+        Assert.assertEquals("225.0.0.3", config.selectMcastIp("topic4"));
+        Assert.assertEquals(35000, config.selectPort("topic4"));
+        Assert.assertEquals(2, config.selectStreamId("topic4"));
+    }
+
+    @Test(expected = VegaException.class)
+    public void testTopicChannelOutOfRange() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                numStreamsPerPort(4).
+                topicChannels(Arrays.asList(new TopicChannelConfig("topic", 4))).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testDuplicatedTopicChannel() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                topicChannels(Arrays.asList(new TopicChannelConfig("topic1", 1), new TopicChannelConfig("topic2", 1))).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testDuplicatedTopicInTopicChannels() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                topicChannels(Arrays.asList(new TopicChannelConfig("topic", 1), new TopicChannelConfig("topic", 2))).
+                build().completeAndValidateConfig();
+    }
+
+    @Test
+    public void testRcvPollPriority() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_RCV_POLL_PRIORITY, config.getRcvPollPriority());
+
+        final TopicTemplateConfig priorityConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                rcvPollPriority(5).
+                build();
+
+        priorityConfig.completeAndValidateConfig();
+        Assert.assertEquals(5, priorityConfig.getRcvPollPriority());
+    }
+
+    @Test
+    public void testGapRecovery() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isGapRecoveryEnabled());
+        Assert.assertNull(config.getRetransmissionBufferSize());
+        Assert.assertNull(config.getGapFillTimeout());
+
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(1024).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertTrue(defaultConfig.isGapRecoveryEnabled());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_RETRANSMISSION_BUFFER_SIZE, defaultConfig.getRetransmissionBufferSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_GAP_FILL_TIMEOUT, defaultConfig.getGapFillTimeout().intValue());
+
+        final TopicTemplateConfig customConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(16).
+                retransmissionBufferSize(8192).
+                gapFillTimeout(20).
+                build();
+
+        customConfig.completeAndValidateConfig();
+        Assert.assertEquals(16, customConfig.getRetransmissionWindowSize().intValue());
+        Assert.assertEquals(8192, customConfig.getRetransmissionBufferSize().intValue());
+        Assert.assertEquals(20, customConfig.getGapFillTimeout().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void testGapRecoveryWrongWindowSize() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(100).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testGapRecoveryWrongBufferSize() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(16).
+                retransmissionBufferSize(1024).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testGapRecoveryWrongTimeout() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(16).
+                gapFillTimeout(0).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testGapRecoveryThreadConfined() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(16).
+                threadConfinedPublisher(true).
+                build().completeAndValidateConfig();
+    }
+
+    @Test
+    public void testReordering() throws Exception {
+        final TopicTemplateConfig config = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+
+        config.completeAndValidateConfig();
+        Assert.assertFalse(config.isReorderingEnabled());
+        Assert.assertNull(config.getReorderTimeout());
+
+        final TopicTemplateConfig defaultConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                reorderWindowSize(32).
+                build();
+
+        defaultConfig.completeAndValidateConfig();
+        Assert.assertTrue(defaultConfig.isReorderingEnabled());
+        Assert.assertEquals(32, defaultConfig.getReorderWindowSize().intValue());
+        Assert.assertEquals(TopicTemplateConfig.DEFAULT_REORDER_TIMEOUT, defaultConfig.getReorderTimeout().intValue());
+
+        final TopicTemplateConfig customConfig = TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                reorderWindowSize(2).
+                reorderTimeout(50).
+                build();
+
+        customConfig.completeAndValidateConfig();
+        Assert.assertEquals(50, customConfig.getReorderTimeout().intValue());
+    }
+
+    @Test(expected = VegaException.class)
+    public void testReorderingWrongWindowSize() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                reorderWindowSize(12).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testReorderingWrongTimeout() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                reorderWindowSize(16).
+                reorderTimeout(-1).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testAsyncPublisherWrongBufferSize() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(5000).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testAsyncPublisherThreadConfined() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                threadConfinedPublisher(true).
+                build().completeAndValidateConfig();
+    }
+
+    @Test(expected = VegaException.class)
+    public void testAsyncPublisherMissingSleepTime() throws Exception {
+        TopicTemplateConfig.builder().
+                name("aname").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                asyncSenderIdleStrategyType(IdleStrategyType.SLEEP_NANOS).
+                build().completeAndValidateConfig();
     }
 
     @Test
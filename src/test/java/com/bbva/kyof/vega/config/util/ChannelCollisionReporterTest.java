@@ -0,0 +1,67 @@
+package com.bbva.kyof.vega.config.util;
+
+import com.bbva.kyof.vega.config.general.ConfigReader;
+import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.exception.VegaException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ChannelCollisionReporterTest {
+    private static final String CONFIG_FILE = ChannelCollisionReporterTest.class.getClassLoader().getResource("config/channelCollisionConfig.xml").getPath();
+
+    private static final List<String> TOPICS = Arrays.asList("hashed.a", "hashed.b", "hashed.c", "mapped.a", "mapped.b", "mapped.c", "mapped.d", "unknown");
+
+    @Test
+    public void testConstructor() throws Exception {
+        Constructor<?>[] cons = ChannelCollisionReporter.class.getDeclaredConstructors();
+        cons[0].setAccessible(true);
+        cons[0].newInstance((Object[]) null);
+    }
+
+    @Test
+    public void testFindCollisions() throws Exception {
+        final GlobalConfiguration config = ConfigReader.readConfiguration(CONFIG_FILE);
+
+        // The hashed topics have a single stream to share, the mapped topics have one channel each and the unknown topic is ignored
+        final Map<String, List<String>> collisions = ChannelCollisionReporter.findCollisions(config, TOPICS);
+        Assert.assertEquals(1, collisions.size());
+        Assert.assertEquals(Arrays.asList("hashed.a", "hashed.b", "hashed.c"), collisions.get("IPC stream 2"));
+    }
+
+    @Test
+    public void testDescribeMappedChannels() throws Exception {
+        final GlobalConfiguration config = ConfigReader.readConfiguration(CONFIG_FILE);
+
+        // The channel index selects the stream first, then the port
+        Assert.assertEquals("MULTICAST 225.0.1.1:36000 stream 2", ChannelCollisionReporter.describeChannel(config.getTopicTemplateForTopic("mapped.a"), "mapped.a"));
+        Assert.assertEquals("MULTICAST 225.0.1.1:36000 stream 3", ChannelCollisionReporter.describeChannel(config.getTopicTemplateForTopic("mapped.b"), "mapped.b"));
+        Assert.assertEquals("MULTICAST 225.0.1.1:36001 stream 2", ChannelCollisionReporter.describeChannel(config.getTopicTemplateForTopic("mapped.c"), "mapped.c"));
+        Assert.assertEquals("MULTICAST 225.0.1.1:36001 stream 3", ChannelCollisionReporter.describeChannel(config.getTopicTemplateForTopic("mapped.d"), "mapped.d"));
+    }
+
+    @Test
+    public void testMain() throws Exception {
+        final File topicsFile = File.createTempFile("topics", ".txt");
+        topicsFile.deleteOnExit();
+        Files.write(topicsFile.toPath(), TOPICS);
+
+        ChannelCollisionReporter.main(new String[]{CONFIG_FILE, topicsFile.getAbsolutePath()});
+    }
+
+    @Test(expected = VegaException.class)
+    public void testMainWrongArguments() throws Exception {
+        ChannelCollisionReporter.main(new String[]{CONFIG_FILE});
+    }
+
+    @Test(expected = VegaException.class)
+    public void testMainMissingTopicsFile() throws Exception {
+        ChannelCollisionReporter.main(new String[]{CONFIG_FILE, "nonExistingTopicsFile.txt"});
+    }
+}
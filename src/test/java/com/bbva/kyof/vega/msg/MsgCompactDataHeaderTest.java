@@ -0,0 +1,47 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Test the {@link MsgCompactDataHeader} class
+ */
+public class MsgCompactDataHeaderTest {
+    @Test
+    public void fromBinaryToBinary() {
+        // Create the header
+        final Random random = new Random();
+        final MsgCompactDataHeader testHeader = new MsgCompactDataHeader(random.nextInt(), random.nextLong());
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary
+        testHeader.toBinary(serializer);
+
+        // Check the current offset, should be the serialization size
+        Assert.assertEquals(serializer.getOffset(), testHeader.serializedSize());
+
+        // Flip the buffer
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+
+        // Wrap again and read
+        serializer.wrap(buffer);
+
+        MsgCompactDataHeader readedHeader = new MsgCompactDataHeader();
+        readedHeader.fromBinary(serializer);
+
+        // Check all values of the header
+        Assert.assertEquals(testHeader, readedHeader);
+
+        // Check again the limits
+        Assert.assertEquals(serializer.getOffset(), readedHeader.serializedSize());
+    }
+}
@@ -0,0 +1,48 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.serialization.UnsafeBufferSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Test the {@link MsgNakHeader} class
+ */
+public class MsgNakHeaderTest {
+    @Test
+    public void fromBinaryToBinary() {
+        // Create the header
+        final Random random = new Random();
+        final MsgNakHeader testHeader = new MsgNakHeader(UUID.randomUUID(), UUID.randomUUID(), random.nextLong(), random.nextLong());
+
+        // Create the buffer to serialize it
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        UnsafeBufferSerializer serializer = new UnsafeBufferSerializer();
+        serializer.wrap(buffer);
+
+        // Write to binary
+        testHeader.toBinary(serializer);
+
+        // Check the current offset, should be the serialization size
+        Assert.assertEquals(serializer.getOffset(), testHeader.serializedSize());
+
+        // Flip the buffer
+        buffer.limit(serializer.getOffset());
+        buffer.position(0);
+
+        // Wrap again and read
+        serializer.wrap(buffer);
+
+        MsgNakHeader readedHeader = new MsgNakHeader();
+        readedHeader.fromBinary(serializer);
+
+        // Check all values of the header
+        Assert.assertEquals(testHeader, readedHeader);
+
+        // Check again the limits
+        Assert.assertEquals(serializer.getOffset(), readedHeader.serializedSize());
+    }
+}
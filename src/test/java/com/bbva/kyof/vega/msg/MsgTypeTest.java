@@ -30,6 +30,10 @@ public class MsgTypeTest {
         Assert.assertEquals(MsgType.toString(MsgType.ENCRYPTED_DATA), "ENCRYPTED_DATA");
         Assert.assertEquals(MsgType.toString(MsgType.AUTO_DISC_DAEMON_CLIENT_INFO), "AUTO_DISC_DAEMON_CLIENT_INFO");
         Assert.assertEquals(MsgType.toString(MsgType.CONTROL_SECURITY_ERROR_RESP), "CONTROL_SECURITY_ERROR_RESP");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_BATCH), "DATA_BATCH");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_COMPACT), "DATA_COMPACT");
+        Assert.assertEquals(MsgType.toString(MsgType.DATA_BATCH_COMPACT), "DATA_BATCH_COMPACT");
+        Assert.assertEquals(MsgType.toString(MsgType.NAK), "NAK");
         Assert.assertEquals(MsgType.toString((byte) 55), "UNKNOWN");
     }
 }
\ No newline at end of file
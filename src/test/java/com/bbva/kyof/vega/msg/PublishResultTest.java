@@ -12,7 +12,10 @@ public class PublishResultTest {
         Assert.assertTrue(PublishResult.fromAeronResult(456) == PublishResult.OK);
         Assert.assertTrue(PublishResult.fromAeronResult(0) == PublishResult.OK);
         Assert.assertTrue(PublishResult.fromAeronResult(-2) == PublishResult.BACK_PRESSURED);
-        Assert.assertTrue(PublishResult.fromAeronResult(-3) == PublishResult.OK);
-        Assert.assertTrue(PublishResult.fromAeronResult(-1) == PublishResult.OK);
+        Assert.assertTrue(PublishResult.fromAeronResult(-3) == PublishResult.BACK_PRESSURED);
+        Assert.assertTrue(PublishResult.fromAeronResult(-1) == PublishResult.NOT_CONNECTED);
+        Assert.assertTrue(PublishResult.fromAeronResult(-4) == PublishResult.OK);
+        Assert.assertTrue(PublishResult.fromAeronResult(-5) == PublishResult.MAX_POSITION_EXCEEDED);
+        Assert.assertTrue(PublishResult.fromAeronResult(-6) == PublishResult.UNEXPECTED_ERROR);
     }
 }
\ No newline at end of file
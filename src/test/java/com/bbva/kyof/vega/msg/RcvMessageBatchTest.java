@@ -0,0 +1,112 @@
+package com.bbva.kyof.vega.msg;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Test the class RcvMessageBatch
+ */
+public class RcvMessageBatchTest {
+    private final UUID instanceId = UUID.randomUUID();
+    private final UUID publisherId = UUID.randomUUID();
+
+    @Test
+    public void testAddAndGet() {
+        final RcvMessageBatch batch = new RcvMessageBatch();
+        Assert.assertEquals(0, batch.size());
+
+        // The contents of the message are copied, the received message can be reused
+        final RcvMessage msg = this.createMsg(3);
+        batch.add(msg);
+        msg.setSequenceNumber(4);
+        msg.setContentLength(8);
+        msg.getContents().putLong(msg.getContentOffset(), 4);
+        batch.add(msg);
+
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals("topic", batch.getTopicName());
+
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(i + 3, batch.getSequenceNumber(i));
+            Assert.assertEquals(this.instanceId, batch.getInstanceId(i));
+            Assert.assertEquals(this.publisherId, batch.getTopicPublisherId(i));
+            Assert.assertEquals(0, batch.getContentOffset(i) % 8);
+            Assert.assertEquals(i + 3, batch.getContents().getLong(batch.getContentOffset(i)));
+        }
+
+        // The first message had 3 bytes, the second one starts aligned
+        Assert.assertEquals(3, batch.getContentLength(0));
+        Assert.assertEquals(8, batch.getContentOffset(1));
+        Assert.assertEquals(8, batch.getContentLength(1));
+
+        // Use the flyweight
+        final IRcvMessage flyweight = batch.getMessage(1);
+        Assert.assertEquals("topic", flyweight.getTopicName());
+        Assert.assertEquals(this.instanceId, flyweight.getInstanceId());
+        Assert.assertEquals(4, ((RcvMessage) flyweight).getSequenceNumber());
+        Assert.assertEquals(4, flyweight.getContents().getLong(flyweight.getContentOffset()));
+
+        // The promoted message keeps the contents after the batch is cleared
+        final IRcvMessage promoted = batch.getMessage(0).promote();
+        Assert.assertSame(flyweight, batch.getMessage(0));
+        batch.clear();
+        Assert.assertEquals(0, batch.size());
+        Assert.assertEquals(3, promoted.getContentLength());
+        Assert.assertEquals(3, promoted.getContents().getByte(0));
+    }
+
+    @Test
+    public void testGrow() {
+        final RcvMessageBatch batch = new RcvMessageBatch();
+
+        // More messages and contents than the initial capacity
+        for (int i = 0; i < 1000; i++) {
+            final RcvMessage msg = this.createMsg(i);
+            msg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(100)));
+            msg.getContents().putLong(10, i);
+            msg.setContentOffset(10);
+            msg.setContentLength(90);
+            batch.add(msg);
+        }
+
+        Assert.assertEquals(1000, batch.size());
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, batch.getSequenceNumber(i));
+            Assert.assertEquals(90, batch.getContentLength(i));
+            Assert.assertEquals(i, batch.getContents().getLong(batch.getContentOffset(i)));
+        }
+
+        // The memory is reused after clear
+        final UnsafeBuffer contents = batch.getContents();
+        batch.clear();
+        batch.add(this.createMsg(5));
+        Assert.assertEquals(0, batch.getContentOffset(0));
+        Assert.assertSame(contents, batch.getContents());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidIndex() {
+        final RcvMessageBatch batch = new RcvMessageBatch();
+        batch.add(this.createMsg(1));
+        batch.clear();
+        batch.getMessage(0);
+    }
+
+    private RcvMessage createMsg(final long sequenceNumber) {
+        final RcvMessage msg = new RcvMessage();
+        msg.setTopicName("topic");
+        msg.setInstanceId(this.instanceId);
+        msg.setTopicPublisherId(this.publisherId);
+        msg.setSequenceNumber(sequenceNumber);
+        msg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(16)));
+        msg.getContents().putLong(4, sequenceNumber);
+        msg.setContentOffset(4);
+        msg.setContentLength(3);
+        return msg;
+    }
+}
@@ -0,0 +1,153 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ResponseFutureTest {
+    @Test
+    public void completeWithPromotedResponse() throws Exception {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+        future.onRequestSent(PublishResult.OK);
+        Assert.assertFalse(future.isDone());
+
+        final RcvResponse response = createResponse(request, 33);
+        request.onResponseReceived(response);
+
+        // The request is closed and the future holds a copy of the response
+        Assert.assertTrue(request.isClosed());
+        final IRcvResponse futureResponse = future.get();
+        Assert.assertNotSame(response, futureResponse);
+        Assert.assertEquals(request.getRequestId(), futureResponse.getOriginalRequestId());
+        Assert.assertEquals(33, futureResponse.getContents().getInt(futureResponse.getContentOffset()));
+    }
+
+    @Test
+    public void completeOnExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final ResponseFuture future = new ResponseFuture(executor);
+            final SentRequest request = createSentRequest(future);
+            future.onRequestCreated(request);
+            future.onRequestSent(PublishResult.OK);
+
+            // The dependent stage runs on the completing thread
+            final CompletableFuture<Thread> completionThread = future.thenApply(response -> Thread.currentThread());
+
+            request.onResponseReceived(createResponse(request, 1));
+            Assert.assertNotSame(Thread.currentThread(), completionThread.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+        future.onRequestSent(PublishResult.OK);
+
+        request.onRequestTimeout();
+        assertFailure(future, TimeoutException.class);
+    }
+
+    @Test
+    public void notSent() throws Exception {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+        future.onRequestSent(PublishResult.BACK_PRESSURED);
+
+        Assert.assertTrue(request.isClosed());
+        assertFailure(future, VegaException.class);
+    }
+
+    @Test
+    public void cancel() {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+        future.onRequestSent(PublishResult.OK);
+
+        Assert.assertTrue(future.cancel(false));
+        Assert.assertTrue(request.isClosed());
+
+        // Late responses are ignored
+        request.onResponseReceived(createResponse(request, 1));
+        Assert.assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void requestReusedBeforeSendReturns() {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+
+        // The response closes the request before the send returns, the object is reused for a new request that is not sent yet
+        request.onResponseReceived(createResponse(request, 1));
+        Assert.assertTrue(future.isDone());
+        request.reuse("topic", UUID.randomUUID(), 1000, null);
+
+        // The failure of the send or the cancellation should not close the new request
+        future.onRequestSent(PublishResult.UNEXPECTED_ERROR);
+        future.cancel(false);
+        Assert.assertFalse(request.isClosed());
+    }
+
+    @Test
+    public void cancelReusedRequest() {
+        final ResponseFuture future = new ResponseFuture(null);
+        final SentRequest request = createSentRequest(future);
+        future.onRequestCreated(request);
+        future.onRequestSent(PublishResult.OK);
+
+        // Closed by the user and reused for a new request
+        request.closeRequest();
+        request.reuse("topic", UUID.randomUUID(), 1000, null);
+
+        Assert.assertTrue(future.cancel(false));
+        Assert.assertFalse(request.isClosed());
+    }
+
+    static SentRequest createSentRequest(final IResponseListener listener) {
+        final SentRequest request = new SentRequest("topic", 1000, listener, new Random());
+        request.setSentResult(PublishResult.OK);
+        return request;
+    }
+
+    static RcvResponse createResponse(final SentRequest request, final int value) {
+        final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocate(4));
+        contents.putInt(0, value);
+
+        final RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(request.getRequestId());
+        response.setUnsafeBufferContent(contents);
+        response.setContentOffset(0);
+        response.setContentLength(4);
+        return response;
+    }
+
+    private static void assertFailure(final ResponseFuture future, final Class<? extends Throwable> errorType) throws InterruptedException {
+        try {
+            future.get();
+            Assert.fail("The future should have failed");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(errorType.isInstance(e.getCause()));
+        }
+    }
+}
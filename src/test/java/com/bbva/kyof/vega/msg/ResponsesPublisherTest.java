@@ -0,0 +1,213 @@
+package com.bbva.kyof.vega.msg;
+
+import com.bbva.kyof.vega.exception.VegaException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+public class ResponsesPublisherTest {
+    @Test
+    public void deliverOnReceivingThread() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(2, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.OK);
+
+        final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        // With demand the response is delivered directly, without promoting it
+        final RcvResponse response = ResponseFutureTest.createResponse(request, 1);
+        request.onResponseReceived(response);
+        Assert.assertEquals(1, subscriber.responses.size());
+        Assert.assertSame(response, subscriber.responses.get(0));
+        Assert.assertSame(Thread.currentThread(), subscriber.responseThread);
+        Assert.assertFalse(subscriber.completed);
+
+        // The expected number of responses completes the publisher and closes the request
+        request.onResponseReceived(ResponseFutureTest.createResponse(request, 2));
+        Assert.assertEquals(2, subscriber.responses.size());
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertTrue(request.isClosed());
+    }
+
+    @Test
+    public void bufferWithoutDemand() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(ResponsesPublisher.UNLIMITED_RESPONSES, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.OK);
+
+        // Responses before the subscription are promoted and buffered
+        final RcvResponse response = ResponseFutureTest.createResponse(request, 1);
+        request.onResponseReceived(response);
+        request.onResponseReceived(ResponseFutureTest.createResponse(request, 2));
+        request.onResponseReceived(ResponseFutureTest.createResponse(request, 3));
+
+        final TestSubscriber subscriber = new TestSubscriber(1);
+        publisher.subscribe(subscriber);
+        Assert.assertEquals(1, subscriber.responses.size());
+        Assert.assertNotSame(response, subscriber.responses.get(0));
+        Assert.assertEquals(1, subscriber.responses.get(0).getContents().getInt(0));
+
+        // The timeout completes the publisher once the buffered responses have been delivered
+        request.onRequestTimeout();
+        Assert.assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(5);
+        Assert.assertEquals(3, subscriber.responses.size());
+        Assert.assertEquals(3, subscriber.responses.get(2).getContents().getInt(0));
+        Assert.assertTrue(subscriber.completed);
+
+        // Responses after the completion are ignored
+        request.onResponseReceived(ResponseFutureTest.createResponse(request, 4));
+        Assert.assertEquals(3, subscriber.responses.size());
+    }
+
+    @Test
+    public void deliverOnExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final ResponsesPublisher publisher = new ResponsesPublisher(2, executor);
+            final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+            publisher.onRequestCreated(request);
+            publisher.onRequestSent(PublishResult.OK);
+
+            final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+
+            final RcvResponse response = ResponseFutureTest.createResponse(request, 1);
+            request.onResponseReceived(response);
+            request.onResponseReceived(ResponseFutureTest.createResponse(request, 2));
+
+            Assert.assertTrue(subscriber.terminated.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(subscriber.completed);
+            Assert.assertEquals(2, subscriber.responses.size());
+            Assert.assertNotSame(response, subscriber.responses.get(0));
+            Assert.assertNotSame(Thread.currentThread(), subscriber.responseThread);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void cancel() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(ResponsesPublisher.UNLIMITED_RESPONSES, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.OK);
+
+        final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.cancel();
+
+        Assert.assertTrue(request.isClosed());
+        request.onRequestTimeout();
+        Assert.assertFalse(subscriber.completed);
+        Assert.assertTrue(subscriber.responses.isEmpty());
+    }
+
+    @Test
+    public void notSent() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(1, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.UNEXPECTED_ERROR);
+        Assert.assertTrue(request.isClosed());
+
+        final TestSubscriber subscriber = new TestSubscriber(1);
+        publisher.subscribe(subscriber);
+        Assert.assertTrue(subscriber.error instanceof VegaException);
+    }
+
+    @Test
+    public void invalidDemand() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(1, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.OK);
+
+        final TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+        Assert.assertTrue(request.isClosed());
+    }
+
+    @Test
+    public void singleSubscriber() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(1, null);
+        publisher.onRequestCreated(ResponseFutureTest.createSentRequest(publisher));
+        publisher.onRequestSent(PublishResult.OK);
+
+        publisher.subscribe(new TestSubscriber(1));
+
+        final TestSubscriber secondSubscriber = new TestSubscriber(1);
+        publisher.subscribe(secondSubscriber);
+        Assert.assertNotNull(secondSubscriber.subscription);
+        Assert.assertTrue(secondSubscriber.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void cancelReusedRequest() {
+        final ResponsesPublisher publisher = new ResponsesPublisher(ResponsesPublisher.UNLIMITED_RESPONSES, null);
+        final SentRequest request = ResponseFutureTest.createSentRequest(publisher);
+        publisher.onRequestCreated(request);
+        publisher.onRequestSent(PublishResult.OK);
+
+        final TestSubscriber subscriber = new TestSubscriber(1);
+        publisher.subscribe(subscriber);
+
+        // Closed by the user and reused for a new request, cancelling the subscription should not close the new request
+        request.closeRequest();
+        request.reuse("topic", UUID.randomUUID(), 1000, null);
+        subscriber.subscription.cancel();
+        Assert.assertFalse(request.isClosed());
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<IRcvResponse> {
+        final long initialDemand;
+        final List<IRcvResponse> responses = new ArrayList<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+        volatile Thread responseThread;
+        volatile boolean completed = false;
+        volatile Throwable error;
+
+        TestSubscriber(final long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription newSubscription) {
+            subscription = newSubscription;
+            newSubscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(final IRcvResponse response) {
+            responseThread = Thread.currentThread();
+            responses.add(response);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+    }
+}
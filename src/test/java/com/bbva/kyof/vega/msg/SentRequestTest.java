@@ -4,7 +4,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 
 /**
  * Created by cnebrera on 02/08/16.
@@ -29,12 +32,40 @@ public class SentRequestTest implements IResponseListener {
         Assert.assertEquals(sentRequest.getNumberOfResponses(), 0);
     }
 
+    @Test
+    public void testChangePending() {
+        Assert.assertFalse(this.sentRequest.isChangePending());
+        Assert.assertTrue(this.sentRequest.markChangePending());
+        Assert.assertFalse(this.sentRequest.markChangePending());
+        Assert.assertTrue(this.sentRequest.isChangePending());
+
+        this.sentRequest.clearChangePending();
+        Assert.assertTrue(this.sentRequest.markChangePending());
+
+        // A reused request starts without changes
+        this.sentRequest.reuse("topicName", UUID.randomUUID(), 100, this);
+        Assert.assertFalse(this.sentRequest.isChangePending());
+    }
+
     @Test
     public void testClose() {
         this.sentRequest.closeRequest();
         Assert.assertTrue(this.sentRequest.isClosed());
     }
 
+    @Test
+    public void testCloseExpectedId() {
+        final UUID requestId = this.sentRequest.getRequestId();
+
+        // Once reused the old id should not close it
+        this.sentRequest.reuse("topicName", UUID.randomUUID(), 100, this);
+        this.sentRequest.closeRequest(requestId);
+        Assert.assertFalse(this.sentRequest.isClosed());
+
+        this.sentRequest.closeRequest(this.sentRequest.getRequestId());
+        Assert.assertTrue(this.sentRequest.isClosed());
+    }
+
     @Test
     public void testExpired() throws Exception {
         Assert.assertFalse(this.sentRequest.hasExpired());
@@ -52,6 +83,25 @@ public class SentRequestTest implements IResponseListener {
         Assert.assertFalse(this.sentRequest.hasExpired());
     }
 
+    @Test
+    public void testChangeListener() {
+        final List<SentRequest> changes = new ArrayList<>();
+        this.sentRequest.setChangeListener(changes::add);
+
+        final long expirationTime = this.sentRequest.getExpirationTime();
+        this.sentRequest.resetExpiration(1000);
+        Assert.assertTrue(this.sentRequest.getExpirationTime() > expirationTime);
+        this.sentRequest.closeRequest();
+        Assert.assertEquals(2, changes.size());
+        Assert.assertSame(this.sentRequest, changes.get(0));
+
+        // The timeout is triggered by the manager, it is not notified
+        this.sentRequest.setChangeListener(null);
+        this.sentRequest.onRequestTimeout();
+        this.sentRequest.resetExpiration(1000);
+        Assert.assertEquals(2, changes.size());
+    }
+
     @Test
     public void testResponseReceived() {
         this.sentRequest.onResponseReceived(new RcvResponse());
@@ -68,6 +118,35 @@ public class SentRequestTest implements IResponseListener {
         Assert.assertTrue(this.sentRequest.getNumberOfResponses() == 2);
     }
 
+    @Test
+    public void testReuse() {
+        this.sentRequest.onResponseReceived(new RcvResponse());
+        this.sentRequest.setSentResult(PublishResult.OK);
+        this.sentRequest.closeRequest();
+
+        final UUID previousId = this.sentRequest.getRequestId();
+        final UUID newId = UUID.randomUUID();
+        this.sentRequest.reuse("otherTopic", newId, 100, this);
+
+        Assert.assertEquals("otherTopic", this.sentRequest.getTopicName());
+        Assert.assertEquals(newId, this.sentRequest.getRequestId());
+        Assert.assertNull(this.sentRequest.getSentResult());
+        Assert.assertFalse(this.sentRequest.isClosed());
+        Assert.assertFalse(this.sentRequest.hasExpired());
+        Assert.assertEquals(0, this.sentRequest.getNumberOfResponses());
+
+        // Responses for the previous id are ignored
+        final RcvResponse oldResponse = new RcvResponse();
+        oldResponse.setOriginalRequestId(previousId);
+        this.sentRequest.onResponseReceived(oldResponse);
+        Assert.assertEquals(0, this.sentRequest.getNumberOfResponses());
+
+        final RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(newId);
+        this.sentRequest.onResponseReceived(response);
+        Assert.assertEquals(1, this.sentRequest.getNumberOfResponses());
+    }
+
     @Test
     public void testTimeout() {
         this.sentRequest.onRequestTimeout();
@@ -0,0 +1,108 @@
+package com.bbva.kyof.vega.protocol;
+
+import com.bbva.kyof.vega.config.general.ConfigReaderTest;
+import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.protocol.common.VegaInstanceParams;
+import com.bbva.kyof.vega.protocol.publisher.ITopicPublisher;
+import com.bbva.kyof.vega.protocol.subscriber.ITopicSubListener;
+import io.aeron.driver.MediaDriver;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Test for the {@link VegaInstance} class in INVOKER threading mode, all the work is done by the test thread calling doWork
+ */
+public class VegaInstanceInvokerTest {
+    private static final String INVOKER_CONFIG = Objects.requireNonNull(ConfigReaderTest.class.getClassLoader().getResource("config/vegaInstanceInvokerTestConfig.xml")).getPath();
+
+    private static MediaDriver MEDIA_DRIVER;
+
+    @BeforeClass
+    public static void beforeClass() {
+        MEDIA_DRIVER = MediaDriver.launchEmbedded();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        MEDIA_DRIVER.close();
+    }
+
+    @Test
+    public void testSendReceiveWithDoWork() throws Exception {
+        final Set<Thread> threadsBefore = new HashSet<>(Thread.getAllStackTraces().keySet());
+
+        final VegaInstanceParams params = VegaInstanceParams.builder().
+                instanceName("InvokerInstance").
+                configurationFile(INVOKER_CONFIG).
+                unmanagedMediaDriver(MEDIA_DRIVER).build();
+
+        try (final IVegaInstance instance = VegaInstance.createNewInstance(params)) {
+            final ReceiverListener listener = new ReceiverListener();
+            instance.subscribeToTopic("itopic", listener);
+            final ITopicPublisher publisher = instance.createPublisher("itopic");
+
+            // Let the auto-discovery connect the publisher and the subscriber
+            this.doWorkFor(instance, 4000);
+
+            final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+            sendBuffer.putInt(0, 33);
+            Assert.assertEquals(PublishResult.OK, publisher.sendMsg(sendBuffer, 0, 4));
+
+            // The message is only delivered when the application calls doWork, from its own thread
+            Assert.assertNull(listener.receivedMsg);
+            final long deadline = System.currentTimeMillis() + 1000;
+            while (listener.receivedMsg == null && System.currentTimeMillis() < deadline) {
+                instance.doWork();
+            }
+
+            Assert.assertNotNull(listener.receivedMsg);
+            Assert.assertEquals(33, listener.receivedMsg.getContents().getInt(0));
+            Assert.assertSame(Thread.currentThread(), listener.receiverThread);
+
+            // The instance has not started any thread
+            for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+                Assert.assertTrue("Unexpected thread " + thread.getName(), threadsBefore.contains(thread) || !isVegaThread(thread));
+            }
+        }
+    }
+
+    private void doWorkFor(final IVegaInstance instance, final long millis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            if (instance.doWork() == 0) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static boolean isVegaThread(final Thread thread) {
+        // The threads of the embedded media driver and the JVM are not created by the instance
+        return !thread.isDaemon() || thread.getName().startsWith("Vega") || thread.getName().startsWith("Autodisc") || thread.getName().contains("aeron-client");
+    }
+
+    private static class ReceiverListener implements ITopicSubListener {
+        volatile IRcvMessage receivedMsg = null;
+        volatile Thread receiverThread = null;
+
+        @Override
+        public void onMessageReceived(final IRcvMessage receivedMessage) {
+            this.receivedMsg = receivedMessage.promote();
+            this.receiverThread = Thread.currentThread();
+        }
+
+        @Override
+        public void onRequestReceived(final IRcvRequest receivedRequest) {
+            // Not used
+        }
+    }
+}
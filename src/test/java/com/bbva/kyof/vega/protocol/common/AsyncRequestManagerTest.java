@@ -1,6 +1,8 @@
 package com.bbva.kyof.vega.protocol.common;
 
 import com.bbva.kyof.vega.msg.*;
+import com.bbva.kyof.vega.util.threads.SharedTaskInvoker;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import lombok.Getter;
 import org.junit.Assert;
 import org.junit.Before;
@@ -96,6 +98,46 @@ public class AsyncRequestManagerTest {
         Assert.assertTrue(listener.getTimedOutRequests().contains(sentRequest.getRequestId()));
     }
 
+    @Test
+    public void reduceExpirationTime() throws Exception {
+        final Listener listener = new Listener();
+
+        SentRequest sentRequest = new SentRequest("topic", 10000, listener, new Random());
+        requestManager.addNewRequest(sentRequest);
+
+        // The timeout is rescheduled on the new expiration time
+        sentRequest.resetExpiration(50);
+        Thread.sleep(200);
+
+        Assert.assertTrue(sentRequest.isClosed());
+        Assert.assertTrue(listener.getTimedOutRequests().contains(sentRequest.getRequestId()));
+    }
+
+    @Test
+    public void expireManyRequests() throws Exception {
+        final Listener listener = new Listener();
+        final List<SentRequest> sentRequests = new ArrayList<>();
+
+        // Timeouts spread over more than a full turn of the timeouts wheel
+        for (int i = 0; i < 1000; i++) {
+            final SentRequest sentRequest = requestManager.createRequest("topic", 200 + i * 3, listener);
+            requestManager.addNewRequest(sentRequest);
+            sentRequests.add(sentRequest);
+        }
+
+        // Close half of them, they should not time out
+        for (int i = 0; i < 1000; i += 2) {
+            sentRequests.get(i).closeRequest();
+        }
+
+        Thread.sleep(3700);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(sentRequests.get(i).isClosed());
+            Assert.assertEquals(i % 2 == 1, listener.getTimedOutRequests().contains(sentRequests.get(i).getRequestId()));
+        }
+    }
+
     @Test
     public void responseReceived() throws Exception {
         final Listener listener = new Listener();
@@ -204,6 +246,103 @@ public class AsyncRequestManagerTest {
         requestManager.addNewRequest(sentRequest);
     }
 
+    @Test
+    public void createRequestIds() throws Exception {
+        final SentRequest request1 = requestManager.createRequest("topic", 100, null);
+        final SentRequest request2 = requestManager.createRequest("topic", 100, null);
+
+        // The ids combine the instance id with a counter
+        Assert.assertEquals(instanceId.getMostSignificantBits(), request1.getRequestId().getMostSignificantBits());
+        Assert.assertEquals(instanceId.getMostSignificantBits(), request2.getRequestId().getMostSignificantBits());
+        Assert.assertEquals(request1.getRequestId().getLeastSignificantBits() + 1, request2.getRequestId().getLeastSignificantBits());
+        Assert.assertEquals("topic", request1.getTopicName());
+        Assert.assertFalse(request1.isClosed());
+
+        // Without pool the requests are never reused
+        request1.setSentResult(PublishResult.OK);
+        requestManager.addNewRequest(request1);
+        request1.closeRequest();
+        Thread.sleep(50);
+        Assert.assertNotSame(request1, requestManager.createRequest("topic", 100, null));
+    }
+
+    @Test
+    public void reusePooledRequests() throws Exception {
+        requestManager.close();
+        requestManager = new AsyncRequestManager(instanceId, 2);
+        final Listener listener = new Listener();
+
+        // A closed request that has been sent is reused
+        final SentRequest closedRequest = requestManager.createRequest("topic", 1000, listener);
+        final UUID closedRequestId = closedRequest.getRequestId();
+        closedRequest.setSentResult(PublishResult.OK);
+        requestManager.addNewRequest(closedRequest);
+        closedRequest.closeRequest();
+        Thread.sleep(50);
+
+        final SentRequest reusedRequest = requestManager.createRequest("topic2", 1000, listener);
+        Assert.assertSame(closedRequest, reusedRequest);
+        Assert.assertNotEquals(closedRequestId, reusedRequest.getRequestId());
+        Assert.assertEquals("topic2", reusedRequest.getTopicName());
+        Assert.assertFalse(reusedRequest.isClosed());
+        Assert.assertNull(reusedRequest.getSentResult());
+        Assert.assertEquals(0, reusedRequest.getNumberOfResponses());
+
+        // A late response of the previous request should be ignored
+        reusedRequest.setSentResult(PublishResult.OK);
+        requestManager.addNewRequest(reusedRequest);
+        final RcvResponse lateResponse = new RcvResponse();
+        lateResponse.setOriginalRequestId(closedRequestId);
+        requestManager.processResponse(lateResponse);
+        Assert.assertEquals(0, reusedRequest.getNumberOfResponses());
+
+        final RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(reusedRequest.getRequestId());
+        requestManager.processResponse(response);
+        Assert.assertEquals(1, reusedRequest.getNumberOfResponses());
+        Assert.assertEquals("topic2", response.getTopicName());
+
+        // A request that expires before the send has finished is not reused
+        final SentRequest notSentRequest = requestManager.createRequest("topic", 10, listener);
+        requestManager.addNewRequest(notSentRequest);
+        Thread.sleep(100);
+        Assert.assertTrue(listener.getTimedOutRequests().contains(notSentRequest.getRequestId()));
+        Assert.assertNotSame(notSentRequest, requestManager.createRequest("topic", 100, listener));
+    }
+
+    @Test
+    public void closeMoreRequestsThanQueueCapacity() throws Exception {
+        requestManager.close();
+
+        // Run the manager from the test thread to close all the requests before the next iteration
+        final SharedTaskInvoker invoker = new SharedTaskInvoker("test");
+        final int numRequests = AsyncRequestManager.CHANGED_REQUESTS_CAPACITY * 2;
+        requestManager = new AsyncRequestManager(instanceId, numRequests, ThreadParams.DEFAULT, invoker);
+        final Listener listener = new Listener();
+
+        final Set<SentRequest> closedRequests = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < numRequests; i++) {
+            final SentRequest request = requestManager.createRequest("topic", 100000, listener);
+            request.setSentResult(PublishResult.OK);
+            requestManager.addNewRequest(request);
+            closedRequests.add(request);
+        }
+
+        // Close them twice, each request is only queued once and the ones that don't fit are found on the next iteration
+        closedRequests.forEach(SentRequest::closeRequest);
+        closedRequests.forEach(SentRequest::closeRequest);
+        Assert.assertEquals(numRequests, invoker.invoke());
+
+        // All of them have been removed and pooled
+        for (int i = 0; i < numRequests; i++) {
+            final SentRequest reusedRequest = requestManager.createRequest("topic", 100000, listener);
+            Assert.assertTrue(closedRequests.contains(reusedRequest));
+            Assert.assertFalse(reusedRequest.isChangePending());
+        }
+
+        invoker.close();
+    }
+
     class Listener implements IResponseListener {
         @Getter
         final Set<UUID> timedOutRequests = new HashSet<>();
@@ -3,8 +3,11 @@ package com.bbva.kyof.vega.protocol.common;
 import com.bbva.kyof.vega.autodiscovery.AutodiscManager;
 import com.bbva.kyof.vega.autodiscovery.IAutodiscManager;
 import com.bbva.kyof.vega.config.general.GlobalConfiguration;
+import com.bbva.kyof.vega.config.general.ThreadingMode;
 import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.util.threads.ThreadParams;
 import io.aeron.Aeron;
+import org.agrona.concurrent.SleepingIdleStrategy;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
@@ -64,6 +67,49 @@ public class VegaContextTest {
         Assert.assertEquals(reqManager, vegaContext.getAsyncRequestManager());
     }
 
+    @Test
+    public void testSharedRunners() {
+        // Dedicated threads by default
+        vegaContext.startSharedRunners();
+        Assert.assertNull(vegaContext.getBackgroundRunner());
+        Assert.assertNull(vegaContext.getNetworkRunner());
+        vegaContext.stopSharedRunners();
+
+        // Background and network tasks on different threads
+        final VegaContext sharedNetworkContext = new VegaContext(vegaContext.getAeron(), this.createThreadingConfig(ThreadingMode.SHARED_NETWORK));
+        sharedNetworkContext.startSharedRunners();
+        Assert.assertNotNull(sharedNetworkContext.getBackgroundRunner());
+        Assert.assertNotNull(sharedNetworkContext.getNetworkRunner());
+        Assert.assertNotSame(sharedNetworkContext.getBackgroundRunner(), sharedNetworkContext.getNetworkRunner());
+        sharedNetworkContext.stopSharedRunners();
+
+        // All the tasks on the same thread
+        final VegaContext sharedContext = new VegaContext(vegaContext.getAeron(), this.createThreadingConfig(ThreadingMode.SHARED));
+        sharedContext.startSharedRunners();
+        Assert.assertNotNull(sharedContext.getBackgroundRunner());
+        Assert.assertSame(sharedContext.getBackgroundRunner(), sharedContext.getNetworkRunner());
+        Assert.assertNull(sharedContext.getTaskInvoker());
+        sharedContext.stopSharedRunners();
+
+        // All the tasks executed by the application
+        final VegaContext invokerContext = new VegaContext(vegaContext.getAeron(), this.createThreadingConfig(ThreadingMode.INVOKER));
+        invokerContext.startSharedRunners();
+        Assert.assertNotNull(invokerContext.getTaskInvoker());
+        Assert.assertSame(invokerContext.getTaskInvoker(), invokerContext.getBackgroundRunner());
+        Assert.assertSame(invokerContext.getTaskInvoker(), invokerContext.getNetworkRunner());
+        invokerContext.stopSharedRunners();
+    }
+
+    private GlobalConfiguration createThreadingConfig(final ThreadingMode threadingMode) {
+        final GlobalConfiguration globalConfig = EasyMock.createNiceMock(GlobalConfiguration.class);
+        EasyMock.expect(globalConfig.getThreadingMode()).andReturn(threadingMode).anyTimes();
+        EasyMock.expect(globalConfig.createSharedIdleStrategy()).andReturn(new SleepingIdleStrategy(1_000_000L)).anyTimes();
+        EasyMock.expect(globalConfig.getSharedThreadParams()).andReturn(ThreadParams.DEFAULT).anyTimes();
+        EasyMock.expect(globalConfig.getSharedBackgroundThreadParams()).andReturn(ThreadParams.DEFAULT).anyTimes();
+        EasyMock.replay(globalConfig);
+        return globalConfig;
+    }
+
     @Test
     public void testStopHeartbeatsTimer() {
         vegaContext.stopHeartsbeatTimer();
@@ -1,12 +1,12 @@
 package com.bbva.kyof.vega.protocol.heartbeat;
 
 import com.bbva.kyof.vega.msg.IResponseListener;
+import com.bbva.kyof.vega.util.threads.TaskTimer;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.Timer;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -14,11 +14,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Created by cnebrera on 05/10/2016.
  */
 public class HeartbeatControllerTest {
-    private Timer timer;
+    private TaskTimer timer;
 
     @Before
     public void before() {
-        this.timer = new Timer("TestTimer");
+        this.timer = new TaskTimer("TestTimer");
     }
 
     @After
@@ -15,6 +15,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.UUID;
+
 /**
  * Created by cnebrera on 11/08/16.
  */
@@ -51,6 +53,7 @@ public class AbstractPublishersManagerTest {
                 final AbstractTopicPublisher result = EasyMock.createNiceMock(AbstractTopicPublisher.class);
                 EasyMock.expect(result.getTopicConfig()).andAnswer(() -> templateCfg).anyTimes();
                 EasyMock.expect(result.getTopicName()).andAnswer(() -> topicName).anyTimes();
+                EasyMock.expect(result.getUniqueId()).andReturn(UUID.randomUUID()).anyTimes();
                 EasyMock.replay(result);
                 return result;
             }
@@ -135,6 +138,17 @@ public class AbstractPublishersManagerTest {
         Assert.assertNull(publisherManager.getTopicPublisherForTopicName("topic2"));
     }
 
+    @Test
+    public void testGetTopicPublisherForId() throws Exception {
+        final AbstractTopicPublisher topicPublisher = publisherManager.createTopicPublisher("topic", topicConfigUnicast, null);
+
+        Assert.assertSame(topicPublisher, publisherManager.getTopicPublisherForId(topicPublisher.getUniqueId()));
+        Assert.assertNull(publisherManager.getTopicPublisherForId(UUID.randomUUID()));
+
+        publisherManager.destroyTopicPublisher("topic");
+        Assert.assertNull(publisherManager.getTopicPublisherForId(topicPublisher.getUniqueId()));
+    }
+
     @Test
     public void testGetTopicPublisherAfterClose() throws Exception {
         final AbstractTopicPublisher AbstractTopicPublisher = publisherManager.createTopicPublisher("topic", topicConfigUnicast, null);
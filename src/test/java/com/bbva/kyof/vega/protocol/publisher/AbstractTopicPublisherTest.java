@@ -1,10 +1,16 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.config.general.AsyncOverflowPolicy;
+import com.bbva.kyof.vega.config.general.BackPressurePolicy;
+import com.bbva.kyof.vega.config.general.IdleStrategyType;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.exception.VegaException;
+import com.bbva.kyof.vega.msg.IRcvResponse;
 import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
+import com.bbva.kyof.vega.msg.RcvResponse;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
@@ -18,7 +24,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,6 +56,7 @@ public class AbstractTopicPublisherTest {
     @After
     public void afterTest() {
         asyncRequestManager.close();
+        vegaContext.stopSharedRunners();
     }
 
     @Test
@@ -95,6 +110,586 @@ public class AbstractTopicPublisherTest {
         Assert.assertFalse(sentRequest.isClosed());
     }
 
+    @Test
+    public void testRequestFutureAndPublisher() throws Exception {
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", topicConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // The future is completed with the response
+        final CompletableFuture<IRcvResponse> future = topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 1000L, null);
+        final RcvResponse response = new RcvResponse();
+        response.setOriginalRequestId(topicPubImpl.lastRequestId.get());
+        response.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        asyncRequestManager.processResponse(response);
+        Assert.assertEquals(topicPubImpl.lastRequestId.get(), future.get(1, TimeUnit.SECONDS).getOriginalRequestId());
+        Assert.assertEquals("topic", future.get().getTopicName());
+
+        // The future fails on timeout
+        final CompletableFuture<IRcvResponse> timedOutFuture = topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 50L, null);
+        try {
+            timedOutFuture.get(1, TimeUnit.SECONDS);
+            Assert.fail("The request should time out");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // The publisher completes on timeout after delivering the responses
+        final Flow.Publisher<IRcvResponse> publisher = topicPubImpl.sendRequestPublisher(sendBuffer, 0, 128, 50L, 0, null);
+        final List<IRcvResponse> responses = new ArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        publisher.subscribe(new Flow.Subscriber<IRcvResponse>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(final IRcvResponse item) {
+                responses.add(item);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                Assert.fail();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        response.setOriginalRequestId(topicPubImpl.lastRequestId.get());
+        asyncRequestManager.processResponse(response);
+        asyncRequestManager.processResponse(response);
+        Assert.assertTrue(completed.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, responses.size());
+
+        // Requests on a closed publisher fail
+        topicPubImpl.close();
+        try {
+            topicPubImpl.sendRequestAsync(sendBuffer, 0, 128, 1000L, null).get(1, TimeUnit.SECONDS);
+            Assert.fail("The request should not be sent");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof VegaException);
+        }
+    }
+
+    @Test
+    public void testRetryBackPressurePolicy() throws Exception {
+        final TopicTemplateConfig retryConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.RETRY).
+                backPressureIdleStrategyType(IdleStrategyType.BUSY_SPIN).
+                build();
+        retryConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", retryConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // The first sends are back pressured, it should retry until it is sent
+        topicPubImpl.backPressuredSends = 3;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        Assert.assertEquals(3, topicPubImpl.getBackPressureRetries());
+        Assert.assertEquals(4, topicPubImpl.sendAttempts);
+
+        // The same for requests
+        topicPubImpl.backPressuredSends = 2;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendRequest(sendBuffer, 0, 128, 100L, null).getSentResult());
+        Assert.assertEquals(5, topicPubImpl.getBackPressureRetries());
+
+        // Always back pressured, it should give up after the retry timeout
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        Assert.assertTrue(topicPubImpl.getBackPressureRetries() > 5);
+
+        // Any other failure is not retried
+        topicPubImpl.backPressuredSends = 0;
+        topicPubImpl.failureResult = PublishResult.NOT_CONNECTED;
+        final long retries = topicPubImpl.getBackPressureRetries();
+        Assert.assertEquals(PublishResult.NOT_CONNECTED, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        Assert.assertEquals(retries, topicPubImpl.getBackPressureRetries());
+        Assert.assertEquals(0, topicPubImpl.getBackPressureDrops());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testBlockBackPressurePolicy() throws Exception {
+        final TopicTemplateConfig blockConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                backPressurePolicy(BackPressurePolicy.BLOCK).
+                build();
+        blockConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", blockConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        topicPubImpl.backPressuredSends = 1000;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        Assert.assertEquals(1000, topicPubImpl.getBackPressureRetries());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testDropOldestBackPressurePolicy() throws Exception {
+        final TopicTemplateConfig dropConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                threadConfinedPublisher(true).
+                backPressurePolicy(BackPressurePolicy.DROP_OLDEST).
+                backPressureBufferSize(3).
+                build();
+        dropConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", dropConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // Send 5 messages with back pressure, they are accepted but only the last 3 are kept
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        }
+        Assert.assertEquals(2, topicPubImpl.getBackPressureDrops());
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+
+        // Requests are rejected while there are pending messages
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.sendRequest(sendBuffer, 0, 128, 100L, null).getSentResult());
+        Assert.assertEquals(5, topicPubImpl.getSequenceNumber());
+
+        // Flush with back pressure, nothing is sent
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.flush());
+
+        // Remove the back pressure and send a new message, the pending ones should be sent first in order
+        topicPubImpl.backPressuredSends = 0;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+
+        final List<Long> expected = new ArrayList<>();
+        expected.add(3L);
+        expected.add(4L);
+        expected.add(5L);
+        expected.add(6L);
+        Assert.assertEquals(expected, topicPubImpl.sentSequenceNumbers);
+
+        // Nothing pending now
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(0, topicPubImpl.getBackPressureRetries());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testConflateBackPressurePolicy() throws Exception {
+        final TopicTemplateConfig conflateConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                threadConfinedPublisher(true).
+                backPressurePolicy(BackPressurePolicy.CONFLATE).
+                backPressureBufferSize(2).
+                build();
+        conflateConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", conflateConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // Send messages of keys 1, 2, 1, 2, 1 with back pressure, only the newest of each key is kept
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(1 + i % 2, sendBuffer, 0, 128));
+        }
+        Assert.assertEquals(3, topicPubImpl.getConflatedMsgs());
+        Assert.assertEquals(0, topicPubImpl.getBackPressureDrops());
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+
+        // A new key with the buffer full drops the oldest pending message, the one of key 2
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(3, sendBuffer, 0, 128));
+        Assert.assertEquals(1, topicPubImpl.getBackPressureDrops());
+
+        // Messages without key and requests are rejected while there are pending messages
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.sendRequest(sendBuffer, 0, 128, 100L, null).getSentResult());
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.flush());
+
+        // Remove the back pressure and flush, the pending ones are sent in order
+        topicPubImpl.backPressuredSends = 0;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+
+        final List<Long> expected = new ArrayList<>();
+        expected.add(5L);
+        expected.add(6L);
+        Assert.assertEquals(expected, topicPubImpl.sentSequenceNumbers);
+
+        // Without back pressure messages with key are sent directly
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(1, sendBuffer, 0, 128));
+        Assert.assertEquals(8L, topicPubImpl.sentSequenceNumbers.get(2).longValue());
+        Assert.assertEquals(3, topicPubImpl.getConflatedMsgs());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testBatchSendFailure() throws Exception {
+        final TopicTemplateConfig batchConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                threadConfinedPublisher(true).
+                batchMaxSize(1024).
+                batchLingerTime(100000).
+                build();
+        batchConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", batchConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(16));
+
+        // The messages are batched and accepted
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        }
+
+        // On back pressure the batch is kept
+        topicPubImpl.backPressuredSends = 1;
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.flush());
+        Assert.assertEquals(0, topicPubImpl.getBatchDrops());
+
+        // Any other error discards the batch and counts the messages as dropped
+        topicPubImpl.failureResult = PublishResult.UNEXPECTED_ERROR;
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPubImpl.flush());
+        Assert.assertEquals(3, topicPubImpl.getBatchDrops());
+
+        // Nothing is left to send
+        topicPubImpl.failureResult = null;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+
+        // New messages are batched again
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(4L, topicPubImpl.sentSequenceNumbers.get(0).longValue());
+        Assert.assertEquals(3, topicPubImpl.getBatchDrops());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testBatchWithoutSubscribers() throws Exception {
+        final TopicTemplateConfig batchConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                threadConfinedPublisher(true).
+                batchMaxSize(1024).
+                batchLingerTime(100000).
+                build();
+        batchConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", batchConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(16));
+
+        // Without subscribers the full batches are discarded and the messages keep being accepted, nothing is counted as dropped
+        topicPubImpl.failureResult = PublishResult.NOT_CONNECTED;
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        }
+        Assert.assertTrue(topicPubImpl.sendAttempts > 0);
+        Assert.assertEquals(PublishResult.NOT_CONNECTED, topicPubImpl.flush());
+        Assert.assertEquals(0, topicPubImpl.getBatchDrops());
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+
+        // Once there are subscribers the new messages are sent
+        topicPubImpl.failureResult = null;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(201L, topicPubImpl.sentSequenceNumbers.get(0).longValue());
+        Assert.assertEquals(0, topicPubImpl.getBatchDrops());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testConflationKeyIgnoredWithoutConflatePolicy() throws Exception {
+        final TopicTemplateConfig failConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                build();
+        failConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", failConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        topicPubImpl.backPressuredSends = 1;
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPubImpl.sendMsg(1, sendBuffer, 0, 128));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(1, sendBuffer, 0, 128));
+        Assert.assertEquals(0, topicPubImpl.getConflatedMsgs());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testAsyncPublisher() throws Exception {
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                asyncSenderIdleStrategyType(IdleStrategyType.BUSY_SPIN).
+                build();
+        asyncConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", asyncConfig, vegaContext);
+        final TopicPublisherImpl otherPubImpl = new TopicPublisherImpl("otherTopic", asyncConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(1024));
+
+        // The sender threads are started with the publishers, both publishers of the template share the same one
+        Assert.assertEquals(0, countThreads("VegaAsyncSender_name_"));
+        topicPubImpl.start();
+        otherPubImpl.start();
+        Assert.assertEquals(1, countThreads("VegaAsyncSender_name_"));
+
+        // Send some messages, after the flush all of them should have been sent in order by the sender thread
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        }
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(100, topicPubImpl.sentSequenceNumbers.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i + 1, topicPubImpl.sentSequenceNumbers.get(i).longValue());
+        }
+
+        // A message bigger than 1/8 of the ring is sent directly after the pending ones
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 1024));
+        Assert.assertEquals(102, topicPubImpl.sentSequenceNumbers.size());
+        Assert.assertEquals(102, topicPubImpl.getSequenceNumber());
+
+        // Requests wait for the pending messages as well
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendRequest(sendBuffer, 0, 16, 100L, null).getSentResult());
+        Assert.assertEquals(104, topicPubImpl.getSequenceNumber());
+
+        // Claims are never direct, the message is enqueued on commit
+        final PublisherClaim claim = new PublisherClaim();
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.tryClaim(16, claim));
+        Assert.assertEquals(PublishResult.OK, claim.commit());
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(105, topicPubImpl.getSequenceNumber());
+
+        topicPubImpl.close();
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+
+        // The other publisher keeps working on the shared thread
+        Assert.assertEquals(PublishResult.OK, otherPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, otherPubImpl.flush());
+        Assert.assertEquals(1, otherPubImpl.getSequenceNumber());
+        otherPubImpl.close();
+    }
+
+    private static int countThreads(final String namePrefix) {
+        int result = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(namePrefix)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testAsyncPublisherOverflow() throws Exception {
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                build();
+        asyncConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", asyncConfig, vegaContext);
+        topicPubImpl.start();
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // The sender blocks on back pressure, the ring should fill up and reject messages
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        int accepted = 0;
+        while (topicPubImpl.sendMsg(sendBuffer, 0, 16) == PublishResult.OK) {
+            accepted++;
+            Assert.assertTrue(accepted < 1000);
+        }
+
+        // Wait until the sender is retrying
+        while (topicPubImpl.getBackPressureRetries() == 0) {
+            Thread.yield();
+        }
+
+        // Remove the back pressure, all the accepted messages should be sent in order
+        topicPubImpl.backPressuredSends = 0;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(accepted, topicPubImpl.sentSequenceNumbers.size());
+        Assert.assertEquals(accepted, topicPubImpl.getSequenceNumber());
+        Assert.assertTrue(topicPubImpl.getBackPressureRetries() > 0);
+        Assert.assertEquals(0, topicPubImpl.getBackPressureDrops());
+
+        // Closing should not wait for a blocked sender
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testAsyncPublisherDropNewest() throws Exception {
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                asyncOverflowPolicy(AsyncOverflowPolicy.DROP_NEWEST).
+                build();
+        asyncConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", asyncConfig, vegaContext);
+        topicPubImpl.start();
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // The messages are always accepted, the ones that don't fit are dropped
+        topicPubImpl.backPressuredSends = Integer.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        }
+        Assert.assertTrue(topicPubImpl.getBackPressureDrops() > 0);
+
+        topicPubImpl.backPressuredSends = 0;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(1000, topicPubImpl.sentSequenceNumbers.size() + topicPubImpl.getBackPressureDrops());
+
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testAsyncPublisherUnsentMsgs() throws Exception {
+        final TopicTemplateConfig asyncConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                asyncPublisherBufferSize(4096).
+                backPressurePolicy(BackPressurePolicy.FAIL_FAST).
+                build();
+        asyncConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", asyncConfig, vegaContext);
+        topicPubImpl.start();
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // The back pressured messages are accepted, the sender thread cannot send them and counts them as dropped
+        topicPubImpl.backPressuredSends = 5;
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        }
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(5, topicPubImpl.sentSequenceNumbers.size());
+        Assert.assertEquals(5, topicPubImpl.getBackPressureDrops());
+
+        // Any other error is counted as well
+        topicPubImpl.failureResult = PublishResult.UNEXPECTED_ERROR;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(6, topicPubImpl.getBackPressureDrops());
+
+        // Without subscribers nothing is lost
+        topicPubImpl.failureResult = PublishResult.NOT_CONNECTED;
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 16));
+        Assert.assertEquals(PublishResult.OK, topicPubImpl.flush());
+        Assert.assertEquals(6, topicPubImpl.getBackPressureDrops());
+
+        topicPubImpl.failureResult = null;
+        topicPubImpl.close();
+    }
+
+    @Test
+    public void testRetransmission() throws Exception {
+        final TopicTemplateConfig retransmissionConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(4).
+                build();
+        retransmissionConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", retransmissionConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // Send 6 messages, only the last 4 are kept
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        }
+        topicPubImpl.sentSequenceNumbers.clear();
+
+        // Retransmit beyond both ends of the window
+        topicPubImpl.retransmit(1, 8);
+
+        final List<Long> expected = new ArrayList<>();
+        expected.add(3L);
+        expected.add(4L);
+        expected.add(5L);
+        expected.add(6L);
+        Assert.assertEquals(expected, topicPubImpl.sentSequenceNumbers);
+        Assert.assertEquals(4, topicPubImpl.getRetransmittedMsgs());
+        Assert.assertEquals(2, topicPubImpl.getRetransmissionMisses());
+
+        // A range older than the window is skipped without sending anything
+        topicPubImpl.sentSequenceNumbers.clear();
+        topicPubImpl.retransmit(1, 2);
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+        Assert.assertEquals(4, topicPubImpl.getRetransmissionMisses());
+
+        // The retransmission stops on back pressure
+        topicPubImpl.backPressuredSends = 1;
+        topicPubImpl.retransmit(5, 6);
+        Assert.assertEquals(4, topicPubImpl.getRetransmittedMsgs());
+        Assert.assertEquals(6, topicPubImpl.getRetransmissionMisses());
+
+        // Nothing is retransmitted after close
+        topicPubImpl.close();
+        topicPubImpl.sentSequenceNumbers.clear();
+        topicPubImpl.retransmit(5, 6);
+        Assert.assertTrue(topicPubImpl.sentSequenceNumbers.isEmpty());
+    }
+
+    @Test
+    public void testRetransmissionLimit() throws Exception {
+        final TopicTemplateConfig retransmissionConfig = TopicTemplateConfig.builder().
+                name("name").
+                rcvPoller("poller").
+                transportType(TransportMediaType.IPC).
+                retransmissionWindowSize(512).
+                build();
+        retransmissionConfig.completeAndValidateConfig();
+
+        final TopicPublisherImpl topicPubImpl = new TopicPublisherImpl("topic", retransmissionConfig, vegaContext);
+        final UnsafeBuffer sendBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        for (int i = 0; i < 300; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPubImpl.sendMsg(sendBuffer, 0, 128));
+        }
+        topicPubImpl.sentSequenceNumbers.clear();
+
+        // Only the first messages of the range are retransmitted, the rest are misses
+        topicPubImpl.retransmit(1, 300);
+        Assert.assertEquals(AbstractTopicPublisher.MAX_RETRANSMITS_PER_REQUEST, topicPubImpl.sentSequenceNumbers.size());
+        Assert.assertEquals(1L, topicPubImpl.sentSequenceNumbers.get(0).longValue());
+        Assert.assertEquals(AbstractTopicPublisher.MAX_RETRANSMITS_PER_REQUEST, topicPubImpl.getRetransmittedMsgs());
+        Assert.assertEquals(300 - AbstractTopicPublisher.MAX_RETRANSMITS_PER_REQUEST, topicPubImpl.getRetransmissionMisses());
+
+        topicPubImpl.close();
+    }
+
     @Test
     public void testActivateHeartbeats() throws Exception {
         final TopicPublisherImpl topicPublisherBase = new TopicPublisherImpl("topic", topicConfig, vegaContext);
@@ -137,6 +732,11 @@ public class AbstractTopicPublisherTest {
         AtomicReference<DirectBuffer> sentRequestBufferRef = new AtomicReference<>();
         AtomicBoolean cleanedPublishers = new AtomicBoolean(false);
         AtomicReference<Byte> lastReqTypeSent = new AtomicReference<>((byte) 222);
+        AtomicReference<UUID> lastRequestId = new AtomicReference<>();
+        List<Long> sentSequenceNumbers = new ArrayList<>();
+        volatile int backPressuredSends = 0;
+        int sendAttempts = 0;
+        PublishResult failureResult = null;
 
         /**
          * Constructor of the class
@@ -161,15 +761,44 @@ public class AbstractTopicPublisherTest {
 
         @Override
         protected PublishResult sendToAeron(DirectBuffer message, long sequenceNumber, int offset, int length) {
-            sendMessageBufferRef.set(message);
-            return PublishResult.OK;
+            final PublishResult result = this.nextResult();
+            if (result == PublishResult.OK) {
+                sendMessageBufferRef.set(message);
+                sentSequenceNumbers.add(sequenceNumber);
+            }
+            return result;
+        }
+
+        @Override
+        PublishResult sendBatchToAeron(DirectBuffer batch, long firstSequenceNumber, int offset, int length) {
+            final PublishResult result = this.nextResult();
+            if (result == PublishResult.OK) {
+                sendMessageBufferRef.set(batch);
+                sentSequenceNumbers.add(firstSequenceNumber);
+            }
+            return result;
         }
 
         @Override
         protected PublishResult sendRequestToAeron(byte msgType, UUID requestId, DirectBuffer message, long sequenceNumber, int offset, int length) {
-            lastReqTypeSent.set(msgType);
-            sentRequestBufferRef.set(message);
-            return PublishResult.OK;
+            final PublishResult result = this.nextResult();
+            if (result == PublishResult.OK) {
+                lastReqTypeSent.set(msgType);
+                lastRequestId.set(requestId);
+                sentRequestBufferRef.set(message);
+            }
+            return result;
+        }
+
+        private PublishResult nextResult() {
+            sendAttempts++;
+
+            if (backPressuredSends > 0) {
+                backPressuredSends--;
+                return PublishResult.BACK_PRESSURED;
+            }
+
+            return failureResult == null ? PublishResult.OK : failureResult;
         }
 
         @Override
@@ -74,6 +74,9 @@ public class AeronPublisherTest {
 
         Assert.assertEquals(params, publisher.getParams());
 
+        // No lock stripe sender is created until something is sent
+        Assert.assertEquals(0, publisher.getNumCreatedSenders());
+
         final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.MULTICAST, SUBNET_ADDRESS.getIpAddres().getHostAddress(), 28005, 10, SUBNET_ADDRESS);
 
         // Give it time to initialize
@@ -95,7 +98,8 @@ public class AeronPublisherTest {
             }
         }
 
-        Assert.assertTrue(true);
+        // A single topic only uses the sender of its own stripe
+        Assert.assertEquals(1, publisher.getNumCreatedSenders());
 
         publisher.close();
         simpleReceiver.close();
@@ -185,6 +189,182 @@ public class AeronPublisherTest {
         Assert.assertSame(publisher.sendResponse(null, null, 0, 0), PublishResult.OK);
     }
 
+    @Test
+    public void testExclusiveIpcPublish() throws Exception {
+        // Create the publisher
+        final AeronPublisherParams params = new AeronPublisherParams(
+                TransportMediaType.IPC,
+                0,
+                0,
+                6,
+                null);
+
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params, true);
+        Assert.assertTrue(publisher.isExclusive());
+
+        // Create a subscriber for it as well
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, 6, null);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        this.testSendMessages(publisher, simpleReceiver);
+        this.testSendRequests(publisher, simpleReceiver);
+        this.testSendResponses(publisher, simpleReceiver);
+
+        publisher.close();
+        simpleReceiver.close();
+
+        // Send again, should do nothing
+        Assert.assertSame(publisher.sendMessage(MsgType.DATA, null, null, 0, 0, 0), PublishResult.OK);
+    }
+
+    @Test
+    public void testUnicastMdcPublish() throws Exception {
+        final int ip = InetUtil.convertIpAddressToInt(SUBNET_ADDRESS.getIpAddres().getHostAddress());
+
+        // Create the multi-destination publisher, the ip and port are given by the destinations
+        final AeronPublisherParams params = new AeronPublisherParams(
+                TransportMediaType.UNICAST,
+                0,
+                0,
+                9,
+                SUBNET_ADDRESS);
+
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params, false, true);
+        Assert.assertTrue(publisher.isMultiDestination());
+
+        // Create two subscribers and add them as destinations
+        final SimpleReceiver simpleReceiver1 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, SUBNET_ADDRESS.getIpAddres().getHostAddress(), 28011, 9, SUBNET_ADDRESS);
+        final SimpleReceiver simpleReceiver2 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, SUBNET_ADDRESS.getIpAddres().getHostAddress(), 28012, 9, SUBNET_ADDRESS);
+        publisher.addDestination(ip, 28011);
+        publisher.addDestination(ip, 28012);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // A single send should reach both subscribers
+        this.testSendMessage(publisher, simpleReceiver1, 128);
+        Assert.assertEquals(1, simpleReceiver2.pollReceivedMessage());
+        Assert.assertEquals(simpleReceiver1.getReusableDataMsgHeader().getSequenceNumber(), simpleReceiver2.getReusableDataMsgHeader().getSequenceNumber());
+
+        // Remove one of the destinations, the other one should still receive
+        publisher.removeDestination(ip, 28012);
+        Thread.sleep(500);
+
+        this.testSendMessage(publisher, simpleReceiver1, 256);
+        Assert.assertEquals(0, simpleReceiver2.pollReceivedMessage());
+
+        publisher.close();
+        simpleReceiver1.close();
+        simpleReceiver2.close();
+
+        // Adding or removing destinations after close should do nothing
+        publisher.addDestination(ip, 28013);
+        publisher.removeDestination(ip, 28013);
+    }
+
+    @Test
+    public void testClaimIpcPublish() throws Exception {
+        // Create the publisher
+        final AeronPublisherParams params = new AeronPublisherParams(
+                TransportMediaType.IPC,
+                0,
+                0,
+                7,
+                null);
+
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params);
+
+        // Create a subscriber for it as well
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, 7, null);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // Big messages cannot be claimed
+        Assert.assertTrue(publisher.canClaimMessage(128));
+        Assert.assertFalse(publisher.canClaimMessage(128000));
+
+        final PublisherClaim claim = new PublisherClaim();
+        final UUID topicId = UUID.randomUUID();
+
+        // Claim, write and commit
+        final byte[] array = new byte[128];
+        RND.nextBytes(array);
+        Assert.assertSame(publisher.claimMessage(MsgType.DATA, topicId, 33, 128, claim), PublishResult.OK);
+        Assert.assertTrue(claim.isActive());
+        Assert.assertEquals(128, claim.getLength());
+        claim.getBuffer().putBytes(claim.getOffset(), array);
+        Assert.assertSame(claim.commit(), PublishResult.OK);
+        Assert.assertFalse(claim.isActive());
+
+        // Give it time to arrive
+        Thread.sleep(10);
+        simpleReceiver.pollReceivedMessage();
+
+        Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getTopicPublisherId(), topicId);
+        Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getInstanceId(), VEGA_CONTEXT.getInstanceUniqueId());
+        Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getSequenceNumber(), 33);
+        final IRcvMessage receivedMsg = simpleReceiver.getReusableReceivedMsg();
+        this.checkResult(array, receivedMsg.getContents(), receivedMsg.getContentOffset(), receivedMsg.getContentLength());
+
+        // An aborted claim is skipped by the receiver, the next message should arrive normally
+        Assert.assertSame(publisher.claimMessage(MsgType.DATA, topicId, 34, 128, claim), PublishResult.OK);
+        claim.abort();
+        Assert.assertFalse(claim.isActive());
+        Assert.assertSame(claim.commit(), PublishResult.UNEXPECTED_ERROR);
+        this.testSendMessage(publisher, simpleReceiver, 256);
+
+        publisher.close();
+        simpleReceiver.close();
+
+        // Once closed it cannot be claimed
+        Assert.assertFalse(publisher.canClaimMessage(128));
+    }
+
+    @Test
+    public void testIpcPublishBigMessageWithOffset() throws Exception {
+        // Create the publisher
+        final AeronPublisherParams params = new AeronPublisherParams(
+                TransportMediaType.IPC,
+                0,
+                0,
+                8,
+                null);
+
+        final AeronPublisher publisher = new AeronPublisher(VEGA_CONTEXT, params);
+
+        // Create a subscriber for it as well
+        final SimpleReceiver simpleReceiver = new SimpleReceiver(AERON, TransportMediaType.IPC, null, 0, 8, null);
+
+        // Give it time to initialize
+        Thread.sleep(1000);
+
+        // Create a message bigger than the max payload in the middle of a bigger buffer
+        final int msgOffset = 333;
+        final int msgSize = 20000;
+        final byte[] array = new byte[msgOffset + msgSize + 100];
+        RND.nextBytes(array);
+        final byte[] expected = new byte[msgSize];
+        System.arraycopy(array, msgOffset, expected, 0, msgSize);
+
+        final UUID topicId = UUID.randomUUID();
+        Assert.assertSame(publisher.sendMessage(MsgType.DATA, topicId, new UnsafeBuffer(array), 7, msgOffset, msgSize), PublishResult.OK);
+
+        // Give it time to arrive
+        Thread.sleep(10);
+        simpleReceiver.pollReceivedMessage();
+
+        Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getTopicPublisherId(), topicId);
+        Assert.assertEquals(simpleReceiver.getReusableDataMsgHeader().getSequenceNumber(), 7);
+        final IRcvMessage receivedMsg = simpleReceiver.getReusableReceivedMsg();
+        this.checkResult(expected, receivedMsg.getContents(), receivedMsg.getContentOffset(), receivedMsg.getContentLength());
+
+        publisher.close();
+        simpleReceiver.close();
+    }
+
     private void testSendMessages(AeronPublisher publisher, SimpleReceiver subscription) throws Exception {
         // Try different message sizes
         int msgSize = 128;
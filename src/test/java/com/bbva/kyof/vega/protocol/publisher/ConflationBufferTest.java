@@ -0,0 +1,71 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class ConflationBufferTest {
+    @Test
+    public void testPutAndRemove() {
+        final ConflationBuffer buffer = new ConflationBuffer(2);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertFalse(buffer.isFull());
+
+        // Add two keys, the second message bigger than the initial slot size
+        message.putLong(0, 11L);
+        Assert.assertFalse(buffer.put(1L, 5, message, 0, 8));
+        message.putLong(1000, 22L);
+        Assert.assertFalse(buffer.put(2L, 6, message, 100, 908));
+
+        Assert.assertTrue(buffer.isFull());
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertTrue(buffer.containsKey(1L));
+        Assert.assertFalse(buffer.containsKey(3L));
+
+        // Replace the first key, it should be moved to the end
+        message.putLong(0, 33L);
+        Assert.assertTrue(buffer.put(1L, 7, message, 0, 8));
+        Assert.assertEquals(2, buffer.size());
+
+        Assert.assertEquals(6, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(908, buffer.getOldestLength());
+        Assert.assertEquals(22L, buffer.getOldestBuffer().getLong(900));
+        buffer.removeOldest();
+        Assert.assertFalse(buffer.containsKey(2L));
+
+        // Add a new key in the released slot
+        message.putLong(0, 44L);
+        Assert.assertFalse(buffer.put(3L, 8, message, 0, 8));
+        Assert.assertTrue(buffer.isFull());
+
+        Assert.assertEquals(7, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(33L, buffer.getOldestBuffer().getLong(0));
+        buffer.removeOldest();
+
+        Assert.assertEquals(8, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(44L, buffer.getOldestBuffer().getLong(0));
+        buffer.removeOldest();
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertFalse(buffer.containsKey(3L));
+    }
+
+    @Test
+    public void testReplaceSingleKey() {
+        final ConflationBuffer buffer = new ConflationBuffer(1);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(8));
+
+        for (int i = 0; i < 5; i++) {
+            message.putLong(0, i);
+            Assert.assertEquals(i > 0, buffer.put(9L, i, message, 0, 8));
+        }
+
+        Assert.assertEquals(1, buffer.size());
+        Assert.assertEquals(4, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(4L, buffer.getOldestBuffer().getLong(0));
+    }
+}
@@ -0,0 +1,52 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.msg.MsgType;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class PendingMsgsBufferTest {
+    @Test
+    public void testAddAndRemove() {
+        final PendingMsgsBuffer buffer = new PendingMsgsBuffer(2);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertFalse(buffer.isFull());
+
+        // Add two messages, the second one bigger than the initial slot size
+        message.putLong(0, 11L);
+        buffer.add(MsgType.DATA, 5, message, 0, 8);
+        message.putLong(1000, 22L);
+        buffer.add(MsgType.DATA_BATCH, 6, message, 100, 908);
+
+        Assert.assertTrue(buffer.isFull());
+        Assert.assertEquals(2, buffer.size());
+
+        // Check the oldest one and remove it
+        Assert.assertEquals(MsgType.DATA, buffer.getOldestMsgType());
+        Assert.assertEquals(5, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(8, buffer.getOldestLength());
+        Assert.assertEquals(11L, buffer.getOldestBuffer().getLong(0));
+        buffer.removeOldest();
+
+        // Add another one, it should wrap around
+        message.putLong(0, 33L);
+        buffer.add(MsgType.DATA, 7, message, 0, 8);
+        Assert.assertTrue(buffer.isFull());
+
+        Assert.assertEquals(MsgType.DATA_BATCH, buffer.getOldestMsgType());
+        Assert.assertEquals(6, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(908, buffer.getOldestLength());
+        Assert.assertEquals(22L, buffer.getOldestBuffer().getLong(900));
+        buffer.removeOldest();
+
+        Assert.assertEquals(7, buffer.getOldestSequenceNumber());
+        Assert.assertEquals(33L, buffer.getOldestBuffer().getLong(0));
+        buffer.removeOldest();
+
+        Assert.assertTrue(buffer.isEmpty());
+    }
+}
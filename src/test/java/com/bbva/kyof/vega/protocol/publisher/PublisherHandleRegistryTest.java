@@ -0,0 +1,40 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+
+public class PublisherHandleRegistryTest {
+    @Test
+    public void testCreateAndCollide() {
+        final PublisherHandleRegistry registry = new PublisherHandleRegistry();
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPubId1 = UUID.randomUUID();
+        final UUID topicPubId2 = UUID.randomUUID();
+
+        final PublisherHandle handle1 = registry.createHandle(topicPubId1);
+        final PublisherHandle handle2 = registry.createHandle(topicPubId2);
+        Assert.assertNotEquals(AutoDiscTopicInfo.NO_PUBLISHER_HANDLE, handle1.getValue());
+        Assert.assertNotEquals(handle1.getValue(), handle2.getValue());
+        Assert.assertEquals(topicPubId1, handle1.getTopicPublisherId());
+
+        // The own advert is not a collision
+        registry.onNewPublisherHandle(new AutoDiscTopicInfo(instanceId, AutoDiscTransportType.PUB_MUL, topicPubId1, "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, handle1.getValue()));
+        Assert.assertFalse(handle1.isCollided());
+
+        // The advert of another topic publisher with the same handle is a collision, it never reverts
+        registry.onNewPublisherHandle(new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_MUL, UUID.randomUUID(), "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, handle1.getValue()));
+        Assert.assertTrue(handle1.isCollided());
+        Assert.assertFalse(handle2.isCollided());
+        registry.onNewPublisherHandle(new AutoDiscTopicInfo(instanceId, AutoDiscTransportType.PUB_MUL, topicPubId1, "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, handle1.getValue()));
+        Assert.assertTrue(handle1.isCollided());
+
+        // A released handle is not affected by new adverts
+        registry.releaseHandle(handle2);
+        registry.onNewPublisherHandle(new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_MUL, UUID.randomUUID(), "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, handle2.getValue()));
+        Assert.assertFalse(handle2.isCollided());
+    }
+}
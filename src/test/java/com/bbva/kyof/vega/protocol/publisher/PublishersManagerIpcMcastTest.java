@@ -129,19 +129,17 @@ public class PublishersManagerIpcMcastTest {
         final UUID instanceId = UUID.randomUUID();
 
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28000,
-                28000,
-                2,
-                "224.1.1.1",
-                "224.1.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder()
+                .name("template1")
+                .transportType(TransportMediaType.MULTICAST)
+                .minPort(28000)
+                .maxPort(28000)
+                .numStreamsPerPort(2)
+                .multicastAddressLow("224.1.1.1")
+                .multicastAddressHigh("224.1.1.2")
+                .subnet(SUBNET_ADDRESS.toString())
+                .subnetAddress(SUBNET_ADDRESS)
+                .isResolveHostname(false).build();
 
         // Create several topic publishers
         final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("topic1", templateMcast, null);
@@ -194,19 +192,17 @@ public class PublishersManagerIpcMcastTest {
     @Test
     public void testReceive() throws Exception {
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28033,
-                28033,
-                2,
-                "224.4.1.1",
-                "224.4.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder()
+                .name("template1")
+                .transportType(TransportMediaType.MULTICAST)
+                .minPort(28033)
+                .maxPort(28033)
+                .numStreamsPerPort(2)
+                .multicastAddressLow("224.4.1.1")
+                .multicastAddressHigh("224.4.1.2")
+                .subnet(SUBNET_ADDRESS.toString())
+                .subnetAddress(SUBNET_ADDRESS)
+                .isResolveHostname(false).build();
 
         // Create several topic publishers
         final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("topic1", templateMcast, null);
@@ -250,19 +246,17 @@ public class PublishersManagerIpcMcastTest {
     @Test
     public void testCreateSecureAndReceive() throws Exception {
         // Create the topic configuration
-        final TopicTemplateConfig templateMcast = new TopicTemplateConfig(
-                "template1",
-                TransportMediaType.MULTICAST,
-                null,
-                28033,
-                28033,
-                2,
-                "224.4.1.1",
-                "224.4.1.2",
-                SUBNET_ADDRESS.toString(),
-                SUBNET_ADDRESS,
-                null,
-                false);
+        final TopicTemplateConfig templateMcast = TopicTemplateConfig.builder()
+                .name("template1")
+                .transportType(TransportMediaType.MULTICAST)
+                .minPort(28033)
+                .maxPort(28033)
+                .numStreamsPerPort(2)
+                .multicastAddressLow("224.4.1.1")
+                .multicastAddressHigh("224.4.1.2")
+                .subnet(SUBNET_ADDRESS.toString())
+                .subnetAddress(SUBNET_ADDRESS)
+                .isResolveHostname(false).build();
 
         // Create a topic publisher
         final Set<Integer> secureSubs = new HashSet<>(Collections.singletonList(22222));
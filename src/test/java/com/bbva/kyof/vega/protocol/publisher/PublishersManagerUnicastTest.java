@@ -251,6 +251,82 @@ public class PublishersManagerUnicastTest {
         this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo3);
     }
 
+    @Test
+    public void testMdcCreateRemoveSend() throws Exception {
+        final UUID instanceId = UUID.randomUUID();
+
+        final String ipAddress = SUBNET_ADDRESS.getIpAddres().getHostAddress();
+        final String hostname = SUBNET_ADDRESS.getIpAddres().getHostName();
+        final int intAddress = InetUtil.convertIpAddressToInt(ipAddress);
+
+        // Create the topic configuration with multi-destination-cast
+        final TopicTemplateConfig templateMdc = TopicTemplateConfig.builder().
+                name("templateMdc").
+                rcvPoller("poller").
+                transportType(TransportMediaType.UNICAST).
+                numStreamsPerPort(2).
+                minPort(28310).
+                maxPort(28312).
+                hostname("").
+                isResolveHostname(false).
+                unicastMdc(true).
+                subnetAddress(SUBNET_ADDRESS).build();
+        templateMdc.completeAndValidateConfig();
+
+        final ITopicPublisher topicPublisher = publisherManager.createTopicPublisher("mdcTopic", templateMdc, null);
+
+        // Two receivers on the same stream and one on a different stream
+        final SimpleReceiver simpleReceiver1 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28310, 2, SUBNET_ADDRESS);
+        final SimpleReceiver simpleReceiver2 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28311, 2, SUBNET_ADDRESS);
+        final SimpleReceiver simpleReceiver3 = new SimpleReceiver(AERON, TransportMediaType.UNICAST, ipAddress, 28311, 3, SUBNET_ADDRESS);
+
+        // The topic socket info 4 has the same destination than the topic socket info 2
+        final AutoDiscTopicSocketInfo topicSocketInfo1 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic", UUID.randomUUID(), intAddress, 28310, 2, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo2 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic", UUID.randomUUID(), intAddress, 28311, 2, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo3 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic", UUID.randomUUID(), intAddress, 28311, 3, hostname);
+        final AutoDiscTopicSocketInfo topicSocketInfo4 = new AutoDiscTopicSocketInfo(instanceId, AutoDiscTransportType.SUB_UNI, UUID.randomUUID(), "mdcTopic", UUID.randomUUID(), intAddress, 28311, 2, hostname);
+
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo1);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo2);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo3);
+        this.publisherManager.onNewAutoDiscTopicSocketInfo(topicSocketInfo4);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+
+        // There is a single aeron publisher per stream
+        final AeronPublisherParams mdcParamsStream2 = new AeronPublisherParams(TransportMediaType.UNICAST, 0, 0, 2, SUBNET_ADDRESS);
+        final AeronPublisherParams mdcParamsStream3 = new AeronPublisherParams(TransportMediaType.UNICAST, 0, 0, 3, SUBNET_ADDRESS);
+        Assert.assertTrue(((TopicPublisherUnicast)topicPublisher).findAeronPublisher(mdcParamsStream2).isMultiDestination());
+        Assert.assertTrue(((TopicPublisherUnicast)topicPublisher).findAeronPublisher(mdcParamsStream3).isMultiDestination());
+
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver1, true);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, true);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver3, true);
+
+        // Remove one of the subscribers of a shared destination, it should still arrive
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo2);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, true);
+
+        // Remove the other one, the destination should be removed
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo4);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver2, false);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver1, true);
+
+        // Remove the last destination of the stream, the aeron publisher should be removed
+        this.publisherManager.onTimedOutAutoDiscTopicSocketInfo(topicSocketInfo1);
+        Thread.sleep(NEW_EVENT_WAIT_TIME);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver1, false);
+        this.sendMessageAndCheckArrival(topicPublisher, simpleReceiver3, true);
+        Assert.assertNull(((TopicPublisherUnicast)topicPublisher).findAeronPublisher(mdcParamsStream2));
+
+        this.publisherManager.destroyTopicPublisher("mdcTopic");
+
+        simpleReceiver1.close();
+        simpleReceiver2.close();
+        simpleReceiver3.close();
+    }
+
     @Test
     public void testSecureCreateRemoveSend() throws Exception {
         final UUID instanceId = UUID.randomUUID();
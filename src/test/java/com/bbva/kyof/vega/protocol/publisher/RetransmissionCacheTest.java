@@ -0,0 +1,62 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class RetransmissionCacheTest {
+    @Test
+    public void testWindowBySequenceNumber() {
+        final RetransmissionCache cache = new RetransmissionCache(4, 1024);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(64));
+
+        Assert.assertFalse(cache.contains(1));
+
+        // Add 5 messages, the first one is replaced by the last one
+        for (long sequenceNumber = 1; sequenceNumber <= 5; sequenceNumber++) {
+            message.putLong(0, sequenceNumber * 10);
+            cache.add(sequenceNumber, message, 0, 8);
+        }
+
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertFalse(cache.contains(6));
+
+        for (long sequenceNumber = 2; sequenceNumber <= 5; sequenceNumber++) {
+            Assert.assertTrue(cache.contains(sequenceNumber));
+            Assert.assertEquals(8, cache.getLength(sequenceNumber));
+            Assert.assertEquals(sequenceNumber * 10, cache.getBuffer().getLong(cache.getOffset(sequenceNumber)));
+        }
+    }
+
+    @Test
+    public void testWindowByBufferSize() {
+        final RetransmissionCache cache = new RetransmissionCache(16, 64);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        // Fill the ring with 3 messages of 20 bytes
+        for (long sequenceNumber = 1; sequenceNumber <= 3; sequenceNumber++) {
+            message.putLong(4, sequenceNumber * 10);
+            cache.add(sequenceNumber, message, 4, 20);
+        }
+
+        Assert.assertTrue(cache.contains(1));
+
+        // The next one doesn't fit at the end, it is written at the start of the ring and overwrites the first one
+        message.putLong(4, 40);
+        cache.add(4, message, 4, 20);
+
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertTrue(cache.contains(2));
+        Assert.assertTrue(cache.contains(3));
+        Assert.assertEquals(0, cache.getOffset(4));
+        Assert.assertEquals(40, cache.getBuffer().getLong(cache.getOffset(4)));
+        Assert.assertEquals(30, cache.getBuffer().getLong(cache.getOffset(3)));
+
+        // A message bigger than the ring is not kept
+        cache.add(5, message, 0, 128);
+        Assert.assertFalse(cache.contains(5));
+        Assert.assertTrue(cache.contains(4));
+    }
+}
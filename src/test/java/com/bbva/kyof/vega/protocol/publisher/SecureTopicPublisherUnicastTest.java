@@ -3,6 +3,7 @@ package com.bbva.kyof.vega.protocol.publisher;
 import com.bbva.kyof.vega.config.general.TopicSecurityTemplateConfig;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
 import com.bbva.kyof.vega.util.crypto.AESCrypto;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -51,11 +52,12 @@ public class SecureTopicPublisherUnicastTest {
         final UnsafeBuffer messageBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
         messageBuffer.putInt(0, 128);
 
-        topicPublisher.sendToAeron(messageBuffer, 0, 0, 4);
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendToAeron(messageBuffer, 0, 0, 4));
     }
 
     private AeronPublisher createAeronPublisherMock() {
         AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andReturn(PublishResult.OK).anyTimes();
         EasyMock.replay(publisher);
         return publisher;
     }
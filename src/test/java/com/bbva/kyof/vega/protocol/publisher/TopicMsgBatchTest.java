@@ -0,0 +1,49 @@
+package com.bbva.kyof.vega.protocol.publisher;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class TopicMsgBatchTest {
+    @Test
+    public void testAddAndReset() {
+        final TopicMsgBatch batch = new TopicMsgBatch(64);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(128));
+
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertTrue(batch.canBatch(60));
+        Assert.assertFalse(batch.canBatch(61));
+
+        // Add two messages
+        message.putLong(0, 11L);
+        batch.add(5, message, 0, 8);
+        message.putLong(0, 22L);
+        batch.add(6, message, 0, 8);
+
+        Assert.assertFalse(batch.isEmpty());
+        Assert.assertEquals(2, batch.getNumMessages());
+        Assert.assertEquals(5, batch.getFirstSequenceNumber());
+        Assert.assertEquals(2 * (TopicMsgBatch.ENTRY_HEADER_SIZE + 8), batch.getLength());
+
+        // Check the contents
+        Assert.assertEquals(8, batch.getBuffer().getInt(0));
+        Assert.assertEquals(11L, batch.getBuffer().getLong(TopicMsgBatch.ENTRY_HEADER_SIZE));
+        Assert.assertEquals(8, batch.getBuffer().getInt(TopicMsgBatch.ENTRY_HEADER_SIZE + 8));
+        Assert.assertEquals(22L, batch.getBuffer().getLong(TopicMsgBatch.ENTRY_HEADER_SIZE * 2 + 8));
+
+        // Fill it
+        Assert.assertTrue(batch.hasRoom(36));
+        Assert.assertFalse(batch.hasRoom(37));
+        batch.add(7, message, 0, 36);
+        Assert.assertTrue(batch.isFull());
+
+        // Reset, the first sequence number is taken from the next added message
+        batch.reset();
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertEquals(0, batch.getLength());
+        batch.add(8, message, 0, 8);
+        Assert.assertEquals(8, batch.getFirstSequenceNumber());
+    }
+}
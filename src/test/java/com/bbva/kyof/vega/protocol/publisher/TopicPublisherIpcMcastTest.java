@@ -1,7 +1,10 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.msg.MsgType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
@@ -14,6 +17,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -143,6 +148,161 @@ public class TopicPublisherIpcMcastTest {
         assertEquals(1, this.sentRequests);
     }
 
+    @Test
+    public void testClaim() throws Exception {
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", topicConfig, vegaContext);
+
+        // Create an Aeron publisher that back-pressures the first claim
+        final AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.canClaimMessage(EasyMock.anyInt())).andReturn(true).anyTimes();
+        EasyMock.expect(publisher.claimMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.eq(1L), EasyMock.anyInt(), EasyMock.anyObject())).andReturn(PublishResult.BACK_PRESSURED).once();
+        EasyMock.expect(publisher.claimMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.eq(1L), EasyMock.anyInt(), EasyMock.anyObject())).andReturn(PublishResult.OK).once();
+        EasyMock.replay(publisher);
+        topicPublisher.setAeronPublisher(publisher);
+
+        // The sequence number is only consumed when the claim succeeds
+        final PublisherClaim claim = new PublisherClaim();
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPublisher.tryClaim(128, claim));
+        Assert.assertEquals(0, topicPublisher.getSequenceNumber());
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(128, claim));
+        Assert.assertEquals(1, topicPublisher.getSequenceNumber());
+        EasyMock.verify(publisher);
+    }
+
+    @Test
+    public void testCompactDataHeader() throws Exception {
+        final TopicTemplateConfig compactConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.MULTICAST).compactDataHeader(true).build();
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", compactConfig, vegaContext);
+        Assert.assertTrue(topicPublisher.isCompactDataHeader());
+        Assert.assertNotEquals(0, topicPublisher.getPublisherHandle());
+
+        // Messages and claims are sent with the handle, requests keep the full header
+        final AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendCompactMessage(EasyMock.eq(MsgType.DATA_COMPACT), EasyMock.eq(topicPublisher.getPublisherHandle()), EasyMock.anyObject(), EasyMock.eq(1L), EasyMock.anyInt(), EasyMock.anyInt())).andReturn(PublishResult.OK).once();
+        EasyMock.expect(publisher.canClaimCompactMessage(EasyMock.anyInt())).andReturn(true).anyTimes();
+        EasyMock.expect(publisher.claimCompactMessage(EasyMock.eq(MsgType.DATA_COMPACT), EasyMock.eq(topicPublisher.getPublisherHandle()), EasyMock.eq(2L), EasyMock.anyInt(), EasyMock.anyObject())).andReturn(PublishResult.OK).once();
+        EasyMock.expect(publisher.sendRequest(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendRequest(PublishResult.OK)).once();
+        EasyMock.replay(publisher);
+        topicPublisher.setAeronPublisher(publisher);
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 128));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(128, new PublisherClaim()));
+        topicPublisher.sendRequest(message, 0, 128, 100L, null);
+        Assert.assertEquals(1, this.sentRequests);
+        EasyMock.verify(publisher);
+    }
+
+    @Test
+    public void testCompactDataHeaderCollision() throws Exception {
+        final TopicTemplateConfig compactConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.MULTICAST).compactDataHeader(true).build();
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", compactConfig, vegaContext);
+        final int handle = topicPublisher.getPublisherHandle();
+
+        // Another topic publisher advertises the same handle
+        vegaContext.getPublisherHandles().onNewPublisherHandle(new AutoDiscTopicInfo(UUID.randomUUID(), AutoDiscTransportType.PUB_MUL, UUID.randomUUID(), "topic", AutoDiscTopicInfo.NO_SECURED_CONSTANT, handle));
+        Assert.assertFalse(topicPublisher.isCompactDataHeader());
+        Assert.assertEquals(handle, topicPublisher.getPublisherHandle());
+
+        // Messages and claims fall back to the full header
+        final AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendMessage(EasyMock.eq(MsgType.DATA), EasyMock.eq(topicPublisher.getUniqueId()), EasyMock.anyObject(), EasyMock.eq(1L), EasyMock.anyInt(), EasyMock.anyInt())).andReturn(PublishResult.OK).once();
+        EasyMock.expect(publisher.canClaimMessage(EasyMock.anyInt())).andReturn(true).anyTimes();
+        EasyMock.expect(publisher.claimMessage(EasyMock.eq(MsgType.DATA), EasyMock.eq(topicPublisher.getUniqueId()), EasyMock.eq(2L), EasyMock.anyInt(), EasyMock.anyObject())).andReturn(PublishResult.OK).once();
+        EasyMock.replay(publisher);
+        topicPublisher.setAeronPublisher(publisher);
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 128));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(128, new PublisherClaim()));
+        EasyMock.verify(publisher);
+        topicPublisher.close();
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        final TopicTemplateConfig batchConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.MULTICAST).batchMaxSize(256).batchLingerTime(100000).build();
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", batchConfig, vegaContext);
+
+        // Create an Aeron publisher that stores the type and sequence number of the sent messages
+        final List<Byte> sentTypes = new ArrayList<>();
+        final List<Long> sentSequences = new ArrayList<>();
+        final AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> {
+            sentTypes.add((Byte) EasyMock.getCurrentArguments()[0]);
+            sentSequences.add((Long) EasyMock.getCurrentArguments()[3]);
+            return PublishResult.OK;
+        }).anyTimes();
+        EasyMock.expect(publisher.sendRequest(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendRequest(PublishResult.OK)).anyTimes();
+        EasyMock.replay(publisher);
+        topicPublisher.setAeronPublisher(publisher);
+
+        // Small messages are kept in the batch
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        Assert.assertTrue(sentTypes.isEmpty());
+        Assert.assertEquals(2, topicPublisher.getSequenceNumber());
+
+        // Explicit flush
+        Assert.assertEquals(PublishResult.OK, topicPublisher.flush());
+        Assert.assertEquals(1, sentTypes.size());
+        Assert.assertEquals(MsgType.DATA_BATCH, sentTypes.get(0).byteValue());
+        Assert.assertEquals(1L, sentSequences.get(0).longValue());
+
+        // Nothing pending, flush does nothing
+        Assert.assertEquals(PublishResult.OK, topicPublisher.flush());
+        Assert.assertEquals(1, sentTypes.size());
+
+        // Fill the batch, the batch is sent when there is no room for the next message
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        }
+        Assert.assertEquals(2, sentTypes.size());
+        Assert.assertEquals(MsgType.DATA_BATCH, sentTypes.get(1).byteValue());
+        Assert.assertEquals(3L, sentSequences.get(1).longValue());
+
+        // A message that does not fit in a batch is sent alone after the pending ones
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(4, sentTypes.size());
+        Assert.assertEquals(MsgType.DATA_BATCH, sentTypes.get(2).byteValue());
+        Assert.assertEquals(6L, sentSequences.get(2).longValue());
+        Assert.assertEquals(MsgType.DATA, sentTypes.get(3).byteValue());
+        Assert.assertEquals(7L, sentSequences.get(3).longValue());
+
+        // A request sends the pending messages first
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        topicPublisher.sendRequest(message, 0, 50, 100L, null);
+        Assert.assertEquals(5, sentTypes.size());
+        Assert.assertEquals(8L, sentSequences.get(4).longValue());
+        Assert.assertEquals(1, this.sentRequests);
+        Assert.assertEquals(9, topicPublisher.getSequenceNumber());
+
+        // Close sends the pending messages
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        topicPublisher.close();
+        Assert.assertEquals(6, sentTypes.size());
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.flush());
+    }
+
+    @Test
+    public void testBatchingLinger() throws Exception {
+        final TopicTemplateConfig batchConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.MULTICAST).batchMaxSize(256).batchLingerTime(10).build();
+        final TopicPublisherIpcMcast topicPublisher = new TopicPublisherIpcMcast("topic", batchConfig, vegaContext);
+        topicPublisher.setAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+        topicPublisher.start();
+
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 50));
+        Assert.assertEquals(0, this.sentMessages);
+
+        // The linger task should send it
+        Thread.sleep(200);
+        Assert.assertEquals(1, this.sentMessages);
+
+        topicPublisher.close();
+    }
+
     private AeronPublisher createAeronPublisherMock(PublishResult pubResult) {
         AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
         EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendMessage(pubResult)).anyTimes();
@@ -1,13 +1,18 @@
 package com.bbva.kyof.vega.protocol.publisher;
 
+import com.bbva.kyof.vega.config.general.BackPressurePolicy;
+import com.bbva.kyof.vega.config.general.IdleStrategyType;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
 import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.msg.PublishResult;
 import com.bbva.kyof.vega.msg.SentRequest;
 import com.bbva.kyof.vega.protocol.common.AsyncRequestManager;
 import com.bbva.kyof.vega.protocol.common.VegaContext;
+import com.bbva.kyof.vega.protocol.heartbeat.HeartbeatParameters;
+import com.bbva.kyof.vega.protocol.heartbeat.IClientConnectionListener;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -15,6 +20,7 @@ import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -118,6 +124,70 @@ public class TopicPublisherUnicastTest {
         Assert.assertEquals(3, this.sentRequests);
     }
 
+    @Test
+    public void testRetryOnlyBackPressuredPublishers() throws Exception {
+        final TopicTemplateConfig retryConfig = TopicTemplateConfig.builder().name("name").rcvPoller("poller").transportType(TransportMediaType.UNICAST).
+                backPressurePolicy(BackPressurePolicy.RETRY).
+                backPressureIdleStrategyType(IdleStrategyType.BUSY_SPIN).
+                build();
+        retryConfig.completeAndValidateConfig();
+        final TopicPublisherUnicast topicPublisher = new TopicPublisherUnicast("topic", retryConfig, vegaContext);
+
+        // The second publisher is back pressured twice for each message
+        final AtomicInteger okSends = new AtomicInteger();
+        final AtomicInteger backPressuredSends = new AtomicInteger();
+        topicPublisher.addAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+        topicPublisher.addAeronPublisher(createBackPressuredAeronPublisherMock(2, okSends, backPressuredSends));
+        topicPublisher.addAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        // The publishers that sent the message are not retried
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(2, this.sentMessages);
+        Assert.assertEquals(2, backPressuredSends.get());
+        Assert.assertEquals(1, okSends.get());
+
+        // The next message is sent again through all of them
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(4, this.sentMessages);
+        Assert.assertEquals(4, backPressuredSends.get());
+        Assert.assertEquals(2, okSends.get());
+
+        // The same for requests
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendRequest(message, 0, 1024, 100L, null).getSentResult());
+        Assert.assertEquals(2, this.sentRequests);
+    }
+
+    @Test
+    public void testCombinedResults() {
+        final TopicPublisherUnicast topicPublisher = new TopicPublisherUnicast("topic", topicConfig, vegaContext);
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+
+        // No one connected
+        AeronPublisher publisher1 = createAeronPublisherMock(PublishResult.NOT_CONNECTED);
+        AeronPublisher publisher2 = createAeronPublisherMock(PublishResult.NOT_CONNECTED);
+        topicPublisher.addAeronPublisher(publisher1);
+        topicPublisher.addAeronPublisher(publisher2);
+        Assert.assertEquals(PublishResult.NOT_CONNECTED, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(PublishResult.NOT_CONNECTED, topicPublisher.sendRequest(message, 0, 1024, 100L, null).getSentResult());
+
+        // Sent to at least one of them
+        AeronPublisher publisher3 = createAeronPublisherMock(PublishResult.OK);
+        topicPublisher.addAeronPublisher(publisher3);
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+
+        // Max position exceeded has priority over OK
+        AeronPublisher publisher4 = createAeronPublisherMock(PublishResult.MAX_POSITION_EXCEEDED);
+        topicPublisher.addAeronPublisher(publisher4);
+        Assert.assertEquals(PublishResult.MAX_POSITION_EXCEEDED, topicPublisher.sendMsg(message, 0, 1024));
+
+        // Back pressure has priority over everything
+        AeronPublisher publisher5 = createAeronPublisherMock(PublishResult.BACK_PRESSURED);
+        topicPublisher.addAeronPublisher(publisher5);
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(PublishResult.BACK_PRESSURED, topicPublisher.sendRequest(message, 0, 1024, 100L, null).getSentResult());
+    }
+
     @Test
     public void testUnexpectedError() {
         final TopicPublisherUnicast topicPublisher = new TopicPublisherUnicast("topic", topicConfig, vegaContext);
@@ -146,6 +216,77 @@ public class TopicPublisherUnicastTest {
         assertEquals(4, this.sentMessages);
     }
 
+    @Test
+    public void testClaim() throws Exception {
+        final TopicPublisherUnicast topicPublisher = new TopicPublisherUnicast("topic", topicConfig, vegaContext);
+        topicPublisher.addAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+        topicPublisher.addAeronPublisher(createAeronPublisherMock(PublishResult.OK));
+
+        // Unicast publishers cannot claim directly, the message is sent on commit
+        final PublisherClaim claim = new PublisherClaim();
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(1024, claim));
+        Assert.assertTrue(claim.isActive());
+        Assert.assertEquals(1024, claim.getLength());
+        Assert.assertEquals(0, this.sentMessages);
+        Assert.assertEquals(0, topicPublisher.getSequenceNumber());
+
+        // An active claim cannot be claimed again
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.tryClaim(1024, claim));
+
+        claim.getBuffer().putLong(claim.getOffset(), 1234L);
+        Assert.assertEquals(PublishResult.OK, claim.commit());
+        Assert.assertFalse(claim.isActive());
+        Assert.assertEquals(2, this.sentMessages);
+        Assert.assertEquals(1, topicPublisher.getSequenceNumber());
+
+        // Aborted claims are not sent
+        Assert.assertEquals(PublishResult.OK, topicPublisher.tryClaim(2048, claim));
+        claim.abort();
+        Assert.assertFalse(claim.isActive());
+        Assert.assertEquals(2, this.sentMessages);
+
+        topicPublisher.close();
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.tryClaim(1024, claim));
+    }
+
+    @Test
+    public void testThreadConfinedSend() throws Exception {
+        final TopicTemplateConfig confinedConfig = TopicTemplateConfig.builder().name("name").transportType(TransportMediaType.UNICAST).threadConfinedPublisher(true).build();
+        final TopicPublisherUnicast topicPublisher = new TopicPublisherUnicast("topic", confinedConfig, vegaContext);
+        assertTrue(topicPublisher.isThreadConfined());
+
+        // No publishers yet
+        final UnsafeBuffer message = new UnsafeBuffer(ByteBuffer.allocate(1024));
+        Assert.assertEquals(PublishResult.AERON_PUBLISHERS_NOT_FOUND, topicPublisher.sendMsg(message, 0, 1024));
+
+        // Add the publishers from a different thread, like auto-discovery does
+        final AeronPublisher publisher1 = createAeronPublisherMock(PublishResult.OK);
+        final AeronPublisher publisher2 = createAeronPublisherMock(PublishResult.OK);
+        final Thread adderThread = new Thread(() -> {
+            topicPublisher.addAeronPublisher(publisher1);
+            topicPublisher.addAeronPublisher(publisher2);
+        });
+        adderThread.start();
+        adderThread.join();
+
+        // The changes should be applied on the next send
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(2, this.sentMessages);
+        Assert.assertEquals(2, topicPublisher.getSequenceNumber());
+
+        // Remove one and send again
+        topicPublisher.removeAeronPublisher(publisher1);
+        Assert.assertEquals(PublishResult.OK, topicPublisher.sendMsg(message, 0, 1024));
+        Assert.assertEquals(3, this.sentMessages);
+
+        // Heartbeats are not supported on thread confined publishers
+        topicPublisher.activateHeartbeats(EasyMock.createNiceMock(IClientConnectionListener.class), HeartbeatParameters.builder().build());
+        Assert.assertFalse(topicPublisher.isHeartbeatsActive());
+
+        topicPublisher.close();
+        Assert.assertEquals(PublishResult.UNEXPECTED_ERROR, topicPublisher.sendMsg(message, 0, 1024));
+    }
+
     private AeronPublisher createAeronPublisherMock(PublishResult pubResult) {
         AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
         EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(() -> this.sendMessage(pubResult)).anyTimes();
@@ -154,6 +295,26 @@ public class TopicPublisherUnicastTest {
         return publisher;
     }
 
+    private AeronPublisher createBackPressuredAeronPublisherMock(int backPressuredTimes, AtomicInteger okSends, AtomicInteger backPressuredSends) {
+        final AtomicInteger consecutiveBackPressured = new AtomicInteger();
+        final IAnswer<PublishResult> answer = () -> {
+            if (consecutiveBackPressured.getAndIncrement() < backPressuredTimes) {
+                backPressuredSends.incrementAndGet();
+                return PublishResult.BACK_PRESSURED;
+            }
+
+            consecutiveBackPressured.set(0);
+            okSends.incrementAndGet();
+            return PublishResult.OK;
+        };
+
+        AeronPublisher publisher = EasyMock.createNiceMock(AeronPublisher.class);
+        EasyMock.expect(publisher.sendMessage(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(answer).anyTimes();
+        EasyMock.expect(publisher.sendRequest(EasyMock.anyByte(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyInt(), EasyMock.anyInt())).andAnswer(answer).anyTimes();
+        EasyMock.replay(publisher);
+        return publisher;
+    }
+
     private PublishResult sendRequest(PublishResult pubResult) {
         sentRequests++;
         return pubResult;
@@ -72,22 +72,48 @@ public class AbstractSubscribersManagerTest implements ITopicSubListener {
 
         POLLERS_MANAGER = new SubscribersPollersManager(VEGA_CONTEXT, new ISubscribersPollerListener() {
             @Override
-            public void onDataMsgReceived(RcvMessage msg) {
+            public boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb) {
+                return true;
             }
 
             @Override
-            public void onEncryptedDataMsgReceived(RcvMessage msg) {
+            public boolean isPublisherHandleKnown(int publisherHandle) {
+                return true;
+            }
+
+            @Override
+            public RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+                return RcvAction.CONTINUE;
+            }
+
+            @Override
+            public RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg) {
+                return RcvAction.CONTINUE;
+            }
 
+            @Override
+            public RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+                return RcvAction.CONTINUE;
             }
 
             @Override
-            public void onDataRequestMsgReceived(RcvRequest request) {
+            public RcvAction onDataRequestMsgReceived(RcvRequest request) {
+                return RcvAction.CONTINUE;
             }
 
             @Override
             public void onDataResponseMsgReceived(RcvResponse response) {
             }
 
+            @Override
+            public void onNakMsgReceived(MsgNakHeader nakHeader) {
+            }
+
+            @Override
+            public boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber) {
+                return false;
+            }
+
             @Override
             public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {
             }
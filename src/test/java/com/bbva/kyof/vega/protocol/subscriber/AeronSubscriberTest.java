@@ -9,6 +9,7 @@ import com.bbva.kyof.vega.util.net.SubnetAddress;
 import io.aeron.Aeron;
 import io.aeron.Publication;
 import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import org.agrona.CloseHelper;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.AfterClass;
@@ -89,11 +90,15 @@ public class AeronSubscriberTest {
 
         // Poll!!!
         AtomicInteger lastPolledMessage = new AtomicInteger();
-        ipcSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        final ControlledFragmentHandler fragmentHandler = (directBuffer, i, i1, header) -> {
+            lastPolledMessage.set(directBuffer.getInt(i));
+            return ControlledFragmentHandler.Action.CONTINUE;
+        };
+        ipcSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(11, lastPolledMessage.get());
-        mcastSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        mcastSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(22, lastPolledMessage.get());
-        ucastSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        ucastSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(33, lastPolledMessage.get());
 
         // Close them and send messages again
@@ -112,11 +117,11 @@ public class AeronSubscriberTest {
 
         // Poll, there should be nothing this time
         lastPolledMessage.set(0);
-        ipcSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        ipcSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(0, lastPolledMessage.get());
-        mcastSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        mcastSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(0, lastPolledMessage.get());
-        ucastSubscriber.poll((directBuffer, i, i1, header) -> lastPolledMessage.set(directBuffer.getInt(i)), 1);
+        ucastSubscriber.controlledPoll(fragmentHandler, 1);
         Assert.assertEquals(0, lastPolledMessage.get());
 
         // Close the publications
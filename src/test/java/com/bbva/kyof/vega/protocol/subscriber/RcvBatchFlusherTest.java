@@ -0,0 +1,60 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.msg.IRcvMessageBatch;
+import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RcvBatchFlusherTest {
+    @Test
+    public void testFlush() {
+        final RcvBatchFlusher flusher = new RcvBatchFlusher();
+        final AtomicInteger numBatches = new AtomicInteger();
+
+        // More subscribers than the initial capacity, the first listener fails
+        for (int i = 0; i < 40; i++) {
+            final TopicSubscriber topicSubscriber = new TopicSubscriber("topic" + i, new TopicTemplateConfig());
+            final boolean fail = i == 0;
+            topicSubscriber.setNormalListener(new ITopicBatchSubListener() {
+                @Override
+                public void onMessages(final IRcvMessageBatch batch) {
+                    numBatches.incrementAndGet();
+                    if (fail) {
+                        throw new IllegalStateException("Listener error");
+                    }
+                }
+
+                @Override
+                public void onRequestReceived(final IRcvRequest receivedRequest) {
+                    // Not used
+                }
+            });
+            topicSubscriber.setBatchFlusher(flusher);
+            topicSubscriber.onMessageReceived(new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), topicSubscriber), this.createMsg());
+        }
+
+        Assert.assertEquals(40, flusher.getNumPending());
+        Assert.assertEquals(0, numBatches.get());
+
+        // The error doesn't prevent the delivery of the other batches
+        Assert.assertEquals(40, flusher.flush());
+        Assert.assertEquals(40, numBatches.get());
+        Assert.assertEquals(0, flusher.getNumPending());
+        Assert.assertEquals(0, flusher.flush());
+    }
+
+    private RcvMessage createMsg() {
+        final RcvMessage msg = new RcvMessage();
+        msg.setSequenceNumber(1);
+        msg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        msg.setContentLength(8);
+        return msg;
+    }
+}
@@ -0,0 +1,290 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.config.general.DispatchOverflowPolicy;
+import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvMessageBatch;
+import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.IRequestResponder;
+import com.bbva.kyof.vega.msg.RcvMessage;
+import com.bbva.kyof.vega.msg.RcvRequest;
+import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
+import com.bbva.kyof.vega.msg.lost.MsgLostReport;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class RcvDispatchWorkerTest {
+    private final TopicSubscriber topicSubscriber = new TopicSubscriber("topic1", new TopicTemplateConfig());
+    private final Listener listener = new Listener();
+
+    @Before
+    public void before() {
+        this.topicSubscriber.setNormalListener(this.listener);
+    }
+
+    @Test
+    public void testMessagesDeliveredInOrder() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(4, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+
+        // Nothing to deliver
+        Assert.assertEquals(0, worker.action());
+
+        // The received message is reused by the poller, the worker should keep a copy
+        final RcvMessage msg = this.createMsg(10);
+        worker.dispatchMessage(this.topicSubscriber, null, msg);
+        msg.setSequenceNumber(11);
+        msg.getContents().putLong(4, 11);
+        worker.dispatchMessage(this.topicSubscriber, null, msg);
+
+        Assert.assertEquals(2, worker.getQueueDepth());
+        Assert.assertTrue(this.listener.sequenceNumbers.isEmpty());
+
+        Assert.assertEquals(2, worker.action());
+        Assert.assertEquals(0, worker.getQueueDepth());
+        Assert.assertEquals(2, worker.getMaxQueueDepth());
+        Assert.assertEquals(2, worker.getDispatchedMsgs());
+
+        Assert.assertEquals(10L, this.listener.sequenceNumbers.get(0).longValue());
+        Assert.assertEquals(10L, this.listener.contents.get(0).longValue());
+        Assert.assertEquals(11L, this.listener.sequenceNumbers.get(1).longValue());
+        Assert.assertEquals(11L, this.listener.contents.get(1).longValue());
+        Assert.assertEquals("topic1", this.listener.lastMsg.getTopicName());
+        Assert.assertEquals(msg.getTopicPublisherId(), ((RcvMessage) this.listener.lastMsg).getTopicPublisherId());
+        Assert.assertEquals(msg.getInstanceId(), this.listener.lastMsg.getInstanceId());
+    }
+
+    @Test
+    public void testEntriesAreReused() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(2, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+
+        for (int i = 0; i < 10; i++) {
+            worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(i));
+            Assert.assertEquals(1, worker.action());
+            Assert.assertEquals(i, this.listener.contents.get(i).longValue());
+        }
+
+        Assert.assertEquals(10, worker.getDispatchedMsgs());
+        Assert.assertEquals(1, worker.getMaxQueueDepth());
+    }
+
+    @Test
+    public void testBigMessage() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(2, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+
+        final RcvMessage msg = this.createMsg(5);
+        msg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(5000)));
+        msg.getContents().putLong(4990, 77);
+        msg.setContentOffset(0);
+        msg.setContentLength(5000);
+
+        worker.dispatchMessage(this.topicSubscriber, null, msg);
+        worker.action();
+
+        Assert.assertEquals(5000, this.listener.lastMsg.getContentLength());
+        Assert.assertEquals(77, this.listener.lastMsg.getContents().getLong(this.listener.lastMsg.getContentOffset() + 4990));
+    }
+
+    @Test
+    public void testDropNewestWhenFull() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(2, DispatchOverflowPolicy.DROP_NEWEST, new BusySpinIdleStrategy());
+
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(1));
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(2));
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(3));
+
+        Assert.assertEquals(2, worker.getQueueDepth());
+        Assert.assertEquals(2, worker.getDispatchedMsgs());
+        Assert.assertEquals(1, worker.getDroppedMsgs());
+
+        Assert.assertEquals(2, worker.action());
+        Assert.assertEquals(2, this.listener.sequenceNumbers.size());
+        Assert.assertEquals(2L, this.listener.sequenceNumbers.get(1).longValue());
+        Assert.assertTrue(this.listener.lostMsgs.isEmpty());
+
+        // There is room again, the dropped message is reported as lost with the next message
+        final RcvMessage msg = this.createMsg(4);
+        worker.dispatchMessage(this.topicSubscriber, null, msg);
+        Assert.assertEquals(1, worker.action());
+        Assert.assertEquals(4L, this.listener.sequenceNumbers.get(2).longValue());
+        Assert.assertEquals(1, this.listener.lostMsgs.size());
+        Assert.assertEquals(1L, this.listener.lostMsgs.get(0).longValue());
+        Assert.assertEquals(msg.getTopicPublisherId(), this.listener.lastLostReport.getTopicPublisherId());
+
+        // The report is only delivered once
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(5));
+        Assert.assertEquals(1, worker.action());
+        Assert.assertEquals(1, this.listener.lostMsgs.size());
+    }
+
+    @Test
+    public void testDroppedAddedToLossReport() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(2, DispatchOverflowPolicy.DROP_NEWEST, new BusySpinIdleStrategy());
+
+        // Drop two messages
+        for (int i = 1; i <= 4; i++) {
+            worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(i));
+        }
+        Assert.assertEquals(2, worker.getDroppedMsgs());
+        Assert.assertEquals(2, worker.action());
+
+        // The dropped messages are added to the next detected loss
+        worker.dispatchLoss(this.topicSubscriber, new MsgLostReport(UUID.randomUUID(), "topic1", 3, UUID.randomUUID()));
+        Assert.assertEquals(1, worker.action());
+        Assert.assertEquals(5L, this.listener.lostMsgs.get(0).longValue());
+    }
+
+    @Test
+    public void testRequestsAndLosses() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(4, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+        final IRequestResponder responder = EasyMock.createNiceMock(IRequestResponder.class);
+
+        final MsgLostReport lostReport = new MsgLostReport(UUID.randomUUID(), "topic1", 3, UUID.randomUUID());
+
+        final RcvRequest request = new RcvRequest();
+        request.setRequestId(UUID.randomUUID());
+        request.setRequestResponder(responder);
+        request.setTopicName("topic1");
+        request.setSequenceNumber(5);
+        request.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        request.setContentLength(8);
+
+        worker.dispatchRequest(this.topicSubscriber, lostReport, request);
+
+        // The report is reused by the topic subscriber, the worker should keep a copy
+        lostReport.setNumberLostMessages(7);
+        worker.dispatchLoss(this.topicSubscriber, lostReport);
+        lostReport.setNumberLostMessages(0);
+
+        Assert.assertEquals(2, worker.action());
+
+        Assert.assertEquals(2, this.listener.lostMsgs.size());
+        Assert.assertEquals(3L, this.listener.lostMsgs.get(0).longValue());
+        Assert.assertEquals(7L, this.listener.lostMsgs.get(1).longValue());
+        Assert.assertEquals(lostReport.getTopicPublisherId(), this.listener.lastLostReport.getTopicPublisherId());
+
+        final RcvRequest rcvRequest = (RcvRequest) this.listener.lastRequest;
+        Assert.assertEquals(request.getRequestId(), rcvRequest.getRequestId());
+        Assert.assertSame(responder, rcvRequest.getRequestResponder());
+        Assert.assertEquals(5, rcvRequest.getSequenceNumber());
+    }
+
+    @Test
+    public void testListenerErrorDoesNotStopDelivery() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(4, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+        this.listener.failOnSequenceNumber = 1;
+
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(1));
+        worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(2));
+
+        Assert.assertEquals(2, worker.action());
+        Assert.assertEquals(2L, this.listener.sequenceNumbers.get(1).longValue());
+    }
+
+    @Test
+    public void testBatchListener() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(8, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+        final List<Long> batchContents = new ArrayList<>();
+        final TopicSubscriber batchSubscriber = new TopicSubscriber("topic2", new TopicTemplateConfig());
+        batchSubscriber.setNormalListener(new ITopicBatchSubListener() {
+            @Override
+            public void onMessages(final IRcvMessageBatch batch) {
+                for (int i = 0; i < batch.size(); i++) {
+                    batchContents.add(batch.getContents().getLong(batch.getContentOffset(i)));
+                }
+            }
+
+            @Override
+            public void onRequestReceived(final IRcvRequest receivedRequest) {
+                // Not used
+            }
+        });
+        batchSubscriber.setBatchFlusher(worker.getBatchFlusher());
+
+        // All the messages drained in the same action are delivered in a single batch
+        for (int i = 0; i < 5; i++) {
+            worker.dispatchMessage(batchSubscriber, null, this.createMsg(i));
+        }
+
+        Assert.assertEquals(5, worker.action());
+        Assert.assertEquals(5, batchContents.size());
+        Assert.assertEquals(4L, batchContents.get(4).longValue());
+        Assert.assertEquals(0, worker.getBatchFlusher().getNumPending());
+    }
+
+    @Test
+    public void testStartedWorker() throws Exception {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(4, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+        worker.start("testWorker");
+
+        // More messages than the capacity, the producer waits for room
+        for (int i = 0; i < 100; i++) {
+            worker.dispatchMessage(this.topicSubscriber, null, this.createMsg(i));
+        }
+
+        while (worker.getQueueDepth() > 0) {
+            Thread.sleep(1);
+        }
+
+        worker.close();
+
+        Assert.assertEquals(100, this.listener.sequenceNumbers.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, this.listener.sequenceNumbers.get(i).longValue());
+        }
+        Assert.assertEquals(0, worker.getDroppedMsgs());
+    }
+
+    private RcvMessage createMsg(final long sequenceNumber) {
+        final RcvMessage msg = new RcvMessage();
+        msg.setInstanceId(UUID.randomUUID());
+        msg.setTopicPublisherId(UUID.randomUUID());
+        msg.setTopicName("topic1");
+        msg.setSequenceNumber(sequenceNumber);
+        msg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(16)));
+        msg.getContents().putLong(4, sequenceNumber);
+        msg.setContentOffset(4);
+        msg.setContentLength(8);
+        return msg;
+    }
+
+    private static class Listener implements ITopicSubListener {
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final List<Long> contents = new ArrayList<>();
+        final List<Long> lostMsgs = new ArrayList<>();
+        volatile IRcvMessage lastMsg;
+        volatile IRcvRequest lastRequest;
+        volatile IMsgLostReport lastLostReport;
+        long failOnSequenceNumber = -1;
+
+        @Override
+        public void onMessageReceived(final IRcvMessage receivedMessage) {
+            this.lastMsg = receivedMessage;
+            this.sequenceNumbers.add(((RcvMessage) receivedMessage).getSequenceNumber());
+            this.contents.add(receivedMessage.getContents().getLong(receivedMessage.getContentOffset()));
+
+            if (((RcvMessage) receivedMessage).getSequenceNumber() == this.failOnSequenceNumber) {
+                throw new IllegalStateException("Listener error");
+            }
+        }
+
+        @Override
+        public void onRequestReceived(final IRcvRequest receivedRequest) {
+            this.lastRequest = receivedRequest;
+        }
+
+        @Override
+        public void onMessageLost(final IMsgLostReport lostReport) {
+            this.lastLostReport = lostReport;
+            this.lostMsgs.add(lostReport.getNumberLostMessages());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import com.bbva.kyof.vega.msg.RcvMessage;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class RcvReorderWindowTest {
+    @Test
+    public void testHoldAndRemove() {
+        final RcvReorderWindow window = new RcvReorderWindow(4);
+        Assert.assertEquals(4, window.getWindowSize());
+        Assert.assertTrue(window.isEmpty());
+        Assert.assertEquals(TopicPublisherInfo.NO_SEQUENCE_NUMBER, window.findFirstHeld(10));
+
+        final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocate(256));
+        contents.putInt(16, 33);
+
+        // Hold a copy of the message contents
+        Assert.assertTrue(window.hold(this.createMsg(contents, 12, 16, 4)));
+        Assert.assertFalse(window.hold(this.createMsg(contents, 12, 16, 4)));
+        contents.putInt(16, 44);
+
+        final RcvMessage held = window.get(12);
+        Assert.assertEquals(12, held.getSequenceNumber());
+        Assert.assertEquals(4, held.getContentLength());
+        Assert.assertEquals(33, held.getContents().getInt(held.getContentOffset()));
+        Assert.assertNull(window.get(13));
+        Assert.assertEquals(12, window.findFirstHeld(10));
+
+        // The buffer of the slot grows with the message
+        Assert.assertTrue(window.hold(this.createMsg(contents, 11, 0, 256)));
+        Assert.assertEquals(256, window.get(11).getContentLength());
+        Assert.assertEquals(44, window.get(11).getContents().getInt(16));
+        Assert.assertEquals(2, window.getNumHeld());
+        Assert.assertEquals(11, window.findFirstHeld(10));
+
+        window.remove(11);
+        window.remove(11);
+        Assert.assertEquals(1, window.getNumHeld());
+        Assert.assertNull(window.get(11));
+
+        window.clear();
+        Assert.assertTrue(window.isEmpty());
+        Assert.assertNull(window.get(12));
+    }
+
+    private RcvMessage createMsg(final UnsafeBuffer contents, final long sequenceNumber, final int offset, final int length) {
+        final RcvMessage msg = new RcvMessage();
+        msg.setSequenceNumber(sequenceNumber);
+        msg.setUnsafeBufferContent(contents);
+        msg.setContentOffset(offset);
+        msg.setContentLength(length);
+        return msg;
+    }
+}
@@ -6,6 +6,7 @@ import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTransportType;
 import com.bbva.kyof.vega.config.general.ConfigReader;
 import com.bbva.kyof.vega.config.general.ConfigReaderTest;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
 import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.msg.*;
 import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
@@ -29,6 +30,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -411,21 +413,69 @@ public class ReceiveManagerTest {
         rcvMessage.setTopicPublisherId(topicPubId);
         rcvMessage.setInstanceId(VEGA_CONTEXT.getInstanceUniqueId());
 
-        RECEIVER_MANAGER.onDataMsgReceived(rcvMessage);
+        RECEIVER_MANAGER.onDataMsgReceived(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), rcvMessage);
 
-        // It should be received by our listener and the received message should have a topic name
+        // It should be received by our listener and the received message should have a topic name and the topic publisher id
         Assert.assertEquals(listener.receivedMsg.getTopicName(), topicSubscriber.getTopicName());
+        Assert.assertSame(topicPubId, rcvMessage.getTopicPublisherId());
         listener.reset();
 
         // Call the encrypted version, since the topic is not encrypted it should not work
-        RECEIVER_MANAGER.onEncryptedDataMsgReceived(rcvMessage);
+        RECEIVER_MANAGER.onEncryptedDataMsgReceived(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), rcvMessage);
         assertNull(listener.receivedMsg);
 
         // If we try with another topic id it should not work
-        rcvMessage.setTopicPublisherId(UUID.randomUUID());
+        final UUID otherTopicPubId = UUID.randomUUID();
 
-        RECEIVER_MANAGER.onDataMsgReceived(rcvMessage);
+        RECEIVER_MANAGER.onDataMsgReceived(otherTopicPubId.getMostSignificantBits(), otherTopicPubId.getLeastSignificantBits(), rcvMessage);
         assertNull(listener.receivedMsg);
+
+        // Only the related topic publisher is known for the poller filter
+        Assert.assertTrue(RECEIVER_MANAGER.isTopicPublisherKnown(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits()));
+        Assert.assertFalse(RECEIVER_MANAGER.isTopicPublisherKnown(otherTopicPubId.getMostSignificantBits(), otherTopicPubId.getLeastSignificantBits()));
+    }
+
+    @Test
+    public void onCompactDataMessageReceived() throws VegaException {
+        // Subscribe to a topic
+        final ReceiverListener listener = new ReceiverListener();
+        RECEIVER_MANAGER.subscribeToTopic("itopicCompactMsg", listener);
+
+        // Get the subscribed topic
+        final TopicSubscriber topicSubscriber = RECEIVER_MANAGER.getTopicSubscriber("itopicCompactMsg");
+
+        // Now simulate that we have information on a topic publisher with handle
+        final UUID topicPubId = UUID.randomUUID();
+        final UUID instanceId = UUID.randomUUID();
+        RECEIVER_MANAGER.getTopicSubAndTopicPubIdRelations().addTopicPubRelation(topicPubId, instanceId, 77, topicSubscriber);
+
+        // Now simulate we have gotten a new message, the ids should be resolved from the handle
+        final RcvMessage rcvMessage = new RcvMessage();
+        RECEIVER_MANAGER.onCompactDataMsgReceived(77, rcvMessage);
+
+        Assert.assertEquals(listener.receivedMsg.getTopicName(), topicSubscriber.getTopicName());
+        Assert.assertEquals(listener.receivedMsg.getInstanceId(), instanceId);
+        listener.reset();
+
+        // If we try with another handle it should not work
+        RECEIVER_MANAGER.onCompactDataMsgReceived(78, new RcvMessage());
+        assertNull(listener.receivedMsg);
+
+        // Only the advertised handle is known for the poller filter
+        Assert.assertTrue(RECEIVER_MANAGER.isPublisherHandleKnown(77));
+        Assert.assertFalse(RECEIVER_MANAGER.isPublisherHandleKnown(78));
+    }
+
+    @Test
+    public void getRcvChannelStats() throws VegaException {
+        // Subscribe to a topic, the ipc channel is opened when the publisher is discovered but unicast is opened on subscription
+        RECEIVER_MANAGER.subscribeToTopic("utopicStats", new ReceiverListener());
+
+        final List<IRcvChannelStats> stats = RECEIVER_MANAGER.getRcvChannelStats();
+        Assert.assertTrue(stats.stream().anyMatch(channel -> channel.getParams().getTransportType() == TransportMediaType.UNICAST));
+        stats.forEach(channel -> Assert.assertEquals(0, channel.getRejectedMsgs()));
+
+        RECEIVER_MANAGER.unsubscribeFromTopic("utopicStats");
     }
 
     @Test
@@ -447,7 +497,7 @@ public class ReceiveManagerTest {
         rcvMessage.setInstanceId(VEGA_CONTEXT.getInstanceUniqueId());
 
         // It should not arrive
-        RECEIVER_MANAGER.onDataMsgReceived(rcvMessage);
+        RECEIVER_MANAGER.onDataMsgReceived(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), rcvMessage);
         assertNull(listener.receivedMsg);
 
         RECEIVER_MANAGER.unsubscribeFromTopic("stopicMsg");
@@ -471,7 +521,7 @@ public class ReceiveManagerTest {
         rcvMessage.setTopicPublisherId(topicPubId);
         rcvMessage.setInstanceId(VEGA_CONTEXT.getInstanceUniqueId());
 
-        RECEIVER_MANAGER.onEncryptedDataMsgReceived(rcvMessage);
+        RECEIVER_MANAGER.onEncryptedDataMsgReceived(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits(), rcvMessage);
 
         // It should not work because we don't have the AES decoder for the publisher
         assertNull(listener.receivedMsg);
@@ -655,8 +705,8 @@ public class ReceiveManagerTest {
         assertNotNull(listener.receivedReq);
         Assert.assertEquals(listener.receivedReq.getTopicName(), topicSubscriber.getTopicName());
 
-        // Send a response
-        Assert.assertEquals(listener.receivedReq.sendResponse(new UnsafeBuffer(ByteBuffer.allocate(128)), 0, 128), PublishResult.OK);
+        // Send a response, there is no one listening on the other side
+        Assert.assertEquals(listener.receivedReq.sendResponse(new UnsafeBuffer(ByteBuffer.allocate(128)), 0, 128), PublishResult.NOT_CONNECTED);
     }
 
     @Test
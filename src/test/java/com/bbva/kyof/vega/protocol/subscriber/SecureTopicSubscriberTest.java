@@ -126,7 +126,8 @@ public class SecureTopicSubscriberTest {
         rcvMessage.setContentOffset(0);
         rcvMessage.setContentLength(encodedMsg.limit());
         rcvMessage.setTopicPublisherId(UUID.randomUUID());
-        topicSubscriber.onSecureMsgReceived(rcvMessage, aesCrypto);
+        final TopicPublisherInfo topicPubInfo = new TopicPublisherInfo(null, rcvMessage.getTopicPublisherId(), topicSubscriber);
+        topicSubscriber.onSecureMsgReceived(topicPubInfo, rcvMessage, aesCrypto);
     }
 
     private ByteBuffer createMsg(final int size) {
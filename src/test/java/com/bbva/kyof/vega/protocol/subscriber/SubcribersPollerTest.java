@@ -12,9 +12,11 @@ import com.bbva.kyof.vega.util.net.InetUtil;
 import com.bbva.kyof.vega.util.net.SubnetAddress;
 import io.aeron.Aeron;
 import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import lombok.Getter;
 import org.agrona.CloseHelper;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.easymock.EasyMock;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -22,6 +24,8 @@ import org.junit.Test;
 
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -148,7 +152,7 @@ public class SubcribersPollerTest {
         IPC_PUBLISHER.sendMessage(MsgType.ENCRYPTED_DATA, topicId1, sendBuffer, 3, 0, 4);
         sendBuffer.putInt(0, 15);
         IPC_PUBLISHER.sendRequest(MsgType.HEARTBEAT_REQ, topicId1, heartbeatRequestId1, sendBuffer, 4, 0, 4);
-
+        IPC_PUBLISHER.sendNak(topicId1, 40, 42);
 
         // Send some messages, requests and responses to ucast publisher
         final UUID topicId2 = UUID.randomUUID();
@@ -216,6 +220,9 @@ public class SubcribersPollerTest {
         Assert.assertTrue(listener.rcvResponses.contains(23));
         Assert.assertTrue(listener.rcvResponses.contains(33));
 
+        // Check the retransmission requests
+        Assert.assertTrue(listener.rcvNakFirstSeqNumbers.contains(40L));
+
         // Remove the subscriptions
         poller.removeSubscription(UCAST_SUBSCRIBER);
         poller.removeSubscription(IPC_SUBSCRIBER);
@@ -303,6 +310,295 @@ public class SubcribersPollerTest {
         poller.close();
     }
 
+    @Test
+    public void pollBatchMessages() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+
+        // Create a batch with 3 messages of different sizes, each entry is the length followed by the contents
+        final UnsafeBuffer batchBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        int batchLength = 0;
+        for (int i = 1; i <= 3; i++) {
+            batchBuffer.putInt(batchLength, i * 4);
+            batchLength += 4;
+            for (int j = 0; j < i; j++) {
+                batchBuffer.putInt(batchLength, i);
+                batchLength += 4;
+            }
+        }
+
+        final UUID topicId = UUID.randomUUID();
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, topicId, batchBuffer, 20, 0, batchLength);
+
+        // Wait for message to arrive
+        Thread.sleep(500);
+
+        // Each message of the batch should be received separately with consecutive sequence numbers
+        Assert.assertEquals(3, listener.rcvMessages.size());
+        for (int i = 0; i < 3; i++) {
+            final RcvMessage receivedMsg = (RcvMessage) listener.getRcvMessages().get(i);
+            Assert.assertEquals(topicId, receivedMsg.getTopicPublisherId());
+            Assert.assertEquals(20 + i, receivedMsg.getSequenceNumber());
+            Assert.assertEquals((i + 1) * 4, receivedMsg.getContentLength());
+            Assert.assertEquals(i + 1, receivedMsg.getContents().getInt(receivedMsg.getContentOffset() + receivedMsg.getContentLength() - 4));
+        }
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollCompactMessages() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+
+        // Send a single compact message
+        final UnsafeBuffer msgBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        msgBuffer.putInt(0, 33);
+        IPC_PUBLISHER.sendCompactMessage(MsgType.DATA_COMPACT, 1234, msgBuffer, 10, 0, 4);
+
+        // Send a compact batch with 2 messages, each entry is the length followed by the contents
+        msgBuffer.putInt(0, 4);
+        msgBuffer.putInt(4, 34);
+        msgBuffer.putInt(8, 4);
+        msgBuffer.putInt(12, 35);
+        IPC_PUBLISHER.sendCompactMessage(MsgType.DATA_BATCH_COMPACT, 1234, msgBuffer, 11, 0, 16);
+
+        // Wait for message to arrive
+        Thread.sleep(500);
+
+        // The messages should be received with the handle and consecutive sequence numbers
+        Assert.assertEquals(3, listener.rcvMessages.size());
+        for (int i = 0; i < 3; i++) {
+            final RcvMessage receivedMsg = (RcvMessage) listener.getRcvMessages().get(i);
+            Assert.assertEquals(1234, (int) listener.getRcvPublisherHandles().get(i));
+            Assert.assertEquals(10 + i, receivedMsg.getSequenceNumber());
+            Assert.assertEquals(4, receivedMsg.getContentLength());
+            Assert.assertEquals(33 + i, receivedMsg.getContents().getInt(receivedMsg.getContentOffset()));
+        }
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollAbortedMessages() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription, discard any message left in the shared subscription by other tests
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+        listener.rcvMessages.clear();
+
+        // The listener aborts the single message once and the second message of the batch once
+        listener.nextActions.add(RcvAction.ABORT);
+        listener.nextActions.add(RcvAction.CONTINUE);
+        listener.nextActions.add(RcvAction.CONTINUE);
+        listener.nextActions.add(RcvAction.ABORT);
+
+        // Send a single message
+        final UnsafeBuffer msgBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        msgBuffer.putInt(0, 5);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA, UUID.randomUUID(), msgBuffer, 5, 0, 4);
+
+        // Send a batch with 3 messages, each entry is the length followed by the contents
+        for (int i = 0; i < 3; i++) {
+            msgBuffer.putInt(i * 8, 4);
+            msgBuffer.putInt(i * 8 + 4, 20 + i);
+        }
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, UUID.randomUUID(), msgBuffer, 20, 0, 24);
+
+        // Wait for message to arrive
+        Thread.sleep(500);
+
+        // The aborted messages are received again, the consumed messages of the batch are not
+        final long[] expectedSequences = {5, 5, 20, 21, 21, 22};
+        Assert.assertEquals(expectedSequences.length, listener.rcvMessages.size());
+        for (int i = 0; i < expectedSequences.length; i++) {
+            final RcvMessage receivedMsg = (RcvMessage) listener.getRcvMessages().get(i);
+            Assert.assertEquals(expectedSequences[i], receivedMsg.getSequenceNumber());
+            Assert.assertEquals(expectedSequences[i], receivedMsg.getContents().getInt(receivedMsg.getContentOffset()));
+        }
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollMalformedBatches() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription, discard any message left in the shared subscription by other tests
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+        listener.rcvMessages.clear();
+
+        // Send a batch whose second entry is longer than the fragment
+        final UnsafeBuffer msgBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        msgBuffer.putInt(0, 4);
+        msgBuffer.putInt(4, 1);
+        msgBuffer.putInt(8, 100);
+        msgBuffer.putInt(12, 2);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, UUID.randomUUID(), msgBuffer, 1, 0, 16);
+
+        // Send a compact batch with a negative entry length
+        msgBuffer.putInt(0, -4);
+        IPC_PUBLISHER.sendCompactMessage(MsgType.DATA_BATCH_COMPACT, 1234, msgBuffer, 3, 0, 8);
+
+        // Send a valid message after them
+        msgBuffer.putInt(0, 7);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA, UUID.randomUUID(), msgBuffer, 7, 0, 4);
+
+        // Wait for message to arrive
+        Thread.sleep(500);
+
+        // The malformed batches are discarded completely
+        Assert.assertEquals(1, listener.rcvMessages.size());
+        final RcvMessage receivedMsg = (RcvMessage) listener.getRcvMessages().get(0);
+        Assert.assertEquals(7, receivedMsg.getSequenceNumber());
+        Assert.assertEquals(7, receivedMsg.getContents().getInt(receivedMsg.getContentOffset()));
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollRejectedMessages() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).build();
+        config.completeAndValidateConfig();
+
+        // Create and start the poller
+        final SimpleListener listener = new SimpleListener();
+        final SubcribersPoller poller = new SubcribersPoller(listener, config);
+        poller.start();
+
+        // Add the subscription, discard any message left in the shared subscription by other tests
+        poller.addSubscription(IPC_SUBSCRIBER);
+        Thread.sleep(100);
+        listener.rcvMessages.clear();
+
+        final long initialRejectedMsgs = IPC_SUBSCRIBER.getRejectedMsgs();
+        final long initialRejectedBytes = IPC_SUBSCRIBER.getRejectedBytes();
+
+        final UUID knownTopicPubId = UUID.randomUUID();
+        final UUID unknownTopicPubId = UUID.randomUUID();
+        listener.unknownTopicPubIds.add(unknownTopicPubId);
+        listener.unknownPublisherHandles.add(99);
+
+        // Send a message of each type from a known and from an unknown publisher
+        final UnsafeBuffer msgBuffer = new UnsafeBuffer(ByteBuffer.allocate(128));
+        msgBuffer.putInt(0, 4);
+        msgBuffer.putInt(4, 7);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA, knownTopicPubId, msgBuffer, 1, 4, 4);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA, unknownTopicPubId, msgBuffer, 1, 4, 4);
+        IPC_PUBLISHER.sendMessage(MsgType.DATA_BATCH, unknownTopicPubId, msgBuffer, 2, 0, 8);
+        IPC_PUBLISHER.sendCompactMessage(MsgType.DATA_COMPACT, 98, msgBuffer, 3, 4, 4);
+        IPC_PUBLISHER.sendCompactMessage(MsgType.DATA_BATCH_COMPACT, 99, msgBuffer, 4, 0, 8);
+
+        // Wait for message to arrive
+        Thread.sleep(500);
+
+        // Only the messages of the known publishers are delivered
+        Assert.assertEquals(2, listener.rcvMessages.size());
+        Assert.assertEquals(knownTopicPubId, ((RcvMessage) listener.getRcvMessages().get(0)).getTopicPublisherId());
+        Assert.assertEquals(Collections.singletonList(98), listener.getRcvPublisherHandles());
+
+        // The rejected messages are counted with the headers
+        final int dataHeadersSize = BaseHeader.BINARY_SIZE + MsgDataHeader.BINARY_SIZE;
+        final int compactHeadersSize = BaseHeader.BINARY_SIZE + MsgCompactDataHeader.BINARY_SIZE;
+        Assert.assertEquals(3, IPC_SUBSCRIBER.getRejectedMsgs() - initialRejectedMsgs);
+        Assert.assertEquals(dataHeadersSize * 2 + 12 + compactHeadersSize + 8, IPC_SUBSCRIBER.getRejectedBytes() - initialRejectedBytes);
+
+        // Remove the subscription and close
+        poller.removeSubscription(IPC_SUBSCRIBER);
+        poller.close();
+    }
+
+    @Test
+    public void pollByPriorityWithAdaptiveBudget() throws Exception {
+        // Create the config
+        RcvPollerConfig config = RcvPollerConfig.builder().name("PollerName").idleStrategyType(IdleStrategyType.BACK_OFF).
+                adaptivePollBudget(true).minFragmentsPerPoll(1).maxFragmentsPerPoll(4).build();
+        config.completeAndValidateConfig();
+
+        // The poller is not started, the cycles are run directly
+        final SubcribersPoller poller = new SubcribersPoller(new SimpleListener(), config);
+        final List<String> polls = new ArrayList<>();
+
+        // The busy subscription fills the budget on every poll, the quiet one never has anything to read
+        final AeronSubscriber busy = this.createPollRecorder("busy", 0, true, polls);
+        final AeronSubscriber quiet = this.createPollRecorder("quiet", 5, false, polls);
+        poller.addSubscription(busy);
+        poller.addSubscription(quiet);
+
+        Assert.assertEquals(1, poller.action());
+        Assert.assertEquals(2, poller.action());
+        Assert.assertEquals(4, poller.action());
+        Assert.assertEquals(4, poller.action());
+
+        // The subscription with higher priority is polled first, the budget of the busy one grows up to the max
+        Assert.assertEquals(Arrays.asList("quiet:1", "busy:1", "quiet:1", "busy:2", "quiet:1", "busy:4", "quiet:1", "busy:4"), polls);
+
+        // The budget is kept when the subscriptions change
+        polls.clear();
+        poller.removeSubscription(quiet);
+        poller.action();
+        Assert.assertEquals(Collections.singletonList("busy:4"), polls);
+    }
+
+    private AeronSubscriber createPollRecorder(final String name, final int priority, final boolean busy, final List<String> polls) {
+        final AeronSubscriber subscriber = EasyMock.partialMockBuilder(AeronSubscriber.class).addMockedMethod("controlledPoll").createMock();
+        subscriber.setPollPriority(priority);
+
+        EasyMock.expect(subscriber.controlledPoll(EasyMock.anyObject(ControlledFragmentHandler.class), EasyMock.anyInt())).andAnswer(() -> {
+            final int maxFragments = EasyMock.getCurrentArgument(1);
+            polls.add(name + ":" + maxFragments);
+            return busy ? maxFragments : 0;
+        }).anyTimes();
+        EasyMock.replay(subscriber);
+
+        return subscriber;
+    }
+
     private static class Listener implements ISubscribersPollerListener {
         @Getter
         final Set<Integer> rcvMessagesContents = new HashSet<>();
@@ -322,24 +618,47 @@ public class SubcribersPollerTest {
         final Set<Integer> rcvResponses = new HashSet<>();
         @Getter
         final Set<UUID> rcvRespIds = new HashSet<>();
+        @Getter
+        final Set<Long> rcvNakFirstSeqNumbers = new HashSet<>();
+
+        @Override
+        public boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb) {
+            return true;
+        }
+
+        @Override
+        public boolean isPublisherHandleKnown(int publisherHandle) {
+            return true;
+        }
 
         @Override
-        public void onDataMsgReceived(RcvMessage msg) {
+        public RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
             rcvMessagesContents.add(msg.getContents().getInt(msg.getContentOffset()));
 
             rcvMessagesSecuences.add(msg.getSequenceNumber());
+
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onEncryptedDataMsgReceived(RcvMessage msg) {
+        public RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg) {
+            return this.onDataMsgReceived(0, 0, msg);
+        }
+
+        @Override
+        public RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
             rcvEncryptedMessagesCount.getAndIncrement();
+
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onDataRequestMsgReceived(RcvRequest request) {
+        public RcvAction onDataRequestMsgReceived(RcvRequest request) {
             rcvRequestsByContentValue.add(request.getContents().getInt(request.getContentOffset()));
             rcvRequestsBySeqNumber.add(request.getSequenceNumber());
             rcvRequestIds.add(request.getRequestId());
+
+            return RcvAction.CONTINUE;
         }
 
         @Override
@@ -348,6 +667,16 @@ public class SubcribersPollerTest {
             rcvRequestIds.add(response.getOriginalRequestId());
         }
 
+        @Override
+        public void onNakMsgReceived(MsgNakHeader nakHeader) {
+            rcvNakFirstSeqNumbers.add(nakHeader.getFirstSequenceNumber());
+        }
+
+        @Override
+        public boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber) {
+            return false;
+        }
+
         @Override
         public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {
             rcvHeartbeatRequestIds.add(heartbeatReqMsgHeader.getRequestId());
@@ -357,25 +686,62 @@ public class SubcribersPollerTest {
     private static class SimpleListener implements ISubscribersPollerListener {
         @Getter
         final List<IRcvMessage> rcvMessages = new LinkedList<>();
+        @Getter
+        final List<Integer> rcvPublisherHandles = new LinkedList<>();
+        final Queue<RcvAction> nextActions = new ConcurrentLinkedQueue<>();
+        final Set<UUID> unknownTopicPubIds = ConcurrentHashMap.newKeySet();
+        final Set<Integer> unknownPublisherHandles = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb) {
+            return !unknownTopicPubIds.contains(new UUID(topicPubIdMsb, topicPubIdLsb));
+        }
 
         @Override
-        public void onDataMsgReceived(RcvMessage msg) {
+        public boolean isPublisherHandleKnown(int publisherHandle) {
+            return !unknownPublisherHandles.contains(publisherHandle);
+        }
+
+        @Override
+        public RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+            msg.setTopicPublisherId(new UUID(topicPubIdMsb, topicPubIdLsb));
             rcvMessages.add(msg.promote());
+
+            final RcvAction nextAction = nextActions.poll();
+            return nextAction == null ? RcvAction.CONTINUE : nextAction;
         }
 
         @Override
-        public void onEncryptedDataMsgReceived(RcvMessage msg) {
+        public RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg) {
+            rcvMessages.add(msg.promote());
+            rcvPublisherHandles.add(publisherHandle);
 
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onDataRequestMsgReceived(RcvRequest request) {
+        public RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+            return RcvAction.CONTINUE;
+        }
+
+        @Override
+        public RcvAction onDataRequestMsgReceived(RcvRequest request) {
+            return RcvAction.CONTINUE;
         }
 
         @Override
         public void onDataResponseMsgReceived(RcvResponse response) {
         }
 
+        @Override
+        public void onNakMsgReceived(MsgNakHeader nakHeader) {
+        }
+
+        @Override
+        public boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber) {
+            return false;
+        }
+
         @Override
         public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {
 
@@ -235,23 +235,52 @@ public class SubscribersManagerUnicastTest implements ITopicSubListener {
         volatile IRcvMessage receivedMsg = null;
 
         @Override
-        public void onDataMsgReceived(RcvMessage msg) {
+        public boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb) {
+            return true;
+        }
+
+        @Override
+        public boolean isPublisherHandleKnown(int publisherHandle) {
+            return true;
+        }
+
+        @Override
+        public RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
             this.receivedMsg = msg.promote();
+
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onEncryptedDataMsgReceived(RcvMessage msg) {
+        public RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg) {
+            this.receivedMsg = msg.promote();
 
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onDataRequestMsgReceived(RcvRequest request) {
+        public RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+            return RcvAction.CONTINUE;
+        }
+
+        @Override
+        public RcvAction onDataRequestMsgReceived(RcvRequest request) {
+            return RcvAction.CONTINUE;
         }
 
         @Override
         public void onDataResponseMsgReceived(RcvResponse response) {
         }
 
+        @Override
+        public void onNakMsgReceived(MsgNakHeader nakHeader) {
+        }
+
+        @Override
+        public boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber) {
+            return false;
+        }
+
         @Override
         public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {
 
@@ -2,6 +2,7 @@ package com.bbva.kyof.vega.protocol.subscriber;
 
 import com.bbva.kyof.vega.config.general.ConfigReader;
 import com.bbva.kyof.vega.config.general.ConfigReaderTest;
+import com.bbva.kyof.vega.msg.MsgNakHeader;
 import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
@@ -73,26 +74,84 @@ public class SubscribersPollersManagerTest {
         Assert.assertEquals(poller1, pollersManager.getPoller("poller1"));
 
         Assert.assertNotNull(pollersManager.getPoller("poller2"));
+
+        // The pollers without dispatch workers deliver the messages themselves
+        Assert.assertNull(poller1.getDispatcher());
+        Assert.assertNull(poller1.assignDispatchWorker());
+        Assert.assertNull(pollersManager.assignDispatchWorker("poller1"));
+        Assert.assertNull(pollersManager.assignDispatchWorker("unknownPoller"));
+        Assert.assertNull(pollersManager.getDispatcherStats("poller1"));
+
+        // The batches are flushed by the poller thread
+        Assert.assertSame(poller1.getBatchFlusher(), pollersManager.getBatchFlusher("poller1", null));
+        Assert.assertNull(pollersManager.getBatchFlusher("unknownPoller", null));
+    }
+
+    @Test
+    public void testPollerWithDispatchWorkers() throws Exception {
+        // No stats until the poller is created
+        Assert.assertNull(pollersManager.getDispatcherStats("poller3"));
+
+        final SubcribersPoller poller3 = pollersManager.getPoller("poller3");
+        final IRcvDispatcherStats stats = pollersManager.getDispatcherStats("poller3");
+        Assert.assertSame(poller3.getDispatcher(), stats);
+        Assert.assertEquals(2, stats.getNumWorkers());
+        Assert.assertEquals(16, stats.getQueueCapacity());
+
+        // The workers are assigned in round robin
+        final RcvDispatchWorker worker1 = poller3.assignDispatchWorker();
+        final RcvDispatchWorker worker2 = poller3.assignDispatchWorker();
+        Assert.assertNotSame(worker1, worker2);
+        Assert.assertSame(worker1, pollersManager.assignDispatchWorker("poller3"));
+
+        // The batches are flushed by the worker thread
+        Assert.assertSame(worker2.getBatchFlusher(), pollersManager.getBatchFlusher("poller3", worker2));
     }
 
     private class Listener implements ISubscribersPollerListener {
         @Override
-        public void onDataMsgReceived(RcvMessage msg) {
+        public boolean isTopicPublisherKnown(long topicPubIdMsb, long topicPubIdLsb) {
+            return true;
         }
 
         @Override
-        public void onEncryptedDataMsgReceived(RcvMessage msg) {
+        public boolean isPublisherHandleKnown(int publisherHandle) {
+            return true;
+        }
 
+        @Override
+        public RcvAction onDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+            return RcvAction.CONTINUE;
+        }
+
+        @Override
+        public RcvAction onCompactDataMsgReceived(int publisherHandle, RcvMessage msg) {
+            return RcvAction.CONTINUE;
         }
 
         @Override
-        public void onDataRequestMsgReceived(RcvRequest request) {
+        public RcvAction onEncryptedDataMsgReceived(long topicPubIdMsb, long topicPubIdLsb, RcvMessage msg) {
+            return RcvAction.CONTINUE;
+        }
+
+        @Override
+        public RcvAction onDataRequestMsgReceived(RcvRequest request) {
+            return RcvAction.CONTINUE;
         }
 
         @Override
         public void onDataResponseMsgReceived(RcvResponse response) {
         }
 
+        @Override
+        public void onNakMsgReceived(MsgNakHeader nakHeader) {
+        }
+
+        @Override
+        public boolean requestRetransmission(TopicPublisherInfo topicPubInfo, long firstSequenceNumber, long lastSequenceNumber) {
+            return false;
+        }
+
         @Override
         public void onHeartbeatRequestMsgReceived(MsgReqHeader heartbeatReqMsgHeader) {
 
@@ -0,0 +1,43 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SubscriptionPollBudgetTest {
+    @Test
+    public void testAdaptiveBudget() {
+        final SubscriptionPollBudget budget = new SubscriptionPollBudget(2, 16);
+        Assert.assertEquals(2, budget.getFragmentLimit());
+
+        // Grows while the budget is filled, up to the max
+        budget.onPoll(2);
+        Assert.assertEquals(4, budget.getFragmentLimit());
+        budget.onPoll(4);
+        budget.onPoll(8);
+        Assert.assertEquals(16, budget.getFragmentLimit());
+        budget.onPoll(16);
+        Assert.assertEquals(16, budget.getFragmentLimit());
+
+        // Kept while at least half of the budget is used
+        budget.onPoll(8);
+        Assert.assertEquals(16, budget.getFragmentLimit());
+
+        // Shrinks while quiet, down to the min
+        budget.onPoll(7);
+        Assert.assertEquals(8, budget.getFragmentLimit());
+        budget.onPoll(0);
+        budget.onPoll(0);
+        budget.onPoll(0);
+        Assert.assertEquals(2, budget.getFragmentLimit());
+    }
+
+    @Test
+    public void testFixedBudget() {
+        final SubscriptionPollBudget budget = new SubscriptionPollBudget(3, 3);
+
+        budget.onPoll(3);
+        Assert.assertEquals(3, budget.getFragmentLimit());
+        budget.onPoll(0);
+        Assert.assertEquals(3, budget.getFragmentLimit());
+    }
+}
@@ -0,0 +1,73 @@
+package com.bbva.kyof.vega.protocol.subscriber;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class TopicPublisherIdTableTest {
+    @Test
+    public void testPutGetAndRemove() {
+        final List<UUID> topicPubIds = new ArrayList<>();
+        TopicPublisherIdTable table = TopicPublisherIdTable.EMPTY;
+
+        // Add enough topic publishers to force the table to grow several times
+        for (int i = 0; i < 1000; i++) {
+            final UUID topicPubId = UUID.randomUUID();
+            topicPubIds.add(topicPubId);
+            table = table.put(new TopicPublisherInfo(null, topicPubId, null));
+        }
+
+        Assert.assertEquals(1000, table.size());
+        Assert.assertEquals(0, TopicPublisherIdTable.EMPTY.size());
+
+        for (final UUID topicPubId : topicPubIds) {
+            Assert.assertSame(topicPubId, table.get(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits()).getTopicPublisherId());
+        }
+
+        // Replacing an existing one should not change the size
+        final UUID instanceId = UUID.randomUUID();
+        final UUID firstTopicPubId = topicPubIds.get(0);
+        table = table.put(new TopicPublisherInfo(instanceId, firstTopicPubId, null));
+        Assert.assertEquals(1000, table.size());
+        Assert.assertEquals(instanceId, table.get(firstTopicPubId.getMostSignificantBits(), firstTopicPubId.getLeastSignificantBits()).getInstanceId());
+
+        // Remove half of them, the other half should still be found
+        final TopicPublisherIdTable fullTable = table;
+        for (int i = 0; i < 1000; i += 2) {
+            table = table.remove(topicPubIds.get(i).getMostSignificantBits(), topicPubIds.get(i).getLeastSignificantBits());
+        }
+
+        Assert.assertEquals(500, table.size());
+        for (int i = 0; i < 1000; i++) {
+            final UUID topicPubId = topicPubIds.get(i);
+            final TopicPublisherInfo info = table.get(topicPubId.getMostSignificantBits(), topicPubId.getLeastSignificantBits());
+            Assert.assertEquals(i % 2 == 0, info == null);
+        }
+
+        // The previous copy should not be modified
+        Assert.assertEquals(1000, fullTable.size());
+        Assert.assertNotNull(fullTable.get(firstTopicPubId.getMostSignificantBits(), firstTopicPubId.getLeastSignificantBits()));
+
+        // Removing a missing one returns the same table
+        Assert.assertSame(table, table.remove(1, 2));
+    }
+
+    @Test
+    public void testCollidingIds() {
+        // Ids with the same xor of the bits have the same hash
+        TopicPublisherIdTable table = TopicPublisherIdTable.EMPTY;
+        for (int i = 0; i < 10; i++) {
+            table = table.put(new TopicPublisherInfo(null, new UUID(i, i), null));
+        }
+
+        table = table.remove(3, 3);
+        table = table.remove(0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i == 0 || i == 3, table.get(i, i) == null);
+        }
+    }
+}
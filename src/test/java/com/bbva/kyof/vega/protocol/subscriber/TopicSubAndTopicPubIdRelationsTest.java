@@ -1,5 +1,6 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.autodiscovery.model.AutoDiscTopicInfo;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
@@ -52,4 +53,74 @@ public class TopicSubAndTopicPubIdRelationsTest {
         relations.clear();
         Assert.assertNull(relations.getTopicSubscriberForTopicPublisherId(topicPubId1));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPublisherHandles() {
+        final TopicSubAndTopicPubIdRelations relations = new TopicSubAndTopicPubIdRelations();
+
+        final UUID topicSubId1 = UUID.randomUUID();
+        final UUID topicSubId2 = UUID.randomUUID();
+
+        final TopicSubscriber topicSubscriber1 = EasyMock.createNiceMock(TopicSubscriber.class);
+        final TopicSubscriber topicSubscriber2 = EasyMock.createNiceMock(TopicSubscriber.class);
+
+        EasyMock.expect(topicSubscriber1.getUniqueId()).andReturn(topicSubId1).anyTimes();
+        EasyMock.expect(topicSubscriber2.getUniqueId()).andReturn(topicSubId2).anyTimes();
+
+        EasyMock.replay(topicSubscriber1, topicSubscriber2);
+
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPubId1 = UUID.randomUUID();
+        final UUID topicPubId2 = UUID.randomUUID();
+        final UUID topicPubId3 = UUID.randomUUID();
+        final UUID topicPubId4 = UUID.randomUUID();
+
+        // Add relations with and without handle
+        relations.addTopicPubRelation(topicPubId1, instanceId, 11, topicSubscriber1);
+        relations.addTopicPubRelation(topicPubId2, instanceId, 22, topicSubscriber2);
+        relations.addTopicPubRelation(topicPubId3, instanceId, AutoDiscTopicInfo.NO_PUBLISHER_HANDLE, topicSubscriber2);
+
+        Assert.assertEquals(relations.getTopicSubscriberForTopicPublisherId(topicPubId3), topicSubscriber2);
+        Assert.assertNull(relations.getTopicPublisherForHandle(AutoDiscTopicInfo.NO_PUBLISHER_HANDLE));
+
+        final TopicPublisherInfo idInfo = relations.getTopicPublisher(topicPubId1.getMostSignificantBits(), topicPubId1.getLeastSignificantBits());
+        Assert.assertEquals(instanceId, idInfo.getInstanceId());
+        Assert.assertSame(topicPubId1, idInfo.getTopicPublisherId());
+        Assert.assertEquals(topicSubscriber1, idInfo.getTopicSubscriber());
+
+        final TopicPublisherInfo handleInfo = relations.getTopicPublisherForHandle(11);
+        Assert.assertEquals(instanceId, handleInfo.getInstanceId());
+        Assert.assertEquals(topicPubId1, handleInfo.getTopicPublisherId());
+        Assert.assertEquals(topicSubscriber1, handleInfo.getTopicSubscriber());
+        Assert.assertEquals(topicPubId2, relations.getTopicPublisherForHandle(22).getTopicPublisherId());
+
+        // Adding it again should not change anything
+        relations.addTopicPubRelation(topicPubId1, instanceId, 11, topicSubscriber1);
+        Assert.assertEquals(topicPubId1, relations.getTopicPublisherForHandle(11).getTopicPublisherId());
+
+        // A collision should remove the handle
+        relations.addTopicPubRelation(topicPubId4, instanceId, 11, topicSubscriber1);
+        Assert.assertNull(relations.getTopicPublisherForHandle(11));
+        Assert.assertEquals(relations.getTopicSubscriberForTopicPublisherId(topicPubId4), topicSubscriber1);
+
+        // The collided handle is not resolved again, the topic publishers will fall back to the full header
+        relations.addTopicPubRelation(topicPubId1, instanceId, 11, topicSubscriber1);
+        relations.addTopicPubRelation(topicPubId4, instanceId, 11, topicSubscriber1);
+        Assert.assertNull(relations.getTopicPublisherForHandle(11));
+        Assert.assertEquals(relations.getTopicSubscriberForTopicPublisherId(topicPubId1), topicSubscriber1);
+
+        // Remove single relation
+        relations.removeTopicPubRelation(topicPubId2, topicSubscriber2);
+        Assert.assertNull(relations.getTopicPublisherForHandle(22));
+
+        // Remove topic subscriber relation, should remove all related handles
+        relations.addTopicPubRelation(topicPubId2, instanceId, 22, topicSubscriber2);
+        relations.removeTopicSubscriber(topicSubscriber2);
+        Assert.assertNull(relations.getTopicPublisherForHandle(22));
+
+        // Add relation and clear
+        relations.addTopicPubRelation(topicPubId1, instanceId, 33, topicSubscriber1);
+        relations.clear();
+        Assert.assertNull(relations.getTopicPublisherForHandle(33));
+    }
+}
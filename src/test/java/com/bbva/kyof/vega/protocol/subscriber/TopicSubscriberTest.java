@@ -1,17 +1,29 @@
 package com.bbva.kyof.vega.protocol.subscriber;
 
+import com.bbva.kyof.vega.config.general.DispatchOverflowPolicy;
 import com.bbva.kyof.vega.config.general.TopicTemplateConfig;
+import com.bbva.kyof.vega.config.general.TransportMediaType;
+import com.bbva.kyof.vega.exception.VegaException;
 import com.bbva.kyof.vega.msg.IRcvMessage;
+import com.bbva.kyof.vega.msg.IRcvMessageBatch;
 import com.bbva.kyof.vega.msg.IRcvRequest;
+import com.bbva.kyof.vega.msg.MsgReqHeader;
 import com.bbva.kyof.vega.msg.RcvMessage;
 import com.bbva.kyof.vega.msg.RcvRequest;
 import com.bbva.kyof.vega.msg.lost.IMsgLostReport;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
@@ -115,11 +127,14 @@ public class TopicSubscriberTest {
         testRequest.setSequenceNumber(3333);
         testRequest.setTopicPublisherId(UUID.randomUUID());
 
-        topicSubscriber.onMessageReceived(testMsg);
+        final TopicPublisherInfo msgPubInfo = new TopicPublisherInfo(null, testMsg.getTopicPublisherId(), topicSubscriber);
+        final TopicPublisherInfo reqPubInfo = new TopicPublisherInfo(null, testRequest.getTopicPublisherId(), topicSubscriber);
+
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
         testMsg.setSequenceNumber(testMsg.getSequenceNumber() + 1);
-        topicSubscriber.onMessageReceived(testMsg);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
         testMsg.setSequenceNumber(testMsg.getSequenceNumber() + 1);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
         testRequest.setSequenceNumber(testRequest.getSequenceNumber() + 1);
 
         Assert.assertEquals(2, normalListener.msgsReceived);
@@ -128,8 +143,8 @@ public class TopicSubscriberTest {
         topicSubscriber.addPatternListener("a.*", patternListener1);
         topicSubscriber.addPatternListener("b.*", patternListener2);
 
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
 
         assertEquals(3, normalListener.msgsReceived);
         assertEquals(2, normalListener.requestsReceived);
@@ -149,23 +164,499 @@ public class TopicSubscriberTest {
     }
 
     @Test
-    public void testSequenceNumberMap() {
+    public void testExpectedSequenceNumber() {
         final long msgSequenceNumber = new Random().nextLong();
         final UUID topicPublisherId = UUID.randomUUID();
+        final TopicPublisherInfo msgPubInfo = new TopicPublisherInfo(null, topicPublisherId, topicSubscriber);
 
         final RcvMessage testMsg = new RcvMessage();
         testMsg.setTopicPublisherId(topicPublisherId);
         testMsg.setSequenceNumber(msgSequenceNumber);
 
-        topicSubscriber.onMessageReceived(testMsg);
+        Assert.assertEquals(TopicPublisherInfo.NO_SEQUENCE_NUMBER, msgPubInfo.getExpectedSequenceNumber());
+
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+
+        Assert.assertEquals(msgSequenceNumber + 1, msgPubInfo.getExpectedSequenceNumber());
+    }
+
+    @Test
+    public void testLostReport() {
+        final UUID instanceId = UUID.randomUUID();
+        final UUID topicPublisherId = UUID.randomUUID();
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(instanceId, topicPublisherId, topicSubscriber);
+        final List<IMsgLostReport> reports = new ArrayList<>();
+        final List<Long> numLostMsgs = new ArrayList<>();
+
+        topicSubscriber.setNormalListener(new Listener() {
+            @Override
+            public void onMessageLost(final IMsgLostReport lostReport) {
+                reports.add(lostReport);
+                numLostMsgs.add(lostReport.getNumberLostMessages());
+                Assert.assertEquals("topic1", lostReport.getTopicName());
+                Assert.assertEquals(instanceId, lostReport.getInstanceId());
+                Assert.assertEquals(topicPublisherId, lostReport.getTopicPublisherId());
+            }
+        });
+
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+        testMsg.setSequenceNumber(1);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        // Gap of 3 messages
+        testMsg.setSequenceNumber(5);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        // Gap of 5 messages detected by a heartbeat
+        final MsgReqHeader heartbeat = new MsgReqHeader();
+        heartbeat.setSequenceNumber(11);
+        topicSubscriber.onHeartbeatReceived(pubInfo, heartbeat, "topic1");
+
+        // The same report is reused on each loss
+        Assert.assertEquals(2, reports.size());
+        Assert.assertSame(reports.get(0), reports.get(1));
+        Assert.assertEquals(Long.valueOf(3), numLostMsgs.get(0));
+        Assert.assertEquals(Long.valueOf(5), numLostMsgs.get(1));
+        Assert.assertEquals(12, pubInfo.getExpectedSequenceNumber());
+    }
+
+    @Test
+    public void testDeliveryThroughDispatchWorker() {
+        final RcvDispatchWorker worker = new RcvDispatchWorker(8, DispatchOverflowPolicy.BLOCK, new BusySpinIdleStrategy());
+        final Listener normalListener = new Listener();
+        topicSubscriber.setNormalListener(normalListener);
+        topicSubscriber.setDispatchWorker(worker);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), topicSubscriber);
+
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+        testMsg.setSequenceNumber(1);
+        testMsg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testMsg.setContentLength(8);
+
+        final RcvRequest testRequest = new RcvRequest();
+        testRequest.setTopicName("topic1");
+        testRequest.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testRequest.setContentLength(8);
+
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        // Duplicated, it is not dispatched
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        // Gap of 2 messages
+        testRequest.setSequenceNumber(4);
+        topicSubscriber.onRequestReceived(pubInfo, testRequest);
+        // Gap of 1 message detected by a heartbeat
+        final MsgReqHeader heartbeat = new MsgReqHeader();
+        heartbeat.setSequenceNumber(6);
+        topicSubscriber.onHeartbeatReceived(pubInfo, heartbeat, "topic1");
+
+        // The loss detection is performed by the caller, the listeners are called by the worker
+        Assert.assertEquals(7, pubInfo.getExpectedSequenceNumber());
+        Assert.assertEquals(0, normalListener.msgsReceived);
+        Assert.assertEquals(3, worker.getQueueDepth());
+
+        Assert.assertEquals(3, worker.action());
+        Assert.assertEquals(1, normalListener.msgsReceived);
+        Assert.assertEquals(1, normalListener.requestsReceived);
+        Assert.assertEquals(3, normalListener.msgsLost);
+        Assert.assertEquals(4, normalListener.requestSequenceNumber);
+    }
+
+    @Test
+    public void testBatchListener() {
+        final List<String> events = new ArrayList<>();
+        final ITopicBatchSubListener batchListener = new ITopicBatchSubListener() {
+            @Override
+            public void onMessages(final IRcvMessageBatch batch) {
+                final StringBuilder event = new StringBuilder("batch");
+                for (int i = 0; i < batch.size(); i++) {
+                    event.append(' ').append(batch.getSequenceNumber(i)).append(':').append(batch.getContents().getLong(batch.getContentOffset(i)));
+                }
+                events.add(event.toString());
+            }
+
+            @Override
+            public void onRequestReceived(final IRcvRequest receivedRequest) {
+                events.add("request " + ((RcvRequest) receivedRequest).getSequenceNumber());
+            }
+
+            @Override
+            public void onMessageLost(final IMsgLostReport lostReport) {
+                events.add("lost " + lostReport.getNumberLostMessages());
+            }
+        };
+        final Listener patternListener = new Listener();
+
+        final RcvBatchFlusher flusher = new RcvBatchFlusher();
+        topicSubscriber.setBatchFlusher(flusher);
+        topicSubscriber.setNormalListener(batchListener);
+        topicSubscriber.addPatternListener("pattern", patternListener);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), topicSubscriber);
+
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+        testMsg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testMsg.setContentLength(8);
+
+        final RcvRequest testRequest = new RcvRequest();
+        testRequest.setTopicName("topic1");
+        testRequest.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testRequest.setContentLength(8);
+
+        // The batch is delivered when flushed, the normal listeners receive the messages one by one
+        for (int i = 1; i <= 3; i++) {
+            testMsg.setSequenceNumber(i);
+            testMsg.getContents().putLong(0, i * 10);
+            topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        }
+
+        assertTrue(events.isEmpty());
+        assertEquals(3, patternListener.msgsReceived);
+        assertEquals(1, flusher.getNumPending());
+
+        assertEquals(1, flusher.flush());
+        assertEquals("batch 1:10 2:20 3:30", events.get(0));
+
+        // A request flushes the pending messages first
+        testMsg.setSequenceNumber(4);
+        testMsg.getContents().putLong(0, 40);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        testRequest.setSequenceNumber(5);
+        topicSubscriber.onRequestReceived(pubInfo, testRequest);
+
+        // A loss flushes the pending messages first too
+        testMsg.setSequenceNumber(6);
+        testMsg.getContents().putLong(0, 60);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        testMsg.setSequenceNumber(9);
+        testMsg.getContents().putLong(0, 90);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        // Scheduled again after each early flush, the extra flushes find the batch empty
+        assertEquals(3, flusher.flush());
+        assertEquals(0, flusher.flush());
+
+        assertEquals(6, events.size());
+        assertEquals("batch 4:40", events.get(1));
+        assertEquals("request 5", events.get(2));
+        assertEquals("batch 6:60", events.get(3));
+        assertEquals("lost 2", events.get(4));
+        assertEquals("batch 9:90", events.get(5));
+        assertEquals(6, patternListener.msgsReceived);
+        assertEquals(2, patternListener.msgsLost);
+
+        // Without batch listeners nothing is accumulated
+        topicSubscriber.removeNormalListener();
+        testMsg.setSequenceNumber(10);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        assertEquals(0, flusher.getNumPending());
+        assertEquals(7, patternListener.msgsReceived);
+    }
+
+    @Test
+    public void testBatchListenerWithoutFlusher() {
+        final List<Integer> batchSizes = new ArrayList<>();
+        topicSubscriber.setNormalListener(new ITopicBatchSubListener() {
+            @Override
+            public void onMessages(final IRcvMessageBatch batch) {
+                batchSizes.add(batch.size());
+            }
+
+            @Override
+            public void onRequestReceived(final IRcvRequest receivedRequest) {
+                // Not used
+            }
+        });
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), topicSubscriber);
+
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+        testMsg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testMsg.setContentLength(8);
+
+        // Each message is delivered as a batch of one
+        testMsg.setSequenceNumber(1);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+        testMsg.setSequenceNumber(2);
+        topicSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        assertEquals(2, batchSizes.size());
+        assertEquals(Integer.valueOf(1), batchSizes.get(1));
+    }
+
+    @Test
+    public void testControlledListeners() {
+        final List<RcvAction> nextActions = new ArrayList<>();
+        final List<Long> received = new ArrayList<>();
+        final ITopicSubListener controlledListener = new ITopicSubListener() {
+            @Override
+            public RcvAction onControlledMessageReceived(final IRcvMessage receivedMessage) {
+                received.add(((RcvMessage) receivedMessage).getSequenceNumber());
+                return nextActions.isEmpty() ? RcvAction.CONTINUE : nextActions.remove(0);
+            }
+
+            @Override
+            public void onMessageReceived(final IRcvMessage receivedMessage) {
+                Assert.fail("The controlled method is overridden");
+            }
+
+            @Override
+            public void onRequestReceived(final IRcvRequest receivedRequest) {
+                // Not used
+            }
+        };
+        final Listener patternListener = new Listener();
+
+        topicSubscriber.setNormalListener(controlledListener);
+        topicSubscriber.addPatternListener("pattern", patternListener);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), topicSubscriber);
+
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+        testMsg.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testMsg.setContentLength(8);
+
+        testMsg.setSequenceNumber(1);
+        assertEquals(RcvAction.CONTINUE, topicSubscriber.onMessageReceived(pubInfo, testMsg));
+
+        // Aborted after a gap, the message is expected again and the loss is only reported once
+        nextActions.add(RcvAction.ABORT);
+        testMsg.setSequenceNumber(4);
+        assertEquals(RcvAction.ABORT, topicSubscriber.onMessageReceived(pubInfo, testMsg));
+        assertEquals(4, pubInfo.getExpectedSequenceNumber());
+
+        nextActions.add(RcvAction.BREAK);
+        assertEquals(RcvAction.BREAK, topicSubscriber.onMessageReceived(pubInfo, testMsg));
+        assertEquals(5, pubInfo.getExpectedSequenceNumber());
+
+        assertEquals(3, received.size());
+        assertEquals(Long.valueOf(4), received.get(2));
+        assertEquals(3, patternListener.msgsReceived);
+        assertEquals(2, patternListener.msgsLost);
+
+        // Duplicated messages are not delivered
+        assertEquals(RcvAction.CONTINUE, topicSubscriber.onMessageReceived(pubInfo, testMsg));
+        assertEquals(3, received.size());
+
+        // Requests use the default implementation of the normal listener
+        final RcvRequest testRequest = new RcvRequest();
+        testRequest.setTopicName("topic1");
+        testRequest.setSequenceNumber(5);
+        testRequest.setUnsafeBufferContent(new UnsafeBuffer(ByteBuffer.allocate(8)));
+        testRequest.setContentLength(8);
+        assertEquals(RcvAction.CONTINUE, topicSubscriber.onRequestReceived(pubInfo, testRequest));
+        assertEquals(1, patternListener.requestsReceived);
+    }
+
+    @Test
+    public void testMostRestrictiveAction() {
+        assertEquals(RcvAction.CONTINUE, RcvAction.CONTINUE.mostRestrictive(RcvAction.CONTINUE));
+        assertEquals(RcvAction.COMMIT, RcvAction.CONTINUE.mostRestrictive(RcvAction.COMMIT));
+        assertEquals(RcvAction.BREAK, RcvAction.BREAK.mostRestrictive(RcvAction.COMMIT));
+        assertEquals(RcvAction.ABORT, RcvAction.BREAK.mostRestrictive(RcvAction.ABORT));
+        assertEquals(RcvAction.ABORT, RcvAction.ABORT.mostRestrictive(RcvAction.CONTINUE));
+    }
+
+    @Test
+    public void testGapRecovery() {
+        final TopicTemplateConfig gapConfig = TopicTemplateConfig.builder().name("gaps").retransmissionWindowSize(16).gapFillTimeout(100).build();
+        final TopicSubscriber gapSubscriber = new TopicSubscriber("topic1", gapConfig);
+        final Listener listener = new Listener();
+        gapSubscriber.setNormalListener(listener);
+
+        final ISubscribersPollerListener pollerListener = EasyMock.createNiceMock(ISubscribersPollerListener.class);
+        EasyMock.expect(pollerListener.requestRetransmission(EasyMock.anyObject(), EasyMock.eq(2L), EasyMock.eq(4L))).andReturn(true).once();
+        EasyMock.replay(pollerListener);
+
+        final RcvGapRecovery gapRecovery = new RcvGapRecovery(pollerListener);
+        gapSubscriber.setGapRecovery(gapRecovery);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), gapSubscriber);
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setTopicName("topic1");
+
+        // Gap of 3 messages, the retransmission is requested and the loss is not reported yet
+        testMsg.setSequenceNumber(1);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+        testMsg.setSequenceNumber(5);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        EasyMock.verify(pollerListener);
+        Assert.assertEquals(2, listener.msgsReceived);
+        Assert.assertEquals(0, listener.msgsLost);
+        Assert.assertTrue(pubInfo.hasPendingGap());
+        Assert.assertEquals(1, gapRecovery.getNumPendingGaps());
+        Assert.assertEquals(1, gapRecovery.getRetransmissionRequests());
+
+        // A new gap while the first one is pending is reported now
+        testMsg.setSequenceNumber(7);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+        Assert.assertEquals(1, listener.msgsLost);
+
+        // The retransmitted messages are delivered, the skipped ones are lost
+        testMsg.setSequenceNumber(3);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+        Assert.assertEquals(4, listener.msgsReceived);
+        Assert.assertEquals(2, listener.msgsLost);
+
+        // A duplicate of the retransmitted message is discarded and the expected sequence number is kept
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+        Assert.assertEquals(4, listener.msgsReceived);
+        Assert.assertEquals(8, pubInfo.getExpectedSequenceNumber());
+
+        // The gap is still pending until it expires
+        Assert.assertEquals(0, gapRecovery.expireGaps(System.nanoTime()));
+        Assert.assertEquals(1, gapRecovery.expireGaps(System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+        Assert.assertFalse(pubInfo.hasPendingGap());
+        Assert.assertFalse(gapRecovery.hasPendingGaps());
+        Assert.assertEquals(3, listener.msgsLost);
+        Assert.assertEquals(1, gapRecovery.getRecoveredMsgs());
+        Assert.assertEquals(2, gapRecovery.getUnrecoveredMsgs());
+    }
+
+    @Test
+    public void testGapRecoveryNotRequested() {
+        final TopicTemplateConfig gapConfig = TopicTemplateConfig.builder().name("gaps").retransmissionWindowSize(16).gapFillTimeout(100).build();
+        final TopicSubscriber gapSubscriber = new TopicSubscriber("topic1", gapConfig);
+        final Listener listener = new Listener();
+        gapSubscriber.setNormalListener(listener);
 
-        Assert.assertEquals(msgSequenceNumber + 1, topicSubscriber.getExpectedSeqNumByTopicPubId().get(topicPublisherId).get());
+        // The retransmission request cannot be sent
+        final ISubscribersPollerListener pollerListener = EasyMock.createNiceMock(ISubscribersPollerListener.class);
+        EasyMock.replay(pollerListener);
 
+        final RcvGapRecovery gapRecovery = new RcvGapRecovery(pollerListener);
+        gapSubscriber.setGapRecovery(gapRecovery);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), gapSubscriber);
+        final RcvMessage testMsg = new RcvMessage();
+        testMsg.setSequenceNumber(1);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+        testMsg.setSequenceNumber(5);
+        gapSubscriber.onMessageReceived(pubInfo, testMsg);
+
+        // The loss is reported now
+        Assert.assertEquals(3, listener.msgsLost);
+        Assert.assertFalse(pubInfo.hasPendingGap());
+        Assert.assertEquals(0, gapRecovery.getRetransmissionRequests());
+    }
 
-        // Remove topic publisher id from topic subscriber
-        topicSubscriber.onTopicPublisherRemoved(topicPublisherId);
+    @Test
+    public void testReordering() {
+        final TopicSubscriber reorderSubscriber = this.createReorderSubscriber(TopicTemplateConfig.builder().name("reorder").reorderWindowSize(4).reorderTimeout(10));
+        final RcvReorderTimeouts reorderTimeouts = new RcvReorderTimeouts();
+        reorderSubscriber.setReorderTimeouts(reorderTimeouts);
+        final Listener listener = new Listener();
+        reorderSubscriber.setNormalListener(listener);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), reorderSubscriber);
+
+        // 3 and 4 arrive before 2, they are held
+        this.receiveMessages(reorderSubscriber, pubInfo, 1, 3, 4, 4);
+        Assert.assertEquals(Arrays.asList(1L), listener.msgSequenceNumbers);
+        Assert.assertTrue(reorderTimeouts.hasHeldWindows());
+        Assert.assertEquals(2, pubInfo.getReorderWindow().getNumHeld());
+
+        // 2 releases the held ones in order, the duplicated 4 has been discarded
+        this.receiveMessages(reorderSubscriber, pubInfo, 2, 3);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), listener.msgSequenceNumbers);
+        Assert.assertEquals(0, listener.msgsLost);
+        Assert.assertEquals(5, pubInfo.getExpectedSequenceNumber());
+        Assert.assertFalse(reorderTimeouts.hasHeldWindows());
+
+        // 6 is held until the timeout expires, then 5 is reported as lost
+        this.receiveMessages(reorderSubscriber, pubInfo, 6);
+        Assert.assertEquals(0, reorderTimeouts.expireWindows(System.nanoTime()));
+        Assert.assertEquals(1, reorderTimeouts.expireWindows(System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L), listener.msgSequenceNumbers);
+        Assert.assertEquals(1, listener.msgsLost);
+        Assert.assertFalse(reorderTimeouts.hasHeldWindows());
+
+        // 8 is held, 14 is too far ahead, 8 is released with the loss of 7 and 14 is processed with the loss of 9 to 13
+        this.receiveMessages(reorderSubscriber, pubInfo, 8, 14);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L, 8L, 14L), listener.msgSequenceNumbers);
+        Assert.assertEquals(7, listener.msgsLost);
+        Assert.assertEquals(15, pubInfo.getExpectedSequenceNumber());
+
+        // A request releases the held messages before it, the ones after it are released once it is delivered
+        this.receiveMessages(reorderSubscriber, pubInfo, 16, 18);
+        final RcvRequest request = new RcvRequest();
+        request.setSequenceNumber(17);
+        reorderSubscriber.onRequestReceived(pubInfo, request);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L, 8L, 14L, 16L, 18L), listener.msgSequenceNumbers);
+        Assert.assertEquals(1, listener.requestsReceived);
+        Assert.assertEquals(8, listener.msgsLost);
+        Assert.assertFalse(reorderTimeouts.hasHeldWindows());
+    }
 
-        Assert.assertNull(topicSubscriber.getExpectedSeqNumByTopicPubId().get(topicPublisherId));
+    @Test
+    public void testReorderingWithGapRecovery() {
+        final TopicSubscriber reorderSubscriber = this.createReorderSubscriber(
+                TopicTemplateConfig.builder().name("reorder").reorderWindowSize(8).reorderTimeout(10).retransmissionWindowSize(16).gapFillTimeout(100));
+        final RcvReorderTimeouts reorderTimeouts = new RcvReorderTimeouts();
+        reorderSubscriber.setReorderTimeouts(reorderTimeouts);
+        final Listener listener = new Listener();
+        reorderSubscriber.setNormalListener(listener);
+
+        final ISubscribersPollerListener pollerListener = EasyMock.createNiceMock(ISubscribersPollerListener.class);
+        EasyMock.expect(pollerListener.requestRetransmission(EasyMock.anyObject(), EasyMock.anyLong(), EasyMock.anyLong())).andReturn(true).anyTimes();
+        EasyMock.replay(pollerListener);
+        final RcvGapRecovery gapRecovery = new RcvGapRecovery(pollerListener);
+        reorderSubscriber.setGapRecovery(gapRecovery);
+
+        final TopicPublisherInfo pubInfo = new TopicPublisherInfo(UUID.randomUUID(), UUID.randomUUID(), reorderSubscriber);
+
+        // The retransmission of 2 and 3 is requested, the window is held while the gap is pending
+        this.receiveMessages(reorderSubscriber, pubInfo, 1, 4);
+        Assert.assertTrue(pubInfo.isInPendingGap(2));
+        Assert.assertTrue(pubInfo.isInPendingGap(3));
+        Assert.assertEquals(0, reorderTimeouts.expireWindows(System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+
+        // The retransmitted messages are delivered in order
+        this.receiveMessages(reorderSubscriber, pubInfo, 2, 3);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), listener.msgSequenceNumbers);
+        Assert.assertFalse(pubInfo.hasPendingGap());
+        Assert.assertEquals(2, gapRecovery.getRecoveredMsgs());
+        Assert.assertEquals(0, listener.msgsLost);
+
+        // If the gap expires the held messages are released with the loss
+        this.receiveMessages(reorderSubscriber, pubInfo, 7, 6);
+        Assert.assertTrue(pubInfo.isInPendingGap(5));
+        Assert.assertEquals(1, gapRecovery.expireGaps(System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 6L, 7L), listener.msgSequenceNumbers);
+        Assert.assertEquals(1, listener.msgsLost);
+        Assert.assertEquals(1, gapRecovery.getUnrecoveredMsgs());
+        Assert.assertFalse(reorderTimeouts.hasHeldWindows());
+    }
+
+    private TopicSubscriber createReorderSubscriber(final TopicTemplateConfig.TopicTemplateConfigBuilder configBuilder) {
+        final TopicTemplateConfig reorderConfig = configBuilder.rcvPoller("poller").transportType(TransportMediaType.IPC).build();
+        try {
+            reorderConfig.completeAndValidateConfig();
+        } catch (final VegaException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return new TopicSubscriber("topic1", reorderConfig);
+    }
+
+    private void receiveMessages(final TopicSubscriber subscriber, final TopicPublisherInfo pubInfo, final long... sequenceNumbers) {
+        final UnsafeBuffer contents = new UnsafeBuffer(ByteBuffer.allocate(8));
+
+        for (final long sequenceNumber : sequenceNumbers) {
+            final RcvMessage msg = new RcvMessage();
+            msg.setTopicName("topic1");
+            msg.setSequenceNumber(sequenceNumber);
+            msg.setUnsafeBufferContent(contents);
+            msg.setContentOffset(0);
+            msg.setContentLength(8);
+            subscriber.onMessageReceived(pubInfo, msg);
+        }
     }
 
     private long getAeronSubsCount() {
@@ -183,10 +674,13 @@ public class TopicSubscriberTest {
 
         long msgsLost = 0;
 
+        final List<Long> msgSequenceNumbers = new ArrayList<>();
+
         @Override
         public void onMessageReceived(IRcvMessage receivedMessage) {
             this.msgsReceived++;
             this.msgSequenceNumber = ((RcvMessage) receivedMessage).getSequenceNumber();
+            this.msgSequenceNumbers.add(this.msgSequenceNumber);
         }
 
         @Override
@@ -217,10 +711,13 @@ public class TopicSubscriberTest {
         testRequest.setSequenceNumber(3333);
         testRequest.setTopicPublisherId(UUID.randomUUID());
 
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onRequestReceived(testRequest);
-        topicSubscriber.onRequestReceived(testRequest);
+        final TopicPublisherInfo msgPubInfo = new TopicPublisherInfo(null, testMsg.getTopicPublisherId(), topicSubscriber);
+        final TopicPublisherInfo reqPubInfo = new TopicPublisherInfo(null, testRequest.getTopicPublisherId(), topicSubscriber);
+
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
 
         Assert.assertEquals(1, normalListener.msgsReceived);
         Assert.assertEquals(1, normalListener.requestsReceived);
@@ -231,10 +728,10 @@ public class TopicSubscriberTest {
         topicSubscriber.addPatternListener("a.*", patternListener1);
         topicSubscriber.addPatternListener("b.*", patternListener2);
 
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onRequestReceived(testRequest);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
 
         assertEquals(2, normalListener.msgsReceived);
         assertEquals(2, normalListener.requestsReceived);
@@ -268,17 +765,20 @@ public class TopicSubscriberTest {
         testRequest.setSequenceNumber(3333);
         testRequest.setTopicPublisherId(UUID.randomUUID());
 
-        topicSubscriber.onMessageReceived(testMsg);
+        final TopicPublisherInfo msgPubInfo = new TopicPublisherInfo(null, testMsg.getTopicPublisherId(), topicSubscriber);
+        final TopicPublisherInfo reqPubInfo = new TopicPublisherInfo(null, testRequest.getTopicPublisherId(), topicSubscriber);
+
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
         //simulate gap of 10 msgs
         testMsg.setSequenceNumber(testMsg.getSequenceNumber() + 11);
-        topicSubscriber.onMessageReceived(testMsg);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
         //simulate gap of 10 msgs
         testMsg.setSequenceNumber(testMsg.getSequenceNumber() + 11);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
         //simulate gap of 10 rqs
         testRequest.setSequenceNumber(testRequest.getSequenceNumber() + 11);
         //simulate gap of 10 rqs
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
         testRequest.setSequenceNumber(testRequest.getSequenceNumber() + 11);
 
         Assert.assertEquals(2, normalListener.msgsReceived);
@@ -288,12 +788,12 @@ public class TopicSubscriberTest {
         topicSubscriber.addPatternListener("b.*", patternListener2);
 
         //4 Gaps (2 of msgs & 2 of rqs)
-        topicSubscriber.onMessageReceived(testMsg);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
         testMsg.setSequenceNumber(testMsg.getSequenceNumber() + 11);
-        topicSubscriber.onMessageReceived(testMsg);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onMessageReceived(msgPubInfo, testMsg);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
         testRequest.setSequenceNumber(testRequest.getSequenceNumber() + 11);
-        topicSubscriber.onRequestReceived(testRequest);
+        topicSubscriber.onRequestReceived(reqPubInfo, testRequest);
 
         assertEquals(4, normalListener.msgsReceived);
         assertEquals(4, normalListener.requestsReceived);
@@ -34,7 +34,7 @@ public class DelayedChangesArrayTest {
         this.delayedChangesArray = new DelayedChangesArray<>(String.class);
 
         // First apply changes if there are no changes
-        this.delayedChangesArray.applyPendingChanges();
+        Assert.assertFalse(this.delayedChangesArray.applyPendingChanges());
         Assert.assertEquals(this.delayedChangesArray.getNumElements(), 0);
 
         // Add some elements
@@ -54,8 +54,9 @@ public class DelayedChangesArrayTest {
         // Until changes are applied there should be no elements
         Assert.assertEquals(this.delayedChangesArray.getNumElements(), 0);
 
-        // Apply the changes
-        this.delayedChangesArray.applyPendingChanges();
+        // Apply the changes, there is nothing more to apply after that
+        Assert.assertTrue(this.delayedChangesArray.applyPendingChanges());
+        Assert.assertFalse(this.delayedChangesArray.applyPendingChanges());
 
         // Make sure changes have been applied
         Assert.assertEquals(this.delayedChangesArray.getNumElements(), 3);
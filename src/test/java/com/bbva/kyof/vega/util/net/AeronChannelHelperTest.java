@@ -87,6 +87,24 @@ public class AeronChannelHelperTest {
     }
 
 
+    @Test
+    public void createUnicastMdcChannelString() throws Exception {
+        Field reliable = AeronChannelHelper.class.getDeclaredField("reliable");
+        reliable.setAccessible(true);
+        reliable.setBoolean(null, true);
+
+        Assert.assertEquals(AeronChannelHelper.createUnicastMdcChannelString(), "aeron:udp?control-mode=manual");
+
+        reliable.setBoolean(null, false);
+
+        Assert.assertEquals(AeronChannelHelper.createUnicastMdcChannelString(), "aeron:udp?control-mode=manual|reliable=false");
+
+        reliable.setBoolean(null, true);
+
+        final int ip = InetUtil.convertIpAddressToInt("192.68.1.1");
+        Assert.assertEquals(AeronChannelHelper.createUnicastMdcDestinationString(ip, 35001), "aeron:udp?endpoint=192.68.1.1:35001");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void selectMcastIpFromWrongRange() {
         AeronChannelHelper.selectMcastIpFromRange("topic", "223.0.0.1", "223.0.0.1");
@@ -129,6 +147,12 @@ public class AeronChannelHelperTest {
         Assert.assertEquals("223.0.0.1", selectedIp);
     }
 
+    @Test
+    public void getNumMcastIpsInRange() {
+        Assert.assertEquals(1, AeronChannelHelper.getNumMcastIpsInRange("223.0.0.1", "223.0.0.2"));
+        Assert.assertEquals(6, AeronChannelHelper.getNumMcastIpsInRange("225.0.0.9", "225.0.0.20"));
+    }
+
     @Test
     public void selectPortFromRange() {
         // Try with diferent topic names
@@ -5,8 +5,10 @@ import org.agrona.concurrent.SleepingIdleStrategy;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created by cnebrera on 29/07/16.
@@ -48,4 +50,46 @@ public class RecurrentTaskTest {
         // There should lot of executions
         Assert.assertTrue(numActions.get() > 100);
     }
+
+    @Test
+    public void startWithParams() throws Exception {
+        final AtomicReference<Thread> taskThread = new AtomicReference<>();
+        final AtomicReference<int[]> pinnedCpus = new AtomicReference<>();
+        final AtomicReference<Thread> pinnedThread = new AtomicReference<>();
+        final CountDownLatch actionLatch = new CountDownLatch(1);
+
+        ThreadAffinity.setAffinitySetter(cpus -> {
+            pinnedCpus.set(cpus);
+            pinnedThread.set(Thread.currentThread());
+            return true;
+        });
+
+        final RecurrentTask recurrentTask = new RecurrentTask(idleStrategy) {
+            @Override
+            public int action() {
+                taskThread.set(Thread.currentThread());
+                actionLatch.countDown();
+                return 0;
+            }
+
+            @Override
+            public void cleanUp() {
+            }
+        };
+
+        try {
+            recurrentTask.start("test", ThreadParams.builder().name("custom").cpuAffinity(new int[]{0}).priority(Thread.MAX_PRIORITY).daemon(true).build());
+            Assert.assertTrue(actionLatch.await(5, TimeUnit.SECONDS));
+            recurrentTask.close();
+        } finally {
+            ThreadAffinity.setAffinitySetter(new TasksetAffinitySetter());
+        }
+
+        // The thread pins itself before the first action
+        Assert.assertEquals("custom", taskThread.get().getName());
+        Assert.assertTrue(taskThread.get().isDaemon());
+        Assert.assertEquals(Thread.MAX_PRIORITY, taskThread.get().getPriority());
+        Assert.assertSame(taskThread.get(), pinnedThread.get());
+        Assert.assertArrayEquals(new int[]{0}, pinnedCpus.get());
+    }
 }
\ No newline at end of file
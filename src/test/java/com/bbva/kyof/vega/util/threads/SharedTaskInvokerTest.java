@@ -0,0 +1,123 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.agrona.concurrent.SleepingIdleStrategy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class SharedTaskInvokerTest {
+    private SharedTaskInvoker invoker;
+
+    @Before
+    public void before() {
+        invoker = new SharedTaskInvoker("invoker");
+        invoker.start();
+    }
+
+    @After
+    public void after() {
+        invoker.close();
+    }
+
+    @Test
+    public void tasksRunOnInvokingThread() {
+        final CountingTask task1 = new CountingTask();
+        final CountingTask task2 = new CountingTask();
+
+        task1.start("task1", ThreadParams.DEFAULT, invoker);
+        task2.start("task2", ThreadParams.DEFAULT, invoker);
+
+        // Nothing is executed until the application invokes
+        Assert.assertEquals(0, task1.numActions);
+
+        Assert.assertEquals(2, invoker.invoke());
+        Assert.assertEquals(2, invoker.invoke());
+        Assert.assertEquals(2, task1.numActions);
+        Assert.assertEquals(2, task2.numActions);
+        Assert.assertSame(Thread.currentThread(), task1.actionThread);
+
+        // Closing a task removes it from the invoker without blocking
+        task1.close();
+        Assert.assertTrue(task1.cleanedUp);
+        invoker.invoke();
+        Assert.assertEquals(2, task1.numActions);
+        Assert.assertEquals(3, task2.numActions);
+
+        // Closing the invoker stops the remaining tasks
+        invoker.close();
+        Assert.assertTrue(task2.cleanedUp);
+        Assert.assertEquals(0, invoker.invoke());
+        task2.close();
+    }
+
+    @Test
+    public void errorDoesNotStopTheInvoker() {
+        final CountingTask failingTask = new CountingTask() {
+            @Override
+            public int action() {
+                super.action();
+                throw new IllegalStateException("Expected test error");
+            }
+        };
+        final CountingTask task = new CountingTask();
+
+        failingTask.start("failing", ThreadParams.DEFAULT, invoker);
+        task.start("task", ThreadParams.DEFAULT, invoker);
+
+        invoker.invoke();
+        invoker.invoke();
+        Assert.assertEquals(2, failingTask.numActions);
+        Assert.assertEquals(2, task.numActions);
+    }
+
+    @Test
+    public void taskClosedFromAction() {
+        final CountingTask task = new CountingTask();
+        final CountingTask closingTask = new CountingTask() {
+            @Override
+            public int action() {
+                super.action();
+                task.close();
+                return 0;
+            }
+        };
+
+        closingTask.start("closing", ThreadParams.DEFAULT, invoker);
+        task.start("task", ThreadParams.DEFAULT, invoker);
+
+        invoker.invoke();
+        Assert.assertTrue(task.cleanedUp);
+        Assert.assertEquals(0, task.numActions);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addToClosedInvoker() {
+        invoker.close();
+        new CountingTask().start("task", ThreadParams.DEFAULT, invoker);
+    }
+
+    private static class CountingTask extends RecurrentTask {
+        int numActions = 0;
+        Thread actionThread;
+        boolean cleanedUp = false;
+
+        CountingTask() {
+            super(new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+
+        @Override
+        public int action() {
+            actionThread = Thread.currentThread();
+            numActions++;
+            return 1;
+        }
+
+        @Override
+        public void cleanUp() {
+            cleanedUp = true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.agrona.concurrent.SleepingIdleStrategy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SharedTaskRunnerTest {
+    private SharedTaskRunner runner;
+
+    @Before
+    public void before() {
+        runner = new SharedTaskRunner("shared", new SleepingIdleStrategy(TimeUnit.MICROSECONDS.toNanos(100)), ThreadParams.DEFAULT);
+        runner.start();
+    }
+
+    @After
+    public void after() {
+        runner.close();
+    }
+
+    @Test
+    public void tasksShareTheThread() throws Exception {
+        final CountingTask task1 = new CountingTask();
+        final CountingTask task2 = new CountingTask();
+
+        task1.start("task1", ThreadParams.DEFAULT, runner);
+        task2.start("task2", ThreadParams.DEFAULT, runner);
+
+        waitForActions(task1);
+        waitForActions(task2);
+
+        Assert.assertEquals("shared", task1.actionThread.get().getName());
+        Assert.assertSame(task1.actionThread.get(), task2.actionThread.get());
+
+        // Closing a task removes it from the runner, the other one keeps running
+        task1.close();
+        Assert.assertTrue(task1.cleanedUp.get());
+        final int task1Actions = task1.numActions.get();
+
+        final int task2Actions = task2.numActions.get();
+        Thread.sleep(50);
+        Assert.assertTrue(task2.numActions.get() > task2Actions);
+        Assert.assertEquals(task1Actions, task1.numActions.get());
+        Assert.assertFalse(task2.cleanedUp.get());
+
+        // Closing the runner stops the remaining tasks
+        runner.close();
+        Assert.assertTrue(task2.cleanedUp.get());
+
+        // Closing the task after the runner doesn't block
+        task2.close();
+    }
+
+    @Test
+    public void errorDoesNotStopTheRunner() throws Exception {
+        final CountingTask failingTask = new CountingTask() {
+            @Override
+            public int action() {
+                super.action();
+                throw new IllegalStateException("Expected test error");
+            }
+        };
+        final CountingTask task = new CountingTask();
+
+        failingTask.start("failing", ThreadParams.DEFAULT, runner);
+        task.start("task", ThreadParams.DEFAULT, runner);
+
+        waitForActions(task);
+        Assert.assertTrue(failingTask.numActions.get() > 0);
+
+        failingTask.close();
+        task.close();
+    }
+
+    @Test
+    public void withoutSharedRunner() throws Exception {
+        final CountingTask task = new CountingTask();
+        task.start("dedicated", ThreadParams.DEFAULT, null);
+
+        waitForActions(task);
+        Assert.assertEquals("dedicated", task.actionThread.get().getName());
+
+        task.close();
+        Assert.assertTrue(task.cleanedUp.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addToClosedRunner() {
+        runner.close();
+        new CountingTask().start("task", ThreadParams.DEFAULT, runner);
+    }
+
+    private static void waitForActions(final CountingTask task) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (task.numActions.get() < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(task.numActions.get() >= 10);
+    }
+
+    private static class CountingTask extends RecurrentTask {
+        final AtomicInteger numActions = new AtomicInteger();
+        final AtomicReference<Thread> actionThread = new AtomicReference<>();
+        final AtomicBoolean cleanedUp = new AtomicBoolean();
+
+        CountingTask() {
+            super(new SleepingIdleStrategy(TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+
+        @Override
+        public int action() {
+            actionThread.set(Thread.currentThread());
+            numActions.incrementAndGet();
+            return 0;
+        }
+
+        @Override
+        public void cleanUp() {
+            cleanedUp.set(true);
+        }
+    }
+}
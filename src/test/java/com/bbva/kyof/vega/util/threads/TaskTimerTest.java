@@ -0,0 +1,106 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TaskTimerTest {
+    @Test
+    public void dedicatedThread() throws Exception {
+        final TaskTimer timer = new TaskTimer("TestTimer");
+        final CountingTask task = new CountingTask();
+
+        timer.scheduleAtFixedRate(task, 0, 10);
+        waitForExecutions(task, 3);
+        Assert.assertEquals("TestTimer", task.executionThread.get().getName());
+
+        timer.cancel();
+        timer.purge();
+    }
+
+    @Test
+    public void sharedInvoker() throws Exception {
+        final SharedTaskInvoker invoker = new SharedTaskInvoker("invoker");
+        final TaskTimer timer = new TaskTimer("TestTimer", invoker);
+        final CountingTask fixedRateTask = new CountingTask();
+        final CountingTask fixedDelayTask = new CountingTask();
+        final CountingTask delayedTask = new CountingTask();
+
+        timer.scheduleAtFixedRate(fixedRateTask, 0, 10);
+        timer.schedule(fixedDelayTask, 0, 10);
+        timer.schedule(delayedTask, 60_000, 10);
+
+        // Nothing is executed until the application invokes
+        Assert.assertEquals(0, fixedRateTask.numExecutions.get());
+
+        Assert.assertEquals(2, invoker.invoke());
+        Assert.assertSame(Thread.currentThread(), fixedRateTask.executionThread.get());
+        Assert.assertEquals(1, fixedDelayTask.numExecutions.get());
+
+        // Not due yet
+        Assert.assertEquals(0, invoker.invoke());
+
+        Thread.sleep(20);
+        invoker.invoke();
+        Assert.assertEquals(2, fixedRateTask.numExecutions.get());
+        Assert.assertEquals(2, fixedDelayTask.numExecutions.get());
+        Assert.assertEquals(0, delayedTask.numExecutions.get());
+
+        // Cancelled tasks are not executed
+        fixedRateTask.cancel();
+        timer.purge();
+        Thread.sleep(20);
+        invoker.invoke();
+        Assert.assertEquals(2, fixedRateTask.numExecutions.get());
+        Assert.assertEquals(3, fixedDelayTask.numExecutions.get());
+
+        // Cancelling the timer removes its task from the invoker
+        timer.cancel();
+        Thread.sleep(20);
+        Assert.assertEquals(0, invoker.invoke());
+        Assert.assertEquals(3, fixedDelayTask.numExecutions.get());
+
+        invoker.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void scheduleOnCancelledTimer() {
+        final SharedTaskInvoker invoker = new SharedTaskInvoker("invoker");
+        final TaskTimer timer = new TaskTimer("TestTimer", invoker);
+        timer.cancel();
+
+        try {
+            timer.schedule(new CountingTask(), 0, 10);
+        } finally {
+            invoker.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void scheduleOnCancelledDedicatedTimer() {
+        final TaskTimer timer = new TaskTimer("TestTimer");
+        timer.cancel();
+        timer.schedule(new CountingTask(), 0, 10);
+    }
+
+    private static void waitForExecutions(final CountingTask task, final int executions) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (task.numExecutions.get() < executions && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue(task.numExecutions.get() >= executions);
+    }
+
+    private static class CountingTask extends BlockCancelTask {
+        final AtomicInteger numExecutions = new AtomicInteger();
+        final AtomicReference<Thread> executionThread = new AtomicReference<>();
+
+        @Override
+        public void action() {
+            executionThread.set(Thread.currentThread());
+            numExecutions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bbva.kyof.vega.util.threads;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThreadParamsTest {
+    @Test
+    public void selectName() {
+        Assert.assertEquals("default", ThreadParams.DEFAULT.selectName("default"));
+        Assert.assertEquals("custom", ThreadParams.builder().name("custom").build().selectName("default"));
+    }
+
+    @Test
+    public void forGroupMember() {
+        Assert.assertSame(ThreadParams.DEFAULT, ThreadParams.DEFAULT.forGroupMember(1));
+
+        final ThreadParams params = ThreadParams.builder().name("worker").cpuAffinity(new int[]{2, 3}).priority(6).daemon(false).build();
+        final ThreadParams member = params.forGroupMember(1);
+
+        Assert.assertEquals("worker-1", member.getName());
+        Assert.assertArrayEquals(new int[]{2, 3}, member.getCpuAffinity());
+        Assert.assertEquals(6, member.getPriority().intValue());
+        Assert.assertFalse(member.getDaemon());
+    }
+
+    @Test
+    public void cpuAffinityIsCopied() {
+        final int[] cpus = new int[]{1};
+        final ThreadParams params = ThreadParams.builder().cpuAffinity(cpus).build();
+
+        params.getCpuAffinity()[0] = 5;
+        Assert.assertArrayEquals(new int[]{1}, params.getCpuAffinity());
+        Assert.assertFalse(ThreadParams.builder().cpuAffinity(new int[0]).build().hasCpuAffinity());
+    }
+}